@@ -21,6 +21,7 @@ import com.linkedin.common.callback.Callback;
 import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.clients.DynamicClient;
+import com.linkedin.d2.balancer.clients.HedgingPolicy;
 import com.linkedin.d2.balancer.zkfs.ZKFSTogglingLoadBalancerFactoryImpl;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
@@ -35,6 +36,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
@@ -76,10 +78,11 @@ public class D2ClientBuilder
                   _config.shutdownAsynchronously,
                   _config.isSymlinkAware,
                   _config.clientServicesConfig);
+    cfg.degraderUpdateExecutor = _config.degraderUpdateExecutor;
 
     final LoadBalancerWithFacilities loadBalancer = loadBalancerFactory.create(cfg);
 
-    D2Client d2Client = new DynamicClient(loadBalancer, loadBalancer);
+    D2Client d2Client = new DynamicClient(loadBalancer, loadBalancer, _config.hedgingPolicy);
 
     /**
      * If we created default transport client factories, we need to shut them down when d2Client
@@ -177,6 +180,27 @@ public class D2ClientBuilder
     return this;
   }
 
+  /**
+   * Specify the {@link HedgingPolicy} under which a backup request is sent to another host when an idempotent
+   * request is slow. If not specified, no backup requests are sent.
+   */
+  public D2ClientBuilder setHedgingPolicy(HedgingPolicy hedgingPolicy)
+  {
+    _config.hedgingPolicy = hedgingPolicy;
+    return this;
+  }
+
+  /**
+   * Specify the executor on which degrader (degraderV3) strategies recompute the states of their partitions, instead
+   * of on the request thread which finds a state expired. Caller is responsible to maintain the life cycle of the
+   * executor. If not specified, states are updated on request threads.
+   */
+  public D2ClientBuilder setDegraderUpdateExecutor(ScheduledExecutorService degraderUpdateExecutor)
+  {
+    _config.degraderUpdateExecutor = degraderUpdateExecutor;
+    return this;
+  }
+
   /**
    * Specify {@link TransportClientFactory} to generate the client for specific protocol.
    * Caller is responsible to maintain the life cycle of the factories.
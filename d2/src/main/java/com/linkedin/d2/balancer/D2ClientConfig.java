@@ -17,10 +17,12 @@ package com.linkedin.d2.balancer;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
 
+import com.linkedin.d2.balancer.clients.HedgingPolicy;
 import com.linkedin.d2.balancer.zkfs.ZKFSTogglingLoadBalancerFactoryImpl;
 import com.linkedin.d2.balancer.zkfs.ZKFSTogglingLoadBalancerFactoryImpl.ComponentFactory;
 import com.linkedin.r2.transport.common.TransportClientFactory;
@@ -45,6 +47,8 @@ public class D2ClientConfig
   boolean shutdownAsynchronously = false;
   boolean isSymlinkAware = false;
   Map<String, Map<String, Object>> clientServicesConfig = Collections.<String, Map<String, Object>>emptyMap();
+  HedgingPolicy hedgingPolicy = null;
+  ScheduledExecutorService degraderUpdateExecutor = null;
 
   public D2ClientConfig()
   {
@@ -21,6 +21,7 @@ import com.linkedin.common.callback.Callback;
 import com.linkedin.common.util.None;
 import com.linkedin.d2.balancer.D2Client;
 import com.linkedin.d2.balancer.Facilities;
+import com.linkedin.d2.balancer.KeyMapper;
 import com.linkedin.d2.balancer.LoadBalancer;
 import com.linkedin.d2.balancer.ServiceUnavailableException;
 import com.linkedin.d2.balancer.properties.ServiceProperties;
@@ -37,6 +38,12 @@ import com.linkedin.r2.transport.common.bridge.client.TransportClientAdapter;
 import java.net.URI;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,11 +59,22 @@ public class DynamicClient extends AbstractClient implements D2Client
 
   private final LoadBalancer  _balancer;
   private final Facilities    _facilities;
+  private final HedgingPolicy _hedgingPolicy;
 
   public DynamicClient(LoadBalancer balancer, Facilities facilities)
+  {
+    this(balancer, facilities, null);
+  }
+
+  /**
+   * @param hedgingPolicy policy for sending a backup request to another host when an idempotent rest request is
+   *                      slow, or null to never send backup requests
+   */
+  public DynamicClient(LoadBalancer balancer, Facilities facilities, HedgingPolicy hedgingPolicy)
   {
     _balancer = balancer;
     _facilities = facilities;
+    _hedgingPolicy = hedgingPolicy;
     debug(_log, "created dynamic client: ", this);
   }
 
@@ -73,7 +91,15 @@ public class DynamicClient extends AbstractClient implements D2Client
 
       if (client != null)
       {
-        new TransportClientAdapter(client).restRequest(request, requestContext, callback);
+        TrackerClient trackerClient = getHedgeableTrackerClient(request, requestContext, client);
+        if (trackerClient == null)
+        {
+          new TransportClientAdapter(client).restRequest(request, requestContext, callback);
+        }
+        else
+        {
+          hedgedRestRequest(request, requestContext, callback, client, trackerClient);
+        }
       }
       else
       {
@@ -89,6 +115,104 @@ public class DynamicClient extends AbstractClient implements D2Client
     }
   }
 
+  /**
+   * @return the tracker client of the host the request is sent to if the request may be hedged, or null otherwise
+   */
+  private TrackerClient getHedgeableTrackerClient(RestRequest request,
+                                                  RequestContext requestContext,
+                                                  TransportClient client)
+  {
+    // requests for a given host, or sent through a target service hint, stay where they are sent
+    if (_hedgingPolicy == null
+        || !_hedgingPolicy.isHedgeable(request)
+        || KeyMapper.TargetHostHints.getRequestContextTargetHost(requestContext) != null
+        || !(client instanceof RewriteClient))
+    {
+      return null;
+    }
+
+    TransportClient wrappedClient = ((RewriteClient) client).getWrappedClient();
+    return (wrappedClient instanceof TrackerClient) ? (TrackerClient) wrappedClient : null;
+  }
+
+  private void hedgedRestRequest(final RestRequest request,
+                                 RequestContext requestContext,
+                                 Callback<RestResponse> callback,
+                                 TransportClient client,
+                                 final TrackerClient trackerClient)
+  {
+    _hedgingPolicy.onHedgeableRequest();
+
+    // the backup request gets a context of its own, copied before the first request can change it
+    final RequestContext backupRequestContext = new RequestContext(requestContext);
+    LoadBalancerUtil.ExcludedHostHints.addRequestContextExcludedHost(backupRequestContext, trackerClient.getUri());
+
+    final HedgedCallback hedgedCallback = new HedgedCallback(callback);
+    new TransportClientAdapter(client).restRequest(request, requestContext, hedgedCallback);
+
+    long delayMs = _hedgingPolicy.getDelayMs(trackerClient);
+    try
+    {
+      hedgedCallback.setTimeout(_hedgingPolicy.getExecutor().schedule(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          sendBackupRequest(request, backupRequestContext, trackerClient, hedgedCallback);
+        }
+      }, delayMs, TimeUnit.MILLISECONDS));
+    }
+    catch (RejectedExecutionException e)
+    {
+      warn(_log, "unable to schedule backup request for: ", request, ", ", e);
+    }
+  }
+
+  private void sendBackupRequest(RestRequest request,
+                                 RequestContext backupRequestContext,
+                                 TrackerClient trackerClient,
+                                 HedgedCallback hedgedCallback)
+  {
+    if (hedgedCallback.isDone())
+    {
+      return;
+    }
+    if (!_hedgingPolicy.tryAcquireHedge())
+    {
+      debug(_log, "hedging budget exhausted, not sending backup request for: ", request);
+      return;
+    }
+
+    TransportClient backupClient;
+    try
+    {
+      backupClient = _balancer.getClient(request, backupRequestContext);
+    }
+    catch (ServiceUnavailableException e)
+    {
+      debug(_log, "no host for backup request: ", request, ", ", e);
+      return;
+    }
+    catch (RuntimeException e)
+    {
+      warn(_log, "unable to get client for backup request: ", request, ", ", e);
+      return;
+    }
+
+    if (backupClient == null
+        || (backupClient instanceof RewriteClient && ((RewriteClient) backupClient).getWrappedClient() == trackerClient))
+    {
+      debug(_log, "no other host for backup request: ", request);
+      return;
+    }
+
+    if (hedgedCallback.startBackupRequest())
+    {
+      debug(_log, "sending backup request: ", request);
+      new TransportClientAdapter(backupClient).restRequest(request, backupRequestContext, hedgedCallback);
+    }
+  }
+
   @Override
   @Deprecated
   @SuppressWarnings("deprecation")
@@ -171,4 +295,86 @@ public class DynamicClient extends AbstractClient implements D2Client
     }
     return Collections.emptyMap();
   }
+
+  /**
+   * Completes the callback of a hedged request with the first successful response of the first and the backup
+   * request. An error is only passed on when no other request is outstanding, and it is the first error received.
+   * Requests cannot be cancelled once sent, so the response which comes second is dropped.
+   */
+  private static class HedgedCallback implements Callback<RestResponse>
+  {
+    private final Callback<RestResponse> _callback;
+    private final AtomicBoolean _done = new AtomicBoolean();
+    private final AtomicInteger _outstanding = new AtomicInteger(1);
+    private final AtomicReference<Throwable> _error = new AtomicReference<Throwable>();
+    private volatile Future<?> _timeout;
+
+    HedgedCallback(Callback<RestResponse> callback)
+    {
+      _callback = callback;
+    }
+
+    boolean isDone()
+    {
+      return _done.get();
+    }
+
+    void setTimeout(Future<?> timeout)
+    {
+      _timeout = timeout;
+      if (_done.get())
+      {
+        timeout.cancel(false);
+      }
+    }
+
+    /**
+     * @return true if the backup request should be sent, which is when the first request is still outstanding
+     */
+    boolean startBackupRequest()
+    {
+      while (true)
+      {
+        int outstanding = _outstanding.get();
+        if (outstanding == 0 || _done.get())
+        {
+          return false;
+        }
+        if (_outstanding.compareAndSet(outstanding, outstanding + 1))
+        {
+          return true;
+        }
+      }
+    }
+
+    @Override
+    public void onSuccess(RestResponse result)
+    {
+      if (_done.compareAndSet(false, true))
+      {
+        cancelTimeout();
+        _callback.onSuccess(result);
+      }
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+      _error.compareAndSet(null, e);
+      if (_outstanding.decrementAndGet() == 0 && _done.compareAndSet(false, true))
+      {
+        cancelTimeout();
+        _callback.onError(_error.get());
+      }
+    }
+
+    private void cancelTimeout()
+    {
+      Future<?> timeout = _timeout;
+      if (timeout != null)
+      {
+        timeout.cancel(false);
+      }
+    }
+  }
 }
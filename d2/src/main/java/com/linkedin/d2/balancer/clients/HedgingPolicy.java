@@ -0,0 +1,176 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.clients;
+
+
+import com.linkedin.common.stats.LongStats;
+import com.linkedin.r2.message.rest.RestRequest;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Decides which requests {@link DynamicClient} hedges, how long it waits before sending the backup request, and
+ * whether the hedging budget allows another backup request.
+ *
+ * Only requests whose effective HTTP method is GET are hedged, which covers the idempotent Rest.li methods GET,
+ * BATCH_GET, FINDER and GET_ALL, also when they are tunneled through POST. The delay is a percentile of the latencies
+ * the call tracker of the host recorded in its last interval, so that only requests slower than most requests to the
+ * same host are hedged. The budget allows one backup request per {@code 1 / budgetRatio} hedgeable requests, with
+ * bursts of up to {@code maxBurst} backup requests, so that hedging cannot multiply the load of an overloaded cluster.
+ *
+ * A policy keeps the budget of the client it is given to, so it should not be shared between clients.
+ */
+public class HedgingPolicy
+{
+  private static final String HEADER_METHOD_OVERRIDE = "X-HTTP-Method-Override";
+  private static final String GET = "GET";
+  private static final long MILLI_TOKENS = 1000L;
+
+  private final ScheduledExecutorService _executor;
+  private final int _latencyPercentile;
+  private final long _minDelayMs;
+  private final long _defaultDelayMs;
+  private final long _milliTokensPerRequest;
+  private final long _maxMilliTokens;
+  private final AtomicLong _milliTokens;
+
+  /**
+   * @param executor executor on which backup requests are scheduled
+   * @param latencyPercentile percentile of the host latencies used as the delay; one of 50, 90, 95 and 99
+   * @param minDelayMs lower bound of the delay
+   * @param defaultDelayMs delay used when the host completed no calls in the last interval
+   * @param budgetRatio maximum number of backup requests per hedgeable request, between 0 and 1
+   * @param maxBurst maximum number of backup requests which can be sent in a row
+   */
+  public HedgingPolicy(ScheduledExecutorService executor,
+                       int latencyPercentile,
+                       long minDelayMs,
+                       long defaultDelayMs,
+                       double budgetRatio,
+                       int maxBurst)
+  {
+    if (latencyPercentile != 50 && latencyPercentile != 90 && latencyPercentile != 95 && latencyPercentile != 99)
+    {
+      throw new IllegalArgumentException("Unsupported latency percentile: " + latencyPercentile);
+    }
+    if (budgetRatio < 0 || budgetRatio > 1)
+    {
+      throw new IllegalArgumentException("Budget ratio must be between 0 and 1: " + budgetRatio);
+    }
+    if (maxBurst < 1)
+    {
+      throw new IllegalArgumentException("Max burst must be positive: " + maxBurst);
+    }
+
+    _executor = executor;
+    _latencyPercentile = latencyPercentile;
+    _minDelayMs = minDelayMs;
+    _defaultDelayMs = defaultDelayMs;
+    _milliTokensPerRequest = Math.round(budgetRatio * MILLI_TOKENS);
+    _maxMilliTokens = maxBurst * MILLI_TOKENS;
+    _milliTokens = new AtomicLong();
+  }
+
+  public ScheduledExecutorService getExecutor()
+  {
+    return _executor;
+  }
+
+  /**
+   * @return true if the request is idempotent, and may therefore be sent twice
+   */
+  public boolean isHedgeable(RestRequest request)
+  {
+    String method = request.getMethod();
+    if (GET.equalsIgnoreCase(method))
+    {
+      return true;
+    }
+    return "POST".equalsIgnoreCase(method) && GET.equalsIgnoreCase(request.getHeader(HEADER_METHOD_OVERRIDE));
+  }
+
+  /**
+   * @return how long to wait for a response from the given host before sending a backup request
+   */
+  public long getDelayMs(TrackerClient trackerClient)
+  {
+    LongStats callTimeStats = trackerClient.getCallTracker().getCallStats().getCallTimeStats();
+    if (callTimeStats.getCount() == 0)
+    {
+      return _defaultDelayMs;
+    }
+
+    long latency;
+    switch (_latencyPercentile)
+    {
+      case 50:
+        latency = callTimeStats.get50Pct();
+        break;
+      case 90:
+        latency = callTimeStats.get90Pct();
+        break;
+      case 95:
+        latency = callTimeStats.get95Pct();
+        break;
+      default:
+        latency = callTimeStats.get99Pct();
+        break;
+    }
+    return Math.max(_minDelayMs, latency);
+  }
+
+  /**
+   * Adds the share of a hedgeable request to the budget.
+   */
+  public void onHedgeableRequest()
+  {
+    while (true)
+    {
+      long milliTokens = _milliTokens.get();
+      if (milliTokens >= _maxMilliTokens)
+      {
+        return;
+      }
+      long newMilliTokens = Math.min(_maxMilliTokens, milliTokens + _milliTokensPerRequest);
+      if (_milliTokens.compareAndSet(milliTokens, newMilliTokens))
+      {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return true if the budget allows a backup request, which is then taken from the budget
+   */
+  public boolean tryAcquireHedge()
+  {
+    while (true)
+    {
+      long milliTokens = _milliTokens.get();
+      if (milliTokens < MILLI_TOKENS)
+      {
+        return false;
+      }
+      if (_milliTokens.compareAndSet(milliTokens, milliTokens - MILLI_TOKENS))
+      {
+        return true;
+      }
+    }
+  }
+}
@@ -38,7 +38,7 @@ import com.linkedin.util.clock.SystemClock;
 import com.linkedin.util.clock.Time;
 import com.linkedin.util.degrader.CallCompletion;
 import com.linkedin.util.degrader.CallTracker;
-import com.linkedin.util.degrader.CallTrackerImpl;
+import com.linkedin.util.degrader.StripedCallTrackerImpl;
 import com.linkedin.util.degrader.Degrader;
 import com.linkedin.util.degrader.DegraderControl;
 import com.linkedin.util.degrader.DegraderImpl;
@@ -86,7 +86,7 @@ public class TrackerClient implements LoadBalancerClient
     {
       _uri = uri;
       _wrappedClient = wrappedClient;
-      _callTracker = new CallTrackerImpl(interval, clock);
+      _callTracker = new StripedCallTrackerImpl(interval, clock);
 
       if (config == null)
       {
@@ -570,6 +570,7 @@ public class SimpleLoadBalancer implements LoadBalancer, HashRingProvider, Clien
     }
 
     List<TrackerClient> clientsToLoadBalance = null;
+    Set<URI> excludedHosts = LoadBalancerUtil.ExcludedHostHints.getRequestContextExcludedHosts(requestContext);
 
     for (LoadBalancerState.SchemeStrategyPair pair : orderedStrategies)
     {
@@ -583,6 +584,11 @@ public class SimpleLoadBalancer implements LoadBalancer, HashRingProvider, Clien
       trackerClient =
           strategy.getTrackerClient(request, requestContext, uriItem.getVersion(), partitionId, clientsToLoadBalance);
 
+      if (trackerClient != null && !excludedHosts.isEmpty() && excludedHosts.contains(trackerClient.getUri()))
+      {
+        trackerClient = chooseNotExcludedTrackerClient(partitionId, clientsToLoadBalance, excludedHosts);
+      }
+
       debug(_log,
             "load balancer strategy for ",
             serviceName,
@@ -619,6 +625,37 @@ public class SimpleLoadBalancer implements LoadBalancer, HashRingProvider, Clien
     return trackerClient;
   }
 
+  /**
+   * Picks a random client among those which are not excluded by the request, for a request whose strategy chose an
+   * excluded host. The strategy is not asked again, since it may keep choosing the same host for the same request.
+   */
+  private TrackerClient chooseNotExcludedTrackerClient(int partitionId,
+                                                       List<TrackerClient> trackerClients,
+                                                       Set<URI> excludedHosts)
+  {
+    List<TrackerClient> candidates = new ArrayList<TrackerClient>(trackerClients.size());
+    for (TrackerClient trackerClient : trackerClients)
+    {
+      if (!excludedHosts.contains(trackerClient.getUri()))
+      {
+        candidates.add(trackerClient);
+      }
+    }
+    if (candidates.isEmpty())
+    {
+      debug(_log, "all hosts are excluded: ", excludedHosts);
+      return null;
+    }
+
+    TrackerClient trackerClient = candidates.get(_random.nextInt(candidates.size()));
+    if (trackerClient.getDegrader(partitionId).checkDrop())
+    {
+      warn(_log, "client's degrader is dropping call for: ", trackerClient);
+      return null;
+    }
+    return trackerClient;
+  }
+
   private void die(String serviceName, String message) throws ServiceUnavailableException
   {
     _serviceUnavailableStats.inc();
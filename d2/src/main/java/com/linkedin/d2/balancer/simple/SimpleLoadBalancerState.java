@@ -27,6 +27,7 @@ import com.linkedin.d2.balancer.properties.AllowedClientPropertyKeys;
 import com.linkedin.d2.balancer.properties.PropertyKeys;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderConfigFactory;
 import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyConfig;
+import com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerStrategyV3;
 import com.linkedin.r2.transport.http.client.HttpClientFactory;
 import com.linkedin.util.clock.SystemClock;
 import com.linkedin.util.degrader.DegraderImpl;
@@ -402,6 +403,11 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
           }
         }), transportClients.size());
 
+        for (Map<String, LoadBalancerStrategy> strategies : _serviceStrategies.values())
+        {
+          shutdownStrategies(strategies);
+        }
+
         info(_log, "shutting down cluster clients");
 
         for (TransportClient transportClient : transportClients)
@@ -1119,6 +1125,7 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
         }
 
         shutdownClients(listenTo);
+        shutdownStrategies(_serviceStrategies.get(listenTo));
 
       }
     }
@@ -1380,6 +1387,25 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
     }
   }
 
+  /**
+   * Stops the background work of strategies which are no longer used, so that they do not keep updating the
+   * degraders of tracker clients shared with the strategies that replaced them.
+   */
+  private static void shutdownStrategies(Map<String, LoadBalancerStrategy> strategies)
+  {
+    if (strategies == null)
+    {
+      return;
+    }
+    for (LoadBalancerStrategy strategy : strategies.values())
+    {
+      if (strategy instanceof DegraderLoadBalancerStrategyV3)
+      {
+        ((DegraderLoadBalancerStrategyV3) strategy).shutdown();
+      }
+    }
+  }
+
   void refreshServiceStrategies(ServiceProperties serviceProperties)
   {
     info(_log, "refreshing service strategies for service: ", serviceProperties);
@@ -1473,6 +1499,7 @@ public class SimpleLoadBalancerState implements LoadBalancerState, ClientFactory
         }
 
       }
+      shutdownStrategies(oldStrategies);
     }
 
     // we need to inform the listeners of the strategy removal before the strategy add, otherwise
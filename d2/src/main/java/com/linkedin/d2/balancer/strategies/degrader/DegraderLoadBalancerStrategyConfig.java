@@ -17,6 +17,8 @@
 package com.linkedin.d2.balancer.strategies.degrader;
 
 import com.linkedin.d2.balancer.properties.PropertyKeys;
+import com.linkedin.d2.balancer.util.hashing.RingPointHash;
+import com.linkedin.d2.balancer.util.hashing.URIRegexHash;
 import java.util.Collections;
 import java.util.Map;
 
@@ -33,6 +35,7 @@ public class DegraderLoadBalancerStrategyConfig
   private final int    _pointsPerWeight;
   private final String _hashMethod;
   private final Map<String,Object> _hashConfig;
+  private final RingPointHash _ringPointHash;
   private final Clock _clock;
   private static final Logger _log = LoggerFactory.getLogger(DegraderLoadBalancerStrategyConfig.class);
 
@@ -121,6 +124,7 @@ public class DegraderLoadBalancerStrategyConfig
     _pointsPerWeight = pointsPerWeight;
     _hashMethod = hashMethod;
     _hashConfig = Collections.unmodifiableMap(hashConfig);
+    _ringPointHash = createRingPointHash(hashConfig);
     _clock = clock;
     _initialRecoveryLevel = initialRecoveryLevel;
     _ringRampFactor = ringRampFactor;
@@ -232,6 +236,15 @@ public class DegraderLoadBalancerStrategyConfig
     return _hashConfig;
   }
 
+  /**
+   * @return The generator for the points of the consistent hash ring, as selected by the
+   * {@link URIRegexHash#KEY_HASH_ALGORITHM} entry of the hash config.
+   */
+  public RingPointHash getRingPointHash()
+  {
+    return _ringPointHash;
+  }
+
   public long getMinClusterCallCountLowWaterMark()
   {
     return _minClusterCallCountLowWaterMark;
@@ -280,4 +293,10 @@ public class DegraderLoadBalancerStrategyConfig
             + ", _ringRampFactor=" + _ringRampFactor + ", _globalStepUp=" + _globalStepUp
             + ", _globalStepDown=" + _globalStepDown + ", _pointsPerWeight=" + _pointsPerWeight + "]";
   }
+
+  private static RingPointHash createRingPointHash(Map<String,Object> hashConfig)
+  {
+    return URIRegexHash.getRingPointHash(MapUtil.getWithDefault(hashConfig, URIRegexHash.KEY_HASH_ALGORITHM,
+                                                                URIRegexHash.HASH_ALGORITHM_MD5));
+  }
 }
@@ -21,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static com.linkedin.d2.discovery.util.LogUtil.debug;
 
@@ -29,8 +30,20 @@ public class DegraderLoadBalancerStrategyFactoryV3 implements
 {
   private static final Logger  _log =
                LoggerFactory.getLogger(DegraderLoadBalancerStrategyFactoryV3.class);
+  private final ScheduledExecutorService _updateExecutor;
+
   public DegraderLoadBalancerStrategyFactoryV3()
   {
+    this(null);
+  }
+
+  /**
+   * @param updateExecutor executor on which the created strategies update their states, or null to update on
+   *                       request threads
+   */
+  public DegraderLoadBalancerStrategyFactoryV3(ScheduledExecutorService updateExecutor)
+  {
+    _updateExecutor = updateExecutor;
   }
 
   @Override
@@ -41,6 +54,6 @@ public class DegraderLoadBalancerStrategyFactoryV3 implements
     debug(_log, "created a degrader load balancer strategyV3");
 
     return new DegraderLoadBalancerStrategyV3(DegraderLoadBalancerStrategyConfig.createHttpConfigFromMap(strategyProperties),
-                                              serviceName, degraderProperties);
+                                              serviceName, degraderProperties, _updateExecutor);
   }
 }
@@ -72,6 +72,7 @@ public class DegraderLoadBalancerStrategyV2_1 implements LoadBalancerStrategy
   private volatile DegraderLoadBalancerStrategyConfig _config;
   private volatile HashFunction<Request>              _hashFunction;
   private volatile DegraderLoadBalancerState          _state;
+  private final TrackerClientIndex                    _clientIndex = new TrackerClientIndex();
 
   // this controls access to updateState: only one thread should update the state at any one time.
   private volatile Lock _lock;
@@ -151,15 +152,8 @@ public class DegraderLoadBalancerStrategyV2_1 implements LoadBalancerStrategy
     if (targetHostUri != null)
     {
       // These are the clients that were passed in, NOT necessarily the clients that make up the
-      // consistent hash ring! Therefore, this linear scan is the best we can do.
-      for (TrackerClient trackerClient : trackerClients)
-      {
-        if (trackerClient.getUri().equals(targetHostUri))
-        {
-          client = trackerClient;
-          break;
-        }
-      }
+      // consistent hash ring! The index is built from them once per cluster generation.
+      client = _clientIndex.get(clusterGenerationId, trackerClients, targetHostUri);
 
       if (client == null)
       {
@@ -23,6 +23,7 @@ import com.linkedin.d2.balancer.util.hashing.ConsistentHashRing;
 import com.linkedin.d2.balancer.util.hashing.HashFunction;
 import com.linkedin.d2.balancer.util.hashing.RandomHash;
 import com.linkedin.d2.balancer.util.hashing.Ring;
+import com.linkedin.d2.balancer.util.hashing.RingPointHash;
 import com.linkedin.d2.balancer.util.hashing.URIRegexHash;
 import com.linkedin.d2.balancer.util.partitions.DefaultPartitionAccessor;
 import com.linkedin.r2.message.Request;
@@ -30,6 +31,7 @@ import com.linkedin.r2.message.RequestContext;
 import com.linkedin.util.clock.Clock;
 import com.linkedin.util.degrader.DegraderControl;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
@@ -40,7 +42,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -71,12 +78,34 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
   private volatile DegraderLoadBalancerStrategyConfig _config;
   private volatile HashFunction<Request>              _hashFunction;
   private final DegraderLoadBalancerState _state;
+  private final ScheduledExecutorService              _updateExecutor;
+  private final Set<BackgroundUpdate>                 _pendingUpdates =
+      Collections.newSetFromMap(new ConcurrentHashMap<BackgroundUpdate, Boolean>());
+  private volatile boolean                            _shutdown;
 
   public DegraderLoadBalancerStrategyV3(DegraderLoadBalancerStrategyConfig config,
                                         String serviceName,
                                         Map<String, String> degraderProperties)
+  {
+    this(config, serviceName, degraderProperties, null);
+  }
+
+  /**
+   * If an update executor is given, the state of each partition is recomputed on it once per update interval,
+   * and as soon as a request sees a new cluster generation, instead of on the request thread which finds the
+   * state expired. Requests then only read the current state, except for the first request of a partition,
+   * which still builds the initial state because there is nothing to read yet. {@link #shutdown()} must be called
+   * once the strategy is no longer used, to stop the updates.
+   *
+   * @param updateExecutor executor for state updates, or null to update on request threads
+   */
+  public DegraderLoadBalancerStrategyV3(DegraderLoadBalancerStrategyConfig config,
+                                        String serviceName,
+                                        Map<String, String> degraderProperties,
+                                        ScheduledExecutorService updateExecutor)
   {
     _updateEnabled = true;
+    _updateExecutor = updateExecutor;
     setConfig(config);
     if (degraderProperties == null)
     {
@@ -109,7 +138,7 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
     }
 
     // only one thread will be allowed to enter updatePartitionState for any partition
-    checkUpdatePartitionState(clusterGenerationId, partitionId, trackerClients);
+    checkPartitionState(clusterGenerationId, partitionId, trackerClients);
 
     URI targetHostUri = KeyMapper.TargetHostHints.getRequestContextTargetHost(requestContext);
     URI hostHeaderUri = targetHostUri;
@@ -135,15 +164,9 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
     if (targetHostUri != null)
     {
       // These are the clients that were passed in, NOT necessarily the clients that make up the
-      // consistent hash ring! Therefore, this linear scan is the best we can do.
-      for (TrackerClient trackerClient : trackerClients)
-      {
-        if (trackerClient.getUri().equals(targetHostUri))
-        {
-          client = trackerClient;
-          break;
-        }
-      }
+      // consistent hash ring! The index is built from them once per cluster generation.
+      TrackerClientIndex clientIndex = _state.getPartition(partitionId).getClientIndex();
+      client = clientIndex.get(clusterGenerationId, trackerClients, targetHostUri);
 
       if (client == null)
       {
@@ -176,6 +199,116 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
     return (!dropCall) ? client : null;
   }
 
+  private void checkPartitionState(long clusterGenerationId, int partitionId, List<TrackerClient> trackerClients)
+  {
+    if (_updateExecutor == null || _shutdown)
+    {
+      checkUpdatePartitionState(clusterGenerationId, partitionId, trackerClients);
+    }
+    else
+    {
+      checkBackgroundPartitionState(clusterGenerationId, partitionId, trackerClients);
+    }
+  }
+
+  /*
+   * checkBackgroundPartitionState
+   *
+   * Used when states are updated on the update executor. Once a partition is initialized, this only hands a new
+   * cluster generation and its tracker clients over to the executor; it never updates the state or takes the
+   * partition lock itself.
+   */
+  private void checkBackgroundPartitionState(long clusterGenerationId, int partitionId, List<TrackerClient> trackerClients)
+  {
+    final Partition partition = _state.getPartition(partitionId);
+    final PartitionDegraderLoadBalancerState state = partition.getState();
+
+    if (!state.isInitialized())
+    {
+      checkUpdatePartitionState(clusterGenerationId, partitionId, trackerClients);
+      partition.setBackgroundUpdateInput(new BackgroundUpdateInput(clusterGenerationId, trackerClients));
+      if (partition.startBackgroundUpdates())
+      {
+        scheduleBackgroundUpdate(partitionId, true, getConfig().getUpdateIntervalMs());
+      }
+    }
+    else if (state.getClusterGenerationId() != clusterGenerationId)
+    {
+      BackgroundUpdateInput input = partition.getBackgroundUpdateInput();
+      if (input == null || input.getClusterGenerationId() != clusterGenerationId)
+      {
+        partition.setBackgroundUpdateInput(new BackgroundUpdateInput(clusterGenerationId, trackerClients));
+        scheduleBackgroundUpdate(partitionId, false, 0);
+      }
+    }
+  }
+
+  private void scheduleBackgroundUpdate(int partitionId, boolean periodic, long delayMs)
+  {
+    if (_shutdown)
+    {
+      return;
+    }
+    final BackgroundUpdate update = new BackgroundUpdate(this, partitionId, periodic);
+    _pendingUpdates.add(update);
+    try
+    {
+      update.setFuture(_updateExecutor.schedule(update, delayMs, TimeUnit.MILLISECONDS));
+    }
+    catch (RejectedExecutionException e)
+    {
+      _pendingUpdates.remove(update);
+      warn(_log, "update executor rejected the state update of partition: ", partitionId, ", ", e);
+    }
+    // shutdown() may have run before the future was set
+    if (_shutdown)
+    {
+      update.cancel();
+    }
+  }
+
+  private void runBackgroundUpdate(BackgroundUpdate update, int partitionId, boolean periodic)
+  {
+    _pendingUpdates.remove(update);
+    if (_shutdown)
+    {
+      return;
+    }
+    final Partition partition = _state.getPartition(partitionId);
+    try
+    {
+      final BackgroundUpdateInput input = partition.getBackgroundUpdateInput();
+      final DegraderLoadBalancerStrategyConfig config = getConfig();
+      final Lock lock = partition.getLock();
+
+      lock.lock();
+      try
+      {
+        if (shouldUpdatePartition(input.getClusterGenerationId(), partition.getState(), config, _updateEnabled))
+        {
+          debug(_log, "updating in background for cluster generation id: ", input.getClusterGenerationId(),
+                ", partitionId: ", partitionId);
+          updatePartitionState(input.getClusterGenerationId(), partition, input.getTrackerClients(), config);
+        }
+      }
+      finally
+      {
+        lock.unlock();
+      }
+    }
+    catch (RuntimeException e)
+    {
+      _log.error("Failed to update state in background for partition: " + partitionId, e);
+    }
+    finally
+    {
+      if (periodic && !_shutdown)
+      {
+        scheduleBackgroundUpdate(partitionId, true, getConfig().getUpdateIntervalMs());
+      }
+    }
+  }
+
   /*
    * checkUpdatePartitionState
    *
@@ -635,7 +768,9 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
                                         newRecoveryMap,
                                         oldState.getServiceName(),
                                         oldState.getDegraderProperties(),
-                                        totalClusterCallCount);
+                                        totalClusterCallCount,
+                                        config.getRingPointHash(),
+                                        oldState);
 
       logState(oldState, newState, partitionId, config, trackerClientUpdaters);
     }
@@ -709,7 +844,9 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
                                             oldRecoveryMap,
                                             oldState.getServiceName(),
                                             oldState.getDegraderProperties(),
-                                            oldState.getCurrentClusterCallCount());
+                                            oldState.getCurrentClusterCallCount(),
+                                            config.getRingPointHash(),
+                                            oldState);
 
       logState(oldState, newState, partitionId, config, trackerClientUpdaters);
 
@@ -853,7 +990,7 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
   @Override
   public Ring<URI> getRing(long clusterGenerationId, int partitionId, List<TrackerClient> trackerClients)
   {
-    checkUpdatePartitionState(clusterGenerationId, partitionId, trackerClients);
+    checkPartitionState(clusterGenerationId, partitionId, trackerClients);
     return _state.getRing(partitionId);
   }
 
@@ -889,11 +1026,33 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
                                              oldState.getRecoveryMap(),
                                              oldState.getServiceName(),
                                              oldState.getDegraderProperties(),
-                                             oldState.getCurrentClusterCallCount());
+                                             oldState.getCurrentClusterCallCount(),
+                                             _config.getRingPointHash(),
+                                             oldState);
 
     partition.setState(newState);
   }
 
+  /**
+   * Stops the state updates on the update executor and cancels the pending ones. An update which is already running
+   * completes. Should the strategy still be used afterwards, states are updated on request threads instead, as if
+   * no update executor had been given.
+   */
+  public void shutdown()
+  {
+    _shutdown = true;
+    for (BackgroundUpdate update : _pendingUpdates)
+    {
+      _pendingUpdates.remove(update);
+      update.cancel();
+    }
+  }
+
+  public boolean isShutdown()
+  {
+    return _shutdown;
+  }
+
   @Override
   public String toString()
   {
@@ -907,11 +1066,80 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
     return _state.getPartitionState(DefaultPartitionAccessor.DEFAULT_PARTITION_ID).getCurrentOverrideDropRate();
   }
 
+  /**
+   * Runs a state update of one partition on the update executor. Updates stop when the strategy is shut down; only a
+   * weak reference to the strategy is held so that one which is never shut down is still not kept alive by them.
+   */
+  private static class BackgroundUpdate implements Runnable
+  {
+    private final WeakReference<DegraderLoadBalancerStrategyV3> _strategy;
+    private final int _partitionId;
+    private final boolean _periodic;
+    private volatile Future<?> _future;
+
+    BackgroundUpdate(DegraderLoadBalancerStrategyV3 strategy, int partitionId, boolean periodic)
+    {
+      _strategy = new WeakReference<DegraderLoadBalancerStrategyV3>(strategy);
+      _partitionId = partitionId;
+      _periodic = periodic;
+    }
+
+    @Override
+    public void run()
+    {
+      DegraderLoadBalancerStrategyV3 strategy = _strategy.get();
+      if (strategy != null)
+      {
+        strategy.runBackgroundUpdate(this, _partitionId, _periodic);
+      }
+    }
+
+    void setFuture(Future<?> future)
+    {
+      _future = future;
+    }
+
+    void cancel()
+    {
+      Future<?> future = _future;
+      if (future != null)
+      {
+        future.cancel(false);
+      }
+    }
+  }
+
+  /** The latest cluster generation and tracker clients seen by requests, for updates on the update executor. */
+  private static class BackgroundUpdateInput
+  {
+    private final long _clusterGenerationId;
+    private final List<TrackerClient> _trackerClients;
+
+    BackgroundUpdateInput(long clusterGenerationId, List<TrackerClient> trackerClients)
+    {
+      _clusterGenerationId = clusterGenerationId;
+      _trackerClients = Collections.unmodifiableList(new ArrayList<TrackerClient>(trackerClients));
+    }
+
+    public long getClusterGenerationId()
+    {
+      return _clusterGenerationId;
+    }
+
+    public List<TrackerClient> getTrackerClients()
+    {
+      return _trackerClients;
+    }
+  }
+
   private static class Partition
   {
     private final int _id;
     private final Lock _lock;
     private volatile PartitionDegraderLoadBalancerState _state;
+    private volatile BackgroundUpdateInput _backgroundUpdateInput;
+    private final AtomicBoolean _backgroundUpdatesStarted = new AtomicBoolean();
+    private final TrackerClientIndex _clientIndex = new TrackerClientIndex();
 
     Partition(int id, Lock lock, PartitionDegraderLoadBalancerState state)
     {
@@ -943,6 +1171,29 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
       _state = state;
     }
 
+    public TrackerClientIndex getClientIndex()
+    {
+      return _clientIndex;
+    }
+
+    public BackgroundUpdateInput getBackgroundUpdateInput()
+    {
+      return _backgroundUpdateInput;
+    }
+
+    public void setBackgroundUpdateInput(BackgroundUpdateInput input)
+    {
+      _backgroundUpdateInput = input;
+    }
+
+    /**
+     * @return true for the one caller which should start the periodic updates of this partition
+     */
+    public boolean startBackgroundUpdates()
+    {
+      return _backgroundUpdatesStarted.compareAndSet(false, true);
+    }
+
     @Override
     public String toString()
     {
@@ -1102,9 +1353,33 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
                                          String serviceName,
                                          Map<String, String> degraderProperties,
                                          long currentClusterCallCount)
+    {
+      this(clusterGenerationId, lastUpdated, initState, pointsMap, strategy, currentOverrideDropRate,
+           currentAvgClusterLatency, recoveryMap, serviceName, degraderProperties, currentClusterCallCount,
+           null, null);
+    }
+
+    /**
+     * Creates a state whose hash ring is built from the points map with the given point hash.
+     * If a previous state is given, its ring is reused when the points did not change, and
+     * otherwise the points it already computed for each host are reused.
+     */
+    public PartitionDegraderLoadBalancerState(long clusterGenerationId,
+                                         long lastUpdated,
+                                         boolean initState,
+                                         Map<URI,Integer> pointsMap,
+                                         Strategy strategy,
+                                         double currentOverrideDropRate,
+                                         double currentAvgClusterLatency,
+                                         Map<TrackerClient,Double> recoveryMap,
+                                         String serviceName,
+                                         Map<String, String> degraderProperties,
+                                         long currentClusterCallCount,
+                                         RingPointHash pointHash,
+                                         PartitionDegraderLoadBalancerState previousState)
     {
       _clusterGenerationId = clusterGenerationId;
-      _ring = new ConsistentHashRing<URI>(pointsMap);
+      _ring = createRing(pointsMap, pointHash, previousState);
       _pointsMap = (pointsMap != null) ?
             Collections.unmodifiableMap(new HashMap<URI,Integer>(pointsMap)) :
             Collections.<URI,Integer>emptyMap();
@@ -1124,6 +1399,31 @@ public class DegraderLoadBalancerStrategyV3 implements LoadBalancerStrategy
       _currentClusterCallCount = currentClusterCallCount;
     }
 
+    @SuppressWarnings("unchecked")
+    private static Ring<URI> createRing(Map<URI,Integer> pointsMap,
+                                        RingPointHash pointHash,
+                                        PartitionDegraderLoadBalancerState previousState)
+    {
+      if (pointHash == null)
+      {
+        return new ConsistentHashRing<URI>(pointsMap);
+      }
+      if (previousState != null && previousState._ring instanceof ConsistentHashRing)
+      {
+        ConsistentHashRing<URI> previousRing = (ConsistentHashRing<URI>) previousState._ring;
+        if (pointHash.equals(previousRing.getPointHash()))
+        {
+          // rings are immutable, so an unchanged ring can be shared between states
+          if (previousState._pointsMap.equals(pointsMap))
+          {
+            return previousRing;
+          }
+          return new ConsistentHashRing<URI>(pointsMap, pointHash, previousRing);
+        }
+      }
+      return new ConsistentHashRing<URI>(pointsMap, pointHash);
+    }
+
     public Map<String, String> getDegraderProperties()
     {
       return _degraderProperties;
@@ -0,0 +1,108 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.strategies.degrader;
+
+
+import com.linkedin.d2.balancer.clients.TrackerClient;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Finds the tracker client for a host picked from the hash ring without scanning the client list on every request.
+ *
+ * The index maps URIs to the clients of the list it was built from, and is rebuilt when a request passes the clients
+ * of another cluster generation, or a list whose size or first client differs. A URI which is not in the index, e.g.
+ * because the ring and the client list disagree, is looked up by scanning the list passed with the request.
+ */
+class TrackerClientIndex
+{
+  private volatile Snapshot _snapshot;
+
+  /**
+   * @return the client with the given URI among the given clients, or null if there is none
+   */
+  public TrackerClient get(long clusterGenerationId, List<TrackerClient> trackerClients, URI uri)
+  {
+    Snapshot snapshot = _snapshot;
+    boolean rebuilt = false;
+    if (snapshot == null || !snapshot.matches(clusterGenerationId, trackerClients))
+    {
+      snapshot = new Snapshot(clusterGenerationId, trackerClients);
+      _snapshot = snapshot;
+      rebuilt = true;
+    }
+
+    TrackerClient client = snapshot.get(uri);
+    if (client == null && !rebuilt)
+    {
+      client = scan(trackerClients, uri);
+    }
+    return client;
+  }
+
+  private static TrackerClient scan(List<TrackerClient> trackerClients, URI uri)
+  {
+    for (TrackerClient trackerClient : trackerClients)
+    {
+      if (trackerClient.getUri().equals(uri))
+      {
+        return trackerClient;
+      }
+    }
+    return null;
+  }
+
+  private static class Snapshot
+  {
+    private final long _clusterGenerationId;
+    private final int _size;
+    private final TrackerClient _first;
+    private final Map<URI, TrackerClient> _clients;
+
+    Snapshot(long clusterGenerationId, List<TrackerClient> trackerClients)
+    {
+      _clusterGenerationId = clusterGenerationId;
+      _size = trackerClients.size();
+      _first = trackerClients.isEmpty() ? null : trackerClients.get(0);
+      _clients = new HashMap<URI, TrackerClient>((int) (_size / 0.75f) + 1);
+      for (TrackerClient trackerClient : trackerClients)
+      {
+        // keep the first client for a URI, as the linear scan did
+        if (!_clients.containsKey(trackerClient.getUri()))
+        {
+          _clients.put(trackerClient.getUri(), trackerClient);
+        }
+      }
+    }
+
+    boolean matches(long clusterGenerationId, List<TrackerClient> trackerClients)
+    {
+      return _clusterGenerationId == clusterGenerationId
+          && _size == trackerClients.size()
+          && (_size == 0 || _first == trackerClients.get(0));
+    }
+
+    TrackerClient get(URI uri)
+    {
+      return _clients.get(uri);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.strategies.leastloaded;
+
+import com.linkedin.d2.balancer.KeyMapper;
+import com.linkedin.d2.balancer.clients.TrackerClient;
+import com.linkedin.d2.balancer.strategies.LoadBalancerStrategy;
+import com.linkedin.d2.balancer.util.hashing.ConsistentHashRing;
+import com.linkedin.d2.balancer.util.hashing.Ring;
+import com.linkedin.r2.message.Request;
+import com.linkedin.r2.message.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.linkedin.d2.discovery.util.LogUtil.debug;
+import static com.linkedin.d2.discovery.util.LogUtil.warn;
+
+
+/**
+ * Picks two tracker clients at random and sends the request to the less loaded one ("power of two choices").
+ *
+ * The load of a client is the number of its outstanding calls, counting the new one, divided by its partition
+ * weight. The call tracker updates it as soon as calls start and end, so a host which slows down stops getting new
+ * calls without waiting for a state update interval. Equal loads are decided by the average latency of the last
+ * call tracker interval. As in the degrader strategies, the degrader of the chosen client may drop the call, in which
+ * case the other client is tried.
+ */
+public class LeastLoadedLoadBalancerStrategy implements LoadBalancerStrategy
+{
+  private static final Logger _log = LoggerFactory.getLogger(LeastLoadedLoadBalancerStrategy.class);
+
+  private final Random _random;
+  private final int _pointsPerWeight;
+  private final ConcurrentMap<Integer, PartitionRing> _rings;
+
+  /**
+   * @param pointsPerWeight number of points per unit of partition weight in the rings returned by
+   *                        {@link #getRing(long, int, List)}
+   */
+  public LeastLoadedLoadBalancerStrategy(int pointsPerWeight)
+  {
+    _random = new Random();
+    _pointsPerWeight = pointsPerWeight;
+    _rings = new ConcurrentHashMap<Integer, PartitionRing>();
+  }
+
+  @Override
+  public TrackerClient getTrackerClient(Request request,
+                                        RequestContext requestContext,
+                                        long clusterGenerationId,
+                                        int partitionId,
+                                        List<TrackerClient> trackerClients)
+  {
+    if (trackerClients == null || trackerClients.size() == 0)
+    {
+      warn(_log, "getTrackerClient called with null/empty trackerClients, so returning null");
+      return null;
+    }
+
+    URI targetHostUri = KeyMapper.TargetHostHints.getRequestContextTargetHost(requestContext);
+    if (targetHostUri != null)
+    {
+      return getTargetHostClient(targetHostUri, partitionId, trackerClients);
+    }
+
+    int size = trackerClients.size();
+    int firstIndex = _random.nextInt(size);
+    TrackerClient chosen = trackerClients.get(firstIndex);
+    TrackerClient other = null;
+    if (size > 1)
+    {
+      int secondIndex = _random.nextInt(size - 1);
+      if (secondIndex >= firstIndex)
+      {
+        secondIndex++;
+      }
+      TrackerClient second = trackerClients.get(secondIndex);
+      if (compareLoad(second, chosen, partitionId) < 0)
+      {
+        other = chosen;
+        chosen = second;
+      }
+      else
+      {
+        other = second;
+      }
+    }
+
+    if (!chosen.getDegrader(partitionId).checkDrop())
+    {
+      debug(_log, "returning client: ", chosen);
+      return chosen;
+    }
+    if (other != null && !other.getDegrader(partitionId).checkDrop())
+    {
+      debug(_log, "returning client: ", other, " because the degrader of ", chosen, " dropped the call");
+      return other;
+    }
+
+    warn(_log, "degraders of both chosen clients are dropping call for: ", chosen, ", ", other);
+    return null;
+  }
+
+  private static TrackerClient getTargetHostClient(URI targetHostUri, int partitionId, List<TrackerClient> trackerClients)
+  {
+    for (TrackerClient trackerClient : trackerClients)
+    {
+      if (trackerClient.getUri().equals(targetHostUri))
+      {
+        if (trackerClient.getDegrader(partitionId).checkDrop())
+        {
+          warn(_log, "client's degrader is dropping call for: ", trackerClient);
+          return null;
+        }
+        return trackerClient;
+      }
+    }
+
+    warn(_log, "No client found for " + targetHostUri + ", target host specified is no longer part of cluster");
+    return null;
+  }
+
+  /**
+   * @return a negative number if the first client is less loaded than the second, a positive number if it is more
+   *         loaded, and 0 if they are equally loaded
+   */
+  static int compareLoad(TrackerClient first, TrackerClient second, int partitionId)
+  {
+    int result = Double.compare(getLoad(first, partitionId), getLoad(second, partitionId));
+    if (result == 0)
+    {
+      result = Double.compare(getLatency(first), getLatency(second));
+    }
+    return result;
+  }
+
+  private static double getLoad(TrackerClient client, int partitionId)
+  {
+    Double weight = client.getPartitionWeight(partitionId);
+    if (weight == null || weight <= 0)
+    {
+      return Double.POSITIVE_INFINITY;
+    }
+    return (client.getCallTracker().getCurrentConcurrency() + 1) / weight;
+  }
+
+  private static double getLatency(TrackerClient client)
+  {
+    return client.getCallTracker().getCallStats().getCallTimeStats().getAverage();
+  }
+
+  /**
+   * Returns a ring in which each host has points in proportion to its partition weight, for mapping keys to hosts.
+   * The ring is built once per cluster generation.
+   */
+  @Override
+  public Ring<URI> getRing(long clusterGenerationId, int partitionId, List<TrackerClient> trackerClients)
+  {
+    PartitionRing partitionRing = _rings.get(partitionId);
+    if (partitionRing == null || partitionRing.getClusterGenerationId() != clusterGenerationId)
+    {
+      Map<URI, Integer> pointsMap = new HashMap<URI, Integer>();
+      for (TrackerClient trackerClient : trackerClients)
+      {
+        Double weight = trackerClient.getPartitionWeight(partitionId);
+        int points = (weight == null) ? 0 : (int) (weight * _pointsPerWeight);
+        pointsMap.put(trackerClient.getUri(), points);
+      }
+      partitionRing = new PartitionRing(clusterGenerationId, new ConsistentHashRing<URI>(pointsMap));
+      _rings.put(partitionId, partitionRing);
+    }
+    return partitionRing.getRing();
+  }
+
+  private static class PartitionRing
+  {
+    private final long _clusterGenerationId;
+    private final Ring<URI> _ring;
+
+    PartitionRing(long clusterGenerationId, Ring<URI> ring)
+    {
+      _clusterGenerationId = clusterGenerationId;
+      _ring = ring;
+    }
+
+    long getClusterGenerationId()
+    {
+      return _clusterGenerationId;
+    }
+
+    Ring<URI> getRing()
+    {
+      return _ring;
+    }
+  }
+}
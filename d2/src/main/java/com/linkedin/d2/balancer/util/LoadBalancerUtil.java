@@ -27,11 +27,14 @@ import java.io.StringReader;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -239,4 +242,39 @@ public class LoadBalancerUtil
       return (URI)context.getLocalAttr(TARGET_SERVICE_KEY_NAME);
     }
   }
+
+  public static class ExcludedHostHints
+  {
+    public static final String EXCLUDED_HOSTS_KEY_NAME = "D2-Hint-ExcludedHosts";
+
+    /**
+     * Inserts a hint in RequestContext instructing D2 not to route the request to the given host,
+     * if the partition has any other host to route it to.
+     * @param context RequestContext for the request which will be made
+     * @param excludedHost URI of the host, as announced in the cluster, to be avoided
+     */
+    @SuppressWarnings("unchecked")
+    public static void addRequestContextExcludedHost(RequestContext context, URI excludedHost)
+    {
+      Set<URI> excludedHosts = (Set<URI>)context.getLocalAttr(EXCLUDED_HOSTS_KEY_NAME);
+      if (excludedHosts == null)
+      {
+        excludedHosts = new HashSet<URI>();
+        context.putLocalAttr(EXCLUDED_HOSTS_KEY_NAME, excludedHosts);
+      }
+      excludedHosts.add(excludedHost);
+    }
+
+    /**
+     * Looks for excluded host hints in the RequestContext.
+     * @param context RequestContext for the request
+     * @return URIs of the excluded hosts, which is empty if no hint is present in the RequestContext
+     */
+    @SuppressWarnings("unchecked")
+    public static Set<URI> getRequestContextExcludedHosts(RequestContext context)
+    {
+      Set<URI> excludedHosts = (Set<URI>)context.getLocalAttr(EXCLUDED_HOSTS_KEY_NAME);
+      return excludedHosts == null ? Collections.<URI>emptySet() : Collections.unmodifiableSet(excludedHosts);
+    }
+  }
 }
@@ -29,7 +29,9 @@ import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -168,6 +170,11 @@ public class ConsistentHashKeyMapper
   private <K> MapKeyResult<URI, K> doMapKeys(Ring<URI> ring, Iterable<K> keys)
       throws ServiceUnavailableException
   {
+    if (ring instanceof ConsistentHashRing && keys instanceof Collection)
+    {
+      return doMapKeysBatched((ConsistentHashRing<URI>) ring, (Collection<K>) keys);
+    }
+
     String[] keyTokens = new String[1];
     List<MapKeyResult.UnmappedKey<K>> unmappedKeys = new ArrayList<MapKeyResult.UnmappedKey<K>>();
     Map<URI, Collection<K>> result = new HashMap<URI, Collection<K>>();
@@ -194,4 +201,90 @@ public class ConsistentHashKeyMapper
     return new MapKeyResult<URI, K>(result, unmappedKeys);
   }
 
+  /**
+   * Maps a batch of keys onto a {@link ConsistentHashRing} without a binary search per key. All
+   * keys are hashed up front, the hashes are sorted once and then merged against the ring points,
+   * which are already sorted. The result, including the order of keys within each host's
+   * collection, is the same as calling {@link ConsistentHashRing#get(int)} for each key.
+   */
+  @SuppressWarnings("unchecked")
+  private <K> MapKeyResult<URI, K> doMapKeysBatched(ConsistentHashRing<URI> ring, Collection<K> keys)
+  {
+    final int[] points = ring.getRing();
+    final Object[] objects = ring.getObjects();
+    final int keyCount = keys.size();
+    final Object[] keyArray = keys.toArray();
+
+    if (objects.length == 0)
+    {
+      List<MapKeyResult.UnmappedKey<K>> unmappedKeys = new ArrayList<MapKeyResult.UnmappedKey<K>>(keyCount);
+      for (Object key : keyArray)
+      {
+        unmappedKeys.add(new MapKeyResult.UnmappedKey<K>((K) key, MapKeyResult.ErrorType.NO_HOST_AVAILABLE_IN_PARTITION));
+      }
+      return new MapKeyResult<URI, K>(Collections.<URI, Collection<K>>emptyMap(), unmappedKeys);
+    }
+
+    // pack the signed hash into the high bits and the key position into the low bits, so that a
+    // single primitive sort orders the keys by hash without boxing
+    String[] keyTokens = new String[1];
+    long[] hashAndPosition = new long[keyCount];
+    for (int i = 0; i < keyCount; i++)
+    {
+      keyTokens[0] = keyArray[i].toString();
+      hashAndPosition[i] = ((long) _hashFunction.hash(keyTokens) << 32) | i;
+    }
+    Arrays.sort(hashAndPosition);
+
+    // walk the sorted hashes and the ring points together to find, for every key, the first point
+    // at or after its hash, wrapping around to the first point past the end of the ring
+    URI[] hosts = new URI[keyCount];
+    int pointIndex = 0;
+    for (long entry : hashAndPosition)
+    {
+      int hashCode = (int) (entry >> 32);
+      while (pointIndex < points.length && points[pointIndex] < hashCode)
+      {
+        pointIndex++;
+      }
+
+      URI host;
+      if (pointIndex < points.length && points[pointIndex] == hashCode)
+      {
+        // with duplicate points the binary search in get() may settle on any of them, so defer to it
+        host = ring.get(hashCode);
+      }
+      else
+      {
+        host = (URI) objects[pointIndex % objects.length];
+      }
+      hosts[(int) entry] = host;
+    }
+
+    // group in the original key order, sizing each collection exactly
+    Map<URI, int[]> counts = new HashMap<URI, int[]>();
+    for (URI host : hosts)
+    {
+      int[] count = counts.get(host);
+      if (count == null)
+      {
+        count = new int[1];
+        counts.put(host, count);
+      }
+      count[0]++;
+    }
+
+    Map<URI, Collection<K>> result = new HashMap<URI, Collection<K>>(counts.size() * 4 / 3 + 1);
+    for (int i = 0; i < keyCount; i++)
+    {
+      Collection<K> collection = result.get(hosts[i]);
+      if (collection == null)
+      {
+        collection = new ArrayList<K>(counts.get(hosts[i])[0]);
+        result.put(hosts[i], collection);
+      }
+      collection.add((K) keyArray[i]);
+    }
+    return new MapKeyResult<URI, K>(result, Collections.<MapKeyResult.UnmappedKey<K>>emptyList());
+  }
 }
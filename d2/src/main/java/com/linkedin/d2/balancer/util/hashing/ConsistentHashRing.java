@@ -17,18 +17,18 @@
 package com.linkedin.d2.balancer.util.hashing;
 
 import static com.linkedin.d2.discovery.util.LogUtil.debug;
-import static com.linkedin.d2.discovery.util.LogUtil.error;
 import static com.linkedin.d2.discovery.util.LogUtil.warn;
 
 import java.nio.charset.Charset;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.Map.Entry;
 
 import org.slf4j.Logger;
@@ -40,6 +40,10 @@ import org.slf4j.LoggerFactory;
  * given. Based on the key, the algorithm will deterministically pick an object in the
  * ring with probability based on the number of points it has relative to the total amount
  * points in the ring.
+ * <p/>
+ * The points of each object are produced by a {@link RingPointHash}. Because point generation
+ * is prefix-stable, a ring can be built from a previous ring, reusing the points that were
+ * already computed for objects whose point count did not grow.
  *
  * @param <T>
  */
@@ -48,44 +52,67 @@ public class ConsistentHashRing<T> implements Ring<T>
   private static final Logger  _log = LoggerFactory.getLogger(ConsistentHashRing.class);
   private static final Charset UTF8 = Charset.forName("UTF-8");
 
-  private final MessageDigest  _md;
-  private final SortedSet<Point<T>> _points;
+  private static final RingPointHash DEFAULT_POINT_HASH = new DigestRingPointHash();
+
+  private final RingPointHash  _pointHash;
+
+  // the points computed for every object in this ring, kept so that later rings can reuse them.
+  // An array may be longer than the number of points the object currently has.
+  private final Map<T, int[]>  _pointCache;
 
   private T[]                  _objects;
   private int[]                _ring;
 
   public ConsistentHashRing(Map<T, Integer> pointMap)
   {
-    _points = new TreeSet<Point<T>>();
-
-    try
-    {
-      _md = MessageDigest.getInstance("MD5");
-    }
-    catch (NoSuchAlgorithmException e)
-    {
-      error(_log, "unable to get md5 hash function");
+    this(pointMap, DEFAULT_POINT_HASH, null);
+  }
 
-      throw new RuntimeException(e);
-    }
+  public ConsistentHashRing(Map<T, Integer> pointMap, MessageDigest md)
+  {
+    this(pointMap, new DigestRingPointHash(md), null);
+  }
 
-    add(pointMap);
+  public ConsistentHashRing(Map<T, Integer> pointMap, RingPointHash pointHash)
+  {
+    this(pointMap, pointHash, null);
   }
 
-  public ConsistentHashRing(Map<T, Integer> pointMap, MessageDigest md)
+  /**
+   * Creates a ring, reusing the points computed by the previous ring where possible.
+   *
+   * @param pointMap the number of points for each object
+   * @param pointHash generates the points of each object
+   * @param previous a previous ring, possibly null. Its points are only reused if it was built
+   *                 with an equal {@link RingPointHash}.
+   */
+  public ConsistentHashRing(Map<T, Integer> pointMap, RingPointHash pointHash, ConsistentHashRing<T> previous)
   {
-    _points = new TreeSet<Point<T>>();
-    _md = md;
+    _pointHash = pointHash;
+    _pointCache = new HashMap<T, int[]>(pointMap.size() * 4 / 3 + 1);
 
-    add(pointMap);
+    add(pointMap, previous != null && pointHash.equals(previous._pointHash) ? previous._pointCache : null);
   }
 
   /**
    * Add objects to the ring with the specified number of points.
    */
-  @SuppressWarnings("unchecked")
   protected void add(Map<T, Integer> pointMap)
   {
+    add(pointMap, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void add(Map<T, Integer> pointMap, Map<T, int[]> previousPoints)
+  {
+    // objects are numbered in iteration order, and each point is packed into a long with the
+    // hash in the high bits and the object number in the low bits. Sorting the longs orders the
+    // points by hash, and among equal hashes by insertion order.
+    final List<T> objects = new ArrayList<T>(pointMap.size());
+    final List<int[]> hashes = new ArrayList<int[]>(pointMap.size());
+    final List<Integer> counts = new ArrayList<Integer>(pointMap.size());
+    int total = 0;
+
     for (Entry<T, Integer> point : pointMap.entrySet())
     {
       T t = point.getKey();
@@ -98,45 +125,52 @@ public class ConsistentHashRing<T> implements Ring<T>
         throw new NullPointerException("null values in hash ring are unsupported");
       }
 
-      byte[] bytesToHash = t.toString().getBytes(UTF8);
-
-      // start the bytes to hash as the node's uri
-      byte[] hash = null;
-
-      for (int i = 0; i < points; ++i)
+      if (points > 0)
       {
-        int iMod4 = i % 4;
-        int iMod4TimesFour = iMod4 * 4;
-
-        // if we've used the same hash 4 times, reset it
-        if (iMod4 == 0)
+        int[] tHashes = previousPoints == null ? null : previousPoints.get(t);
+        if (tHashes == null || tHashes.length < points)
         {
-          hash = _md.digest(bytesToHash);
-
-          // Roll the new hash as the next set of bytes to hash. This way we continue
-          // generating unique hashes for a given client URI.
-          bytesToHash = hash;
+          tHashes = _pointHash.hashPoints(t.toString().getBytes(UTF8), points);
         }
+        _pointCache.put(t, tHashes);
 
-        // compute a hash from MIN_INT to MAX_INT
-        int hashInt =
-            hash[iMod4TimesFour] + (hash[iMod4TimesFour + 1] << 8)
-                + (hash[iMod4TimesFour + 2] << 16) + (hash[iMod4TimesFour + 3] << 24);
+        objects.add(t);
+        hashes.add(tHashes);
+        counts.add(points);
+        total += points;
+      }
+    }
 
-        _points.add(new Point<T>(t, hashInt));
+    final long[] packed = new long[total];
+    int n = 0;
+    for (int index = 0; index < objects.size(); index++)
+    {
+      final int[] tHashes = hashes.get(index);
+      final int points = counts.get(index);
+      for (int i = 0; i < points; i++)
+      {
+        packed[n++] = ((long) tHashes[i] << 32) | index;
       }
     }
+    Arrays.sort(packed);
 
-    _objects = (T[]) new Object[_points.size()];
-    _ring = new int[_points.size()];
+    // collapse points with equal hashes, keeping the first object added
+    int size = 0;
+    for (int i = 0; i < total; i++)
+    {
+      if (i == 0 || (int) (packed[i] >> 32) != (int) (packed[size - 1] >> 32))
+      {
+        packed[size++] = packed[i];
+      }
+    }
 
-    int i = 0;
+    _objects = (T[]) new Object[size];
+    _ring = new int[size];
 
-    for (Point<T> point : _points)
+    for (int i = 0; i < size; i++)
     {
-      _objects[i] = point.getT();
-      _ring[i] = point.getHash();
-      ++i;
+      _ring[i] = (int) (packed[i] >> 32);
+      _objects[i] = objects.get((int) packed[i]);
     }
 
     debug(_log, "re-initializing consistent hash ring with items: ", _objects);
@@ -169,9 +203,18 @@ public class ConsistentHashRing<T> implements Ring<T>
     return _objects[index % _objects.length];
   }
 
+  /**
+   * @return the points of the ring, ordered from lowest to highest hash. The set is created on
+   *         every call and is meant for diagnostics.
+   */
   public Set<Point<T>> getPoints()
   {
-    return _points;
+    Set<Point<T>> points = new LinkedHashSet<Point<T>>(_ring.length * 4 / 3 + 1);
+    for (int i = 0; i < _ring.length; i++)
+    {
+      points.add(new Point<T>(_objects[i], _ring[i]));
+    }
+    return Collections.unmodifiableSet(points);
   }
 
   public Object[] getObjects()
@@ -184,41 +227,38 @@ public class ConsistentHashRing<T> implements Ring<T>
     return _ring;
   }
 
+  public RingPointHash getPointHash()
+  {
+    return _pointHash;
+  }
+
   String printRingArea()
   {
-    if (_points != null && !_points.isEmpty())
+    if (_ring.length > 0)
     {
       Map<T, Double> coverageMap = new HashMap<T, Double>();
-      Double curr = new Double(Integer.MIN_VALUE);
-      T firstElement = null;
-      //we know points are sortedSet and the iterator is iterating from low to high
-      for (Point<T> point : _points)
+      double curr = Integer.MIN_VALUE;
+      // the ring is sorted from low to high
+      for (int i = 0; i < _ring.length; i++)
       {
-        if (firstElement == null)
-        {
-          firstElement = point.getT();
-        }
-        Double currentCoverage = point.getHash() - curr;
-        curr = new Double(point.getHash());
-        Double area = coverageMap.get(point.getT());
+        double currentCoverage = _ring[i] - curr;
+        curr = _ring[i];
+        Double area = coverageMap.get(_objects[i]);
         if (area == null)
         {
           area = 0.0;
         }
-        area += currentCoverage;
-        coverageMap.put(point.getT(), area);
+        coverageMap.put(_objects[i], area + currentCoverage);
       }
       //don't forget to take into account the last chunk of area
-      Double remainingArea = new Double(Integer.MAX_VALUE - curr);
-      Double area = coverageMap.get(firstElement);
-      area += remainingArea;
-      coverageMap.put(firstElement, area);
+      double remainingArea = Integer.MAX_VALUE - curr;
+      coverageMap.put(_objects[0], coverageMap.get(_objects[0]) + remainingArea);
       StringBuilder builder = new StringBuilder();
       builder.append("Area percentage in the hash ring is [");
-      Double sizeOfInt = new Double(Integer.MAX_VALUE) - new Double(Integer.MIN_VALUE);
+      double sizeOfInt = (double) Integer.MAX_VALUE - (double) Integer.MIN_VALUE;
       for (Map.Entry<T, Double> entry : coverageMap.entrySet())
       {
-        Double percentage = entry.getValue() * 100 / sizeOfInt;
+        double percentage = entry.getValue() * 100 / sizeOfInt;
         builder.append(String.format("%s=%.2f%%, ",entry.getKey(), percentage));
       }
       builder.append("]");
@@ -230,7 +270,7 @@ public class ConsistentHashRing<T> implements Ring<T>
   @Override
   public String toString()
   {
-    return "ConsistentHashRing [_md=" + _md + printRingArea() + "]";
+    return "ConsistentHashRing [_pointHash=" + _pointHash + printRingArea() + "]";
   }
 
   /**
@@ -260,7 +300,7 @@ public class ConsistentHashRing<T> implements Ring<T>
     @Override
     public int compareTo(Point<T> o)
     {
-      return new Integer(_hash).compareTo(o.getHash());
+      return _hash < o.getHash() ? -1 : (_hash == o.getHash() ? 0 : 1);
     }
 
     @Override
@@ -0,0 +1,138 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.util.hashing;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The original {@link ConsistentHashRing} point generator. The key is digested, each 16 byte
+ * digest is cut into four points, and the digest is fed back in when more points are needed.
+ * <p/>
+ * This remains the default so that rings built by older clients and newer clients agree.
+ */
+public class DigestRingPointHash implements RingPointHash
+{
+  public static final String DEFAULT_ALGORITHM = "MD5";
+
+  private final String _algorithm;
+  private final MessageDigest _md;
+  private final ThreadLocal<MessageDigest> _digests;
+
+  /**
+   * Creates a point generator backed by a per-thread {@value #DEFAULT_ALGORITHM} digest.
+   */
+  public DigestRingPointHash()
+  {
+    this(DEFAULT_ALGORITHM);
+  }
+
+  /**
+   * Creates a point generator backed by a per-thread digest of the given algorithm.
+   */
+  public DigestRingPointHash(final String algorithm)
+  {
+    // fail fast on unknown algorithms rather than on the first ring build
+    getDigest(algorithm);
+    _algorithm = algorithm;
+    _md = null;
+    _digests = new ThreadLocal<MessageDigest>()
+    {
+      @Override
+      protected MessageDigest initialValue()
+      {
+        return getDigest(algorithm);
+      }
+    };
+  }
+
+  /**
+   * Creates a point generator that uses the given digest. The digest is not thread safe, so
+   * the resulting instance must not be shared across threads.
+   */
+  public DigestRingPointHash(MessageDigest md)
+  {
+    _algorithm = md.getAlgorithm();
+    _md = md;
+    _digests = null;
+  }
+
+  @Override
+  public int[] hashPoints(byte[] key, int count)
+  {
+    final MessageDigest md = _md != null ? _md : _digests.get();
+    final int[] points = new int[count];
+
+    // start the bytes to hash as the key itself
+    byte[] bytesToHash = key;
+    byte[] hash = null;
+
+    for (int i = 0; i < count; ++i)
+    {
+      int iMod4 = i % 4;
+      int iMod4TimesFour = iMod4 * 4;
+
+      // if we've used the same hash 4 times, reset it
+      if (iMod4 == 0)
+      {
+        hash = md.digest(bytesToHash);
+
+        // Roll the new hash as the next set of bytes to hash. This way we continue
+        // generating unique hashes for a given key.
+        bytesToHash = hash;
+      }
+
+      // compute a hash from MIN_INT to MAX_INT. The bytes are deliberately combined as signed
+      // values; changing this would move every point in every existing ring.
+      points[i] =
+          hash[iMod4TimesFour] + (hash[iMod4TimesFour + 1] << 8)
+              + (hash[iMod4TimesFour + 2] << 16) + (hash[iMod4TimesFour + 3] << 24);
+    }
+
+    return points;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    return o instanceof DigestRingPointHash && ((DigestRingPointHash) o)._algorithm.equals(_algorithm);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return _algorithm.hashCode();
+  }
+
+  @Override
+  public String toString()
+  {
+    return "DigestRingPointHash [" + _algorithm + "]";
+  }
+
+  private static MessageDigest getDigest(String algorithm)
+  {
+    try
+    {
+      return MessageDigest.getInstance(algorithm);
+    }
+    catch (NoSuchAlgorithmException e)
+    {
+      throw new IllegalArgumentException("unable to get " + algorithm + " hash function", e);
+    }
+  }
+}
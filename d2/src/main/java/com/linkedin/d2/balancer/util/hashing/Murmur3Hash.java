@@ -0,0 +1,127 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.util.hashing;
+
+import java.nio.charset.Charset;
+
+/**
+ * The 32 bit x86 variant of MurmurHash3. It distributes keys as well as {@link MD5Hash} for
+ * the purposes of a consistent hash ring, but is an order of magnitude cheaper to compute and
+ * needs no {@link java.security.MessageDigest}.
+ * <p/>
+ * Key tokens are hashed exactly like {@link MD5Hash} frames them: the UTF-8 bytes of each token
+ * followed by a 0x00 separator.
+ */
+public class Murmur3Hash implements HashFunction<String[]>
+{
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final int C1 = 0xcc9e2d51;
+  private static final int C2 = 0x1b873593;
+
+  private final int _seed;
+
+  public Murmur3Hash()
+  {
+    this(0);
+  }
+
+  public Murmur3Hash(int seed)
+  {
+    _seed = seed;
+  }
+
+  @Override
+  public int hash(String[] keyTokens)
+  {
+    final byte[] bytes;
+    if (keyTokens.length == 1)
+    {
+      final byte[] token = keyTokens[0].getBytes(UTF8);
+      // one extra trailing byte is the 0x00 separator
+      bytes = new byte[token.length + 1];
+      System.arraycopy(token, 0, bytes, 0, token.length);
+    }
+    else
+    {
+      final byte[][] tokens = new byte[keyTokens.length][];
+      int length = 0;
+      for (int i = 0; i < keyTokens.length; i++)
+      {
+        tokens[i] = keyTokens[i].getBytes(UTF8);
+        length += tokens[i].length + 1;
+      }
+      bytes = new byte[length];
+      int offset = 0;
+      for (byte[] token : tokens)
+      {
+        System.arraycopy(token, 0, bytes, offset, token.length);
+        offset += token.length + 1;
+      }
+    }
+    return hash32(bytes, 0, bytes.length, _seed);
+  }
+
+  /**
+   * Computes the 32 bit MurmurHash3 of the given range of bytes.
+   */
+  public static int hash32(byte[] data, int offset, int length, int seed)
+  {
+    int h1 = seed;
+    final int roundedEnd = offset + (length & 0xfffffffc);
+
+    for (int i = offset; i < roundedEnd; i += 4)
+    {
+      int k1 = (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8) | ((data[i + 2] & 0xff) << 16) | (data[i + 3] << 24);
+      k1 *= C1;
+      k1 = Integer.rotateLeft(k1, 15);
+      k1 *= C2;
+
+      h1 ^= k1;
+      h1 = Integer.rotateLeft(h1, 13);
+      h1 = h1 * 5 + 0xe6546b64;
+    }
+
+    int k1 = 0;
+    switch (length & 0x03)
+    {
+      case 3:
+        k1 = (data[roundedEnd + 2] & 0xff) << 16;
+        // fall through
+      case 2:
+        k1 |= (data[roundedEnd + 1] & 0xff) << 8;
+        // fall through
+      case 1:
+        k1 |= data[roundedEnd] & 0xff;
+        k1 *= C1;
+        k1 = Integer.rotateLeft(k1, 15);
+        k1 *= C2;
+        h1 ^= k1;
+        break;
+      default:
+        break;
+    }
+
+    h1 ^= length;
+    h1 ^= h1 >>> 16;
+    h1 *= 0x85ebca6b;
+    h1 ^= h1 >>> 13;
+    h1 *= 0xc2b2ae35;
+    h1 ^= h1 >>> 16;
+    return h1;
+  }
+}
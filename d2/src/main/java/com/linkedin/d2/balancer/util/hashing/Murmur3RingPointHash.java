@@ -0,0 +1,57 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.util.hashing;
+
+/**
+ * Generates ring points with {@link Murmur3Hash}, using the index of each point as the seed.
+ * Every point is computed independently, so generating <code>n</code> points costs <code>n</code>
+ * passes over the (short) key rather than a chain of digests.
+ * <p/>
+ * Points produced by this class do not match those of {@link DigestRingPointHash}; all clients
+ * of a service have to be switched at the same time for sticky routing to stay consistent.
+ */
+public class Murmur3RingPointHash implements RingPointHash
+{
+  @Override
+  public int[] hashPoints(byte[] key, int count)
+  {
+    final int[] points = new int[count];
+    for (int i = 0; i < count; i++)
+    {
+      points[i] = Murmur3Hash.hash32(key, 0, key.length, i);
+    }
+    return points;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    return o instanceof Murmur3RingPointHash;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Murmur3RingPointHash.class.hashCode();
+  }
+
+  @Override
+  public String toString()
+  {
+    return "Murmur3RingPointHash";
+  }
+}
@@ -0,0 +1,34 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.util.hashing;
+
+/**
+ * Generates the points that an object occupies in a {@link ConsistentHashRing}.
+ * <p/>
+ * Implementations must be deterministic and prefix-stable: the first <code>n</code> points
+ * returned for a key must be the same no matter how many points are requested. This lets
+ * the ring reuse previously computed points when only the point counts change.
+ */
+public interface RingPointHash
+{
+  /**
+   * @param key the bytes identifying the object, typically the UTF-8 encoding of its string form
+   * @param count the number of points to generate
+   * @return an array of length <code>count</code> holding the points for the key
+   */
+  int[] hashPoints(byte[] key, int count);
+}
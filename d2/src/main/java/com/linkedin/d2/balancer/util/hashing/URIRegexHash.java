@@ -51,27 +51,41 @@ public class URIRegexHash implements HashFunction<Request>
   /** optional config value; if true, fail if no regex matches, otherwise fall back to random */
   public static final String KEY_FAIL_ON_NO_MATCH = "failOnNoMatch";
 
+  /** optional config value; the algorithm used to hash the captured key, and the points of the
+   * consistent hash ring. One of {@link #HASH_ALGORITHM_MD5} (the default) or
+   * {@link #HASH_ALGORITHM_MURMUR3}. */
+  public static final String KEY_HASH_ALGORITHM = "hashAlgorithm";
+
+  public static final String HASH_ALGORITHM_MD5 = "md5";
+  public static final String HASH_ALGORITHM_MURMUR3 = "murmur3";
+
   private static final Logger LOG = LoggerFactory.getLogger(URIRegexHash.class);
 
   private final List<Pattern> _patterns;
   private final boolean _failOnNoMatch;
   private final Random _random = new Random();
-  private final MD5Hash _md5 = new MD5Hash();
+  private final HashFunction<String[]> _keyHash;
 
   /**
    * Initialize the hash from a JSON-style Map (whose values are primitives, Lists, or Maps).
    * @param config The config must contain the following keys:
    * {@link #KEY_REGEXES}.  The following are optional:
-   * {@link #KEY_FAIL_ON_NO_MATCH}
+   * {@link #KEY_FAIL_ON_NO_MATCH}, {@link #KEY_HASH_ALGORITHM}
    */
   @SuppressWarnings("unchecked")
   public URIRegexHash(Map<String,Object> config)
   {
     this((List<String>)config.get(KEY_REGEXES),
-         MapUtil.getWithDefault(config, KEY_FAIL_ON_NO_MATCH, false));
+         MapUtil.getWithDefault(config, KEY_FAIL_ON_NO_MATCH, false),
+         getKeyHash(MapUtil.getWithDefault(config, KEY_HASH_ALGORITHM, HASH_ALGORITHM_MD5)));
   }
 
   public URIRegexHash(List<String> patterns, boolean failOnNoMatch)
+  {
+    this(patterns, failOnNoMatch, new MD5Hash());
+  }
+
+  public URIRegexHash(List<String> patterns, boolean failOnNoMatch, HashFunction<String[]> keyHash)
   {
     List<Pattern> compiledPatterns = new ArrayList<Pattern>(patterns.size());
     for (String p : patterns)
@@ -80,6 +94,41 @@ public class URIRegexHash implements HashFunction<Request>
     }
     _patterns = Collections.unmodifiableList(compiledPatterns);
     _failOnNoMatch = failOnNoMatch;
+    _keyHash = keyHash;
+  }
+
+  /**
+   * @return the key hash function for a {@link #KEY_HASH_ALGORITHM} config value, falling back to
+   * {@link #HASH_ALGORITHM_MD5} if the algorithm is unknown
+   */
+  public static HashFunction<String[]> getKeyHash(String algorithm)
+  {
+    if (HASH_ALGORITHM_MURMUR3.equalsIgnoreCase(algorithm))
+    {
+      return new Murmur3Hash();
+    }
+    else if (!HASH_ALGORITHM_MD5.equalsIgnoreCase(algorithm))
+    {
+      LOG.warn("Unknown hash algorithm {}, falling back to {}", algorithm, HASH_ALGORITHM_MD5);
+    }
+    return new MD5Hash();
+  }
+
+  /**
+   * @return the ring point generator for a {@link #KEY_HASH_ALGORITHM} config value, falling back to
+   * {@link #HASH_ALGORITHM_MD5} if the algorithm is unknown
+   */
+  public static RingPointHash getRingPointHash(String algorithm)
+  {
+    if (HASH_ALGORITHM_MURMUR3.equalsIgnoreCase(algorithm))
+    {
+      return new Murmur3RingPointHash();
+    }
+    else if (!HASH_ALGORITHM_MD5.equalsIgnoreCase(algorithm))
+    {
+      LOG.warn("Unknown hash algorithm {}, falling back to {}", algorithm, HASH_ALGORITHM_MD5);
+    }
+    return new DigestRingPointHash();
   }
 
   @Override
@@ -110,7 +159,7 @@ public class URIRegexHash implements HashFunction<Request>
             keyTokens[i] = matcher.group(i + 1);
           }
 
-          return _md5.hash(keyTokens);
+          return _keyHash.hash(keyTokens);
         }
         LOG.warn("Ignoring pattern '{}' which matched but produced no capture groups for URI '{}'",
                  p, uriString);
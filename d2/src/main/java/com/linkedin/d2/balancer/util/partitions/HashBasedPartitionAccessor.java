@@ -21,6 +21,8 @@ import com.linkedin.d2.balancer.util.hashing.MD5Hash;
 
 public class HashBasedPartitionAccessor extends AbstractPartitionAccessor
 {
+  private static final MD5Hash MD5_HASH = new MD5Hash();
+
   final private HashBasedPartitionProperties _properties;
   public HashBasedPartitionAccessor(HashBasedPartitionProperties properties)
   {
@@ -47,10 +49,9 @@ public class HashBasedPartitionAccessor extends AbstractPartitionAccessor
         }
         break;
       case MD5:
-        MD5Hash hashFunction = new MD5Hash();
         String[] keyStrings = new String[1];
         keyStrings[0] = key;
-        longKey = hashFunction.hashLong(keyStrings);
+        longKey = MD5_HASH.hashLong(keyStrings);
         break;
       default:
         // impossible to happen
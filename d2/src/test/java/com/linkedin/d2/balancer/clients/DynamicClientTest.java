@@ -25,38 +25,51 @@ import com.linkedin.d2.balancer.LoadBalancer;
 import com.linkedin.d2.balancer.ServiceUnavailableException;
 import com.linkedin.d2.balancer.clients.TrackerClientTest.TestCallback;
 import com.linkedin.d2.balancer.clients.TrackerClientTest.TestClient;
+import com.linkedin.d2.balancer.properties.PartitionData;
 import com.linkedin.d2.balancer.properties.ServiceProperties;
 import com.linkedin.d2.balancer.util.AllPartitionsResult;
 import com.linkedin.d2.balancer.util.ClientFactoryProvider;
 import com.linkedin.d2.balancer.util.DelegatingFacilities;
 import com.linkedin.d2.balancer.util.DirectoryProvider;
 import com.linkedin.d2.balancer.util.KeyMapperProvider;
+import com.linkedin.d2.balancer.util.LoadBalancerUtil;
 import com.linkedin.d2.balancer.util.MapKeyResult;
+import com.linkedin.d2.balancer.util.partitions.DefaultPartitionAccessor;
 import com.linkedin.d2.discovery.event.PropertyEventThread.PropertyEventShutdownCallback;
 import com.linkedin.r2.message.Request;
 import com.linkedin.r2.message.RequestContext;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestRequestBuilder;
 import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
 import com.linkedin.r2.message.rpc.RpcRequest;
 import com.linkedin.r2.message.rpc.RpcRequestBuilder;
 import com.linkedin.r2.message.rpc.RpcResponse;
 import com.linkedin.r2.transport.common.TransportClientFactory;
 import com.linkedin.r2.transport.common.bridge.client.TransportClient;
+import com.linkedin.r2.transport.common.bridge.common.TransportCallback;
+import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
 import org.testng.annotations.Test;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -144,6 +157,235 @@ public class DynamicClientTest
     assertTrue(balancer.shutdown);
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testBackupRequestWins()
+  {
+    ManualScheduler scheduler = new ManualScheduler();
+    HedgingLoadBalancer balancer = new HedgingLoadBalancer();
+    DynamicClient client = new DynamicClient(balancer, null, new HedgingPolicy(scheduler, 95, 10, 50, 1.0, 10));
+    CountingCallback callback = new CountingCallback();
+
+    client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).build(), new RequestContext(), callback);
+    assertEquals(balancer.getPendingClient(0).callbacks.size(), 1);
+    assertEquals(scheduler.delays, Collections.singletonList(50L));
+
+    // no response within the delay: the backup request goes to the other host, and its response is used
+    scheduler.runTasks();
+    assertEquals(balancer.getPendingClient(1).callbacks.size(), 1);
+    RestResponse backupResponse = new RestResponseBuilder().setStatus(200).build();
+    balancer.getPendingClient(1).respond(0, backupResponse);
+    assertSame(callback.response, backupResponse);
+
+    // the late response of the first request is dropped
+    balancer.getPendingClient(0).respond(0, new RestResponseBuilder().setStatus(200).build());
+    assertSame(callback.response, backupResponse);
+    assertEquals(callback.count, 1);
+    scheduler.shutdownNow();
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testNoBackupRequestForFastResponse()
+  {
+    ManualScheduler scheduler = new ManualScheduler();
+    HedgingLoadBalancer balancer = new HedgingLoadBalancer();
+    DynamicClient client = new DynamicClient(balancer, null, new HedgingPolicy(scheduler, 95, 10, 50, 1.0, 10));
+    CountingCallback callback = new CountingCallback();
+
+    client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).build(), new RequestContext(), callback);
+    balancer.getPendingClient(0).respond(0, new RestResponseBuilder().setStatus(200).build());
+    scheduler.runTasks();
+
+    assertEquals(balancer.getPendingClient(1).callbacks.size(), 0);
+    assertEquals(callback.count, 1);
+    scheduler.shutdownNow();
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testNotHedgeable()
+  {
+    ManualScheduler scheduler = new ManualScheduler();
+    HedgingLoadBalancer balancer = new HedgingLoadBalancer();
+    DynamicClient client = new DynamicClient(balancer, null, new HedgingPolicy(scheduler, 95, 10, 50, 1.0, 10));
+
+    client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).setMethod("POST").build(),
+                       new RequestContext(), new CountingCallback());
+    assertEquals(scheduler.tasks.size(), 0);
+
+    // a tunneled GET may be hedged
+    client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).setMethod("POST")
+                           .setHeader("X-HTTP-Method-Override", "GET").build(),
+                       new RequestContext(), new CountingCallback());
+    assertEquals(scheduler.tasks.size(), 1);
+    scheduler.shutdownNow();
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testHedgingBudget()
+  {
+    ManualScheduler scheduler = new ManualScheduler();
+    HedgingLoadBalancer balancer = new HedgingLoadBalancer();
+    DynamicClient client = new DynamicClient(balancer, null, new HedgingPolicy(scheduler, 95, 10, 50, 0.25, 1));
+
+    // one backup request per four requests
+    for (int i = 0; i < 8; i++)
+    {
+      client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).build(), new RequestContext(),
+                         new CountingCallback());
+      scheduler.runTasks();
+    }
+    assertEquals(balancer.getPendingClient(0).callbacks.size(), 8);
+    assertEquals(balancer.getPendingClient(1).callbacks.size(), 2);
+    scheduler.shutdownNow();
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testErrorWaitsForBackupRequest()
+  {
+    ManualScheduler scheduler = new ManualScheduler();
+    HedgingLoadBalancer balancer = new HedgingLoadBalancer();
+    DynamicClient client = new DynamicClient(balancer, null, new HedgingPolicy(scheduler, 95, 10, 50, 1.0, 10));
+    CountingCallback callback = new CountingCallback();
+
+    client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).build(), new RequestContext(), callback);
+    scheduler.runTasks();
+    balancer.getPendingClient(0).fail(0, new Exception("first"));
+    assertEquals(callback.count, 0);
+
+    Exception second = new Exception("second");
+    balancer.getPendingClient(1).fail(0, second);
+    assertEquals(callback.count, 1);
+    assertEquals(callback.error.getMessage(), "first");
+
+    // an error before the delay is passed on, and no backup request is sent
+    callback = new CountingCallback();
+    client.restRequest(new RestRequestBuilder(URI.create("d2://test/foo")).build(), new RequestContext(), callback);
+    balancer.getPendingClient(0).fail(1, new Exception("third"));
+    scheduler.runTasks();
+    assertEquals(callback.count, 1);
+    assertEquals(balancer.getPendingClient(1).callbacks.size(), 1);
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Load balancer over two hosts which returns the first host which is not excluded by the request.
+   */
+  private static class HedgingLoadBalancer extends TestLoadBalancer
+  {
+    private final List<TrackerClient> _trackerClients = new ArrayList<TrackerClient>();
+
+    HedgingLoadBalancer()
+    {
+      super(false);
+      for (int i = 0; i < 2; i++)
+      {
+        Map<Integer, PartitionData> partitionDataMap = new HashMap<Integer, PartitionData>(2);
+        partitionDataMap.put(DefaultPartitionAccessor.DEFAULT_PARTITION_ID, new PartitionData(1d));
+        _trackerClients.add(new TrackerClient(URI.create("http://host" + i + ".testing:9876"), partitionDataMap,
+                                              new PendingClient()));
+      }
+    }
+
+    PendingClient getPendingClient(int host)
+    {
+      return (PendingClient) _trackerClients.get(host).getWrappedClient();
+    }
+
+    @Override
+    public TransportClient getClient(Request request, RequestContext requestContext) throws ServiceUnavailableException
+    {
+      Set<URI> excludedHosts = LoadBalancerUtil.ExcludedHostHints.getRequestContextExcludedHosts(requestContext);
+      for (TrackerClient trackerClient : _trackerClients)
+      {
+        if (!excludedHosts.contains(trackerClient.getUri()))
+        {
+          return new RewriteClient("test", URI.create(trackerClient.getUri() + "/test"), trackerClient);
+        }
+      }
+      throw new ServiceUnavailableException("test", "all hosts excluded");
+    }
+  }
+
+  /**
+   * Transport client which keeps the callbacks of its requests until the test completes them.
+   */
+  private static class PendingClient extends TestClient
+  {
+    final List<TransportCallback<RestResponse>> callbacks = new ArrayList<TransportCallback<RestResponse>>();
+
+    @Override
+    public void restRequest(RestRequest request,
+                            RequestContext requestContext,
+                            Map<String, String> wireAttrs,
+                            TransportCallback<RestResponse> callback)
+    {
+      callbacks.add(callback);
+    }
+
+    void respond(int index, RestResponse response)
+    {
+      callbacks.get(index).onResponse(TransportResponseImpl.success(response, new HashMap<String, String>()));
+    }
+
+    void fail(int index, Exception e)
+    {
+      callbacks.get(index).onResponse(TransportResponseImpl.<RestResponse>error(e, new HashMap<String, String>()));
+    }
+  }
+
+  private static class CountingCallback implements Callback<RestResponse>
+  {
+    int count;
+    RestResponse response;
+    Throwable error;
+
+    @Override
+    public void onError(Throwable e)
+    {
+      count++;
+      error = e;
+    }
+
+    @Override
+    public void onSuccess(RestResponse result)
+    {
+      count++;
+      response = result;
+    }
+  }
+
+  /**
+   * Collects scheduled tasks and runs them only when asked to, so the test decides when the hedging delay is over.
+   */
+  private static class ManualScheduler extends ScheduledThreadPoolExecutor
+  {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    final List<Long> delays = new ArrayList<Long>();
+
+    ManualScheduler()
+    {
+      super(1);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit)
+    {
+      tasks.add(command);
+      delays.add(unit.toMillis(delay));
+      // a future which can be cancelled, but never runs while the test is running
+      return super.schedule(command, 1, TimeUnit.DAYS);
+    }
+
+    void runTasks()
+    {
+      List<Runnable> toRun = new ArrayList<Runnable>(tasks);
+      tasks.clear();
+      for (Runnable task : toRun)
+      {
+        task.run();
+      }
+    }
+  }
+
   public static class TestLoadBalancer implements LoadBalancer
   {
     private boolean _serviceUnavailable;
@@ -567,6 +567,78 @@ public class SimpleLoadBalancerStateTest
     assertTrue(callback.await(10, TimeUnit.SECONDS), "Failed to shut down state");
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testReplacedStrategiesAreShutDown() throws URISyntaxException, InterruptedException
+  {
+    reset();
+
+    List<String> schemes = new ArrayList<String>();
+    schemes.add("http");
+    ServiceProperties serviceProperties = new ServiceProperties("service-1",
+                                                                "cluster-1",
+                                                                "/test",
+                                                                "degraderV3",
+                                                                Collections.<String>emptyList(),
+                                                                Collections.<String,Object>emptyMap(),
+                                                                null,
+                                                                null,
+                                                                schemes,
+                                                                null);
+
+    _state.listenToService("service-1", new NullStateListenerCallback());
+    _state.listenToCluster("cluster-1", new NullStateListenerCallback());
+    _clusterRegistry.put("cluster-1", new ClusterProperties("cluster-1"));
+    _serviceRegistry.put("service-1", serviceProperties);
+
+    DegraderLoadBalancerStrategyV3 strategy = (DegraderLoadBalancerStrategyV3) _state.getStrategy("service-1", "http");
+    assertFalse(strategy.isShutdown());
+
+    // a refresh replaces the strategy, and the replaced one must stop its background updates
+    _serviceRegistry.put("service-1", serviceProperties);
+    DegraderLoadBalancerStrategyV3 newStrategy = (DegraderLoadBalancerStrategyV3) _state.getStrategy("service-1", "http");
+    assertFalse(strategy == newStrategy);
+    assertTrue(strategy.isShutdown());
+    assertFalse(newStrategy.isShutdown());
+
+    // so must the strategies of a removed service
+    _serviceRegistry.remove("service-1");
+    assertTrue(newStrategy.isShutdown());
+
+    TestShutdownCallback callback = new TestShutdownCallback();
+    _state.shutdown(callback);
+    assertTrue(callback.await(10, TimeUnit.SECONDS), "Failed to shut down state");
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testStateShutdownShutsDownStrategies() throws URISyntaxException, InterruptedException
+  {
+    reset();
+
+    List<String> schemes = new ArrayList<String>();
+    schemes.add("http");
+    _state.listenToService("service-1", new NullStateListenerCallback());
+    _state.listenToCluster("cluster-1", new NullStateListenerCallback());
+    _clusterRegistry.put("cluster-1", new ClusterProperties("cluster-1"));
+    _serviceRegistry.put("service-1", new ServiceProperties("service-1",
+                                                            "cluster-1",
+                                                            "/test",
+                                                            "degraderV3",
+                                                            Collections.<String>emptyList(),
+                                                            Collections.<String,Object>emptyMap(),
+                                                            null,
+                                                            null,
+                                                            schemes,
+                                                            null));
+
+    DegraderLoadBalancerStrategyV3 strategy = (DegraderLoadBalancerStrategyV3) _state.getStrategy("service-1", "http");
+    assertFalse(strategy.isShutdown());
+
+    TestShutdownCallback callback = new TestShutdownCallback();
+    _state.shutdown(callback);
+    assertTrue(callback.await(10, TimeUnit.SECONDS), "Failed to shut down state");
+    assertTrue(strategy.isShutdown());
+  }
+
   @Test(groups = { "small", "back-end" })
   public void testServiceStrategyList() throws URISyntaxException, InterruptedException
   {
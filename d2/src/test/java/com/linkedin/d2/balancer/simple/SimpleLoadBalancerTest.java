@@ -230,6 +230,109 @@ public class SimpleLoadBalancerTest
     }
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testExcludedHosts() throws URISyntaxException,
+          ServiceUnavailableException,
+          InterruptedException, ExecutionException
+  {
+    Map<String, LoadBalancerStrategyFactory<? extends LoadBalancerStrategy>> loadBalancerStrategyFactories =
+        new HashMap<String, LoadBalancerStrategyFactory<? extends LoadBalancerStrategy>>();
+    Map<String, TransportClientFactory> clientFactories =
+        new HashMap<String, TransportClientFactory>();
+    List<String> prioritizedSchemes = new ArrayList<String>();
+
+    MockStore<ServiceProperties> serviceRegistry = new MockStore<ServiceProperties>();
+    MockStore<ClusterProperties> clusterRegistry = new MockStore<ClusterProperties>();
+    MockStore<UriProperties> uriRegistry = new MockStore<UriProperties>();
+
+    ScheduledExecutorService executorService = new SynchronousExecutorService();
+
+    loadBalancerStrategyFactories.put("degrader", new DegraderLoadBalancerStrategyFactoryV3());
+    clientFactories.put("http", new DoNothingClientFactory());
+
+    SimpleLoadBalancerState state =
+        new SimpleLoadBalancerState(executorService,
+                                    uriRegistry,
+                                    clusterRegistry,
+                                    serviceRegistry,
+                                    clientFactories,
+                                    loadBalancerStrategyFactories);
+
+    SimpleLoadBalancer loadBalancer =
+        new SimpleLoadBalancer(state, 5, TimeUnit.SECONDS);
+
+    FutureCallback<None> balancerCallback = new FutureCallback<None>();
+    loadBalancer.start(balancerCallback);
+    balancerCallback.get();
+
+    URI uri1 = URI.create("http://test.qa1.com:1234");
+    URI uri2 = URI.create("http://test.qa2.com:2345");
+    URI uri3 = URI.create("http://test.qa3.com:6789");
+
+    Map<Integer, PartitionData> partitionData = new HashMap<Integer, PartitionData>(1);
+    partitionData.put(DefaultPartitionAccessor.DEFAULT_PARTITION_ID, new PartitionData(1d));
+    Map<URI, Map<Integer, PartitionData>> uriData = new HashMap<URI, Map<Integer, PartitionData>>(3);
+    uriData.put(uri1, partitionData);
+    uriData.put(uri2, partitionData);
+    uriData.put(uri3, partitionData);
+
+    prioritizedSchemes.add("http");
+
+    clusterRegistry.put("cluster-1", new ClusterProperties("cluster-1"));
+
+    serviceRegistry.put("foo", new ServiceProperties("foo",
+                                                      "cluster-1",
+                                                      "/foo",
+                                                      "degrader",
+                                                      Collections.<String>emptyList(),
+                                                      Collections.<String,Object>emptyMap(),
+                                                      null,
+                                                      null,
+                                                      prioritizedSchemes,
+                                                      null));
+    uriRegistry.put("cluster-1", new UriProperties("cluster-1", uriData));
+
+    RequestContext requestContext = new RequestContext();
+    LoadBalancerUtil.ExcludedHostHints.addRequestContextExcludedHost(requestContext, uri1);
+    LoadBalancerUtil.ExcludedHostHints.addRequestContextExcludedHost(requestContext, uri2);
+
+    for (int i = 0; i < 100; ++i)
+    {
+      RewriteClient client = (RewriteClient) loadBalancer.getClient(new URIRequest("d2://foo/52"), requestContext);
+      assertEquals(client.getUri(), URI.create("http://test.qa3.com:6789/foo"));
+    }
+
+    LoadBalancerUtil.ExcludedHostHints.addRequestContextExcludedHost(requestContext, uri3);
+    try
+    {
+      loadBalancer.getClient(new URIRequest("d2://foo/52"), requestContext);
+      fail("should have thrown ServiceUnavailableException, since all hosts are excluded");
+    }
+    catch (ServiceUnavailableException e)
+    {
+      // expected
+    }
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    PropertyEventShutdownCallback callback = new PropertyEventShutdownCallback()
+    {
+      @Override
+      public void done()
+      {
+        latch.countDown();
+      }
+    };
+
+    state.shutdown(callback);
+
+    if (!latch.await(60, TimeUnit.SECONDS))
+    {
+      fail("unable to shutdown state");
+    }
+
+    executorService.shutdownNow();
+  }
+
   // load balancer working with partitioned cluster
   @Test(groups = { "small", "back-end" })
   public void testLoadBalancerWithPartitionsSmoke() throws URISyntaxException,
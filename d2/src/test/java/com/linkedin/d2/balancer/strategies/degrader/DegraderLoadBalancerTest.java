@@ -56,10 +56,13 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -1973,6 +1976,86 @@ public class DegraderLoadBalancerTest
 
   }
 
+  @Test(groups = { "small", "back-end" })
+  public void testBackgroundStateUpdate()
+  {
+    Map<String, Object> myMap = new HashMap<String, Object>();
+    TestClock clock = new TestClock();
+    myMap.put(PropertyKeys.CLOCK, clock);
+    myMap.put(PropertyKeys.HTTP_LB_STRATEGY_PROPERTIES_UPDATE_INTERVAL_MS, 5000L);
+    ManualScheduler scheduler = new ManualScheduler();
+    DegraderLoadBalancerStrategyV3 strategy =
+        new DegraderLoadBalancerStrategyV3(DegraderLoadBalancerStrategyConfig.createHttpConfigFromMap(myMap),
+                                           "DegraderLoadBalancerTest", null, scheduler);
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(getClient(URI.create("http://test.linkedin.com:3242/fdsaf"), clock));
+    clients.add(getClient(URI.create("http://test.linkedin.com:3243/fdsaf"), clock));
+
+    // the first request builds the initial state and starts the periodic updates
+    assertNotNull(getTrackerClient(strategy, null, new RequestContext(), 0, clients));
+    assertTrue(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).isInitialized());
+    assertEquals(scheduler.getScheduledCount(), 1);
+    long lastUpdated = strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).getLastUpdated();
+
+    // an expired state is left alone by requests and updated by the next periodic update
+    clock.addMs(5000);
+    assertNotNull(getTrackerClient(strategy, null, new RequestContext(), 0, clients));
+    assertEquals(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).getLastUpdated(), lastUpdated);
+    scheduler.runTasks();
+    assertEquals(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).getLastUpdated(),
+                 clock.currentTimeMillis());
+    assertEquals(scheduler.getScheduledCount(), 1);
+
+    // a new cluster generation is handed to the executor once, without waiting for the interval
+    List<TrackerClient> newClients = new ArrayList<TrackerClient>(clients.subList(0, 1));
+    getTrackerClient(strategy, null, new RequestContext(), 1, newClients);
+    getTrackerClient(strategy, null, new RequestContext(), 1, newClients);
+    assertEquals(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).getClusterGenerationId(), 0);
+    assertEquals(scheduler.getScheduledCount(), 2);
+    scheduler.runTasks();
+    assertEquals(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).getClusterGenerationId(), 1);
+    assertEquals(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).getPointsMap().keySet(),
+                 Collections.singleton(newClients.get(0).getUri()));
+    for (int i = 0; i < 10; i++)
+    {
+      assertEquals(getTrackerClient(strategy, null, new RequestContext(), 1, newClients), newClients.get(0));
+    }
+    assertEquals(scheduler.getScheduledCount(), 1);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testBackgroundStateUpdateShutdown()
+  {
+    Map<String, Object> myMap = new HashMap<String, Object>();
+    TestClock clock = new TestClock();
+    myMap.put(PropertyKeys.CLOCK, clock);
+    myMap.put(PropertyKeys.HTTP_LB_STRATEGY_PROPERTIES_UPDATE_INTERVAL_MS, 5000L);
+    ManualScheduler scheduler = new ManualScheduler();
+    DegraderLoadBalancerStrategyV3 strategy =
+        new DegraderLoadBalancerStrategyV3(DegraderLoadBalancerStrategyConfig.createHttpConfigFromMap(myMap),
+                                           "DegraderLoadBalancerTest", null, scheduler);
+    List<TrackerClient> clients = new ArrayList<TrackerClient>();
+    clients.add(getClient(URI.create("http://test.linkedin.com:3242/fdsaf"), clock));
+    clients.add(getClient(URI.create("http://test.linkedin.com:3243/fdsaf"), clock));
+
+    assertNotNull(getTrackerClient(strategy, null, new RequestContext(), 0, clients));
+    assertEquals(scheduler.getScheduledCount(), 1);
+
+    // shutting down cancels the pending periodic update and no new ones are scheduled
+    strategy.shutdown();
+    assertEquals(scheduler.getScheduledCount(), 0);
+    getTrackerClient(strategy, null, new RequestContext(), 1, clients.subList(0, 1));
+    assertEquals(scheduler.getScheduledCount(), 0);
+
+    // a strategy which is still used after shutdown updates its state on the request thread
+    assertEquals(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).getClusterGenerationId(), 1);
+    clock.addMs(5000);
+    getTrackerClient(strategy, null, new RequestContext(), 1, clients.subList(0, 1));
+    assertEquals(strategy.getState().getPartitionState(DEFAULT_PARTITION_ID).getLastUpdated(),
+                 clock.currentTimeMillis());
+    assertEquals(scheduler.getScheduledCount(), 0);
+  }
+
   @Test(groups = { "small", "back-end" })
   public void testClusterRecoveryFast1TC()
   {
@@ -3791,6 +3874,108 @@ public class DegraderLoadBalancerTest
     }
   }
 
+  /**
+   * Collects scheduled tasks and runs them only when asked to, so the test controls when state updates happen.
+   */
+  private static class ManualScheduler extends ScheduledThreadPoolExecutor
+  {
+    private final List<Runnable> _tasks = new ArrayList<Runnable>();
+
+    public ManualScheduler()
+    {
+      super(1);
+    }
+
+    @Override
+    public synchronized ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit)
+    {
+      _tasks.add(command);
+      return new ManualFuture(command, delay, unit);
+    }
+
+    private synchronized boolean cancel(Runnable command)
+    {
+      return _tasks.remove(command);
+    }
+
+    public synchronized int getScheduledCount()
+    {
+      return _tasks.size();
+    }
+
+    public void runTasks()
+    {
+      List<Runnable> tasks;
+      synchronized (this)
+      {
+        tasks = new ArrayList<Runnable>(_tasks);
+        _tasks.clear();
+      }
+      for (Runnable task : tasks)
+      {
+        task.run();
+      }
+    }
+
+    /** Cancelling removes the task from the scheduler; the other methods are not used by the tests. */
+    private class ManualFuture implements ScheduledFuture<Object>
+    {
+      private final Runnable _command;
+      private final long _delayMs;
+      private volatile boolean _cancelled;
+
+      ManualFuture(Runnable command, long delay, TimeUnit unit)
+      {
+        _command = command;
+        _delayMs = unit.toMillis(delay);
+      }
+
+      @Override
+      public long getDelay(TimeUnit unit)
+      {
+        return unit.convert(_delayMs, TimeUnit.MILLISECONDS);
+      }
+
+      @Override
+      public int compareTo(Delayed o)
+      {
+        long diff = getDelay(TimeUnit.MILLISECONDS) - o.getDelay(TimeUnit.MILLISECONDS);
+        return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+      }
+
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning)
+      {
+        _cancelled = ManualScheduler.this.cancel(_command);
+        return _cancelled;
+      }
+
+      @Override
+      public boolean isCancelled()
+      {
+        return _cancelled;
+      }
+
+      @Override
+      public boolean isDone()
+      {
+        return _cancelled;
+      }
+
+      @Override
+      public Object get()
+      {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Object get(long timeout, TimeUnit unit)
+      {
+        throw new UnsupportedOperationException();
+      }
+    }
+  }
+
   public class TestClock implements Clock
   {
     private long _currentTimeMillis;
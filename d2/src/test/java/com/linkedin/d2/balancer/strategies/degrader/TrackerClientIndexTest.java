@@ -0,0 +1,91 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.strategies.degrader;
+
+
+import com.linkedin.d2.balancer.clients.TrackerClient;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+import static com.linkedin.d2.balancer.strategies.degrader.DegraderLoadBalancerTest.getClient;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+
+public class TrackerClientIndexTest
+{
+  private static List<TrackerClient> createClients(int count)
+  {
+    List<TrackerClient> clients = new ArrayList<TrackerClient>(count);
+    for (int i = 0; i < count; i++)
+    {
+      clients.add(getClient(URI.create("http://host" + i + ".testing:9876/foobar")));
+    }
+    return clients;
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testLookup()
+  {
+    TrackerClientIndex index = new TrackerClientIndex();
+    List<TrackerClient> clients = createClients(5);
+
+    for (TrackerClient client : clients)
+    {
+      assertSame(index.get(0, clients, client.getUri()), client);
+    }
+    assertNull(index.get(0, clients, URI.create("http://unknown.testing:9876/foobar")));
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testRebuildOnNewClients()
+  {
+    TrackerClientIndex index = new TrackerClientIndex();
+    List<TrackerClient> clients = createClients(3);
+    URI uri = clients.get(1).getUri();
+    assertSame(index.get(0, clients, uri), clients.get(1));
+
+    // same URIs in a new generation
+    List<TrackerClient> newClients = createClients(3);
+    assertSame(index.get(1, newClients, uri), newClients.get(1));
+
+    // same generation, but other clients
+    List<TrackerClient> otherClients = createClients(3);
+    assertSame(index.get(1, otherClients, uri), otherClients.get(1));
+
+    // same generation, but fewer clients
+    List<TrackerClient> fewerClients = new ArrayList<TrackerClient>(otherClients.subList(0, 2));
+    assertNull(index.get(1, fewerClients, otherClients.get(2).getUri()));
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testFallbackToScan()
+  {
+    TrackerClientIndex index = new TrackerClientIndex();
+    List<TrackerClient> clients = createClients(3);
+    assertSame(index.get(0, clients, clients.get(0).getUri()), clients.get(0));
+
+    // a list which the index takes for the one it was built from, with a host it does not know
+    List<TrackerClient> changedClients = new ArrayList<TrackerClient>(clients);
+    TrackerClient newClient = getClient(URI.create("http://newhost.testing:9876/foobar"));
+    changedClients.set(2, newClient);
+    assertSame(index.get(0, changedClients, newClient.getUri()), newClient);
+  }
+}
@@ -0,0 +1,197 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.strategies.leastloaded;
+
+import com.linkedin.d2.balancer.KeyMapper;
+import com.linkedin.d2.balancer.clients.TrackerClient;
+import com.linkedin.d2.balancer.properties.PartitionData;
+import com.linkedin.d2.balancer.properties.PropertyKeys;
+import com.linkedin.d2.balancer.util.hashing.ConsistentHashRing;
+import com.linkedin.d2.balancer.util.hashing.Ring;
+import com.linkedin.d2.balancer.util.partitions.DefaultPartitionAccessor;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.util.degrader.CallCompletion;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class LeastLoadedLoadBalancerTest
+{
+  private static final int PARTITION_ID = DefaultPartitionAccessor.DEFAULT_PARTITION_ID;
+
+  private static LeastLoadedLoadBalancerStrategy getStrategy()
+  {
+    return new LeastLoadedLoadBalancerStrategyFactory().newLoadBalancer("unused",
+                                                                        Collections.<String, Object>emptyMap(),
+                                                                        null);
+  }
+
+  private static TrackerClient getClient(String host, double weight)
+  {
+    Map<Integer, PartitionData> partitionDataMap = new HashMap<Integer, PartitionData>(2);
+    partitionDataMap.put(PARTITION_ID, new PartitionData(weight));
+    return new TrackerClient(URI.create("http://" + host + ":567/foo/bar"), partitionDataMap, null);
+  }
+
+  private static TrackerClient getTrackerClient(LeastLoadedLoadBalancerStrategy strategy,
+                                                RequestContext requestContext,
+                                                List<TrackerClient> trackerClients)
+  {
+    return strategy.getTrackerClient(null, requestContext, 0, PARTITION_ID, trackerClients);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testPicksLessLoadedClient()
+  {
+    LeastLoadedLoadBalancerStrategy strategy = getStrategy();
+    TrackerClient busy = getClient("busy.testing", 1d);
+    TrackerClient idle = getClient("idle.testing", 1d);
+    List<TrackerClient> trackerClients = new ArrayList<TrackerClient>();
+    trackerClients.add(busy);
+    trackerClients.add(idle);
+
+    List<CallCompletion> outstanding = new ArrayList<CallCompletion>();
+    for (int i = 0; i < 3; i++)
+    {
+      outstanding.add(busy.getCallTracker().startCall());
+    }
+
+    // with two clients both are always compared
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(getTrackerClient(strategy, new RequestContext(), trackerClients), idle);
+    }
+
+    // once the busy client has fewer outstanding calls, it is picked instead
+    for (int i = 0; i < 4; i++)
+    {
+      idle.getCallTracker().startCall();
+    }
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(getTrackerClient(strategy, new RequestContext(), trackerClients), busy);
+    }
+
+    for (CallCompletion callCompletion : outstanding)
+    {
+      callCompletion.endCall();
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testLoadIsRelativeToWeight()
+  {
+    LeastLoadedLoadBalancerStrategy strategy = getStrategy();
+    TrackerClient small = getClient("small.testing", 1d);
+    TrackerClient large = getClient("large.testing", 4d);
+    List<TrackerClient> trackerClients = new ArrayList<TrackerClient>();
+    trackerClients.add(small);
+    trackerClients.add(large);
+
+    // (2 + 1) / 4 is less than (0 + 1) / 1
+    large.getCallTracker().startCall();
+    large.getCallTracker().startCall();
+    for (int i = 0; i < 100; i++)
+    {
+      assertSame(getTrackerClient(strategy, new RequestContext(), trackerClients), large);
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testSpreadsAcrossClients()
+  {
+    LeastLoadedLoadBalancerStrategy strategy = getStrategy();
+    List<TrackerClient> trackerClients = new ArrayList<TrackerClient>();
+    for (int i = 0; i < 10; i++)
+    {
+      trackerClients.add(getClient("host" + i + ".testing", 1d));
+    }
+
+    // with outstanding calls left open, each pick makes its client busier, so picks rotate over all clients
+    Map<TrackerClient, Integer> counts = new HashMap<TrackerClient, Integer>();
+    for (int i = 0; i < 1000; i++)
+    {
+      TrackerClient client = getTrackerClient(strategy, new RequestContext(), trackerClients);
+      client.getCallTracker().startCall();
+      Integer count = counts.get(client);
+      counts.put(client, count == null ? 1 : count + 1);
+    }
+    assertEquals(counts.size(), trackerClients.size());
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testTargetHost()
+  {
+    LeastLoadedLoadBalancerStrategy strategy = getStrategy();
+    TrackerClient busy = getClient("busy.testing", 1d);
+    TrackerClient idle = getClient("idle.testing", 1d);
+    List<TrackerClient> trackerClients = new ArrayList<TrackerClient>();
+    trackerClients.add(busy);
+    trackerClients.add(idle);
+    busy.getCallTracker().startCall();
+
+    RequestContext requestContext = new RequestContext();
+    KeyMapper.TargetHostHints.setRequestContextTargetHost(requestContext, busy.getUri());
+    assertSame(getTrackerClient(strategy, requestContext, trackerClients), busy);
+
+    KeyMapper.TargetHostHints.setRequestContextTargetHost(requestContext, URI.create("http://notinclientlist.testing:567/foo/bar"));
+    assertNull(getTrackerClient(strategy, requestContext, trackerClients));
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testNoClients()
+  {
+    assertNull(getTrackerClient(getStrategy(), new RequestContext(), Collections.<TrackerClient>emptyList()));
+  }
+
+  @Test(groups = { "small", "back-end" })
+  @SuppressWarnings("unchecked")
+  public void testGetRing()
+  {
+    Map<String, Object> strategyProperties = new HashMap<String, Object>();
+    strategyProperties.put(PropertyKeys.HTTP_LB_STRATEGY_PROPERTIES_POINTS_PER_WEIGHT, "10");
+    LeastLoadedLoadBalancerStrategy strategy =
+        new LeastLoadedLoadBalancerStrategyFactory().newLoadBalancer("unused", strategyProperties, null);
+    List<TrackerClient> trackerClients = new ArrayList<TrackerClient>();
+    trackerClients.add(getClient("small.testing", 1d));
+    trackerClients.add(getClient("large.testing", 2d));
+
+    Ring<URI> ring = strategy.getRing(0, PARTITION_ID, trackerClients);
+    Map<URI, Integer> pointCounts = new HashMap<URI, Integer>();
+    for (ConsistentHashRing.Point<URI> point : ((ConsistentHashRing<URI>) ring).getPoints())
+    {
+      Integer count = pointCounts.get(point.getT());
+      pointCounts.put(point.getT(), count == null ? 1 : count + 1);
+    }
+    assertEquals(pointCounts.get(trackerClients.get(0).getUri()), Integer.valueOf(10));
+    assertEquals(pointCounts.get(trackerClients.get(1).getUri()), Integer.valueOf(20));
+
+    // the ring is built once per cluster generation
+    assertSame(strategy.getRing(0, PARTITION_ID, trackerClients), ring);
+    assertNotSame(strategy.getRing(1, PARTITION_ID, trackerClients), ring);
+  }
+}
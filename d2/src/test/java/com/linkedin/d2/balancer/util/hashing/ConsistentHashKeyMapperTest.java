@@ -257,6 +257,44 @@ public class ConsistentHashKeyMapperTest
 
   }
 
+  @Test
+  public void testBatchedMappingMatchesPerKeyMapping() throws URISyntaxException, ServiceUnavailableException
+  {
+    Map<URI, Integer> endpoints = createEndpoints(50);
+    final ConsistentHashRing<URI> ring = new ConsistentHashRing<URI>(endpoints);
+    // wrapping the ring hides its points, which forces the per-key lookup
+    Ring<URI> opaqueRing = new Ring<URI>()
+    {
+      @Override
+      public URI get(int key)
+      {
+        return ring.get(key);
+      }
+    };
+    ConsistentHashKeyMapper batchedMapper = new ConsistentHashKeyMapper(new StaticRingProvider(ring));
+    ConsistentHashKeyMapper perKeyMapper = new ConsistentHashKeyMapper(new StaticRingProvider(opaqueRing));
+
+    Set<Integer> keys = getRandomKeys(5000);
+
+    MapKeyResult<URI, Integer> batched = batchedMapper.mapKeysV2(URI.create("d2://fooservice/"), keys);
+    MapKeyResult<URI, Integer> perKey = perKeyMapper.mapKeysV2(URI.create("d2://fooservice/"), keys);
+
+    Assert.assertEquals(batched.getMapResult().keySet(), perKey.getMapResult().keySet());
+    for (Map.Entry<URI, Collection<Integer>> entry : perKey.getMapResult().entrySet())
+    {
+      Assert.assertEquals(new ArrayList<Integer>(batched.getMapResult().get(entry.getKey())),
+                          new ArrayList<Integer>(entry.getValue()));
+    }
+    Assert.assertTrue(batched.getUnmappedKeys().isEmpty());
+
+    // an empty ring reports every key as unmapped
+    ConsistentHashKeyMapper emptyMapper =
+        new ConsistentHashKeyMapper(new StaticRingProvider(new ConsistentHashRing<URI>(new HashMap<URI, Integer>())));
+    MapKeyResult<URI, Integer> empty = emptyMapper.mapKeysV2(URI.create("d2://fooservice/"), keys);
+    Assert.assertTrue(empty.getMapResult().isEmpty());
+    Assert.assertEquals(empty.getUnmappedKeys().size(), keys.size());
+  }
+
   ConsistentHashKeyMapper getKeyToHostMapper() throws URISyntaxException, ServiceUnavailableException
   {
     Map<URI, Integer> one = new HashMap<URI, Integer>();
@@ -23,6 +23,7 @@ import static org.testng.Assert.assertTrue;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -164,4 +165,92 @@ public class ConsistentHashRingTest
     assertEquals(midURI, uri2);
 
   }
+
+  @Test(groups = { "small", "back-end" })
+  public void testMurmur3ManyItemsEqualWeight()
+  {
+    Map<String, Integer> many = new HashMap<String, Integer>();
+    Map<String, AtomicInteger> counts = new HashMap<String, AtomicInteger>();
+
+    for (int i = 0; i < 100; ++i)
+    {
+      many.put("test" + i, 10);
+      counts.put("test" + i, new AtomicInteger());
+    }
+
+    ConsistentHashRing<String> test = new ConsistentHashRing<String>(many, new Murmur3RingPointHash());
+
+    assertNotNull(test.get(0));
+
+    Object[] objects = test.getObjects();
+    int[] ring = test.getRing();
+
+    for (int i = 0; i < objects.length; ++i)
+    {
+      counts.get(objects[i].toString()).incrementAndGet();
+    }
+
+    for (Entry<String, AtomicInteger> count : counts.entrySet())
+    {
+      assertEquals(count.getValue().get(), 10);
+    }
+
+    for (int i = 1; i < ring.length; ++i)
+    {
+      assertTrue(ring[i - 1] < ring[i]);
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testIncrementalRebuild()
+  {
+    for (RingPointHash pointHash : new RingPointHash[] { new DigestRingPointHash(), new Murmur3RingPointHash() })
+    {
+      Map<String, Integer> points = new HashMap<String, Integer>();
+      for (int i = 0; i < 20; ++i)
+      {
+        points.put("test" + i, 100);
+      }
+      ConsistentHashRing<String> previous = new ConsistentHashRing<String>(points, pointHash);
+
+      // shrink some hosts, grow one, drop one and add a new one
+      points.put("test1", 1);
+      points.put("test2", 50);
+      points.put("test3", 0);
+      points.put("test4", 150);
+      points.remove("test5");
+      points.put("test20", 100);
+
+      ConsistentHashRing<String> rebuilt = new ConsistentHashRing<String>(points, pointHash, previous);
+      ConsistentHashRing<String> fresh = new ConsistentHashRing<String>(points, pointHash);
+      assertTrue(Arrays.equals(rebuilt.getRing(), fresh.getRing()));
+      assertTrue(Arrays.equals(rebuilt.getObjects(), fresh.getObjects()));
+
+      // growing back after a shrink must also match
+      points.put("test1", 100);
+      ConsistentHashRing<String> regrown = new ConsistentHashRing<String>(points, pointHash, rebuilt);
+      fresh = new ConsistentHashRing<String>(points, pointHash);
+      assertTrue(Arrays.equals(regrown.getRing(), fresh.getRing()));
+      assertTrue(Arrays.equals(regrown.getObjects(), fresh.getObjects()));
+    }
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testGetPointsIsSorted()
+  {
+    Map<String, Integer> points = new HashMap<String, Integer>();
+    points.put("test1", 10);
+    points.put("test2", 20);
+    ConsistentHashRing<String> test = new ConsistentHashRing<String>(points);
+
+    int[] ring = test.getRing();
+    int i = 0;
+    for (ConsistentHashRing.Point<String> point : test.getPoints())
+    {
+      assertEquals(point.getHash(), ring[i]);
+      assertEquals(point.getT(), test.getObjects()[i]);
+      ++i;
+    }
+    assertEquals(i, 30);
+  }
 }
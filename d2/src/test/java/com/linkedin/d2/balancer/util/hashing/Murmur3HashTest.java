@@ -0,0 +1,54 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.d2.balancer.util.hashing;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.charset.Charset;
+
+import org.testng.annotations.Test;
+
+public class Murmur3HashTest
+{
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  @Test(groups = { "small", "back-end" })
+  public void testReferenceValues()
+  {
+    assertEquals(hash32("", 0), 0);
+    assertEquals(hash32("", 1), 0x514e28b7);
+    assertEquals(hash32("hello", 0), 0x248bfa47);
+    assertEquals(hash32("The quick brown fox jumps over the lazy dog", 0), 0x2e4ff723);
+  }
+
+  @Test(groups = { "small", "back-end" })
+  public void testTokensAreSeparated()
+  {
+    Murmur3Hash hash = new Murmur3Hash();
+
+    // tokens are framed with a 0x00 separator like MD5Hash does
+    assertEquals(hash.hash(new String[] { "hello" }), hash32("hello\0", 0));
+    assertEquals(hash.hash(new String[] { "ab", "c" }), hash32("ab\0c\0", 0));
+    assertEquals(hash.hash(new String[] { "a", "bc" }), hash32("a\0bc\0", 0));
+  }
+
+  private static int hash32(String s, int seed)
+  {
+    byte[] bytes = s.getBytes(UTF8);
+    return Murmur3Hash.hash32(bytes, 0, bytes.length, seed);
+  }
+}
@@ -0,0 +1,909 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.avro;
+
+
+import com.linkedin.data.ByteString;
+import com.linkedin.data.Data;
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.DataCodec;
+import com.linkedin.data.element.DataElement;
+import com.linkedin.data.message.Message;
+import com.linkedin.data.schema.ArrayDataSchema;
+import com.linkedin.data.schema.DataSchema;
+import com.linkedin.data.schema.DataSchemaConstants;
+import com.linkedin.data.schema.EnumDataSchema;
+import com.linkedin.data.schema.FixedDataSchema;
+import com.linkedin.data.schema.MapDataSchema;
+import com.linkedin.data.schema.RecordDataSchema;
+import com.linkedin.data.schema.UnionDataSchema;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * {@link DataCodec} that encodes {@link DataMap}s conforming to a {@link RecordDataSchema} with the
+ * Avro binary encoding of the Avro schema translated from it by {@link SchemaTranslator}.
+ *
+ * <p>
+ * The output is the same as translating the {@link DataMap} with
+ * {@link DataTranslator#dataMapToGenericRecord(DataMap, RecordDataSchema, Schema)} and writing the
+ * {@link org.apache.avro.generic.GenericRecord} with a {@link GenericDatumWriter}, and reading is the
+ * reverse. However, the codec streams the data between the {@link DataMap} and the Avro encoder
+ * or decoder, without building {@link org.apache.avro.generic.GenericRecord}s. Both schemas are
+ * compiled into a tree of translators when the codec is constructed, so that no schema lookup is
+ * done per value. Only schemas with a custom data translator still go through Avro generic data.
+ *
+ * <p>
+ * Avro binary data does not describe its own schema, so the codec only encodes {@link DataMap}s
+ * of its record schema. Lists are not supported.
+ *
+ * <p>
+ * Instances are thread-safe.
+ */
+public class AvroBinaryDataCodec implements DataCodec
+{
+  private static final int BUFFER_SIZE = 4096;
+
+  private final AvroAdapter _avroAdapter = AvroAdapterFinder.getAvroAdapter();
+  private final Translator _translator;
+
+  /**
+   * Initialize a codec for the Avro schema translated from the provided {@link RecordDataSchema}
+   * with the default {@link DataToAvroSchemaTranslationOptions}.
+   *
+   * @param dataSchema provides the {@link RecordDataSchema} of the encoded {@link DataMap}s.
+   */
+  public AvroBinaryDataCodec(RecordDataSchema dataSchema)
+  {
+    this(dataSchema, SchemaTranslator.dataToAvroSchema(dataSchema));
+  }
+
+  /**
+   * Initialize a codec for the provided Avro {@link Schema}.
+   *
+   * <p>
+   * The Avro schema should be generated from the provided {@link RecordDataSchema}
+   * using {@link SchemaTranslator}.
+   *
+   * @param dataSchema provides the {@link RecordDataSchema} of the encoded {@link DataMap}s.
+   * @param avroSchema provides the Avro {@link Schema} of the encoded bytes.
+   * @throws IllegalArgumentException if the schemas do not correspond.
+   */
+  public AvroBinaryDataCodec(RecordDataSchema dataSchema, Schema avroSchema)
+  {
+    _translator = new Compiler().compile(dataSchema, avroSchema);
+  }
+
+  @Override
+  public byte[] mapToBytes(DataMap map) throws IOException
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+    writeMap(map, out);
+    return out.toByteArray();
+  }
+
+  @Override
+  public void writeMap(DataMap map, OutputStream out) throws IOException
+  {
+    Encoder encoder = _avroAdapter.createBinaryEncoder(out);
+    try
+    {
+      _translator.write(map, encoder);
+    }
+    catch (RuntimeException e)
+    {
+      throw dataTranslationException(e);
+    }
+    encoder.flush();
+  }
+
+  @Override
+  public DataMap bytesToMap(byte[] input) throws IOException
+  {
+    Decoder decoder = _avroAdapter.createBinaryDecoder(input);
+    try
+    {
+      return (DataMap) _translator.read(decoder);
+    }
+    catch (RuntimeException e)
+    {
+      throw dataTranslationException(e);
+    }
+  }
+
+  @Override
+  public DataMap readMap(InputStream in) throws IOException
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int read;
+    while ((read = in.read(buffer)) != -1)
+    {
+      out.write(buffer, 0, read);
+    }
+    return bytesToMap(out.toByteArray());
+  }
+
+  @Override
+  public byte[] listToBytes(DataList list)
+  {
+    throw new UnsupportedOperationException("Avro binary encoding is only supported for records");
+  }
+
+  @Override
+  public DataList bytesToList(byte[] input)
+  {
+    throw new UnsupportedOperationException("Avro binary encoding is only supported for records");
+  }
+
+  @Override
+  public void writeList(DataList list, OutputStream out)
+  {
+    throw new UnsupportedOperationException("Avro binary encoding is only supported for records");
+  }
+
+  @Override
+  public DataList readList(InputStream in)
+  {
+    throw new UnsupportedOperationException("Avro binary encoding is only supported for records");
+  }
+
+  private static DataTranslationException dataTranslationException(RuntimeException e)
+  {
+    TranslationError error = TranslationError.wrap(e);
+    StringBuilder sb = new StringBuilder();
+    for (Object o : error._path)
+    {
+      sb.append(DataElement.SEPARATOR);
+      sb.append(o);
+    }
+
+    List<Message> messageList = new ArrayList<Message>(1);
+    messageList.add(new Message(error._path.toArray(), "%1$s", error.getMessage()));
+    return new DataTranslationException("Error processing " + sb, messageList, error.getCause());
+  }
+
+  private static int findUnionMember(Schema avroUnion, String key)
+  {
+    List<Schema> members = avroUnion.getTypes();
+    for (int i = 0; i < members.size(); i++)
+    {
+      Schema member = members.get(i);
+      String name;
+      switch (member.getType())
+      {
+        case ENUM:
+        case FIXED:
+        case RECORD:
+          name = member.getFullName();
+          break;
+        default:
+          name = member.getType().toString().toLowerCase();
+      }
+      if (name.equals(key))
+      {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Thrown by translators, which add the path of the data being translated as it propagates.
+   */
+  private static class TranslationError extends RuntimeException
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final Deque<Object> _path = new ArrayDeque<Object>();
+
+    private TranslationError(String message, Throwable cause)
+    {
+      super(message, cause);
+    }
+
+    private static TranslationError wrap(RuntimeException e)
+    {
+      return e instanceof TranslationError ? (TranslationError) e : new TranslationError(e.toString(), e);
+    }
+
+    private TranslationError addPath(Object name)
+    {
+      _path.addFirst(name);
+      return this;
+    }
+  }
+
+  private static TranslationError error(String format, Object... args)
+  {
+    return new TranslationError(String.format(format, args), null);
+  }
+
+  private abstract static class Translator
+  {
+    abstract void write(Object value, Encoder encoder) throws IOException;
+
+    abstract Object read(Decoder decoder) throws IOException;
+  }
+
+  private static class PrimitiveTranslator extends Translator
+  {
+    private final DataSchema.Type _type;
+
+    private PrimitiveTranslator(DataSchema.Type type)
+    {
+      _type = type;
+    }
+
+    @Override
+    void write(Object value, Encoder encoder) throws IOException
+    {
+      switch (_type)
+      {
+        case NULL:
+          if (value != Data.NULL)
+          {
+            throw error("value must be null for null schema");
+          }
+          encoder.writeNull();
+          break;
+        case BOOLEAN:
+          encoder.writeBoolean((Boolean) value);
+          break;
+        case INT:
+          encoder.writeInt(((Number) value).intValue());
+          break;
+        case LONG:
+          encoder.writeLong(((Number) value).longValue());
+          break;
+        case FLOAT:
+          encoder.writeFloat(((Number) value).floatValue());
+          break;
+        case DOUBLE:
+          encoder.writeDouble(((Number) value).doubleValue());
+          break;
+        case STRING:
+          encoder.writeString(new Utf8((String) value));
+          break;
+        case BYTES:
+          byte[] bytes = DataTranslator.translateBytes(value);
+          encoder.writeBytes(bytes, 0, bytes.length);
+          break;
+        default:
+          throw error("schema type unknown %1$s", _type);
+      }
+    }
+
+    @Override
+    Object read(Decoder decoder) throws IOException
+    {
+      switch (_type)
+      {
+        case NULL:
+          decoder.readNull();
+          return Data.NULL;
+        case BOOLEAN:
+          return decoder.readBoolean();
+        case INT:
+          return decoder.readInt();
+        case LONG:
+          return decoder.readLong();
+        case FLOAT:
+          return decoder.readFloat();
+        case DOUBLE:
+          return decoder.readDouble();
+        case STRING:
+          return decoder.readString(null).toString();
+        case BYTES:
+          return ByteString.copy(decoder.readBytes(null));
+        default:
+          throw error("schema type unknown %1$s", _type);
+      }
+    }
+  }
+
+  private static class EnumTranslator extends Translator
+  {
+    private final Map<String, Integer> _ordinals;
+    private final List<String> _avroSymbols;
+
+    private EnumTranslator(EnumDataSchema dataSchema, Schema avroSchema)
+    {
+      _avroSymbols = avroSchema.getEnumSymbols();
+      _ordinals = new HashMap<String, Integer>();
+      for (String symbol : dataSchema.getSymbols())
+      {
+        int ordinal = _avroSymbols.indexOf(symbol);
+        if (ordinal < 0)
+        {
+          throw new IllegalArgumentException("Enum symbol " + symbol + " of " + dataSchema.getFullName() +
+                                             " is not in " + avroSchema.getFullName());
+        }
+        _ordinals.put(symbol, ordinal);
+      }
+    }
+
+    @Override
+    void write(Object value, Encoder encoder) throws IOException
+    {
+      String symbol = value.toString();
+      Integer ordinal = _ordinals.get(symbol);
+      if (ordinal == null)
+      {
+        throw error("enum value %1$s not one of %2$s", symbol, _ordinals.keySet());
+      }
+      encoder.writeEnum(ordinal);
+    }
+
+    @Override
+    Object read(Decoder decoder) throws IOException
+    {
+      String symbol = _avroSymbols.get(decoder.readEnum());
+      if (!_ordinals.containsKey(symbol))
+      {
+        throw error("enum value %1$s not one of %2$s", symbol, _ordinals.keySet());
+      }
+      return symbol;
+    }
+  }
+
+  private static class FixedTranslator extends Translator
+  {
+    private final int _size;
+
+    private FixedTranslator(FixedDataSchema dataSchema)
+    {
+      _size = dataSchema.getSize();
+    }
+
+    @Override
+    void write(Object value, Encoder encoder) throws IOException
+    {
+      byte[] bytes = DataTranslator.translateBytes(value);
+      if (bytes.length != _size)
+      {
+        throw error("ByteString size %1$d != FixedDataSchema size %2$d", bytes.length, _size);
+      }
+      encoder.writeFixed(bytes, 0, _size);
+    }
+
+    @Override
+    Object read(Decoder decoder) throws IOException
+    {
+      byte[] bytes = new byte[_size];
+      decoder.readFixed(bytes);
+      return ByteString.copy(bytes);
+    }
+  }
+
+  private static class MapTranslator extends Translator
+  {
+    private Translator _values;
+
+    @Override
+    void write(Object value, Encoder encoder) throws IOException
+    {
+      DataMap map = (DataMap) value;
+      encoder.writeMapStart();
+      encoder.setItemCount(map.size());
+      for (Map.Entry<String, Object> entry : map.entrySet())
+      {
+        encoder.startItem();
+        encoder.writeString(new Utf8(entry.getKey()));
+        try
+        {
+          _values.write(entry.getValue(), encoder);
+        }
+        catch (RuntimeException e)
+        {
+          throw TranslationError.wrap(e).addPath(entry.getKey());
+        }
+      }
+      encoder.writeMapEnd();
+    }
+
+    @Override
+    Object read(Decoder decoder) throws IOException
+    {
+      DataMap map = new DataMap();
+      for (long count = decoder.readMapStart(); count != 0; count = decoder.mapNext())
+      {
+        for (long i = 0; i < count; i++)
+        {
+          String key = decoder.readString(null).toString();
+          try
+          {
+            map.put(key, _values.read(decoder));
+          }
+          catch (RuntimeException e)
+          {
+            throw TranslationError.wrap(e).addPath(key);
+          }
+        }
+      }
+      return map;
+    }
+  }
+
+  private static class ArrayTranslator extends Translator
+  {
+    private Translator _items;
+
+    @Override
+    void write(Object value, Encoder encoder) throws IOException
+    {
+      DataList list = (DataList) value;
+      encoder.writeArrayStart();
+      encoder.setItemCount(list.size());
+      for (int i = 0; i < list.size(); i++)
+      {
+        encoder.startItem();
+        try
+        {
+          _items.write(list.get(i), encoder);
+        }
+        catch (RuntimeException e)
+        {
+          throw TranslationError.wrap(e).addPath(i);
+        }
+      }
+      encoder.writeArrayEnd();
+    }
+
+    @Override
+    Object read(Decoder decoder) throws IOException
+    {
+      DataList list = new DataList();
+      for (long count = decoder.readArrayStart(); count != 0; count = decoder.arrayNext())
+      {
+        for (long i = 0; i < count; i++)
+        {
+          try
+          {
+            list.add(_items.read(decoder));
+          }
+          catch (RuntimeException e)
+          {
+            throw TranslationError.wrap(e).addPath(list.size());
+          }
+        }
+      }
+      return list;
+    }
+  }
+
+  private static class UnionTranslator extends Translator
+  {
+    private final Map<String, Integer> _indices = new HashMap<String, Integer>();
+    private int _nullIndex = -1;
+    private boolean _hasNullMember;
+    private String[] _keys;
+    private Translator[] _members;
+
+    @Override
+    void write(Object value, Encoder encoder) throws IOException
+    {
+      if (value == Data.NULL)
+      {
+        if (!_hasNullMember)
+        {
+          throw error("cannot find %1$s in union", DataSchemaConstants.NULL_TYPE);
+        }
+        writeAbsent(encoder);
+        return;
+      }
+
+      DataMap map = (DataMap) value;
+      if (map.size() != 1)
+      {
+        throw error("union value must have exactly one member, but has %1$d", map.size());
+      }
+      Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+      Integer index = _indices.get(entry.getKey());
+      if (index == null)
+      {
+        throw error("cannot find %1$s in union", entry.getKey());
+      }
+      encoder.writeIndex(index);
+      try
+      {
+        _members[index].write(entry.getValue(), encoder);
+      }
+      catch (RuntimeException e)
+      {
+        throw TranslationError.wrap(e).addPath(entry.getKey());
+      }
+    }
+
+    /**
+     * Write an absent optional union field, which is translated to the null member of the Avro union.
+     */
+    void writeAbsent(Encoder encoder) throws IOException
+    {
+      if (_nullIndex < 0)
+      {
+        throw error("cannot find %1$s in union", DataSchemaConstants.NULL_TYPE);
+      }
+      encoder.writeIndex(_nullIndex);
+      encoder.writeNull();
+    }
+
+    @Override
+    Object read(Decoder decoder) throws IOException
+    {
+      int index = decoder.readIndex();
+      if (index == _nullIndex)
+      {
+        decoder.readNull();
+        return Data.NULL;
+      }
+      if (_members[index] == null)
+      {
+        throw error("cannot find union member %1$d", index);
+      }
+      try
+      {
+        DataMap map = new DataMap(2);
+        map.put(_keys[index], _members[index].read(decoder));
+        return map;
+      }
+      catch (RuntimeException e)
+      {
+        throw TranslationError.wrap(e).addPath(_keys[index]);
+      }
+    }
+  }
+
+  private static class RecordTranslator extends Translator
+  {
+    private Field[] _fields;
+
+    @Override
+    void write(Object value, Encoder encoder) throws IOException
+    {
+      DataMap map = (DataMap) value;
+      for (Field field : _fields)
+      {
+        try
+        {
+          field.write(map.get(field._name), encoder);
+        }
+        catch (RuntimeException e)
+        {
+          throw TranslationError.wrap(e).addPath(field._name);
+        }
+      }
+    }
+
+    @Override
+    Object read(Decoder decoder) throws IOException
+    {
+      DataMap map = new DataMap((int) (_fields.length / 0.75f) + 1);
+      for (Field field : _fields)
+      {
+        try
+        {
+          Object value = field.read(decoder);
+          if (value != null)
+          {
+            map.put(field._name, value);
+          }
+        }
+        catch (RuntimeException e)
+        {
+          throw TranslationError.wrap(e).addPath(field._name);
+        }
+      }
+      return map;
+    }
+  }
+
+  /**
+   * A record field, in the order of the Avro record schema.
+   */
+  private static class Field
+  {
+    private final String _name;
+    private final boolean _optional;
+    private final Translator _translator;
+    // for optional fields, which are translated to a union with null unless already a union
+    private final int _nullIndex;
+    private final int _valueIndex;
+
+    private Field(String name, boolean optional, Translator translator, int nullIndex, int valueIndex)
+    {
+      _name = name;
+      _optional = optional;
+      _translator = translator;
+      _nullIndex = nullIndex;
+      _valueIndex = valueIndex;
+    }
+
+    private void write(Object value, Encoder encoder) throws IOException
+    {
+      if (value == null)
+      {
+        if (!_optional)
+        {
+          throw error("required field is absent");
+        }
+        if (_valueIndex < 0)
+        {
+          ((UnionTranslator) _translator).writeAbsent(encoder);
+        }
+        else
+        {
+          encoder.writeIndex(_nullIndex);
+          encoder.writeNull();
+        }
+      }
+      else
+      {
+        if (_valueIndex >= 0)
+        {
+          encoder.writeIndex(_valueIndex);
+        }
+        _translator.write(value, encoder);
+      }
+    }
+
+    /**
+     * @return the value of the field, or null if an optional field is absent.
+     */
+    private Object read(Decoder decoder) throws IOException
+    {
+      if (_valueIndex >= 0)
+      {
+        int index = decoder.readIndex();
+        if (index == _nullIndex)
+        {
+          decoder.readNull();
+          return null;
+        }
+        if (index != _valueIndex)
+        {
+          throw error("cannot find union member %1$d", index);
+        }
+        return _translator.read(decoder);
+      }
+
+      Object value = _translator.read(decoder);
+      return (_optional && value == Data.NULL) ? null : value;
+    }
+  }
+
+  private static class CustomTranslator extends Translator
+  {
+    private final CustomDataTranslator _customDataTranslator;
+    private final DataSchema _dataSchema;
+    private final Schema _avroSchema;
+
+    private CustomTranslator(CustomDataTranslator customDataTranslator, DataSchema dataSchema, Schema avroSchema)
+    {
+      _customDataTranslator = customDataTranslator;
+      _dataSchema = dataSchema;
+      _avroSchema = avroSchema;
+    }
+
+    @Override
+    void write(Object value, Encoder encoder) throws IOException
+    {
+      Context context = new Context();
+      Object avroValue = _customDataTranslator.dataToAvroGeneric(context, value, _dataSchema, _avroSchema);
+      context.check();
+      new GenericDatumWriter<Object>(_avroSchema).write(avroValue, encoder);
+    }
+
+    @Override
+    Object read(Decoder decoder) throws IOException
+    {
+      Object avroValue = new GenericDatumReader<Object>(_avroSchema).read(null, decoder);
+      Context context = new Context();
+      Object value = _customDataTranslator.avroGenericToData(context, avroValue, _avroSchema, _dataSchema);
+      context.check();
+      return value;
+    }
+
+    private static class Context implements DataTranslatorContext
+    {
+      private String _message;
+
+      @Override
+      public void appendMessage(String format, Object... args)
+      {
+        if (_message == null)
+        {
+          _message = String.format(format, args);
+        }
+      }
+
+      private void check()
+      {
+        if (_message != null)
+        {
+          throw error("%1$s", _message);
+        }
+      }
+    }
+  }
+
+  /**
+   * Compiles a {@link DataSchema} and the corresponding Avro {@link Schema} into {@link Translator}s.
+   */
+  private static class Compiler
+  {
+    private final List<String> _messages = new ArrayList<String>();
+    private final AvroOverrideMap _avroOverrideMap = new AvroOverrideMap(new AvroOverrideFactory()
+    {
+      {
+        setInstantiateCustomDataTranslator(true);
+      }
+
+      @Override
+      void emitMessage(String format, Object... args)
+      {
+        _messages.add(String.format(format, args));
+      }
+    });
+    // records may be recursive, so they are compiled once and referenced afterwards
+    private final Map<DataSchema, RecordTranslator> _records = new IdentityHashMap<DataSchema, RecordTranslator>();
+
+    private Translator compile(RecordDataSchema dataSchema, Schema avroSchema)
+    {
+      Translator translator = compile((DataSchema) dataSchema, avroSchema);
+      if (!_messages.isEmpty())
+      {
+        throw new IllegalArgumentException("Cannot compile " + dataSchema.getFullName() + ": " + _messages);
+      }
+      return translator;
+    }
+
+    private Translator compile(DataSchema dataSchema, Schema avroSchema)
+    {
+      AvroOverride avroOverride = _avroOverrideMap.getAvroOverride(dataSchema);
+      if (avroOverride != null)
+      {
+        return new CustomTranslator(avroOverride.getCustomDataTranslator(), dataSchema, avroSchema);
+      }
+
+      DataSchema dereferencedDataSchema = dataSchema.getDereferencedDataSchema();
+      switch (dereferencedDataSchema.getType())
+      {
+        case NULL:
+        case BOOLEAN:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+        case STRING:
+        case BYTES:
+          return new PrimitiveTranslator(dereferencedDataSchema.getType());
+        case ENUM:
+          return new EnumTranslator((EnumDataSchema) dereferencedDataSchema, avroSchema);
+        case FIXED:
+          return new FixedTranslator((FixedDataSchema) dereferencedDataSchema);
+        case MAP:
+          MapTranslator mapTranslator = new MapTranslator();
+          mapTranslator._values = compile(((MapDataSchema) dereferencedDataSchema).getValues(), avroSchema.getValueType());
+          return mapTranslator;
+        case ARRAY:
+          ArrayTranslator arrayTranslator = new ArrayTranslator();
+          arrayTranslator._items = compile(((ArrayDataSchema) dereferencedDataSchema).getItems(), avroSchema.getElementType());
+          return arrayTranslator;
+        case UNION:
+          return compileUnion((UnionDataSchema) dereferencedDataSchema, avroSchema);
+        case RECORD:
+          return compileRecord((RecordDataSchema) dereferencedDataSchema, avroSchema);
+        default:
+          throw new IllegalArgumentException("schema type unknown " + dereferencedDataSchema.getType());
+      }
+    }
+
+    private Translator compileUnion(UnionDataSchema dataSchema, Schema avroSchema)
+    {
+      UnionTranslator translator = new UnionTranslator();
+      int size = avroSchema.getTypes().size();
+      translator._keys = new String[size];
+      translator._members = new Translator[size];
+      translator._nullIndex = findUnionMember(avroSchema, DataSchemaConstants.NULL_TYPE);
+
+      for (DataSchema memberDataSchema : dataSchema.getTypes())
+      {
+        String key = memberDataSchema.getUnionMemberKey();
+        if (DataSchemaConstants.NULL_TYPE.equals(key))
+        {
+          translator._hasNullMember = true;
+          continue;
+        }
+        int index = findUnionMember(avroSchema, avroMemberName(memberDataSchema));
+        if (index < 0)
+        {
+          throw new IllegalArgumentException("cannot find " + key + " in union " + avroSchema);
+        }
+        translator._indices.put(key, index);
+        translator._keys[index] = key;
+        translator._members[index] = compile(memberDataSchema, avroSchema.getTypes().get(index));
+      }
+      return translator;
+    }
+
+    private Translator compileRecord(RecordDataSchema dataSchema, Schema avroSchema)
+    {
+      RecordTranslator translator = _records.get(dataSchema);
+      if (translator != null)
+      {
+        return translator;
+      }
+      translator = new RecordTranslator();
+      _records.put(dataSchema, translator);
+
+      List<Field> fields = new ArrayList<Field>(avroSchema.getFields().size());
+      for (Schema.Field avroField : avroSchema.getFields())
+      {
+        RecordDataSchema.Field field = dataSchema.getField(avroField.name());
+        if (field == null)
+        {
+          throw new IllegalArgumentException("Avro field " + avroField.name() + " is not a field of " + dataSchema.getFullName());
+        }
+
+        DataSchema fieldDataSchema = field.getType();
+        Schema fieldAvroSchema = avroField.schema();
+        if (field.getOptional() && fieldDataSchema.getDereferencedType() != DataSchema.Type.UNION)
+        {
+          // Avro schema should be union with 2 types: null and the field's type.
+          int nullIndex = findUnionMember(fieldAvroSchema, DataSchemaConstants.NULL_TYPE);
+          int valueIndex = findUnionMember(fieldAvroSchema, avroMemberName(fieldDataSchema));
+          if (nullIndex < 0 || valueIndex < 0)
+          {
+            throw new IllegalArgumentException("Avro schema of optional field " + field.getName() + " is not a union with null");
+          }
+          Translator fieldTranslator = compile(fieldDataSchema, fieldAvroSchema.getTypes().get(valueIndex));
+          fields.add(new Field(field.getName(), true, fieldTranslator, nullIndex, valueIndex));
+        }
+        else
+        {
+          fields.add(new Field(field.getName(), field.getOptional(), compile(fieldDataSchema, fieldAvroSchema), -1, -1));
+        }
+      }
+      translator._fields = fields.toArray(new Field[fields.size()]);
+      return translator;
+    }
+
+    private String avroMemberName(DataSchema dataSchema)
+    {
+      AvroOverride avroOverride = _avroOverrideMap.getAvroOverride(dataSchema);
+      return avroOverride == null ? dataSchema.getUnionMemberKey() : avroOverride.getAvroSchemaFullName();
+    }
+  }
+}
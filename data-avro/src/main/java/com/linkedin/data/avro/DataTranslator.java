@@ -614,7 +614,7 @@ public class DataTranslator implements DataTranslatorContext
     return null;
   }
 
-  private static byte[] translateBytes(Object value)
+  static byte[] translateBytes(Object value)
   {
     byte[] bytes = (value.getClass() == ByteString.class) ?
       ((ByteString) value).copyBytes() :
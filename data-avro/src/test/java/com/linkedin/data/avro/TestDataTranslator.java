@@ -849,6 +849,21 @@ public class TestDataTranslator
         if (debug) out.println(col + " Exception: " + result);
       }
 
+      // the binary codec accepts and rejects the same data
+      AvroBinaryDataCodec codec = new AvroBinaryDataCodec(recordDataSchema, avroSchema);
+      byte[] codecBytes = null;
+      String codecResult;
+      try
+      {
+        codecBytes = codec.mapToBytes(dataMap);
+        codecResult = null;
+      }
+      catch (DataTranslationException e)
+      {
+        codecResult = TestUtil.stringFromException(e);
+      }
+      assertEquals(codecBytes == null, avroRecord == null);
+
       int start = 1;
       boolean oneWay = false;
       if (start < row[col].length && row[col][start] == ONE_WAY)
@@ -867,6 +882,10 @@ public class TestDataTranslator
         if (debug && expected != expectedBeforeNamespaceProcessor) out.println(" Expected:" + expected);
 
         assertTrue(result.contains(expected));
+        if (codecResult != null)
+        {
+          assertTrue(codecResult.contains(expected));
+        }
       }
 
       if (avroRecord != null)
@@ -902,6 +921,11 @@ public class TestDataTranslator
         {
           assertEquals(dataMapResult, fixedInputDataMap);
         }
+
+        // the binary codec reads the bytes written by Avro, and Avro reads the bytes written by the codec
+        assertEquals(codec.bytesToMap(avroBytes), dataMapResult);
+        GenericRecord avroRecordFromCodecBytes = AvroUtil.genericRecordFromBytes(codecBytes, avroSchema);
+        assertEquals(DataTranslator.genericRecordToDataMap(avroRecordFromCodecBytes, recordDataSchema, avroSchema), dataMapResult);
       }
     }
   }
@@ -0,0 +1,49 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.perf;
+
+
+import com.linkedin.data.DataMap;
+import com.linkedin.data.schema.RecordDataSchema;
+import com.linkedin.data.schema.generator.SchemaSampleDataGenerator;
+import com.linkedin.data.template.DataTemplateUtil;
+
+
+/**
+ * Builds the sample {@link Profile} payloads shared by the data layer benchmarks.
+ */
+public class BenchmarkData
+{
+  public static final RecordDataSchema PROFILE_SCHEMA = (RecordDataSchema) DataTemplateUtil.getSchema(Profile.class);
+
+  /**
+   * Generate a {@link Profile} with every optional field populated.
+   *
+   * @param arraySize number of elements in each array, which drives the size of the payload
+   * @return a {@link DataMap} that validates against {@link #PROFILE_SCHEMA}
+   */
+  public static DataMap profile(int arraySize)
+  {
+    final SchemaSampleDataGenerator.DataGenerationOptions options = new SchemaSampleDataGenerator.DataGenerationOptions();
+    options.setArraySize(arraySize);
+    return SchemaSampleDataGenerator.buildRecordData(PROFILE_SCHEMA, options);
+  }
+
+  private BenchmarkData()
+  {
+  }
+}
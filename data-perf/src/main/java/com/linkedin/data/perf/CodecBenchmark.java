@@ -0,0 +1,91 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.perf;
+
+
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.BsonDataCodec;
+import com.linkedin.data.codec.DataCodec;
+import com.linkedin.data.codec.JacksonDataCodec;
+import com.linkedin.data.codec.PsonDataCodec;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * JMH benchmark of encoding and decoding a {@link Profile} with each {@link DataCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark
+{
+  public enum CodecType
+  {
+    JSON,
+    PSON,
+    BSON
+  }
+
+  @Param({"JSON", "PSON", "BSON"})
+  public CodecType _codecType;
+
+  @Param({"2", "20"})
+  public int _arraySize;
+
+  private DataCodec _codec;
+  private DataMap _data;
+  private byte[] _bytes;
+
+  @Setup
+  public void setUp() throws IOException
+  {
+    switch (_codecType)
+    {
+      case PSON:
+        _codec = new PsonDataCodec();
+        break;
+      case BSON:
+        _codec = new BsonDataCodec();
+        break;
+      default:
+        _codec = new JacksonDataCodec();
+    }
+    _data = BenchmarkData.profile(_arraySize);
+    _bytes = _codec.mapToBytes(_data);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException
+  {
+    return _codec.mapToBytes(_data);
+  }
+
+  @Benchmark
+  public DataMap decode() throws IOException
+  {
+    return _codec.bytesToMap(_bytes);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.perf;
+
+
+import com.linkedin.data.DataMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * JMH benchmark of {@link DataMap} clone and copy. A clone copies the entries of the top level map
+ * but shares the nested complex objects, while {@link #copy()} measures a full deep copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataMapBenchmark
+{
+  @Param({"2", "20"})
+  public int _arraySize;
+
+  private DataMap _data;
+
+  @Setup
+  public void setUp()
+  {
+    _data = BenchmarkData.profile(_arraySize);
+  }
+
+  @Benchmark
+  public DataMap cloneOnly() throws CloneNotSupportedException
+  {
+    return _data.clone();
+  }
+
+  @Benchmark
+  public DataMap cloneAndMutate() throws CloneNotSupportedException
+  {
+    final DataMap clone = _data.clone();
+    clone.put("firstName", "updated");
+    return clone;
+  }
+
+  @Benchmark
+  public DataMap copy() throws CloneNotSupportedException
+  {
+    return _data.copy();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.perf;
+
+
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.JacksonDataCodec;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Measures the retained heap of decoded {@link DataMap}s. The backing store of {@link DataMap} is
+ * chosen once per JVM, so run it once with and once without
+ * {@code -D}{@value com.linkedin.data.DataMap#COMPACT_PROPERTY}{@code =true} and compare.
+ */
+public class DataMapFootprint
+{
+  private static final int DEFAULT_COPIES = 20000;
+
+  public static void main(String[] args) throws IOException
+  {
+    final int copies = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COPIES;
+    final int arraySize = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+    final JacksonDataCodec codec = new JacksonDataCodec();
+    final byte[] bytes = codec.mapToBytes(BenchmarkData.profile(arraySize));
+
+    final List<DataMap> retained = new ArrayList<DataMap>(copies);
+    final long before = usedMemory();
+    for (int i = 0; i < copies; ++i)
+    {
+      retained.add(codec.bytesToMap(bytes));
+    }
+    final long after = usedMemory();
+
+    System.out.println(String.format("%s=%s: %d bytes per decoded profile",
+                                     DataMap.COMPACT_PROPERTY,
+                                     Boolean.getBoolean(DataMap.COMPACT_PROPERTY),
+                                     (after - before) / retained.size()));
+  }
+
+  private static long usedMemory()
+  {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; ++i)
+    {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private DataMapFootprint()
+  {
+  }
+}
@@ -0,0 +1,75 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.perf;
+
+
+import com.linkedin.data.DataMap;
+import com.linkedin.data.schema.PathSpec;
+import com.linkedin.data.transform.DataComplexProcessor;
+import com.linkedin.data.transform.DataProcessingException;
+import com.linkedin.data.transform.filter.Filter;
+import com.linkedin.data.transform.filter.request.MaskOperation;
+import com.linkedin.data.transform.filter.request.MaskTree;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * JMH benchmark of applying a projection to a {@link Profile} with {@link Filter}. The filter
+ * works in place, so every invocation projects a fresh copy; subtract
+ * {@link DataMapBenchmark#copy()} for the cost of the filter alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionBenchmark
+{
+  @Param({"2", "20"})
+  public int _arraySize;
+
+  private DataMap _data;
+  private DataMap _projection;
+
+  @Setup
+  public void setUp()
+  {
+    _data = BenchmarkData.profile(_arraySize);
+
+    final MaskTree mask = new MaskTree();
+    mask.addOperation(new PathSpec("id"), MaskOperation.POSITIVE_MASK_OP);
+    mask.addOperation(new PathSpec("firstName"), MaskOperation.POSITIVE_MASK_OP);
+    mask.addOperation(new PathSpec("lastName"), MaskOperation.POSITIVE_MASK_OP);
+    mask.addOperation(new PathSpec("positions", PathSpec.WILDCARD, "title"), MaskOperation.POSITIVE_MASK_OP);
+    mask.addOperation(new PathSpec("contact", "email"), MaskOperation.POSITIVE_MASK_OP);
+    _projection = mask.getDataMap();
+  }
+
+  @Benchmark
+  public DataMap project() throws CloneNotSupportedException, DataProcessingException
+  {
+    final DataMap data = _data.copy();
+    new DataComplexProcessor(new Filter(), _projection, data).run(false);
+    return data;
+  }
+}
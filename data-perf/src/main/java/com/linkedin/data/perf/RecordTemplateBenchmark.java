@@ -0,0 +1,93 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.perf;
+
+
+import com.linkedin.data.DataMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * JMH benchmark of generated {@link Profile} getters. {@link #cachedGetters(Blackhole)} reads
+ * through a long lived template whose {@link com.linkedin.data.template.DataObjectToObjectCache}
+ * is warm after the first invocation; {@link #wrapAndGet(Blackhole)} wraps the {@link DataMap}
+ * first, as a resource method does for each request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecordTemplateBenchmark
+{
+  @Param({"2", "20"})
+  public int _arraySize;
+
+  private DataMap _data;
+  private Profile _profile;
+
+  @Setup
+  public void setUp()
+  {
+    _data = BenchmarkData.profile(_arraySize);
+    _profile = new Profile(_data);
+  }
+
+  @Benchmark
+  public void cachedGetters(Blackhole blackhole)
+  {
+    readAll(_profile, blackhole);
+  }
+
+  @Benchmark
+  public void wrapAndGet(Blackhole blackhole)
+  {
+    readAll(new Profile(_data), blackhole);
+  }
+
+  private static void readAll(Profile profile, Blackhole blackhole)
+  {
+    blackhole.consume(profile.getId());
+    blackhole.consume(profile.getFirstName());
+    blackhole.consume(profile.getLastName());
+    blackhole.consume(profile.getHeadline());
+    blackhole.consume(profile.getScore());
+    blackhole.consume(profile.isActive());
+    blackhole.consume(profile.getStatus());
+    blackhole.consume(profile.getTags());
+    blackhole.consume(profile.getAttributes());
+    for (Position position : profile.getPositions())
+    {
+      blackhole.consume(position.getTitle());
+      blackhole.consume(position.getCompanyId());
+      blackhole.consume(position.getSkills());
+    }
+    final ContactInfo contact = profile.getContact();
+    if (contact != null)
+    {
+      blackhole.consume(contact.getEmail());
+      blackhole.consume(contact.getPhoneNumbers());
+    }
+  }
+}
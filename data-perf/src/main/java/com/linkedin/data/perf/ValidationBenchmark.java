@@ -0,0 +1,65 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.perf;
+
+
+import com.linkedin.data.DataMap;
+import com.linkedin.data.schema.validation.ValidateDataAgainstSchema;
+import com.linkedin.data.schema.validation.ValidationOptions;
+import com.linkedin.data.schema.validation.ValidationResult;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * JMH benchmark of {@link ValidateDataAgainstSchema} on a valid {@link Profile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ValidationBenchmark
+{
+  @Param({"2", "20"})
+  public int _arraySize;
+
+  private DataMap _data;
+  private ValidationOptions _options;
+
+  @Setup
+  public void setUp()
+  {
+    _data = BenchmarkData.profile(_arraySize);
+    _options = new ValidationOptions();
+    if (!validate().isValid())
+    {
+      throw new IllegalStateException("Generated profile does not validate");
+    }
+  }
+
+  @Benchmark
+  public ValidationResult validate()
+  {
+    return ValidateDataAgainstSchema.validate(_data, BenchmarkData.PROFILE_SCHEMA, _options);
+  }
+}
@@ -25,10 +25,18 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * An immutable sequence of bytes.
+ * An immutable sequence of bytes.<p>
+ *
+ * A ByteString is either backed by a single byte[] or, when created with {@link #unsafeWrap(List)}, by a
+ * sequence of read only {@link ByteBuffer} segments. The latter lets transports hand over received data
+ * without assembling it into one array; it is transparent to users of {@link #asInputStream()},
+ * {@link #asByteBuffers()} and {@link #write(OutputStream)}.
  *
  * @author Chris Pettitt
  * @version $Revision$
@@ -37,7 +45,12 @@ public final class ByteString
 {
   private static final ByteString EMPTY = new ByteString(new byte[0]);
 
+  private static final int WRITE_BUFFER_SIZE = 8192;
+
+  // exactly one of _bytes and _segments is non-null
   private final byte[] _bytes;
+  private final ByteBuffer[] _segments;
+  private final int _length;
 
   /**
    * Returns an empty {@link ByteString}.
@@ -84,6 +97,41 @@ public final class ByteString
     return new ByteString(bytes);
   }
 
+  /**
+   * Returns a new {@link ByteString} backed by the remaining bytes of the supplied {@link ByteBuffer}s, in
+   * order. The bytes are not copied, so the caller must not modify the content of the buffers afterwards.
+   * The positions and limits of the supplied buffers are not changed.
+   *
+   * @param buffers the buffers that provide the bytes.
+   * @return a {@link ByteString} backed by the supplied buffers.
+   * @throws NullPointerException if {@code buffers} is {@code null}.
+   * @throws IllegalArgumentException if the buffers hold more than {@link Integer#MAX_VALUE} bytes.
+   */
+  public static ByteString unsafeWrap(List<ByteBuffer> buffers)
+  {
+    ArgumentUtil.notNull(buffers, "buffers");
+    final List<ByteBuffer> segments = new ArrayList<ByteBuffer>(buffers.size());
+    long length = 0;
+    for (ByteBuffer buffer : buffers)
+    {
+      if (buffer.hasRemaining())
+      {
+        segments.add(buffer.asReadOnlyBuffer().slice());
+        length += buffer.remaining();
+      }
+    }
+
+    if (length > Integer.MAX_VALUE)
+    {
+      throw new IllegalArgumentException("ByteString can not hold more than " + Integer.MAX_VALUE + " bytes");
+    }
+    if (segments.isEmpty())
+    {
+      return empty();
+    }
+    return new ByteString(segments.toArray(new ByteBuffer[segments.size()]), (int) length);
+  }
+
   /**
    * Returns a new {@link ByteString} that wraps the bytes generated from the supplied string with the
    * given charset.
@@ -180,6 +228,16 @@ public final class ByteString
   {
     assert bytes != null;
     _bytes = bytes;
+    _segments = null;
+    _length = bytes.length;
+  }
+
+  private ByteString(ByteBuffer[] segments, int length)
+  {
+    assert segments != null;
+    _bytes = null;
+    _segments = segments;
+    _length = length;
   }
 
   /**
@@ -189,7 +247,7 @@ public final class ByteString
    */
   public int length()
   {
-    return _bytes.length;
+    return _length;
   }
 
   /**
@@ -205,7 +263,14 @@ public final class ByteString
    */
   public byte[] copyBytes()
   {
-    return Arrays.copyOf(_bytes, _bytes.length);
+    if (_bytes != null)
+    {
+      return Arrays.copyOf(_bytes, _bytes.length);
+    }
+
+    final byte[] bytes = new byte[_length];
+    copyBytes(bytes, 0);
+    return bytes;
   }
 
   /**
@@ -221,17 +286,59 @@ public final class ByteString
    */
   public void copyBytes(byte[] dest, int offset)
   {
-    System.arraycopy(_bytes, 0, dest, offset, _bytes.length);
+    if (_bytes != null)
+    {
+      System.arraycopy(_bytes, 0, dest, offset, _bytes.length);
+      return;
+    }
+
+    for (ByteBuffer segment : _segments)
+    {
+      final int size = segment.remaining();
+      segment.duplicate().get(dest, offset, size);
+      offset += size;
+    }
   }
 
   /**
-   * Returns a read only {@link ByteBuffer} view of this {@link ByteString}. This method makes no copy.
+   * Returns a read only {@link ByteBuffer} view of this {@link ByteString}. This method makes no copy, unless
+   * this {@link ByteString} is backed by more than one segment, in which case the segments are copied into
+   * a single buffer. Use {@link #asByteBuffers()} to avoid that copy.
    *
    * @return read only {@link ByteBuffer} view of this {@link ByteString}.
    */
   public ByteBuffer asByteBuffer()
   {
-    return ByteBuffer.wrap(_bytes).asReadOnlyBuffer();
+    if (_bytes != null)
+    {
+      return ByteBuffer.wrap(_bytes).asReadOnlyBuffer();
+    }
+    if (_segments.length == 1)
+    {
+      return _segments[0].duplicate();
+    }
+    return ByteBuffer.wrap(copyBytes()).asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns read only {@link ByteBuffer} views of the segments of this {@link ByteString}, in order. This
+   * method makes no copy.
+   *
+   * @return read only {@link ByteBuffer} views of the bytes in this {@link ByteString}.
+   */
+  public List<ByteBuffer> asByteBuffers()
+  {
+    if (_bytes != null)
+    {
+      return Collections.singletonList(asByteBuffer());
+    }
+
+    final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>(_segments.length);
+    for (ByteBuffer segment : _segments)
+    {
+      buffers.add(segment.duplicate());
+    }
+    return buffers;
   }
 
   /**
@@ -255,7 +362,7 @@ public final class ByteString
    */
   public String asString(Charset charset)
   {
-    return new String(_bytes, charset);
+    return new String(contiguousBytes(), charset);
   }
 
   /**
@@ -265,7 +372,7 @@ public final class ByteString
    */
   public String asAvroString()
   {
-    return Data.bytesToString(_bytes);
+    return Data.bytesToString(contiguousBytes());
   }
 
   /**
@@ -275,7 +382,11 @@ public final class ByteString
    */
   public InputStream asInputStream()
   {
-    return new ByteArrayInputStream(_bytes);
+    if (_bytes != null)
+    {
+      return new ByteArrayInputStream(_bytes);
+    }
+    return new SegmentInputStream(_segments);
   }
 
   /**
@@ -287,7 +398,23 @@ public final class ByteString
    */
   public void write(OutputStream out) throws IOException
   {
-    out.write(_bytes);
+    if (_bytes != null)
+    {
+      out.write(_bytes);
+      return;
+    }
+
+    final byte[] buf = new byte[Math.min(_length, WRITE_BUFFER_SIZE)];
+    for (ByteBuffer segment : _segments)
+    {
+      final ByteBuffer src = segment.duplicate();
+      while (src.hasRemaining())
+      {
+        final int size = Math.min(src.remaining(), buf.length);
+        src.get(buf, 0, size);
+        out.write(buf, 0, size);
+      }
+    }
   }
 
   @Override
@@ -304,13 +431,32 @@ public final class ByteString
     }
 
     ByteString that = (ByteString) o;
-    return Arrays.equals(_bytes, that._bytes);
+    if (_bytes != null && that._bytes != null)
+    {
+      return Arrays.equals(_bytes, that._bytes);
+    }
+    return _length == that._length && contentEquals(segments(), that.segments());
   }
 
   @Override
   public int hashCode()
   {
-    return Arrays.hashCode(_bytes);
+    if (_bytes != null)
+    {
+      return Arrays.hashCode(_bytes);
+    }
+
+    // same as Arrays.hashCode(copyBytes()), so that equal ByteStrings have equal hash codes regardless of
+    // how they are backed
+    int result = 1;
+    for (ByteBuffer segment : _segments)
+    {
+      for (int i = 0; i < segment.limit(); i++)
+      {
+        result = 31 * result + segment.get(i);
+      }
+    }
+    return result;
   }
 
   /**
@@ -326,23 +472,175 @@ public final class ByteString
     StringBuilder sb = new StringBuilder();
     sb.append("ByteString(length=");
     sb.append(length());
-    if (_bytes.length > 0)
+    if (_length > 0)
     {
       sb.append(",bytes=");
-      for (int i = 0; i < Math.min(_bytes.length, NUM_BYTES); i++)
+      for (int i = 0; i < Math.min(_length, NUM_BYTES); i++)
       {
-        sb.append(String.format("%02x", (int) _bytes[i] & 0xff));
+        sb.append(String.format("%02x", (int) byteAt(i) & 0xff));
       }
-      if (_bytes.length > NUM_BYTES * 2)
+      if (_length > NUM_BYTES * 2)
       {
         sb.append("...");
       }
-      for (int i = Math.max(NUM_BYTES, _bytes.length - NUM_BYTES); i < _bytes.length; i++)
+      for (int i = Math.max(NUM_BYTES, _length - NUM_BYTES); i < _length; i++)
       {
-        sb.append(String.format("%02x", (int)_bytes[i] & 0xff));
+        sb.append(String.format("%02x", (int) byteAt(i) & 0xff));
       }
     }
     sb.append(")");
     return sb.toString();
   }
+
+  /**
+   * Returns the bytes of this {@link ByteString} as a single array. The array is shared with this
+   * {@link ByteString} if it is backed by a single array, so it must not be modified or leaked.
+   */
+  private byte[] contiguousBytes()
+  {
+    return _bytes != null ? _bytes : copyBytes();
+  }
+
+  private ByteBuffer[] segments()
+  {
+    return _bytes != null ? new ByteBuffer[] { ByteBuffer.wrap(_bytes) } : _segments;
+  }
+
+  private byte byteAt(int index)
+  {
+    if (_bytes != null)
+    {
+      return _bytes[index];
+    }
+
+    for (ByteBuffer segment : _segments)
+    {
+      if (index < segment.limit())
+      {
+        return segment.get(index);
+      }
+      index -= segment.limit();
+    }
+    throw new IndexOutOfBoundsException();
+  }
+
+  /**
+   * Compares the content of two sequences of segments of the same total length. All segments start at
+   * position zero, so absolute gets are used and the buffers are never modified.
+   */
+  private static boolean contentEquals(ByteBuffer[] a, ByteBuffer[] b)
+  {
+    int ai = 0, bi = 0, ap = 0, bp = 0;
+    while (ai < a.length && bi < b.length)
+    {
+      final ByteBuffer x = a[ai];
+      final ByteBuffer y = b[bi];
+      final int size = Math.min(x.limit() - ap, y.limit() - bp);
+      for (int i = 0; i < size; i++)
+      {
+        if (x.get(ap + i) != y.get(bp + i))
+        {
+          return false;
+        }
+      }
+      ap += size;
+      bp += size;
+      if (ap == x.limit())
+      {
+        ai++;
+        ap = 0;
+      }
+      if (bp == y.limit())
+      {
+        bi++;
+        bp = 0;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * An {@link InputStream} over the segments of a segmented {@link ByteString}.
+   */
+  private static class SegmentInputStream extends InputStream
+  {
+    private final ByteBuffer[] _segments;
+    private int _index;
+
+    private SegmentInputStream(ByteBuffer[] segments)
+    {
+      _segments = new ByteBuffer[segments.length];
+      for (int i = 0; i < segments.length; i++)
+      {
+        _segments[i] = segments[i].duplicate();
+      }
+    }
+
+    @Override
+    public int read()
+    {
+      final ByteBuffer current = current();
+      return current == null ? -1 : current.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+    {
+      if (len == 0)
+      {
+        return 0;
+      }
+
+      ByteBuffer current = current();
+      if (current == null)
+      {
+        return -1;
+      }
+
+      int read = 0;
+      while (current != null && read < len)
+      {
+        final int size = Math.min(current.remaining(), len - read);
+        current.get(b, off + read, size);
+        read += size;
+        current = current();
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n)
+    {
+      long skipped = 0;
+      ByteBuffer current = current();
+      while (current != null && skipped < n)
+      {
+        final int size = (int) Math.min(current.remaining(), n - skipped);
+        current.position(current.position() + size);
+        skipped += size;
+        current = current();
+      }
+      return skipped;
+    }
+
+    @Override
+    public int available()
+    {
+      long available = 0;
+      for (int i = _index; i < _segments.length; i++)
+      {
+        available += _segments[i].remaining();
+      }
+      return (int) Math.min(available, Integer.MAX_VALUE);
+    }
+
+    private ByteBuffer current()
+    {
+      while (_index < _segments.length && !_segments[_index].hasRemaining())
+      {
+        _index++;
+      }
+      return _index < _segments.length ? _segments[_index] : null;
+    }
+  }
 }
@@ -19,6 +19,7 @@ package com.linkedin.data;
 import com.linkedin.data.collections.CheckedList;
 import com.linkedin.data.collections.CommonList;
 import com.linkedin.data.collections.ListChecker;
+import com.linkedin.data.collections.PrimitiveList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.IdentityHashMap;
@@ -51,6 +52,14 @@ import java.util.Map;
  * is lazy and may be delayed until the {@link DataList} is about to be modified.
  * <p>
  *
+ * A {@link DataList} of Integers, Longs, Floats, Doubles or Booleans may store its
+ * elements in a primitive array, without boxing them. Such a list is constructed from a
+ * primitive array, or by adding the first elements of an empty list with a typed add method
+ * like {@link #addDouble(double)}. The typed get methods like {@link #getDouble(int)} read
+ * elements without boxing them. Storing an element of another class into the list switches it
+ * back to boxed elements.
+ * <p>
+ *
  * @author slim
  */
 public final class DataList extends CheckedList<Object> implements DataComplex
@@ -83,6 +92,56 @@ public final class DataList extends CheckedList<Object> implements DataComplex
     super(initialCapacity, _checker);
   }
 
+  /**
+   * Construct a {@link DataList} of Integers stored in a copy of the provided array.
+   *
+   * @param values provides the initial elements of the constructed list.
+   */
+  public DataList(int[] values)
+  {
+    super(new PrimitiveList.IntList(values), _checker);
+  }
+
+  /**
+   * Construct a {@link DataList} of Longs stored in a copy of the provided array.
+   *
+   * @param values provides the initial elements of the constructed list.
+   */
+  public DataList(long[] values)
+  {
+    super(new PrimitiveList.LongList(values), _checker);
+  }
+
+  /**
+   * Construct a {@link DataList} of Floats stored in a copy of the provided array.
+   *
+   * @param values provides the initial elements of the constructed list.
+   */
+  public DataList(float[] values)
+  {
+    super(new PrimitiveList.FloatList(values), _checker);
+  }
+
+  /**
+   * Construct a {@link DataList} of Doubles stored in a copy of the provided array.
+   *
+   * @param values provides the initial elements of the constructed list.
+   */
+  public DataList(double[] values)
+  {
+    super(new PrimitiveList.DoubleList(values), _checker);
+  }
+
+  /**
+   * Construct a {@link DataList} of Booleans stored in a copy of the provided array.
+   *
+   * @param values provides the initial elements of the constructed list.
+   */
+  public DataList(boolean[] values)
+  {
+    super(new PrimitiveList.BooleanList(values), _checker);
+  }
+
   @Override
   public Object get(int index)
   {
@@ -109,6 +168,11 @@ public final class DataList extends CheckedList<Object> implements DataComplex
   @Override
   public void copyReferencedObjects(IdentityHashMap<DataComplex, DataComplex> alreadyCopied) throws CloneNotSupportedException
   {
+    if (getPrimitiveList() != null)
+    {
+      return;
+    }
+
     int count = size();
     for (int i = 0; i < count; ++i)
     {
@@ -130,9 +194,12 @@ public final class DataList extends CheckedList<Object> implements DataComplex
   @Override
   public void makeReadOnly()
   {
-    for (Object o : this)
+    if (getPrimitiveList() == null)
     {
-      Data.makeReadOnly(o);
+      for (Object o : this)
+      {
+        Data.makeReadOnly(o);
+      }
     }
     setReadOnly();
     _madeReadOnly = true;
@@ -166,6 +233,307 @@ public final class DataList extends CheckedList<Object> implements DataComplex
     return (DataMap) get(index);
   }
 
+  /**
+   * Returns the class of the elements if they are stored in a primitive array.
+   *
+   * @return Integer, Long, Float, Double or Boolean class, or null if the elements are boxed.
+   */
+  public Class<?> getPrimitiveClass()
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    return primitiveList == null ? null : primitiveList.getElementClass();
+  }
+
+  /**
+   * Returns the element at the specified position as an int, without boxing primitive elements.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position converted like {@link Number#intValue()}.
+   * @throws ClassCastException if the element is not a {@link Number}.
+   */
+  public int getInt(int index)
+  {
+    instrumentAccess(index);
+    final PrimitiveList primitiveList = getPrimitiveList();
+    return primitiveList == null ? ((Number) super.get(index)).intValue() : primitiveList.getInt(index);
+  }
+
+  /**
+   * Returns the element at the specified position as a long, without boxing primitive elements.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position converted like {@link Number#longValue()}.
+   * @throws ClassCastException if the element is not a {@link Number}.
+   */
+  public long getLong(int index)
+  {
+    instrumentAccess(index);
+    final PrimitiveList primitiveList = getPrimitiveList();
+    return primitiveList == null ? ((Number) super.get(index)).longValue() : primitiveList.getLong(index);
+  }
+
+  /**
+   * Returns the element at the specified position as a float, without boxing primitive elements.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position converted like {@link Number#floatValue()}.
+   * @throws ClassCastException if the element is not a {@link Number}.
+   */
+  public float getFloat(int index)
+  {
+    instrumentAccess(index);
+    final PrimitiveList primitiveList = getPrimitiveList();
+    return primitiveList == null ? ((Number) super.get(index)).floatValue() : primitiveList.getFloat(index);
+  }
+
+  /**
+   * Returns the element at the specified position as a double, without boxing primitive elements.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position converted like {@link Number#doubleValue()}.
+   * @throws ClassCastException if the element is not a {@link Number}.
+   */
+  public double getDouble(int index)
+  {
+    instrumentAccess(index);
+    final PrimitiveList primitiveList = getPrimitiveList();
+    return primitiveList == null ? ((Number) super.get(index)).doubleValue() : primitiveList.getDouble(index);
+  }
+
+  /**
+   * Returns the element at the specified position as a boolean, without boxing primitive elements.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws ClassCastException if the element is not a {@link Boolean}.
+   */
+  public boolean getBoolean(int index)
+  {
+    instrumentAccess(index);
+    final PrimitiveList primitiveList = getPrimitiveList();
+    return primitiveList == null ? (Boolean) super.get(index) : primitiveList.getBoolean(index);
+  }
+
+  /**
+   * Appends an Integer to the end of the list, storing it in a primitive array if the list is empty
+   * or already stores Integers that way.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addInt(int value)
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.IntList && !isReadOnly())
+    {
+      ((PrimitiveList.IntList) primitiveList).addInt(value);
+    }
+    else if (isEmpty() && !isReadOnly())
+    {
+      final PrimitiveList.IntList created = new PrimitiveList.IntList();
+      created.addInt(value);
+      setPrimitiveList(created);
+    }
+    else
+    {
+      addWithoutChecking(value);
+    }
+  }
+
+  /**
+   * Appends a Long to the end of the list, storing it in a primitive array if the list is empty
+   * or already stores Longs that way.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addLong(long value)
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.LongList && !isReadOnly())
+    {
+      ((PrimitiveList.LongList) primitiveList).addLong(value);
+    }
+    else if (isEmpty() && !isReadOnly())
+    {
+      final PrimitiveList.LongList created = new PrimitiveList.LongList();
+      created.addLong(value);
+      setPrimitiveList(created);
+    }
+    else
+    {
+      addWithoutChecking(value);
+    }
+  }
+
+  /**
+   * Appends a Float to the end of the list, storing it in a primitive array if the list is empty
+   * or already stores Floats that way.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addFloat(float value)
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.FloatList && !isReadOnly())
+    {
+      ((PrimitiveList.FloatList) primitiveList).addFloat(value);
+    }
+    else if (isEmpty() && !isReadOnly())
+    {
+      final PrimitiveList.FloatList created = new PrimitiveList.FloatList();
+      created.addFloat(value);
+      setPrimitiveList(created);
+    }
+    else
+    {
+      addWithoutChecking(value);
+    }
+  }
+
+  /**
+   * Appends a Double to the end of the list, storing it in a primitive array if the list is empty
+   * or already stores Doubles that way.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addDouble(double value)
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.DoubleList && !isReadOnly())
+    {
+      ((PrimitiveList.DoubleList) primitiveList).addDouble(value);
+    }
+    else if (isEmpty() && !isReadOnly())
+    {
+      final PrimitiveList.DoubleList created = new PrimitiveList.DoubleList();
+      created.addDouble(value);
+      setPrimitiveList(created);
+    }
+    else
+    {
+      addWithoutChecking(value);
+    }
+  }
+
+  /**
+   * Appends a Boolean to the end of the list, storing it in a primitive array if the list is empty
+   * or already stores Booleans that way.
+   *
+   * @param value to be appended.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  public void addBoolean(boolean value)
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.BooleanList && !isReadOnly())
+    {
+      ((PrimitiveList.BooleanList) primitiveList).addBoolean(value);
+    }
+    else if (isEmpty() && !isReadOnly())
+    {
+      final PrimitiveList.BooleanList created = new PrimitiveList.BooleanList();
+      created.addBoolean(value);
+      setPrimitiveList(created);
+    }
+    else
+    {
+      addWithoutChecking(value);
+    }
+  }
+
+  /**
+   * @return the elements of the list converted like {@link #getInt(int)}.
+   */
+  public int[] toIntArray()
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.IntList)
+    {
+      return ((PrimitiveList.IntList) primitiveList).toIntArray();
+    }
+    final int[] array = new int[size()];
+    for (int i = 0; i < array.length; ++i)
+    {
+      array[i] = getInt(i);
+    }
+    return array;
+  }
+
+  /**
+   * @return the elements of the list converted like {@link #getLong(int)}.
+   */
+  public long[] toLongArray()
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.LongList)
+    {
+      return ((PrimitiveList.LongList) primitiveList).toLongArray();
+    }
+    final long[] array = new long[size()];
+    for (int i = 0; i < array.length; ++i)
+    {
+      array[i] = getLong(i);
+    }
+    return array;
+  }
+
+  /**
+   * @return the elements of the list converted like {@link #getFloat(int)}.
+   */
+  public float[] toFloatArray()
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.FloatList)
+    {
+      return ((PrimitiveList.FloatList) primitiveList).toFloatArray();
+    }
+    final float[] array = new float[size()];
+    for (int i = 0; i < array.length; ++i)
+    {
+      array[i] = getFloat(i);
+    }
+    return array;
+  }
+
+  /**
+   * @return the elements of the list converted like {@link #getDouble(int)}.
+   */
+  public double[] toDoubleArray()
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.DoubleList)
+    {
+      return ((PrimitiveList.DoubleList) primitiveList).toDoubleArray();
+    }
+    final double[] array = new double[size()];
+    for (int i = 0; i < array.length; ++i)
+    {
+      array[i] = getDouble(i);
+    }
+    return array;
+  }
+
+  /**
+   * @return the elements of the list, which must be Booleans.
+   */
+  public boolean[] toBooleanArray()
+  {
+    final PrimitiveList primitiveList = getPrimitiveList();
+    if (primitiveList instanceof PrimitiveList.BooleanList)
+    {
+      return ((PrimitiveList.BooleanList) primitiveList).toBooleanArray();
+    }
+    final boolean[] array = new boolean[size()];
+    for (int i = 0; i < array.length; ++i)
+    {
+      array[i] = getBoolean(i);
+    }
+    return array;
+  }
+
   @Override
   public void startInstrumentingAccess()
   {
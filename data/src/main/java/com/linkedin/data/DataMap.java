@@ -18,6 +18,7 @@ package com.linkedin.data;
 
 import com.linkedin.data.collections.CheckedMap;
 import com.linkedin.data.collections.CommonMap;
+import com.linkedin.data.collections.CompactMap;
 import com.linkedin.data.collections.MapChecker;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -53,6 +54,11 @@ import java.util.Map;
  *
  * Since {@link DataMap} extends {@link CheckedMap}, copying of the {@link DataMap} is lazy and may be
  * delayed until the {@link DataMap} is about to be modified.
+ * <p>
+ *
+ * The entries are stored in a {@link HashMap}, unless the system property {@value #COMPACT_PROPERTY}
+ * is true, in which case they are stored in a {@link CompactMap}. A {@link CompactMap} takes much less
+ * memory for the small maps of most records, and iterates in insertion order instead of hash order.
  *
  * @author slim
  */
@@ -67,12 +73,18 @@ public final class DataMap extends CheckedMap<String,Object> implements DataComp
 
   public static final String ERROR_KEY = reservedConstant("ERROR");
 
+  /**
+   * System property which enables storing the entries of {@link DataMap}s in {@link CompactMap}s.
+   */
+  public static final String COMPACT_PROPERTY = "com.linkedin.data.DataMap.compact";
+  private static final boolean COMPACT = Boolean.getBoolean(COMPACT_PROPERTY);
+
   /**
    * Constructs an empty {@link DataMap}.
    */
   public DataMap()
   {
-    super(_checker);
+    super(_checker, COMPACT ? new CompactMap<String, Object>() : new HashMap<String, Object>());
   }
 
   /**
@@ -82,7 +94,7 @@ public final class DataMap extends CheckedMap<String,Object> implements DataComp
    */
   public DataMap(Map<? extends String, ? extends Object> map)
   {
-    super(map, _checker);
+    super(_checker, COMPACT ? new CompactMap<String, Object>(map) : new HashMap<String, Object>(map));
   }
 
   /**
@@ -95,7 +107,7 @@ public final class DataMap extends CheckedMap<String,Object> implements DataComp
    */
   public DataMap(int initialCapacity)
   {
-    super(initialCapacity, _checker);
+    super(_checker, COMPACT ? new CompactMap<String, Object>(initialCapacity) : new HashMap<String, Object>(initialCapacity));
   }
 
   /**
@@ -109,7 +121,14 @@ public final class DataMap extends CheckedMap<String,Object> implements DataComp
    */
   public DataMap(int initialCapacity, float loadFactor)
   {
-    super(initialCapacity, loadFactor, _checker);
+    super(_checker,
+          COMPACT ? new CompactMap<String, Object>(initialCapacity) : new HashMap<String, Object>(initialCapacity, loadFactor));
+  }
+
+  // Unit test use only
+  DataMap(boolean compact)
+  {
+    super(_checker, compact ? new CompactMap<String, Object>() : new HashMap<String, Object>());
   }
 
   @Override
@@ -43,6 +43,8 @@ public class BsonDataCodec implements DataCodec
   private static final String UTF_8 = "UTF-8";
   private Integer _bufferSize;
   private boolean _testMode;
+  private KeyDictionary _keyDictionary;
+  private BufferPool _bufferPool;
 
   public BsonDataCodec()
   {
@@ -65,16 +67,53 @@ public class BsonDataCodec implements DataCodec
     _bufferSize = bufferSize;
   }
 
+  /**
+   * Set the dictionary used to canonicalize the keys of decoded maps, or null to keep the
+   * keys as decoded.
+   */
+  public void setKeyDictionary(KeyDictionary keyDictionary)
+  {
+    _keyDictionary = keyDictionary;
+  }
+
+  public KeyDictionary getKeyDictionary()
+  {
+    return _keyDictionary;
+  }
+
+  /**
+   * Set the pool of the buffers used while encoding by {@link #mapToBytes(DataMap)},
+   * {@link #writeMap(DataMap, OutputStream)} and their variants, or null to allocate them for
+   * every encoding. The buffer size of the pool overrides the buffer size of the codec.
+   */
+  public void setBufferPool(BufferPool bufferPool)
+  {
+    _bufferPool = bufferPool;
+  }
+
+  public BufferPool getBufferPool()
+  {
+    return _bufferPool;
+  }
+
+  private BsonTraverseCallback createTraverseCallback(BufferPool pool)
+  {
+    return
+      (pool != null) ?
+      new BsonTraverseCallback(pool) :
+      (_bufferSize == null) ?
+      new BsonTraverseCallback() :
+      new BsonTraverseCallback(_bufferSize);
+  }
+
   protected byte[] complexToBytes(DataComplex complex) throws IOException
   {
     try
     {
-      BsonTraverseCallback callback =
-        (_bufferSize == null) ?
-        new BsonTraverseCallback() :
-        new BsonTraverseCallback(_bufferSize);
+      BsonTraverseCallback callback = createTraverseCallback(_bufferPool);
       Data.traverse(complex, callback);
       byte[] bytes = callback.toBytes();
+      callback.release();
       return bytes;
     }
     catch (RuntimeException exc)
@@ -91,6 +130,30 @@ public class BsonDataCodec implements DataCodec
     return complexToBytes(map);
   }
 
+  /**
+   * Serialize a {@link DataMap} into a {@link ByteString} backed by the buffers it was encoded
+   * into, instead of copying them into a single array. The buffers are never pooled.
+   *
+   * @param map to serialize
+   * @return the serialized map
+   * @throws IOException if there is a serialization error
+   */
+  public ByteString mapToByteString(DataMap map) throws IOException
+  {
+    try
+    {
+      BsonTraverseCallback callback = createTraverseCallback(null);
+      Data.traverse(map, callback);
+      return callback.toByteString();
+    }
+    catch (RuntimeException exc)
+    {
+      // do not want RuntimeException from BufferChain propagating
+      // as RuntimeException to client code.
+      throw new IOException("Unexpected RuntimeException", exc);
+    }
+  }
+
   @Override
   public byte[] listToBytes(DataList list) throws IOException
   {
@@ -105,7 +168,7 @@ public class BsonDataCodec implements DataCodec
         (_testMode && _bufferSize != null) ?
         new BufferChain(ByteOrder.LITTLE_ENDIAN, input, _bufferSize) :
         new BufferChain(ByteOrder.LITTLE_ENDIAN, input);
-      BsonParser bsonParser = new BsonParser(buffer);
+      BsonParser bsonParser = new BsonParser(buffer, _keyDictionary);
       return bsonParser.parseComplex(clazz);
     }
     catch (RuntimeException exc)
@@ -132,12 +195,10 @@ public class BsonDataCodec implements DataCodec
   {
     try
     {
-      BsonTraverseCallback callback =
-          (_bufferSize == null) ?
-              new BsonTraverseCallback() :
-              new BsonTraverseCallback(_bufferSize);
+      BsonTraverseCallback callback = createTraverseCallback(_bufferPool);
       Data.traverse(complex, callback);
       callback.writeToOutputStream(out);
+      callback.release();
     }
     catch (RuntimeException exc)
     {
@@ -169,7 +230,7 @@ public class BsonDataCodec implements DataCodec
               new BufferChain(ByteOrder.LITTLE_ENDIAN);
       buffer.readFromInputStream(in);
       buffer.rewind();
-      BsonParser bsonParser = new BsonParser(buffer);
+      BsonParser bsonParser = new BsonParser(buffer, _keyDictionary);
       return bsonParser.parseComplex(clazz);
     }
     catch (RuntimeException exc)
@@ -232,6 +293,11 @@ public class BsonDataCodec implements DataCodec
       _buffer = new BufferChain(ByteOrder.LITTLE_ENDIAN, bufferSize);
     }
 
+    BsonTraverseCallback(BufferPool pool)
+    {
+      _buffer = new BufferChain(ByteOrder.LITTLE_ENDIAN, pool);
+    }
+
     @Override
     public Iterable<Map.Entry<String,Object>> orderMap(DataMap map)
     {
@@ -381,6 +447,16 @@ public class BsonDataCodec implements DataCodec
       _buffer.writeToOutputStream(out);
     }
 
+    private final ByteString toByteString()
+    {
+      return _buffer.toByteString();
+    }
+
+    private final void release()
+    {
+      _buffer.release();
+    }
+
     private final void putCString(String s) throws CharacterCodingException
     {
       _buffer.putUtf8CString(s);
@@ -424,8 +500,14 @@ public class BsonDataCodec implements DataCodec
   protected static class BsonParser
   {
     BsonParser(BufferChain buffer)
+    {
+      this(buffer, null);
+    }
+
+    BsonParser(BufferChain buffer, KeyDictionary keyDictionary)
     {
       _buffer = buffer;
+      _keyDictionary = keyDictionary;
     }
 
     void parseDocument(DataList list, DataMap map) throws IOException
@@ -436,6 +518,15 @@ public class BsonDataCodec implements DataCodec
       while (bsonType != ZERO_BYTE)
       {
         name = _buffer.getUtf8CString();
+        if (map != null && _keyDictionary != null)
+        {
+          name = _keyDictionary.getCanonical(name);
+        }
+        if (list != null && addPrimitive(list, bsonType))
+        {
+          bsonType = _buffer.get();
+          continue;
+        }
         Object o = null;
         boolean valid = true;
         switch (bsonType)
@@ -519,6 +610,34 @@ public class BsonDataCodec implements DataCodec
       }
     }
 
+    /**
+     * Add a number or boolean item to the list without boxing it, see {@link DataList#addDouble(double)}.
+     *
+     * @return false if the item has to be parsed by {@link #parseDocument(DataList, DataMap)}.
+     */
+    private boolean addPrimitive(DataList list, byte bsonType) throws IOException
+    {
+      switch (bsonType)
+      {
+        case BSON_32BIT_INTEGER:
+          list.addInt(_buffer.getInt());
+          return true;
+        case BSON_DOUBLE:
+          list.addDouble(_buffer.getDouble());
+          return true;
+        case BSON_BOOLEAN:
+          list.addBoolean(_buffer.get() != ZERO_BYTE);
+          return true;
+        case BSON_64BIT_INTEGER:
+        case BSON_UTC_DATETIME:
+        case BSON_TIMESTAMP:
+          list.addLong(_buffer.getLong());
+          return true;
+        default:
+          return false;
+      }
+    }
+
     <T extends DataComplex> T parseComplex(Class<T> clazz) throws IOException
     {
       if (clazz == DataMap.class)
@@ -572,5 +691,6 @@ public class BsonDataCodec implements DataCodec
     }
 
     private final BufferChain _buffer;
+    private final KeyDictionary _keyDictionary;
   }
 }
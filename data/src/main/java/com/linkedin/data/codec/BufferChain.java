@@ -36,6 +36,7 @@ import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import java.util.ArrayList;
+import java.util.List;
 
 public class BufferChain
 {
@@ -77,6 +78,7 @@ public class BufferChain
   private CharsetEncoder _encoder;
   private BufferChainInputStream _inputStream;
   private BufferChainOutputStream _outputStream;
+  private BufferPool _pool;
 
   public static final class Position
   {
@@ -132,6 +134,28 @@ public class BufferChain
     initCoders();
   }
 
+  /**
+   * Construct an empty {@link BufferChain} with the specified byte order, which takes its buffers
+   * from the pool. Call {@link #release()} once the content of the chain is no longer used, so
+   * that the buffers are returned to the pool.
+   *
+   * @param order provides the byte order for the data in the buffer chain.
+   * @param pool provides the buffers of the buffer chain.
+   */
+  public BufferChain(ByteOrder order, BufferPool pool)
+  {
+    if (pool.getBufferSize() < MIN_BUFFER_SIZE)
+    {
+      throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE);
+    }
+    _bufferSize = pool.getBufferSize();
+    _order = order;
+    _pool = pool;
+    _currentBuffer = allocateByteBuffer(_bufferSize);
+    _currentIndex = 0;
+    initCoders();
+  }
+
   /**
    * Construct a {@link BufferChain} with the specified data and data's byte order is the
    * default byte order.
@@ -776,7 +800,8 @@ public class BufferChain
         remaining = _currentBuffer.remaining();
         if (remaining == 0)
         {
-          reserve(more);
+          // pooled buffers are filled one after the other rather than replaced by a larger one
+          reserve(_pool == null ? more : Math.min(more, _bufferSize));
           remaining = _currentBuffer.remaining();
         }
         if (remaining > more)
@@ -967,6 +992,63 @@ public class BufferChain
     return bytes;
   }
 
+  /**
+   * Return read only views of the buffers in the buffer chain, in order, which can be written
+   * with a gathering write. The bytes are not copied, so the views are valid only until the
+   * buffer chain is modified or released.
+   *
+   * @return the buffers in the buffer chain.
+   */
+  public List<ByteBuffer> toByteBuffers()
+  {
+    if (_currentBuffer.remaining() > 0)
+    {
+      _currentBuffer.limit(_currentBuffer.position());
+    }
+    final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>(_bufferList.size());
+    for (ByteBuffer buffer : _bufferList)
+    {
+      if (buffer.limit() > 0)
+      {
+        final ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.rewind();
+        buffers.add(view);
+      }
+    }
+    return buffers;
+  }
+
+  /**
+   * Return the bytes in the buffer chain as a {@link ByteString} backed by the buffers of the
+   * chain, without copying them. The buffer chain must not be modified or released afterwards,
+   * so this should not be used with a chain whose buffers are pooled.
+   *
+   * @return the bytes in the buffer chain.
+   */
+  public ByteString toByteString()
+  {
+    return ByteString.unsafeWrap(toByteBuffers());
+  }
+
+  /**
+   * Return the buffers of a buffer chain constructed with a {@link BufferPool} to the pool.
+   * The buffer chain, and any view of its content, must not be used afterwards.
+   */
+  public void release()
+  {
+    if (_pool == null)
+    {
+      return;
+    }
+    for (ByteBuffer buffer : _bufferList)
+    {
+      _pool.release(buffer);
+    }
+    _bufferList.clear();
+    _currentBuffer = null;
+    _pool = null;
+  }
+
   /**
    * Rewind the buffer chain, i.e. set the current position to
    * the beginning of the buffer chain.
@@ -1243,7 +1325,10 @@ public class BufferChain
 
   private ByteBuffer allocateByteBuffer(int size)
   {
-    ByteBuffer byteBuffer = ByteBuffer.allocate(size > _bufferSize ? size : _bufferSize);
+    ByteBuffer byteBuffer =
+        (_pool != null && size <= _bufferSize) ?
+            _pool.acquire() :
+            ByteBuffer.allocate(size > _bufferSize ? size : _bufferSize);
     byteBuffer.order(_order);
     _bufferList.add(byteBuffer);
     return byteBuffer;
@@ -0,0 +1,98 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Bounded, thread safe pool of heap {@link ByteBuffer}s of the same size, from which a
+ * {@link BufferChain} can take its buffers so that encoding does not allocate them every time.
+ *
+ * @see BufferChain#BufferChain(java.nio.ByteOrder, BufferPool)
+ */
+public class BufferPool
+{
+  private final int _bufferSize;
+  private final int _maxBuffers;
+  private final Queue<ByteBuffer> _buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+  private final AtomicInteger _size = new AtomicInteger();
+
+  /**
+   * @param bufferSize size of the pooled buffers
+   * @param maxBuffers maximum number of idle buffers kept by the pool
+   */
+  public BufferPool(int bufferSize, int maxBuffers)
+  {
+    if (bufferSize <= 0 || maxBuffers < 0)
+    {
+      throw new IllegalArgumentException("Invalid pool, bufferSize: " + bufferSize + ", maxBuffers: " + maxBuffers);
+    }
+    _bufferSize = bufferSize;
+    _maxBuffers = maxBuffers;
+  }
+
+  /**
+   * @return an idle buffer of the pool, or a new one if there is none. The buffer is cleared.
+   */
+  public ByteBuffer acquire()
+  {
+    final ByteBuffer buffer = _buffers.poll();
+    if (buffer == null)
+    {
+      return ByteBuffer.allocate(_bufferSize);
+    }
+    _size.decrementAndGet();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Return a buffer to the pool. Buffers of another size, and buffers released when the pool is
+   * full, are left to the garbage collector. The buffer must not be used after it is released.
+   */
+  public void release(ByteBuffer buffer)
+  {
+    if (buffer.capacity() != _bufferSize || buffer.isReadOnly() || !buffer.hasArray())
+    {
+      return;
+    }
+    if (_size.incrementAndGet() > _maxBuffers)
+    {
+      _size.decrementAndGet();
+      return;
+    }
+    _buffers.offer(buffer);
+  }
+
+  public int getBufferSize()
+  {
+    return _bufferSize;
+  }
+
+  /**
+   * @return the number of idle buffers in the pool
+   */
+  public int size()
+  {
+    return _size.get();
+  }
+}
@@ -0,0 +1,740 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+
+import com.linkedin.data.ByteString;
+import com.linkedin.data.Data;
+import com.linkedin.data.DataComplex;
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.collections.CheckedUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+
+/**
+ * A push style JSON parser, which builds a {@link DataMap} from chunks of UTF-8 encoded bytes as
+ * they are received, instead of reading a fully buffered entity. It never blocks, and keeps only
+ * the incomplete token of a chunk, so the entity does not need to be buffered.
+ *
+ * The result is the same as {@link JacksonDataCodec#readMap(java.io.InputStream)}: integers are
+ * {@link Integer}s or {@link Long}s, decimals are {@link Double}s, comments are allowed, and
+ * integers too large for a long or keys defined more than once are reported by
+ * {@link DataMap#getError()} of the result.
+ *
+ * The length of the entity and the nesting depth of the data are limited, so that a client cannot
+ * make the parser use an unbounded amount of memory or stack.
+ *
+ * This class is not thread safe.
+ */
+public class IncrementalJsonParser
+{
+  public static final int DEFAULT_MAX_DEPTH = 1000;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int CHUNK_SIZE = 8192;
+
+  private static final int EXPECT_ROOT = 0;
+  private static final int EXPECT_KEY_OR_END = 1;
+  private static final int EXPECT_KEY = 2;
+  private static final int EXPECT_COLON = 3;
+  private static final int EXPECT_VALUE_OR_END = 4;
+  private static final int EXPECT_VALUE = 5;
+  private static final int EXPECT_COMMA_OR_END = 6;
+  private static final int DONE = 7;
+  private static final int CLOSED = 8;
+
+  private static final int TOKEN_NONE = 0;
+  private static final int TOKEN_STRING = 1;
+  private static final int TOKEN_NUMBER = 2;
+  private static final int TOKEN_LITERAL = 3;
+
+  private static final int COMMENT_NONE = 0;
+  private static final int COMMENT_START = 1;
+  private static final int COMMENT_LINE = 2;
+  private static final int COMMENT_BLOCK = 3;
+  private static final int COMMENT_BLOCK_END = 4;
+
+  private final long _maxLength;
+  private final int _maxDepth;
+  private final CharsetDecoder _decoder = UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPORT)
+      .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+  private long _length;
+  private int _state = EXPECT_ROOT;
+  private int _token = TOKEN_NONE;
+  private int _comment = COMMENT_NONE;
+  private boolean _escaped;
+  private boolean _hasEscapes;
+  private byte[] _tokenBytes = new byte[64];
+  private int _tokenLength;
+  private byte[] _chunk;
+
+  private DataMap _root;
+  private DataComplex[] _containers = new DataComplex[16];
+  private String[] _keys = new String[16];
+  private int _depth;
+  private StringBuilder _errors;
+  private String _closedReason;
+
+  /**
+   * Construct a parser without a length limit, and with the {@link #DEFAULT_MAX_DEPTH}.
+   */
+  public IncrementalJsonParser()
+  {
+    this(Long.MAX_VALUE, DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * @param maxLength maximum length of the entity in bytes
+   * @param maxDepth maximum number of nested maps and lists
+   */
+  public IncrementalJsonParser(long maxLength, int maxDepth)
+  {
+    if (maxLength < 0 || maxDepth < 1)
+    {
+      throw new IllegalArgumentException("Invalid limits, maxLength: " + maxLength + ", maxDepth: " + maxDepth);
+    }
+    _maxLength = maxLength;
+    _maxDepth = maxDepth;
+  }
+
+  /**
+   * Parse the next chunk of the entity.
+   *
+   * @throws DataDecodingException if the chunk is not valid JSON, or a limit is exceeded. The
+   *                               parser can not be used after it has thrown.
+   */
+  public void feed(ByteString chunk) throws DataDecodingException
+  {
+    for (ByteBuffer buffer : chunk.asByteBuffers())
+    {
+      feed(buffer);
+    }
+  }
+
+  /**
+   * Parse the remaining bytes of the buffer, which are consumed.
+   *
+   * @see #feed(ByteString)
+   */
+  public void feed(ByteBuffer buffer) throws DataDecodingException
+  {
+    if (buffer.hasArray())
+    {
+      feed(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      buffer.position(buffer.limit());
+      return;
+    }
+
+    // read only and direct buffers are copied in bounded steps
+    if (_chunk == null)
+    {
+      _chunk = new byte[CHUNK_SIZE];
+    }
+    while (buffer.hasRemaining())
+    {
+      final int length = Math.min(buffer.remaining(), _chunk.length);
+      buffer.get(_chunk, 0, length);
+      feed(_chunk, 0, length);
+    }
+  }
+
+  /**
+   * Parse the next chunk of the entity.
+   *
+   * @see #feed(ByteString)
+   */
+  public void feed(byte[] bytes, int offset, int length) throws DataDecodingException
+  {
+    checkUsable();
+    if (length > _maxLength - _length)
+    {
+      fail("JSON entity exceeds the maximum length of " + _maxLength + " bytes");
+    }
+
+    final int end = offset + length;
+    for (int i = offset; i < end; ++i)
+    {
+      if (_token == TOKEN_STRING)
+      {
+        final int start = i;
+        while (i < end)
+        {
+          final byte b = bytes[i];
+          if (_escaped)
+          {
+            _escaped = false;
+          }
+          else if (b == '\\')
+          {
+            _escaped = true;
+            _hasEscapes = true;
+          }
+          else if (b == '"')
+          {
+            break;
+          }
+          else if (b >= 0 && b < 0x20)
+          {
+            fail("Illegal control character in string at offset " + position(offset, i));
+          }
+          ++i;
+        }
+        appendToken(bytes, start, i - start);
+        if (i < end)
+        {
+          endString();
+        }
+        continue;
+      }
+
+      final byte b = bytes[i];
+      if (_token == TOKEN_NUMBER)
+      {
+        if ((b >= '0' && b <= '9') || b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-')
+        {
+          appendToken(b);
+          continue;
+        }
+        endNumber();
+      }
+      else if (_token == TOKEN_LITERAL)
+      {
+        if (b >= 'a' && b <= 'z')
+        {
+          appendToken(b);
+          continue;
+        }
+        endLiteral();
+      }
+
+      if (_comment != COMMENT_NONE)
+      {
+        comment(b, position(offset, i));
+      }
+      else
+      {
+        structural(b, position(offset, i));
+      }
+    }
+    _length += length;
+  }
+
+  /**
+   * Signal the end of the entity.
+   *
+   * @return the parsed {@link DataMap}
+   * @throws DataDecodingException if the entity is not a complete JSON object
+   */
+  public DataMap finish() throws DataDecodingException
+  {
+    checkUsable();
+    if (_state != DONE || (_comment != COMMENT_NONE && _comment != COMMENT_LINE))
+    {
+      fail(_state == EXPECT_ROOT ? "JSON text for object must start with \"{\"." : "Unexpected end of JSON input");
+    }
+
+    _state = CLOSED;
+    _closedReason = "Parser is finished";
+    if (_errors != null)
+    {
+      _root.addError(_errors.toString());
+    }
+    return _root;
+  }
+
+  /**
+   * @return the number of bytes parsed so far
+   */
+  public long getLength()
+  {
+    return _length;
+  }
+
+  private void structural(byte b, long position) throws DataDecodingException
+  {
+    if (b == ' ' || b == '\n' || b == '\r' || b == '\t')
+    {
+      return;
+    }
+    if (b == '/')
+    {
+      _comment = COMMENT_START;
+      return;
+    }
+
+    switch (_state)
+    {
+      case EXPECT_ROOT:
+        if (b != '{')
+        {
+          fail("JSON text for object must start with \"{\".");
+        }
+        _root = new DataMap();
+        push(_root);
+        _state = EXPECT_KEY_OR_END;
+        return;
+      case EXPECT_KEY_OR_END:
+        if (b == '}')
+        {
+          pop();
+          return;
+        }
+        // fall through
+      case EXPECT_KEY:
+        if (b == '"')
+        {
+          startToken(TOKEN_STRING);
+          return;
+        }
+        break;
+      case EXPECT_COLON:
+        if (b == ':')
+        {
+          _state = EXPECT_VALUE;
+          return;
+        }
+        break;
+      case EXPECT_VALUE_OR_END:
+        if (b == ']')
+        {
+          pop();
+          return;
+        }
+        // fall through
+      case EXPECT_VALUE:
+        if (startValue(b))
+        {
+          return;
+        }
+        break;
+      case EXPECT_COMMA_OR_END:
+        final boolean inMap = _containers[_depth - 1] instanceof DataMap;
+        if (b == ',')
+        {
+          _state = inMap ? EXPECT_KEY : EXPECT_VALUE;
+          return;
+        }
+        if ((b == '}' && inMap) || (b == ']' && !inMap))
+        {
+          pop();
+          return;
+        }
+        break;
+      case DONE:
+        fail("Unexpected content after the end of the JSON object at offset " + position);
+        break;
+      default:
+        break;
+    }
+    fail("Unexpected character " + describe(b) + " at offset " + position);
+  }
+
+  private boolean startValue(byte b) throws DataDecodingException
+  {
+    if (b == '{')
+    {
+      push(new DataMap());
+      _state = EXPECT_KEY_OR_END;
+    }
+    else if (b == '[')
+    {
+      push(new DataList());
+      _state = EXPECT_VALUE_OR_END;
+    }
+    else if (b == '"')
+    {
+      startToken(TOKEN_STRING);
+    }
+    else if (b == '-' || (b >= '0' && b <= '9'))
+    {
+      startToken(TOKEN_NUMBER);
+      appendToken(b);
+    }
+    else if (b >= 'a' && b <= 'z')
+    {
+      startToken(TOKEN_LITERAL);
+      appendToken(b);
+    }
+    else
+    {
+      return false;
+    }
+    return true;
+  }
+
+  private void comment(byte b, long position) throws DataDecodingException
+  {
+    switch (_comment)
+    {
+      case COMMENT_START:
+        if (b == '/')
+        {
+          _comment = COMMENT_LINE;
+        }
+        else if (b == '*')
+        {
+          _comment = COMMENT_BLOCK;
+        }
+        else
+        {
+          fail("Unexpected character " + describe(b) + " after \"/\" at offset " + position);
+        }
+        break;
+      case COMMENT_LINE:
+        if (b == '\n' || b == '\r')
+        {
+          _comment = COMMENT_NONE;
+        }
+        break;
+      case COMMENT_BLOCK:
+        if (b == '*')
+        {
+          _comment = COMMENT_BLOCK_END;
+        }
+        break;
+      default:
+        if (b == '/')
+        {
+          _comment = COMMENT_NONE;
+        }
+        else if (b != '*')
+        {
+          _comment = COMMENT_BLOCK;
+        }
+        break;
+    }
+  }
+
+  private void push(DataComplex complex) throws DataDecodingException
+  {
+    if (_depth == _maxDepth)
+    {
+      fail("JSON data exceeds the maximum depth of " + _maxDepth);
+    }
+    if (_depth > 0)
+    {
+      addValue(complex);
+    }
+    if (_depth == _containers.length)
+    {
+      _containers = Arrays.copyOf(_containers, _depth * 2);
+      _keys = Arrays.copyOf(_keys, _depth * 2);
+    }
+    _containers[_depth++] = complex;
+  }
+
+  private void pop()
+  {
+    --_depth;
+    _containers[_depth] = null;
+    _keys[_depth] = null;
+    _state = _depth == 0 ? DONE : EXPECT_COMMA_OR_END;
+  }
+
+  private void addValue(Object value)
+  {
+    final DataComplex parent = _containers[_depth - 1];
+    if (parent instanceof DataMap)
+    {
+      final String key = _keys[_depth - 1];
+      if (CheckedUtil.putWithoutChecking((DataMap) parent, key, value) != null)
+      {
+        error("\"" + key + "\" defined more than once.");
+      }
+    }
+    else
+    {
+      CheckedUtil.addWithoutChecking((DataList) parent, value);
+    }
+    _state = EXPECT_COMMA_OR_END;
+  }
+
+  private void endString() throws DataDecodingException
+  {
+    final String value = decodeString();
+    _token = TOKEN_NONE;
+    if (_state == EXPECT_KEY_OR_END || _state == EXPECT_KEY)
+    {
+      _keys[_depth - 1] = value;
+      _state = EXPECT_COLON;
+    }
+    else
+    {
+      addValue(value);
+    }
+  }
+
+  private void endNumber() throws DataDecodingException
+  {
+    _token = TOKEN_NONE;
+    final String text = new String(_tokenBytes, 0, _tokenLength, UTF_8);
+    final boolean integral = validateNumber();
+    if (!integral)
+    {
+      addValue(Double.parseDouble(text));
+      return;
+    }
+
+    final long value;
+    try
+    {
+      value = Long.parseLong(text);
+    }
+    catch (NumberFormatException e)
+    {
+      error("value: " + text + ", token: VALUE_NUMBER_INT, number type: BIG_INTEGER not parsed.");
+      _state = EXPECT_COMMA_OR_END;
+      return;
+    }
+
+    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+    {
+      addValue((int) value);
+    }
+    else
+    {
+      addValue(value);
+    }
+  }
+
+  /**
+   * @return whether the number token is an integer
+   */
+  private boolean validateNumber() throws DataDecodingException
+  {
+    int i = 0;
+    if (_tokenBytes[i] == '-')
+    {
+      ++i;
+    }
+    final int integerStart = i;
+    while (i < _tokenLength && isDigit(_tokenBytes[i]))
+    {
+      ++i;
+    }
+    boolean valid = i > integerStart && (_tokenBytes[integerStart] != '0' || i == integerStart + 1);
+    boolean integral = true;
+
+    if (valid && i < _tokenLength && _tokenBytes[i] == '.')
+    {
+      integral = false;
+      final int fractionStart = ++i;
+      while (i < _tokenLength && isDigit(_tokenBytes[i]))
+      {
+        ++i;
+      }
+      valid = i > fractionStart;
+    }
+
+    if (valid && i < _tokenLength && (_tokenBytes[i] == 'e' || _tokenBytes[i] == 'E'))
+    {
+      integral = false;
+      ++i;
+      if (i < _tokenLength && (_tokenBytes[i] == '+' || _tokenBytes[i] == '-'))
+      {
+        ++i;
+      }
+      final int exponentStart = i;
+      while (i < _tokenLength && isDigit(_tokenBytes[i]))
+      {
+        ++i;
+      }
+      valid = i > exponentStart;
+    }
+
+    if (!valid || i != _tokenLength)
+    {
+      fail("Invalid number: " + new String(_tokenBytes, 0, _tokenLength, UTF_8));
+    }
+    return integral;
+  }
+
+  private void endLiteral() throws DataDecodingException
+  {
+    _token = TOKEN_NONE;
+    final String text = new String(_tokenBytes, 0, _tokenLength, UTF_8);
+    if ("true".equals(text))
+    {
+      addValue(Boolean.TRUE);
+    }
+    else if ("false".equals(text))
+    {
+      addValue(Boolean.FALSE);
+    }
+    else if ("null".equals(text))
+    {
+      addValue(Data.NULL);
+    }
+    else
+    {
+      fail("Unrecognized token: " + text);
+    }
+  }
+
+  private String decodeString() throws DataDecodingException
+  {
+    final String text;
+    try
+    {
+      text = _decoder.decode(ByteBuffer.wrap(_tokenBytes, 0, _tokenLength)).toString();
+    }
+    catch (CharacterCodingException e)
+    {
+      fail("Invalid UTF-8 in string");
+      return null;
+    }
+    return _hasEscapes ? unescape(text) : text;
+  }
+
+  private String unescape(String text) throws DataDecodingException
+  {
+    final StringBuilder sb = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); ++i)
+    {
+      final char c = text.charAt(i);
+      if (c != '\\')
+      {
+        sb.append(c);
+        continue;
+      }
+
+      // the closing quote is never escaped, so there is always a character after the backslash
+      final char escaped = text.charAt(++i);
+      switch (escaped)
+      {
+        case '"':
+        case '\\':
+        case '/':
+          sb.append(escaped);
+          break;
+        case 'b':
+          sb.append('\b');
+          break;
+        case 'f':
+          sb.append('\f');
+          break;
+        case 'n':
+          sb.append('\n');
+          break;
+        case 'r':
+          sb.append('\r');
+          break;
+        case 't':
+          sb.append('\t');
+          break;
+        case 'u':
+          if (i + 4 >= text.length())
+          {
+            fail("Invalid unicode escape in string");
+          }
+          int code = 0;
+          for (int j = 1; j <= 4; ++j)
+          {
+            final int digit = Character.digit(text.charAt(i + j), 16);
+            if (digit < 0)
+            {
+              fail("Invalid unicode escape in string");
+            }
+            code = (code << 4) | digit;
+          }
+          sb.append((char) code);
+          i += 4;
+          break;
+        default:
+          fail("Invalid escape \"\\" + escaped + "\" in string");
+      }
+    }
+    return sb.toString();
+  }
+
+  private void startToken(int token)
+  {
+    _token = token;
+    _tokenLength = 0;
+    _escaped = false;
+    _hasEscapes = false;
+  }
+
+  private void appendToken(byte b)
+  {
+    if (_tokenLength == _tokenBytes.length)
+    {
+      _tokenBytes = Arrays.copyOf(_tokenBytes, _tokenLength * 2);
+    }
+    _tokenBytes[_tokenLength++] = b;
+  }
+
+  private void appendToken(byte[] bytes, int offset, int length)
+  {
+    if (_tokenLength + length > _tokenBytes.length)
+    {
+      _tokenBytes = Arrays.copyOf(_tokenBytes, Math.max(_tokenLength + length, _tokenBytes.length * 2));
+    }
+    System.arraycopy(bytes, offset, _tokenBytes, _tokenLength, length);
+    _tokenLength += length;
+  }
+
+  private void error(String message)
+  {
+    if (_errors == null)
+    {
+      _errors = new StringBuilder();
+    }
+    _errors.append(message).append('\n');
+  }
+
+  private void fail(String message) throws DataDecodingException
+  {
+    _state = CLOSED;
+    _closedReason = message;
+    _root = null;
+    _containers = null;
+    throw new DataDecodingException(message);
+  }
+
+  private void checkUsable()
+  {
+    if (_state == CLOSED)
+    {
+      throw new IllegalStateException(_closedReason);
+    }
+  }
+
+  private long position(int offset, int index)
+  {
+    return _length + index - offset;
+  }
+
+  private static boolean isDigit(byte b)
+  {
+    return b >= '0' && b <= '9';
+  }
+
+  private static String describe(byte b)
+  {
+    return b >= 0x20 && b < 0x7f ? "'" + (char) b + "'" : String.format("0x%02x", b & 0xff);
+  }
+}
@@ -72,6 +72,20 @@ public class JacksonDataCodec implements TextDataCodec
     _allowComments = allowComments;
   }
 
+  /**
+   * Set the dictionary used to canonicalize the keys of decoded maps, or null to keep the
+   * keys as decoded.
+   */
+  public void setKeyDictionary(KeyDictionary keyDictionary)
+  {
+    _keyDictionary = keyDictionary;
+  }
+
+  public KeyDictionary getKeyDictionary()
+  {
+    return _keyDictionary;
+  }
+
   public PrettyPrinter getPrettyPrinter()
   {
     return _prettyPrinter;
@@ -94,6 +108,21 @@ public class JacksonDataCodec implements TextDataCodec
     return objectToBytes(map);
   }
 
+  /**
+   * Serialize the projection of a {@link DataMap} without building a projected copy of it.
+   *
+   * @param map to serialize
+   * @param projection to apply while serializing
+   * @return the serialized projection
+   * @throws IOException if there is a serialization error
+   */
+  public byte[] mapToBytes(DataMap map, ProjectionTraverser projection) throws IOException
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(_defaultBufferSize);
+    writeObject(map, projection, createJsonGenerator(out));
+    return out.toByteArray();
+  }
+
   @Override
   public String mapToString(DataMap map) throws IOException
   {
@@ -129,7 +158,7 @@ public class JacksonDataCodec implements TextDataCodec
   @Override
   public DataMap bytesToMap(byte[] input) throws IOException
   {
-    final Parser parser = new Parser();
+    final Parser parser = new Parser(false, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -149,7 +178,7 @@ public class JacksonDataCodec implements TextDataCodec
   @Override
   public DataMap stringToMap(String input) throws IOException
   {
-    final Parser parser = new Parser();
+    final Parser parser = new Parser(false, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -169,7 +198,7 @@ public class JacksonDataCodec implements TextDataCodec
   @Override
   public DataList bytesToList(byte[] input) throws IOException
   {
-    final Parser parser = new Parser();
+    final Parser parser = new Parser(false, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -189,7 +218,7 @@ public class JacksonDataCodec implements TextDataCodec
   @Override
   public DataList stringToList(String input) throws IOException
   {
-    final Parser parser = new Parser();
+    final Parser parser = new Parser(false, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -251,11 +280,23 @@ public class JacksonDataCodec implements TextDataCodec
   }
 
   protected void writeObject(Object object, JsonGenerator generator) throws IOException
+  {
+    writeObject(object, null, generator);
+  }
+
+  private void writeObject(Object object, ProjectionTraverser projection, JsonGenerator generator) throws IOException
   {
     try
     {
-      JsonTraverseCallback callback = new JsonTraverseCallback(generator);
-      Data.traverse(object, callback);
+      JsonTraverseCallback callback = createTraverseCallback(generator);
+      if (projection == null)
+      {
+        Data.traverse(object, callback);
+      }
+      else
+      {
+        projection.traverse(object, callback);
+      }
       generator.flush();
     }
     catch (IOException e)
@@ -278,7 +319,7 @@ public class JacksonDataCodec implements TextDataCodec
   @Override
   public DataMap readMap(InputStream in) throws IOException
   {
-    final Parser parser = new Parser();
+    final Parser parser = new Parser(false, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -298,7 +339,7 @@ public class JacksonDataCodec implements TextDataCodec
   @Override
   public DataMap readMap(Reader in) throws IOException
   {
-    final Parser parser = new Parser();
+    final Parser parser = new Parser(false, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -319,7 +360,7 @@ public class JacksonDataCodec implements TextDataCodec
   @Override
   public DataList readList(InputStream in) throws IOException
   {
-    final Parser parser = new Parser();
+    final Parser parser = new Parser(false, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -339,7 +380,7 @@ public class JacksonDataCodec implements TextDataCodec
   @Override
   public DataList readList(Reader in) throws IOException
   {
-    final Parser parser = new Parser();
+    final Parser parser = new Parser(false, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -378,7 +419,7 @@ public class JacksonDataCodec implements TextDataCodec
   public List<Object> parse(InputStream in, StringBuilder mesg, Map<Object, DataLocation> locationMap)
       throws IOException
   {
-    final Parser parser = new Parser(true);
+    final Parser parser = new Parser(true, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -411,7 +452,7 @@ public class JacksonDataCodec implements TextDataCodec
   public List<Object> parse(Reader in, StringBuilder mesg, Map<Object, DataLocation> locationMap)
       throws IOException
   {
-    final Parser parser = new Parser(true);
+    final Parser parser = new Parser(true, _keyDictionary);
     JsonParser jsonParser = null;
     try
     {
@@ -434,6 +475,11 @@ public class JacksonDataCodec implements TextDataCodec
     Data.traverse(object, callback);
   }
 
+  protected JsonTraverseCallback createTraverseCallback(JsonGenerator generator)
+  {
+    return new JsonTraverseCallback(generator);
+  }
+
   protected static class JsonTraverseCallback implements Data.TraverseCallback
   {
     protected JsonTraverseCallback(JsonGenerator jsonGenerator)
@@ -589,15 +635,12 @@ public class JacksonDataCodec implements TextDataCodec
     private boolean _debug = false;
     private Deque<Object> _nameStack = null;
     private Map<Object, DataLocation> _locationMap = null;
+    private final KeyDictionary _keyDictionary;
 
-    Parser()
-    {
-      this(false);
-    }
-
-    Parser(boolean debug)
+    Parser(boolean debug, KeyDictionary keyDictionary)
     {
       _debug = debug;
+      _keyDictionary = keyDictionary;
     }
 
     /**
@@ -816,6 +859,10 @@ public class JacksonDataCodec implements TextDataCodec
       while (_parser.nextToken() != JsonToken.END_OBJECT)
       {
         String key = _parser.getCurrentName();
+        if (_keyDictionary != null)
+        {
+          key = _keyDictionary.getCanonical(key);
+        }
         if (_debug)
         {
           _nameStack.addLast(key);
@@ -840,7 +887,10 @@ public class JacksonDataCodec implements TextDataCodec
           _nameStack.addLast(index);
           index++;
         }
-        parse(list, null, null, token);
+        if (_locationMap != null || !addPrimitive(list, token))
+        {
+          parse(list, null, null, token);
+        }
         if (_debug)
         {
           _nameStack.removeLast();
@@ -848,6 +898,45 @@ public class JacksonDataCodec implements TextDataCodec
       }
     }
 
+    /**
+     * Add a number or boolean item to the list without boxing it, see {@link DataList#addDouble(double)}.
+     *
+     * @return false if the item has to be parsed by {@link #parse(DataList, DataMap, String, JsonToken)}.
+     */
+    private boolean addPrimitive(DataList list, JsonToken token) throws IOException
+    {
+      switch (token)
+      {
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+          switch (_parser.getNumberType())
+          {
+            case INT:
+              list.addInt(_parser.getIntValue());
+              return true;
+            case LONG:
+              list.addLong(_parser.getLongValue());
+              return true;
+            case FLOAT:
+              list.addFloat(_parser.getFloatValue());
+              return true;
+            case DOUBLE:
+              list.addDouble(_parser.getDoubleValue());
+              return true;
+            default:
+              return false;
+          }
+        case VALUE_TRUE:
+          list.addBoolean(true);
+          return true;
+        case VALUE_FALSE:
+          list.addBoolean(false);
+          return true;
+        default:
+          return false;
+      }
+    }
+
     private void error(JsonToken token, JsonParser.NumberType type) throws IOException
     {
       if (_errorBuilder == null)
@@ -890,4 +979,5 @@ public class JacksonDataCodec implements TextDataCodec
   protected JsonFactory _jsonFactory;
   protected int _defaultBufferSize = 4096;
   protected JsonEncoding _jsonEncoding = JsonEncoding.UTF8;
+  protected KeyDictionary _keyDictionary;
 }
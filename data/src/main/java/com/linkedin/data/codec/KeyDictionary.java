@@ -0,0 +1,166 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+
+import com.linkedin.data.schema.ArrayDataSchema;
+import com.linkedin.data.schema.DataSchema;
+import com.linkedin.data.schema.MapDataSchema;
+import com.linkedin.data.schema.RecordDataSchema;
+import com.linkedin.data.schema.UnionDataSchema;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Bounded, thread safe dictionary of canonical map keys, which a codec uses to replace the keys
+ * it decodes with a shared instance. Decoded {@link com.linkedin.data.DataMap}s then do not each
+ * retain their own copy of the field names, and lookups with the same instance, such as those of
+ * {@link com.linkedin.data.template.RecordTemplate} getters, match on identity.
+ *
+ * Once the dictionary holds its maximum number of keys, new keys are returned as is, so that
+ * decoding maps keyed by data, such as ids, cannot grow it without bound.
+ */
+public class KeyDictionary
+{
+  public static final int DEFAULT_MAX_SIZE = 4096;
+
+  private final ConcurrentMap<String, String> _keys = new ConcurrentHashMap<String, String>();
+  private final AtomicInteger _size = new AtomicInteger();
+  private final int _maxSize;
+
+  public KeyDictionary()
+  {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param maxSize maximum number of keys held by the dictionary
+   */
+  public KeyDictionary(int maxSize)
+  {
+    if (maxSize < 0)
+    {
+      throw new IllegalArgumentException("Invalid maximum size: " + maxSize);
+    }
+    _maxSize = maxSize;
+  }
+
+  /**
+   * Add the field names of the records reachable from the schema, and the member keys of its
+   * unions. The field names are added as the instances returned by
+   * {@link RecordDataSchema.Field#getName()}, which data templates use to get and put fields,
+   * replacing any equal key decoded before. Schema keys are added even if the dictionary is full.
+   *
+   * @param schema to add the keys of
+   * @return this dictionary
+   */
+  public KeyDictionary addSchema(DataSchema schema)
+  {
+    addSchema(schema, Collections.newSetFromMap(new IdentityHashMap<DataSchema, Boolean>()));
+    return this;
+  }
+
+  /**
+   * @param key decoded key
+   * @return the canonical instance of the key, which is the key itself if it is not in the
+   *         dictionary and the dictionary is full
+   */
+  public String getCanonical(String key)
+  {
+    final String canonical = _keys.get(key);
+    if (canonical != null)
+    {
+      return canonical;
+    }
+    return add(key);
+  }
+
+  public int size()
+  {
+    return _size.get();
+  }
+
+  public int getMaxSize()
+  {
+    return _maxSize;
+  }
+
+  private String add(String key)
+  {
+    if (_size.get() >= _maxSize)
+    {
+      return key;
+    }
+
+    final String existing = _keys.putIfAbsent(key, key);
+    if (existing != null)
+    {
+      return existing;
+    }
+    _size.incrementAndGet();
+    return key;
+  }
+
+  private void addSchemaKey(String key)
+  {
+    if (_keys.put(key, key) == null)
+    {
+      _size.incrementAndGet();
+    }
+  }
+
+  private void addSchema(DataSchema schema, Set<DataSchema> visited)
+  {
+    final DataSchema dereferenced = schema.getDereferencedDataSchema();
+    if (!visited.add(dereferenced))
+    {
+      return;
+    }
+
+    switch (dereferenced.getType())
+    {
+      case RECORD:
+        for (RecordDataSchema.Field field : ((RecordDataSchema) dereferenced).getFields())
+        {
+          addSchemaKey(field.getName());
+          addSchema(field.getType(), visited);
+        }
+        break;
+      case UNION:
+        for (DataSchema member : ((UnionDataSchema) dereferenced).getTypes())
+        {
+          addSchemaKey(member.getUnionMemberKey());
+          addSchema(member, visited);
+        }
+        break;
+      case ARRAY:
+        addSchema(((ArrayDataSchema) dereferenced).getItems(), visited);
+        break;
+      case MAP:
+        addSchema(((MapDataSchema) dereferenced).getValues(), visited);
+        break;
+      default:
+        break;
+    }
+  }
+}
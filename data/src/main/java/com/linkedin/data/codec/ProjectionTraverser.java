@@ -0,0 +1,292 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+
+import com.linkedin.data.Data;
+import com.linkedin.data.DataComplex;
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Traverses a Data object like {@link Data#traverse(Object, Data.TraverseCallback)}, but applies a
+ * projection mask to selected {@link DataMap}s while traversing them, so that a codec can write a
+ * projected object without a filtered copy being built first.
+ *
+ * The mask has the representation of a {@code com.linkedin.data.transform.filter.request.MaskTree}
+ * and the result is the same as projecting with {@code com.linkedin.data.transform.filter.CopyFilter},
+ * for the masks accepted by {@link #isSupportedMask(DataMap)}: masks which only select fields with
+ * {@code 1}, and whose {@code $*} wildcards are the only entry of their node. Other masks have to
+ * be applied with the filter.
+ *
+ * The {@link DataMap} passed to {@link Data.TraverseCallback#startMap(DataMap)} is the unprojected
+ * map, so a callback must not rely on its size or content.
+ */
+public class ProjectionTraverser
+{
+  private static final String WILDCARD = "$*";
+  private static final Integer POSITIVE = 1;
+
+  private final DataMap _mask;
+  private final Set<DataMap> _projectedMaps;
+
+  /**
+   * Callbacks which encode the number of entries of a map implement this interface, so that they
+   * are given the projected size.
+   */
+  /* package private */ interface SizedMapCallback
+  {
+    void startMap(DataMap map, int size) throws IOException;
+  }
+
+  /**
+   * @param mask projection mask, which must be supported
+   * @param projectedMaps the maps to project, wherever they are found while traversing; all other
+   *                      data is traversed unchanged
+   */
+  public ProjectionTraverser(DataMap mask, Collection<DataMap> projectedMaps)
+  {
+    if (!isSupportedMask(mask))
+    {
+      throw new IllegalArgumentException("Unsupported projection mask: " + mask);
+    }
+    _mask = mask;
+    _projectedMaps = Collections.newSetFromMap(new IdentityHashMap<DataMap, Boolean>());
+    _projectedMaps.addAll(projectedMaps);
+  }
+
+  /**
+   * @param mask projection mask, which must be supported
+   * @param projectedMap the only map to project, usually the traversed object itself
+   */
+  public ProjectionTraverser(DataMap mask, DataMap projectedMap)
+  {
+    this(mask, Collections.singleton(projectedMap));
+  }
+
+  /**
+   * @return whether a projection with the mask can be applied by this class
+   */
+  public static boolean isSupportedMask(DataMap mask)
+  {
+    if (mask == null || mask.isEmpty())
+    {
+      return false;
+    }
+
+    if (mask.containsKey(WILDCARD))
+    {
+      final Object wildcard = mask.get(WILDCARD);
+      return mask.size() == 1 && wildcard.getClass() == DataMap.class && isSupportedMask((DataMap) wildcard);
+    }
+
+    for (Map.Entry<String, Object> entry : mask.entrySet())
+    {
+      // also excludes escaped field names, $start and $count
+      if (entry.getKey().indexOf('$') >= 0)
+      {
+        return false;
+      }
+
+      final Object value = entry.getValue();
+      if (value.getClass() == DataMap.class)
+      {
+        if (!isSupportedMask((DataMap) value))
+        {
+          return false;
+        }
+      }
+      else if (!POSITIVE.equals(value))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Traverse the object and invoke the callback with the parse events of its projection.
+   *
+   * @param obj object to traverse
+   * @param callback to receive parse events
+   * @throws IOException if the mask selects fields of a primitive value, or the callback fails
+   */
+  public void traverse(Object obj, Data.TraverseCallback callback) throws IOException
+  {
+    if (obj == null)
+    {
+      Data.traverse(null, callback);
+      return;
+    }
+
+    final Class<?> clas = obj.getClass();
+    if (clas == DataMap.class)
+    {
+      final DataMap map = (DataMap) obj;
+      if (_projectedMaps.contains(map))
+      {
+        traverseMap(map, _mask, callback);
+      }
+      else if (map.isEmpty())
+      {
+        callback.emptyMap();
+      }
+      else
+      {
+        callback.startMap(map);
+        for (Map.Entry<String, Object> entry : callback.orderMap(map))
+        {
+          callback.key(entry.getKey());
+          traverse(entry.getValue(), callback);
+        }
+        callback.endMap();
+      }
+    }
+    else if (clas == DataList.class)
+    {
+      final DataList list = (DataList) obj;
+      if (list.isEmpty() || list.getPrimitiveClass() != null)
+      {
+        // no projected map can be found in the list
+        Data.traverse(list, callback);
+      }
+      else
+      {
+        callback.startList(list);
+        for (int i = 0; i < list.size(); ++i)
+        {
+          callback.index(i);
+          traverse(list.get(i), callback);
+        }
+        callback.endList();
+      }
+    }
+    else
+    {
+      Data.traverse(obj, callback);
+    }
+  }
+
+  private static void traverseMasked(Object obj, DataMap mask, Data.TraverseCallback callback) throws IOException
+  {
+    if (obj.getClass() == DataMap.class)
+    {
+      traverseMap((DataMap) obj, mask, callback);
+    }
+    else
+    {
+      traverseList((DataList) obj, mask, callback);
+    }
+  }
+
+  private static void traverseMap(DataMap map, DataMap mask, Data.TraverseCallback callback) throws IOException
+  {
+    // a wildcard node keeps every field, and applies its mask to the complex ones
+    final DataMap wildcard = (DataMap) mask.get(WILDCARD);
+
+    int size = 0;
+    if (wildcard != null)
+    {
+      size = map.size();
+    }
+    else
+    {
+      for (String field : mask.keySet())
+      {
+        if (map.containsKey(field))
+        {
+          ++size;
+        }
+      }
+    }
+
+    if (size == 0)
+    {
+      callback.emptyMap();
+      return;
+    }
+
+    if (callback instanceof SizedMapCallback)
+    {
+      ((SizedMapCallback) callback).startMap(map, size);
+    }
+    else
+    {
+      callback.startMap(map);
+    }
+
+    for (Map.Entry<String, Object> entry : callback.orderMap(map))
+    {
+      final Object value = entry.getValue();
+      final Object fieldMask = wildcard == null ? mask.get(entry.getKey()) : wildcard;
+      if (fieldMask == null)
+      {
+        continue;
+      }
+
+      callback.key(entry.getKey());
+      if (fieldMask.getClass() == DataMap.class && value instanceof DataComplex)
+      {
+        traverseMasked(value, (DataMap) fieldMask, callback);
+      }
+      else if (fieldMask.getClass() == DataMap.class && wildcard == null)
+      {
+        throw new IOException(String.format("data is of primitive value: %1$s, but filter: %2$s is complex",
+                                            value, fieldMask));
+      }
+      else
+      {
+        Data.traverse(value, callback);
+      }
+    }
+    callback.endMap();
+  }
+
+  private static void traverseList(DataList list, DataMap mask, Data.TraverseCallback callback) throws IOException
+  {
+    // without a wildcard the mask does not apply to the items, and the list is kept as is
+    final DataMap wildcard = (DataMap) mask.get(WILDCARD);
+    if (wildcard == null || list.isEmpty())
+    {
+      Data.traverse(list, callback);
+      return;
+    }
+
+    callback.startList(list);
+    for (int i = 0; i < list.size(); ++i)
+    {
+      final Object item = list.get(i);
+      if (!(item instanceof DataComplex))
+      {
+        throw new IOException(String.format(
+            "complex filter defined for array element, which is not an object nor an array, but it is of type: %1$s, with value: %2$s",
+            item.getClass().getName(), item));
+      }
+      callback.index(i);
+      traverseMasked(item, wildcard, callback);
+    }
+    callback.endList();
+  }
+}
@@ -66,6 +66,8 @@ public class PsonDataCodec implements DataCodec
 
   private boolean _testMode;
   private Options _options = new Options();
+  private KeyDictionary _keyDictionary;
+  private BufferPool _bufferPool;
 
   public static class Options
   {
@@ -161,18 +163,56 @@ public class PsonDataCodec implements DataCodec
     return _options;
   }
 
-  private PsonSerializer serialize(DataComplex map) throws IOException
+  /**
+   * Set the dictionary used to canonicalize the keys of decoded maps, or null to keep the
+   * keys as decoded.
+   */
+  public void setKeyDictionary(KeyDictionary keyDictionary)
   {
-    PsonSerializer serializer = new PsonSerializer();
+    _keyDictionary = keyDictionary;
+  }
+
+  public KeyDictionary getKeyDictionary()
+  {
+    return _keyDictionary;
+  }
+
+  /**
+   * Set the pool of the buffers used while encoding by {@link #mapToBytes(DataMap)},
+   * {@link #writeMap(DataMap, OutputStream)} and their variants, or null to allocate them for
+   * every encoding. The buffer size of the pool overrides the buffer size of the {@link Options}.
+   */
+  public void setBufferPool(BufferPool bufferPool)
+  {
+    _bufferPool = bufferPool;
+  }
+
+  public BufferPool getBufferPool()
+  {
+    return _bufferPool;
+  }
+
+  private PsonSerializer serialize(DataComplex map, BufferPool pool) throws IOException
+  {
+    PsonSerializer serializer = new PsonSerializer(pool);
     serializer.serialize(map);
     return serializer;
   }
 
+  private PsonSerializer serialize(DataComplex map, ProjectionTraverser projection, BufferPool pool) throws IOException
+  {
+    PsonSerializer serializer = new PsonSerializer(pool);
+    serializer.serialize(map, projection);
+    return serializer;
+  }
+
   protected byte[] complexToBytes(DataComplex complex) throws IOException
   {
     try
     {
-      byte[] bytes = serialize(complex).toBytes();
+      PsonSerializer serializer = serialize(complex, _bufferPool);
+      byte[] bytes = serializer.toBytes();
+      serializer.release();
       return bytes;
     }
     catch (RuntimeException exc)
@@ -191,7 +231,7 @@ public class PsonDataCodec implements DataCodec
         (_testMode && _options.getBufferSize() != null) ?
           new BufferChain(ByteOrder.LITTLE_ENDIAN, input, _options.getBufferSize()) :
           new BufferChain(ByteOrder.LITTLE_ENDIAN, input);
-      PsonParser psonParser = new PsonParser(buffer);
+      PsonParser psonParser = new PsonParser(buffer, _keyDictionary);
       return clazz.cast(psonParser.read());
     }
     catch (RuntimeException exc)
@@ -208,6 +248,69 @@ public class PsonDataCodec implements DataCodec
     return complexToBytes(map);
   }
 
+  /**
+   * Serialize the projection of a {@link DataMap} without building a projected copy of it.
+   *
+   * @param map to serialize
+   * @param projection to apply while serializing
+   * @return the serialized projection
+   * @throws IOException if there is a serialization error
+   */
+  public byte[] mapToBytes(DataMap map, ProjectionTraverser projection) throws IOException
+  {
+    try
+    {
+      PsonSerializer serializer = serialize(map, projection, _bufferPool);
+      byte[] bytes = serializer.toBytes();
+      serializer.release();
+      return bytes;
+    }
+    catch (RuntimeException exc)
+    {
+      // do not want RuntimeException from BufferChain propagating
+      // as RuntimeException to client code.
+      throw new IOException("Unexpected RuntimeException", exc);
+    }
+  }
+
+  /**
+   * Serialize a {@link DataMap} into a {@link ByteString} backed by the buffers it was encoded
+   * into, instead of copying them into a single array. The buffers are never pooled.
+   *
+   * @param map to serialize
+   * @return the serialized map
+   * @throws IOException if there is a serialization error
+   */
+  public ByteString mapToByteString(DataMap map) throws IOException
+  {
+    return mapToByteString(map, null);
+  }
+
+  /**
+   * Serialize the projection of a {@link DataMap} into a {@link ByteString} backed by the buffers
+   * it was encoded into.
+   *
+   * @param map to serialize
+   * @param projection to apply while serializing, or null to serialize the whole map
+   * @return the serialized projection
+   * @throws IOException if there is a serialization error
+   * @see #mapToByteString(DataMap)
+   */
+  public ByteString mapToByteString(DataMap map, ProjectionTraverser projection) throws IOException
+  {
+    try
+    {
+      PsonSerializer serializer = projection == null ? serialize(map, null) : serialize(map, projection, null);
+      return serializer.toByteString();
+    }
+    catch (RuntimeException exc)
+    {
+      // do not want RuntimeException from BufferChain propagating
+      // as RuntimeException to client code.
+      throw new IOException("Unexpected RuntimeException", exc);
+    }
+  }
+
   @Override
   public byte[] listToBytes(DataList list) throws IOException
   {
@@ -230,7 +333,9 @@ public class PsonDataCodec implements DataCodec
   {
     try
     {
-      serialize(complex).writeToOutputStream(out);
+      PsonSerializer serializer = serialize(complex, _bufferPool);
+      serializer.writeToOutputStream(out);
+      serializer.release();
     }
     catch (RuntimeException exc)
     {
@@ -262,7 +367,7 @@ public class PsonDataCodec implements DataCodec
           new BufferChain(ByteOrder.LITTLE_ENDIAN);
       buffer.readFromInputStream(in);
       buffer.rewind();
-      PsonParser psonParser = new PsonParser(buffer);
+      PsonParser psonParser = new PsonParser(buffer, _keyDictionary);
       return clazz.cast(psonParser.read());
     }
     catch (RuntimeException exc)
@@ -317,7 +422,7 @@ public class PsonDataCodec implements DataCodec
 
   private final static int MAX_STRING_WITH_LENGTH_2 = Short.MAX_VALUE / 2 - 1;
 
-  protected class PsonSerializer implements Data.TraverseCallback
+  protected class PsonSerializer implements Data.TraverseCallback, ProjectionTraverser.SizedMapCallback
   {
     private final BufferChain _buffer;
     private final HashMap<String, Integer> _keyMap = new HashMap<String, Integer>(200);
@@ -326,8 +431,15 @@ public class PsonDataCodec implements DataCodec
     private final boolean _encodeCollectionCount = _options.getEncodeCollectionCount();
 
     protected PsonSerializer()
+    {
+      this(null);
+    }
+
+    protected PsonSerializer(BufferPool pool)
     {
       _buffer =
+        pool != null ?
+          new BufferChain(ByteOrder.LITTLE_ENDIAN, pool) :
         _options.getBufferSize() == null ?
           new BufferChain(ByteOrder.LITTLE_ENDIAN) :
           new BufferChain(ByteOrder.LITTLE_ENDIAN, _options.getBufferSize());
@@ -420,11 +532,17 @@ public class PsonDataCodec implements DataCodec
 
     @Override
     public void startMap(DataMap map) throws CharacterCodingException
+    {
+      startMap(map, map.size());
+    }
+
+    @Override
+    public void startMap(DataMap map, int size) throws CharacterCodingException
     {
       if (_encodeCollectionCount)
       {
         start(PSON_OBJECT_WITH_COUNT);
-        _buffer.putVarUnsignedInt(map.size());
+        _buffer.putVarUnsignedInt(size);
       }
       else
       {
@@ -522,6 +640,12 @@ public class PsonDataCodec implements DataCodec
       Data.traverse(map, this);
     }
 
+    private void serialize(DataComplex map, ProjectionTraverser projection) throws IOException
+    {
+      _buffer.put(HEADER, 0, HEADER.length);
+      projection.traverse(map, this);
+    }
+
     private final byte[] toBytes()
     {
       return _buffer.toBytes();
@@ -532,6 +656,16 @@ public class PsonDataCodec implements DataCodec
       _buffer.writeToOutputStream(out);
     }
 
+    private final ByteString toByteString()
+    {
+      return _buffer.toByteString();
+    }
+
+    private final void release()
+    {
+      _buffer.release();
+    }
+
     private void start(byte psonType) throws CharacterCodingException
     {
       _buffer.put(psonType);
@@ -542,8 +676,14 @@ public class PsonDataCodec implements DataCodec
   {
 
     PsonParser(BufferChain buffer)
+    {
+      this(buffer, null);
+    }
+
+    PsonParser(BufferChain buffer, KeyDictionary keyDictionary)
     {
       _buffer = buffer;
+      _keyDictionary = keyDictionary;
     }
 
     static final String HEX = "0123456789ABCDEF";
@@ -580,7 +720,12 @@ public class PsonDataCodec implements DataCodec
       int count = 0;
       for (count = 0; ; count++)
       {
-        Object item = parseValue();
+        byte psonType = _buffer.get();
+        if (addPrimitive(list, psonType))
+        {
+          continue;
+        }
+        Object item = parseValue(psonType);
         if (item == null)
         {
           break;
@@ -623,6 +768,10 @@ public class PsonDataCodec implements DataCodec
           }
           assert(_keyArray[keyIndex] == null);
           key = _buffer.getUtf8CString();
+          if (_keyDictionary != null)
+          {
+            key = _keyDictionary.getCanonical(key);
+          }
           _keyArray[keyIndex] = key;
         }
         else
@@ -653,10 +802,42 @@ public class PsonDataCodec implements DataCodec
       _keyArray = newKeyArray;
     }
 
+    /**
+     * Add a number or boolean item to the list without boxing it, see {@link DataList#addDouble(double)}.
+     *
+     * @return false if the item has to be parsed by {@link #parseValue(byte)}.
+     */
+    private boolean addPrimitive(DataList list, byte psonType) throws IOException
+    {
+      switch (psonType)
+      {
+        case PSON_INT:
+          list.addInt(_buffer.getInt());
+          return true;
+        case PSON_LONG:
+          list.addLong(_buffer.getLong());
+          return true;
+        case PSON_FLOAT:
+          list.addFloat(_buffer.getFloat());
+          return true;
+        case PSON_DOUBLE:
+          list.addDouble(_buffer.getDouble());
+          return true;
+        case PSON_BOOLEAN:
+          list.addBoolean(_buffer.get() != ZERO_BYTE);
+          return true;
+        default:
+          return false;
+      }
+    }
+
     Object parseValue() throws IOException
     {
-      byte psonType = _buffer.get();
+      return parseValue(_buffer.get());
+    }
 
+    Object parseValue(byte psonType) throws IOException
+    {
       Object o = null;
       boolean valid = true;
       switch (psonType)
@@ -738,6 +919,7 @@ public class PsonDataCodec implements DataCodec
     }
 
     private final BufferChain _buffer;
+    private final KeyDictionary _keyDictionary;
     private String _keyArray[] = new String[100];
     private int _expectedKeyIndex = 1;
   }
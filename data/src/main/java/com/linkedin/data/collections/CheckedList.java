@@ -35,6 +35,11 @@ import java.util.List;
  * with this {@link CheckedList}.
  * <p>
  *
+ * A list of primitive values may instead be stored in a {@link PrimitiveList},
+ * see {@link #CheckedList(PrimitiveList, ListChecker)}. It is replaced by an
+ * {@link ArrayList} of boxed elements when an element it does not accept is stored.
+ * <p>
+ *
  * A {@link CheckedList} may be marked read-only to disable mutations,
  * and to avoid unintentional changes. It may also be invalidated to
  * release its reference and decrease the reference count on the underlying
@@ -115,12 +120,27 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
     _list = new InternalList<E>(initialCapacity);
   }
 
+  /**
+   * Construct a new list which stores its elements in the specified {@link PrimitiveList}.
+   *
+   * The elements of the {@link PrimitiveList} are not checked.
+   *
+   * @param list provides the storage of the new list.
+   * @param checker provides the {@link ListChecker}.
+   */
+  @SuppressWarnings("unchecked")
+  protected CheckedList(PrimitiveList list, ListChecker<E> checker)
+  {
+    _checker = checker;
+    _list = (List<E>) (List<?>) list;
+  }
+
   @Override
   public boolean add(E e)
   {
     check(e);
     checkMutability();
-    return _list.add(e);
+    return listFor(e).add(e);
   }
 
   @Override
@@ -128,7 +148,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   {
     check(element);
     checkMutability();
-    _list.add(index, element);
+    listFor(element).add(index, element);
   }
 
   @Override
@@ -136,7 +156,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   {
     checkAll(c);
     checkMutability();
-    return _list.addAll(c);
+    return listForAll(c).addAll(c);
   }
 
   @Override
@@ -144,7 +164,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   {
     checkAll(c);
     checkMutability();
-    return _list.addAll(index, c);
+    return listForAll(c).addAll(index, c);
   }
 
   @Override
@@ -159,7 +179,14 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   public CheckedList<E> clone() throws CloneNotSupportedException
   {
     CheckedList<E> o = (CheckedList<E>) super.clone();
-    o._list = (InternalList<E>) _list.clone();
+    if (_list instanceof PrimitiveList)
+    {
+      o._list = (List<E>) ((PrimitiveList) _list).clone();
+    }
+    else
+    {
+      o._list = (InternalList<E>) ((InternalList<E>) _list).clone();
+    }
     o._readOnly = false;
     return o;
   }
@@ -244,7 +271,14 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   public void removeRange(int fromIndex, int toIndex)
   {
     checkMutability();
-    _list.removeRange(fromIndex, toIndex);
+    if (_list instanceof PrimitiveList)
+    {
+      ((PrimitiveList) _list).removeRange(fromIndex, toIndex);
+    }
+    else
+    {
+      ((InternalList<E>) _list).removeRange(fromIndex, toIndex);
+    }
   }
 
   @Override
@@ -252,7 +286,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   {
     check(element);
     checkMutability();
-    return _list.set(index, element);
+    return listFor(element).set(index, element);
   }
 
   @Override
@@ -309,7 +343,7 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   protected boolean addWithoutChecking(E element)
   {
     checkMutability();
-    return _list.add(element);
+    return listFor(element).add(element);
   }
 
   /**
@@ -324,7 +358,33 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
   protected E setWithoutChecking(int index, E element)
   {
     checkMutability();
-    return _list.set(index, element);
+    return listFor(element).set(index, element);
+  }
+
+  /**
+   * Returns the {@link PrimitiveList} which stores the elements of this list.
+   *
+   * @return the {@link PrimitiveList}, or null if the elements are not stored in one.
+   */
+  protected final PrimitiveList getPrimitiveList()
+  {
+    return _list instanceof PrimitiveList ? (PrimitiveList) _list : null;
+  }
+
+  /**
+   * Replace the elements of this list by the elements of the specified {@link PrimitiveList},
+   * which then stores the elements of this list. Use with caution.
+   *
+   * This method skips all value checks.
+   *
+   * @param list provides the new elements.
+   * @throws UnsupportedOperationException if the list is read-only.
+   */
+  @SuppressWarnings("unchecked")
+  protected final void setPrimitiveList(PrimitiveList list)
+  {
+    checkMutability();
+    _list = (List<E>) (List<?>) list;
   }
 
   boolean addWithAssertChecking(E element)
@@ -339,6 +399,31 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
     return setWithoutChecking(index, element);
   }
 
+  private List<E> listFor(E element)
+  {
+    if (_list instanceof PrimitiveList && !((PrimitiveList) _list).accepts(element))
+    {
+      _list = new InternalList<E>(_list);
+    }
+    return _list;
+  }
+
+  private List<E> listForAll(Collection<? extends E> c)
+  {
+    if (_list instanceof PrimitiveList)
+    {
+      for (E e : c)
+      {
+        if (!((PrimitiveList) _list).accepts(e))
+        {
+          _list = new InternalList<E>(_list);
+          break;
+        }
+      }
+    }
+    return _list;
+  }
+
   private final void checkMutability()
   {
     if (_readOnly)
@@ -412,5 +497,5 @@ public class CheckedList<E> extends AbstractList<E> implements CommonList<E>, Cl
 
   protected ListChecker<E> _checker;
   private boolean _readOnly = false;
-  private InternalList<E> _list;
+  private List<E> _list;
 }
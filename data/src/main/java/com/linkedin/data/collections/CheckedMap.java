@@ -32,7 +32,8 @@ import java.util.Set;
  *
  * The underlying map implementation is {@link HashMap}. It delegates
  * map operations to the underlying {@link HashMap} associated
- * with this {@link CheckedMap}.
+ * with this {@link CheckedMap}. A subclass may instead store its entries
+ * in a {@link CompactMap}, see {@link #CheckedMap(MapChecker, Map)}.
  * <P>
  *
  * A {@link CheckedMap} may be marked read-only to disable mutations,
@@ -152,6 +153,24 @@ public class CheckedMap<K,V> implements CommonMap<K,V>, Cloneable
     _map = new HashMap<K,V>(initialCapacity, loadFactor);
   }
 
+  /**
+   * Construct a map which stores its entries in the specified map, with the specified {@link MapChecker}.
+   *
+   * @param checker provides the {@link MapChecker}.
+   * @param map provides the underlying map and its initial entries, which are checked. It must be
+   *            a {@link HashMap} or a {@link CompactMap}, and must not be used by the caller afterwards.
+   */
+  protected CheckedMap(MapChecker<K,V> checker, Map<K,V> map)
+  {
+    if (!(map instanceof HashMap || map instanceof CompactMap))
+    {
+      throw new IllegalArgumentException("Unsupported underlying map " + map.getClass().getName());
+    }
+    _checker = checker;
+    checkAll(map);
+    _map = map;
+  }
+
   @Override
   public void clear()
   {
@@ -164,7 +183,14 @@ public class CheckedMap<K,V> implements CommonMap<K,V>, Cloneable
   public CheckedMap<K,V> clone() throws CloneNotSupportedException
   {
     CheckedMap<K,V> o = (CheckedMap<K,V>) super.clone();
-    o._map = (HashMap<K,V>) _map.clone();
+    if (_map instanceof CompactMap)
+    {
+      o._map = ((CompactMap<K,V>) _map).clone();
+    }
+    else
+    {
+      o._map = (HashMap<K,V>) ((HashMap<K,V>) _map).clone();
+    }
     o._readOnly = false;
     return o;
   }
@@ -366,5 +392,5 @@ public class CheckedMap<K,V> implements CommonMap<K,V>, Cloneable
 
   private boolean _readOnly = false;
   protected MapChecker<K,V> _checker;
-  private HashMap<K,V> _map;
+  private Map<K,V> _map;
 }
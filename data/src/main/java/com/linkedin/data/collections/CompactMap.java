@@ -0,0 +1,598 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.collections;
+
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * Compact {@link Map} which stores its keys and values in two arrays, in insertion order.
+ * <p>
+ *
+ * Small maps are searched linearly, which is fast for the few keys of most records. Larger
+ * maps add an open addressed table of the positions of their entries. Compared to a
+ * {@link java.util.HashMap}, no object is allocated per entry, so a map of strings to values
+ * costs two references per entry plus, if it is large, two ints.
+ * <p>
+ *
+ * Iteration is in insertion order. A removed entry leaves an unused position in the arrays
+ * until they are compacted when they are full.
+ * <p>
+ *
+ * This map is not synchronized.
+ */
+public class CompactMap<K,V> extends AbstractMap<K,V> implements Cloneable
+{
+  /**
+   * Maps with up to this capacity have no table, and are searched linearly.
+   */
+  static final int MAX_LINEAR_CAPACITY = 8;
+
+  private static final int DEFAULT_CAPACITY = 4;
+  private static final Object[] EMPTY = new Object[0];
+  private static final Object REMOVED = new Object();
+
+  private Object[] _keys;
+  private Object[] _values;
+  private int[] _table;
+  private int _end;
+  private int _size;
+  private int _modCount;
+
+  /**
+   * Construct an empty map.
+   */
+  public CompactMap()
+  {
+    _keys = EMPTY;
+    _values = EMPTY;
+  }
+
+  /**
+   * Construct an empty map with room for the specified number of entries.
+   *
+   * @param initialCapacity provides the number of entries the map holds before it grows.
+   */
+  public CompactMap(int initialCapacity)
+  {
+    if (initialCapacity < 0)
+    {
+      throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+    }
+    _keys = initialCapacity == 0 ? EMPTY : new Object[initialCapacity];
+    _values = initialCapacity == 0 ? EMPTY : new Object[initialCapacity];
+    rebuildTable();
+  }
+
+  /**
+   * Construct a map with the entries of the specified map.
+   *
+   * @param map provides the initial entries of the new map.
+   */
+  public CompactMap(Map<? extends K, ? extends V> map)
+  {
+    this(map.size());
+    putAll(map);
+  }
+
+  @Override
+  public int size()
+  {
+    return _size;
+  }
+
+  @Override
+  public boolean isEmpty()
+  {
+    return _size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key)
+  {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public boolean containsValue(Object value)
+  {
+    for (int i = 0; i < _end; ++i)
+    {
+      if (_keys[i] != REMOVED && eq(_values[i], value))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public V get(Object key)
+  {
+    final int index = indexOf(key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public V put(K key, V value)
+  {
+    final int index = indexOf(key);
+    if (index >= 0)
+    {
+      final V previous = valueAt(index);
+      _values[index] = value;
+      return previous;
+    }
+
+    if (_end == _keys.length)
+    {
+      makeRoom();
+    }
+    _keys[_end] = key;
+    _values[_end] = value;
+    if (_table != null)
+    {
+      addToTable(hash(key), _end);
+    }
+    ++_end;
+    ++_size;
+    ++_modCount;
+    return null;
+  }
+
+  @Override
+  public V remove(Object key)
+  {
+    final int index = indexOf(key);
+    if (index < 0)
+    {
+      return null;
+    }
+
+    final V previous = valueAt(index);
+    removeAt(index);
+    return previous;
+  }
+
+  @Override
+  public void clear()
+  {
+    Arrays.fill(_keys, 0, _end, null);
+    Arrays.fill(_values, 0, _end, null);
+    if (_table != null)
+    {
+      Arrays.fill(_table, 0);
+    }
+    _end = 0;
+    _size = 0;
+    ++_modCount;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet()
+  {
+    return new AbstractSet<Map.Entry<K, V>>()
+    {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator()
+      {
+        return new PositionIterator<Map.Entry<K, V>>()
+        {
+          @Override
+          Map.Entry<K, V> elementAt(int index)
+          {
+            return new Entry(index);
+          }
+        };
+      }
+
+      @Override
+      public int size()
+      {
+        return _size;
+      }
+    };
+  }
+
+  @Override
+  public Set<K> keySet()
+  {
+    return new AbstractSet<K>()
+    {
+      @Override
+      public Iterator<K> iterator()
+      {
+        return new PositionIterator<K>()
+        {
+          @Override
+          K elementAt(int index)
+          {
+            return keyAt(index);
+          }
+        };
+      }
+
+      @Override
+      public int size()
+      {
+        return _size;
+      }
+
+      @Override
+      public boolean contains(Object o)
+      {
+        return containsKey(o);
+      }
+    };
+  }
+
+  @Override
+  public Collection<V> values()
+  {
+    return new AbstractCollection<V>()
+    {
+      @Override
+      public Iterator<V> iterator()
+      {
+        return new PositionIterator<V>()
+        {
+          @Override
+          V elementAt(int index)
+          {
+            return valueAt(index);
+          }
+        };
+      }
+
+      @Override
+      public int size()
+      {
+        return _size;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (o == this)
+    {
+      return true;
+    }
+    if (!(o instanceof Map))
+    {
+      return false;
+    }
+    final Map<?, ?> other = (Map<?, ?>) o;
+    if (other.size() != _size)
+    {
+      return false;
+    }
+    for (int i = 0; i < _end; ++i)
+    {
+      final Object key = _keys[i];
+      if (key != REMOVED)
+      {
+        final Object value = _values[i];
+        if (value == null ? other.get(key) != null || !other.containsKey(key) : !value.equals(other.get(key)))
+        {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    int h = 0;
+    for (int i = 0; i < _end; ++i)
+    {
+      final Object key = _keys[i];
+      if (key != REMOVED)
+      {
+        final Object value = _values[i];
+        h += (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+      }
+    }
+    return h;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public CompactMap<K,V> clone() throws CloneNotSupportedException
+  {
+    final CompactMap<K,V> o = (CompactMap<K,V>) super.clone();
+    if (_keys != EMPTY)
+    {
+      o._keys = _keys.clone();
+      o._values = _values.clone();
+    }
+    if (_table != null)
+    {
+      o._table = _table.clone();
+    }
+    o._modCount = 0;
+    return o;
+  }
+
+  private int indexOf(Object key)
+  {
+    if (_table == null)
+    {
+      for (int i = 0; i < _end; ++i)
+      {
+        final Object k = _keys[i];
+        if (k == key || (k != REMOVED && key != null && key.equals(k)))
+        {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    final int mask = _table.length - 1;
+    for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask)
+    {
+      final int position = _table[slot];
+      if (position == 0)
+      {
+        return -1;
+      }
+      final Object k = _keys[position - 1];
+      if (k == key || (k != REMOVED && key != null && key.equals(k)))
+      {
+        return position - 1;
+      }
+    }
+  }
+
+  private void removeAt(int index)
+  {
+    // the table keeps the position of a removed entry, so that the probe sequences of other keys are kept
+    _keys[index] = REMOVED;
+    _values[index] = null;
+    --_size;
+    ++_modCount;
+    if (_table == null && index == _end - 1)
+    {
+      _keys[index] = null;
+      --_end;
+    }
+  }
+
+  /**
+   * Make room for one more entry at the end of the arrays, by dropping removed entries or by growing them.
+   */
+  private void makeRoom()
+  {
+    final int length = _keys.length;
+    final int capacity;
+    if (_size < _end - (_end >> 2))
+    {
+      capacity = length;
+    }
+    else
+    {
+      capacity = length == 0 ? DEFAULT_CAPACITY : length * 2;
+    }
+
+    final Object[] keys = new Object[capacity];
+    final Object[] values = new Object[capacity];
+    int j = 0;
+    for (int i = 0; i < _end; ++i)
+    {
+      if (_keys[i] != REMOVED)
+      {
+        keys[j] = _keys[i];
+        values[j] = _values[i];
+        ++j;
+      }
+    }
+    _keys = keys;
+    _values = values;
+    _end = j;
+    rebuildTable();
+  }
+
+  private void rebuildTable()
+  {
+    final int capacity = _keys.length;
+    if (capacity <= MAX_LINEAR_CAPACITY)
+    {
+      _table = null;
+      return;
+    }
+
+    // at least twice the capacity, so that the load factor is at most 0.5 with removed entries
+    int tableLength = Integer.highestOneBit(capacity) << 1;
+    if (tableLength < capacity * 2)
+    {
+      tableLength <<= 1;
+    }
+    _table = new int[tableLength];
+    for (int i = 0; i < _end; ++i)
+    {
+      addToTable(hash(_keys[i]), i);
+    }
+  }
+
+  private void addToTable(int hash, int index)
+  {
+    final int mask = _table.length - 1;
+    int slot = hash & mask;
+    while (_table[slot] != 0)
+    {
+      slot = (slot + 1) & mask;
+    }
+    _table[slot] = index + 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private K keyAt(int index)
+  {
+    return (K) _keys[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueAt(int index)
+  {
+    return (V) _values[index];
+  }
+
+  private static int hash(Object key)
+  {
+    if (key == null)
+    {
+      return 0;
+    }
+    final int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static boolean eq(Object a, Object b)
+  {
+    return a == b || (a != null && a.equals(b));
+  }
+
+  private abstract class PositionIterator<E> implements Iterator<E>
+  {
+    private int _next = skipRemoved(0);
+    private int _last = -1;
+    private int _expectedModCount = _modCount;
+
+    abstract E elementAt(int index);
+
+    @Override
+    public boolean hasNext()
+    {
+      return _next < _end;
+    }
+
+    @Override
+    public E next()
+    {
+      if (_modCount != _expectedModCount)
+      {
+        throw new ConcurrentModificationException();
+      }
+      if (_next >= _end)
+      {
+        throw new NoSuchElementException();
+      }
+      _last = _next;
+      _next = skipRemoved(_next + 1);
+      return elementAt(_last);
+    }
+
+    @Override
+    public void remove()
+    {
+      if (_last < 0)
+      {
+        throw new IllegalStateException();
+      }
+      if (_modCount != _expectedModCount)
+      {
+        throw new ConcurrentModificationException();
+      }
+      removeAt(_last);
+      _last = -1;
+      _expectedModCount = _modCount;
+    }
+
+    private int skipRemoved(int index)
+    {
+      while (index < _end && _keys[index] == REMOVED)
+      {
+        ++index;
+      }
+      return index;
+    }
+  }
+
+  private class Entry implements Map.Entry<K, V>
+  {
+    private final int _index;
+    private final K _key;
+
+    private Entry(int index)
+    {
+      _index = index;
+      _key = keyAt(index);
+    }
+
+    @Override
+    public K getKey()
+    {
+      return _key;
+    }
+
+    @Override
+    public V getValue()
+    {
+      return _keys[_index] == _key ? valueAt(_index) : get(_key);
+    }
+
+    @Override
+    public V setValue(V value)
+    {
+      if (_keys[_index] == _key)
+      {
+        final V previous = valueAt(_index);
+        _values[_index] = value;
+        return previous;
+      }
+      return put(_key, value);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (!(o instanceof Map.Entry))
+      {
+        return false;
+      }
+      final Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+      return eq(_key, other.getKey()) && eq(getValue(), other.getValue());
+    }
+
+    @Override
+    public int hashCode()
+    {
+      final V value = getValue();
+      return (_key == null ? 0 : _key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString()
+    {
+      return _key + "=" + getValue();
+    }
+  }
+}
@@ -0,0 +1,733 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.collections;
+
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+
+/**
+ * List of primitive values of one type, stored in a primitive array instead of as boxed objects.
+ * <p>
+ *
+ * Its elements are boxed when they are read through the {@link java.util.List} interface, and
+ * the typed accessors of its subclasses read and write them without boxing. A list only accepts
+ * elements of its element class, see {@link #accepts(Object)}. A {@link CheckedList} stores
+ * other elements by copying its {@link PrimitiveList} into a list of boxed elements.
+ * <p>
+ *
+ * The typed getters widen or narrow numbers like {@link Number}, so that any numeric list can be
+ * read as any numeric type.
+ */
+public abstract class PrimitiveList extends AbstractList<Object> implements RandomAccess, Cloneable
+{
+  private static final int DEFAULT_CAPACITY = 10;
+
+  protected int _size;
+
+  /**
+   * @return the class of the boxed elements of this list.
+   */
+  public abstract Class<?> getElementClass();
+
+  /**
+   * @return whether the element can be stored in this list.
+   */
+  public boolean accepts(Object element)
+  {
+    return element != null && element.getClass() == getElementClass();
+  }
+
+  public abstract int getInt(int index);
+
+  public abstract long getLong(int index);
+
+  public abstract float getFloat(int index);
+
+  public abstract double getDouble(int index);
+
+  public boolean getBoolean(int index)
+  {
+    throw new ClassCastException(getElementClass().getName() + " cannot be cast to " + Boolean.class.getName());
+  }
+
+  @Override
+  public int size()
+  {
+    return _size;
+  }
+
+  @Override
+  public Object get(int index)
+  {
+    checkIndex(index);
+    return box(index);
+  }
+
+  @Override
+  public Object set(int index, Object element)
+  {
+    checkIndex(index);
+    checkElement(element);
+    final Object previous = box(index);
+    store(index, element);
+    return previous;
+  }
+
+  @Override
+  public void add(int index, Object element)
+  {
+    if (index < 0 || index > _size)
+    {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+    }
+    checkElement(element);
+    ensureCapacity(_size + 1);
+    System.arraycopy(array(), index, array(), index + 1, _size - index);
+    store(index, element);
+    ++_size;
+    ++modCount;
+  }
+
+  @Override
+  public Object remove(int index)
+  {
+    checkIndex(index);
+    final Object previous = box(index);
+    System.arraycopy(array(), index + 1, array(), index, _size - index - 1);
+    --_size;
+    ++modCount;
+    return previous;
+  }
+
+  @Override
+  public void removeRange(int fromIndex, int toIndex)
+  {
+    System.arraycopy(array(), toIndex, array(), fromIndex, _size - toIndex);
+    _size -= toIndex - fromIndex;
+    ++modCount;
+  }
+
+  @Override
+  public void clear()
+  {
+    _size = 0;
+    ++modCount;
+  }
+
+  @Override
+  public PrimitiveList clone() throws CloneNotSupportedException
+  {
+    final PrimitiveList o = (PrimitiveList) super.clone();
+    o.setArray(copyArray(Math.max(_size, 1)));
+    return o;
+  }
+
+  /**
+   * @return the primitive array which stores the elements, its length is the capacity of this list.
+   */
+  protected abstract Object array();
+
+  protected abstract void setArray(Object array);
+
+  protected abstract int capacity();
+
+  /**
+   * @return a copy of the stored elements, in an array of the given length.
+   */
+  protected abstract Object copyArray(int length);
+
+  protected abstract Object box(int index);
+
+  /**
+   * Store an element which is accepted by this list.
+   */
+  protected abstract void store(int index, Object element);
+
+  protected final void ensureCapacity(int capacity)
+  {
+    final int length = capacity();
+    if (capacity > length)
+    {
+      setArray(copyArray(Math.max(capacity, length + (length >> 1) + 1)));
+    }
+  }
+
+  protected final void checkIndex(int index)
+  {
+    if (index < 0 || index >= _size)
+    {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+    }
+  }
+
+  private void checkElement(Object element)
+  {
+    if (!accepts(element))
+    {
+      throw new IllegalArgumentException(element + " cannot be stored in a list of " + getElementClass().getName());
+    }
+  }
+
+  /**
+   * {@link PrimitiveList} of {@link Integer}s.
+   */
+  public static final class IntList extends PrimitiveList
+  {
+    private int[] _array;
+
+    public IntList()
+    {
+      _array = new int[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * @param values provides the initial elements, the array is copied.
+     */
+    public IntList(int[] values)
+    {
+      _array = Arrays.copyOf(values, Math.max(values.length, 1));
+      _size = values.length;
+    }
+
+    @Override
+    public Class<?> getElementClass()
+    {
+      return Integer.class;
+    }
+
+    @Override
+    public int getInt(int index)
+    {
+      checkIndex(index);
+      return _array[index];
+    }
+
+    @Override
+    public long getLong(int index)
+    {
+      return getInt(index);
+    }
+
+    @Override
+    public float getFloat(int index)
+    {
+      return getInt(index);
+    }
+
+    @Override
+    public double getDouble(int index)
+    {
+      return getInt(index);
+    }
+
+    public void setInt(int index, int value)
+    {
+      checkIndex(index);
+      _array[index] = value;
+    }
+
+    public void addInt(int value)
+    {
+      ensureCapacity(_size + 1);
+      _array[_size++] = value;
+      ++modCount;
+    }
+
+    public int[] toIntArray()
+    {
+      return Arrays.copyOf(_array, _size);
+    }
+
+    @Override
+    protected Object array()
+    {
+      return _array;
+    }
+
+    @Override
+    protected void setArray(Object array)
+    {
+      _array = (int[]) array;
+    }
+
+    @Override
+    protected int capacity()
+    {
+      return _array.length;
+    }
+
+    @Override
+    protected Object copyArray(int length)
+    {
+      return Arrays.copyOf(_array, length);
+    }
+
+    @Override
+    protected Object box(int index)
+    {
+      return _array[index];
+    }
+
+    @Override
+    protected void store(int index, Object element)
+    {
+      _array[index] = (Integer) element;
+    }
+  }
+
+  /**
+   * {@link PrimitiveList} of {@link Long}s.
+   */
+  public static final class LongList extends PrimitiveList
+  {
+    private long[] _array;
+
+    public LongList()
+    {
+      _array = new long[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * @param values provides the initial elements, the array is copied.
+     */
+    public LongList(long[] values)
+    {
+      _array = Arrays.copyOf(values, Math.max(values.length, 1));
+      _size = values.length;
+    }
+
+    @Override
+    public Class<?> getElementClass()
+    {
+      return Long.class;
+    }
+
+    @Override
+    public int getInt(int index)
+    {
+      return (int) getLong(index);
+    }
+
+    @Override
+    public long getLong(int index)
+    {
+      checkIndex(index);
+      return _array[index];
+    }
+
+    @Override
+    public float getFloat(int index)
+    {
+      return getLong(index);
+    }
+
+    @Override
+    public double getDouble(int index)
+    {
+      return getLong(index);
+    }
+
+    public void setLong(int index, long value)
+    {
+      checkIndex(index);
+      _array[index] = value;
+    }
+
+    public void addLong(long value)
+    {
+      ensureCapacity(_size + 1);
+      _array[_size++] = value;
+      ++modCount;
+    }
+
+    public long[] toLongArray()
+    {
+      return Arrays.copyOf(_array, _size);
+    }
+
+    @Override
+    protected Object array()
+    {
+      return _array;
+    }
+
+    @Override
+    protected void setArray(Object array)
+    {
+      _array = (long[]) array;
+    }
+
+    @Override
+    protected int capacity()
+    {
+      return _array.length;
+    }
+
+    @Override
+    protected Object copyArray(int length)
+    {
+      return Arrays.copyOf(_array, length);
+    }
+
+    @Override
+    protected Object box(int index)
+    {
+      return _array[index];
+    }
+
+    @Override
+    protected void store(int index, Object element)
+    {
+      _array[index] = (Long) element;
+    }
+  }
+
+  /**
+   * {@link PrimitiveList} of {@link Float}s.
+   */
+  public static final class FloatList extends PrimitiveList
+  {
+    private float[] _array;
+
+    public FloatList()
+    {
+      _array = new float[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * @param values provides the initial elements, the array is copied.
+     */
+    public FloatList(float[] values)
+    {
+      _array = Arrays.copyOf(values, Math.max(values.length, 1));
+      _size = values.length;
+    }
+
+    @Override
+    public Class<?> getElementClass()
+    {
+      return Float.class;
+    }
+
+    @Override
+    public int getInt(int index)
+    {
+      return (int) getFloat(index);
+    }
+
+    @Override
+    public long getLong(int index)
+    {
+      return (long) getFloat(index);
+    }
+
+    @Override
+    public float getFloat(int index)
+    {
+      checkIndex(index);
+      return _array[index];
+    }
+
+    @Override
+    public double getDouble(int index)
+    {
+      return getFloat(index);
+    }
+
+    public void setFloat(int index, float value)
+    {
+      checkIndex(index);
+      _array[index] = value;
+    }
+
+    public void addFloat(float value)
+    {
+      ensureCapacity(_size + 1);
+      _array[_size++] = value;
+      ++modCount;
+    }
+
+    public float[] toFloatArray()
+    {
+      return Arrays.copyOf(_array, _size);
+    }
+
+    @Override
+    protected Object array()
+    {
+      return _array;
+    }
+
+    @Override
+    protected void setArray(Object array)
+    {
+      _array = (float[]) array;
+    }
+
+    @Override
+    protected int capacity()
+    {
+      return _array.length;
+    }
+
+    @Override
+    protected Object copyArray(int length)
+    {
+      return Arrays.copyOf(_array, length);
+    }
+
+    @Override
+    protected Object box(int index)
+    {
+      return _array[index];
+    }
+
+    @Override
+    protected void store(int index, Object element)
+    {
+      _array[index] = (Float) element;
+    }
+  }
+
+  /**
+   * {@link PrimitiveList} of {@link Double}s.
+   */
+  public static final class DoubleList extends PrimitiveList
+  {
+    private double[] _array;
+
+    public DoubleList()
+    {
+      _array = new double[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * @param values provides the initial elements, the array is copied.
+     */
+    public DoubleList(double[] values)
+    {
+      _array = Arrays.copyOf(values, Math.max(values.length, 1));
+      _size = values.length;
+    }
+
+    @Override
+    public Class<?> getElementClass()
+    {
+      return Double.class;
+    }
+
+    @Override
+    public int getInt(int index)
+    {
+      return (int) getDouble(index);
+    }
+
+    @Override
+    public long getLong(int index)
+    {
+      return (long) getDouble(index);
+    }
+
+    @Override
+    public float getFloat(int index)
+    {
+      return (float) getDouble(index);
+    }
+
+    @Override
+    public double getDouble(int index)
+    {
+      checkIndex(index);
+      return _array[index];
+    }
+
+    public void setDouble(int index, double value)
+    {
+      checkIndex(index);
+      _array[index] = value;
+    }
+
+    public void addDouble(double value)
+    {
+      ensureCapacity(_size + 1);
+      _array[_size++] = value;
+      ++modCount;
+    }
+
+    public double[] toDoubleArray()
+    {
+      return Arrays.copyOf(_array, _size);
+    }
+
+    @Override
+    protected Object array()
+    {
+      return _array;
+    }
+
+    @Override
+    protected void setArray(Object array)
+    {
+      _array = (double[]) array;
+    }
+
+    @Override
+    protected int capacity()
+    {
+      return _array.length;
+    }
+
+    @Override
+    protected Object copyArray(int length)
+    {
+      return Arrays.copyOf(_array, length);
+    }
+
+    @Override
+    protected Object box(int index)
+    {
+      return _array[index];
+    }
+
+    @Override
+    protected void store(int index, Object element)
+    {
+      _array[index] = (Double) element;
+    }
+  }
+
+  /**
+   * {@link PrimitiveList} of {@link Boolean}s. Its numeric getters throw {@link ClassCastException}.
+   */
+  public static final class BooleanList extends PrimitiveList
+  {
+    private boolean[] _array;
+
+    public BooleanList()
+    {
+      _array = new boolean[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * @param values provides the initial elements, the array is copied.
+     */
+    public BooleanList(boolean[] values)
+    {
+      _array = Arrays.copyOf(values, Math.max(values.length, 1));
+      _size = values.length;
+    }
+
+    @Override
+    public Class<?> getElementClass()
+    {
+      return Boolean.class;
+    }
+
+    @Override
+    public int getInt(int index)
+    {
+      throw notNumeric();
+    }
+
+    @Override
+    public long getLong(int index)
+    {
+      throw notNumeric();
+    }
+
+    @Override
+    public float getFloat(int index)
+    {
+      throw notNumeric();
+    }
+
+    @Override
+    public double getDouble(int index)
+    {
+      throw notNumeric();
+    }
+
+    @Override
+    public boolean getBoolean(int index)
+    {
+      checkIndex(index);
+      return _array[index];
+    }
+
+    public void setBoolean(int index, boolean value)
+    {
+      checkIndex(index);
+      _array[index] = value;
+    }
+
+    public void addBoolean(boolean value)
+    {
+      ensureCapacity(_size + 1);
+      _array[_size++] = value;
+      ++modCount;
+    }
+
+    public boolean[] toBooleanArray()
+    {
+      return Arrays.copyOf(_array, _size);
+    }
+
+    @Override
+    protected Object array()
+    {
+      return _array;
+    }
+
+    @Override
+    protected void setArray(Object array)
+    {
+      _array = (boolean[]) array;
+    }
+
+    @Override
+    protected int capacity()
+    {
+      return _array.length;
+    }
+
+    @Override
+    protected Object copyArray(int length)
+    {
+      return Arrays.copyOf(_array, length);
+    }
+
+    @Override
+    protected Object box(int index)
+    {
+      return _array[index];
+    }
+
+    @Override
+    protected void store(int index, Object element)
+    {
+      _array[index] = (Boolean) element;
+    }
+
+    private ClassCastException notNumeric()
+    {
+      return new ClassCastException(Boolean.class.getName() + " cannot be cast to " + Number.class.getName());
+    }
+  }
+}
@@ -44,11 +44,67 @@ public final class BooleanArray extends DirectArrayTemplate<Boolean>
     addAll(c);
   }
 
+  /**
+   * Construct an array whose elements are stored without boxing, in a copy of the provided array.
+   *
+   * @param values provides the initial elements.
+   */
+  public BooleanArray(boolean[] values)
+  {
+    this(new DataList(values));
+  }
+
   public BooleanArray(DataList list)
   {
     super(list, SCHEMA, Boolean.class, Boolean.class);
   }
 
+  /**
+   * Returns the element at the specified position, without boxing it if the underlying
+   * {@link DataList} stores its elements in a primitive array.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element cannot be coerced to boolean.
+   */
+  public boolean getBoolean(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getBoolean(index);
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " cannot be coerced to boolean", exc);
+    }
+  }
+
+  /**
+   * Appends the element to the end of the array without boxing it, see {@link DataList#addBoolean(boolean)}.
+   *
+   * @param element to be appended.
+   */
+  public void addBoolean(boolean element)
+  {
+    _list.addBoolean(element);
+  }
+
+  /**
+   * @return the elements of the array.
+   * @throws TemplateOutputCastException if an element cannot be coerced to boolean.
+   */
+  public boolean[] toBooleanArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toBooleanArray();
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list + " cannot be coerced to boolean[]", exc);
+    }
+  }
+
   @Override
   public BooleanArray clone() throws CloneNotSupportedException
   {
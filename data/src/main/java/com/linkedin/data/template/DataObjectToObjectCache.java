@@ -36,34 +36,104 @@ import java.util.HashMap;
  */
 class DataObjectToObjectCache<V> implements Cloneable
 {
+  /**
+   * Up to this many entries are kept in arrays and searched by identity, which needs neither a key
+   * object nor a hash code per lookup. Most records hold only a few wrapped fields, and many of them
+   * are read once and discarded, so a map is only allocated for larger caches.
+   */
+  static final int MAX_ARRAY_SIZE = 8;
+
+  private Object[] _keys;
+  private Object[] _values;
+  private int _size;
   private HashMap<DataObjectKey, V> _cache;
+  private final int _initialCapacity;
 
   DataObjectToObjectCache()
   {
-    _cache = new HashMap<DataObjectKey, V>();
+    this(0);
   }
 
   DataObjectToObjectCache(int initialCapacity)
   {
-    _cache = new HashMap<DataObjectKey, V>(initialCapacity);
+    _initialCapacity = initialCapacity;
   }
 
   @SuppressWarnings("unchecked")
   public DataObjectToObjectCache<V> clone() throws CloneNotSupportedException
   {
     DataObjectToObjectCache<V> cloned = (DataObjectToObjectCache<V>) super.clone();
-    cloned._cache = (HashMap<DataObjectKey, V>) _cache.clone();
+    if (_cache != null)
+    {
+      cloned._cache = (HashMap<DataObjectKey, V>) _cache.clone();
+    }
+    if (_keys != null)
+    {
+      cloned._keys = _keys.clone();
+      cloned._values = _values.clone();
+    }
     return cloned;
   }
 
   void put(Object dataObject, V value)
   {
+    if (_cache == null)
+    {
+      for (int i = 0; i < _size; ++i)
+      {
+        if (_keys[i] == dataObject)
+        {
+          _values[i] = value;
+          return;
+        }
+      }
+
+      if (_size < MAX_ARRAY_SIZE && _initialCapacity <= MAX_ARRAY_SIZE)
+      {
+        if (_keys == null)
+        {
+          _keys = new Object[MAX_ARRAY_SIZE];
+          _values = new Object[MAX_ARRAY_SIZE];
+        }
+        _keys[_size] = dataObject;
+        _values[_size] = value;
+        ++_size;
+        return;
+      }
+
+      _cache = new HashMap<DataObjectKey, V>(Math.max(_initialCapacity, MAX_ARRAY_SIZE * 2));
+      for (int i = 0; i < _size; ++i)
+      {
+        _cache.put(new DataObjectKey(_keys[i]), valueAt(i));
+      }
+      _keys = null;
+      _values = null;
+      _size = 0;
+    }
     _cache.put(new DataObjectKey(dataObject), value);
   }
 
   V get(Object dataObject)
   {
-    return _cache.get(new DataObjectKey(dataObject));
+    if (_cache != null)
+    {
+      return _cache.get(new DataObjectKey(dataObject));
+    }
+
+    for (int i = 0; i < _size; ++i)
+    {
+      if (_keys[i] == dataObject)
+      {
+        return valueAt(i);
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueAt(int i)
+  {
+    return (V) _values[i];
   }
 
   private class DataObjectKey
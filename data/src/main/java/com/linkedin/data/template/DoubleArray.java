@@ -44,11 +44,67 @@ public final class DoubleArray extends DirectArrayTemplate<Double>
     addAll(c);
   }
 
+  /**
+   * Construct an array whose elements are stored without boxing, in a copy of the provided array.
+   *
+   * @param values provides the initial elements.
+   */
+  public DoubleArray(double[] values)
+  {
+    this(new DataList(values));
+  }
+
   public DoubleArray(DataList list)
   {
     super(list, SCHEMA, Double.class, Double.class);
   }
 
+  /**
+   * Returns the element at the specified position, without boxing it if the underlying
+   * {@link DataList} stores its elements in a primitive array.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element cannot be coerced to double.
+   */
+  public double getDouble(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getDouble(index);
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " cannot be coerced to double", exc);
+    }
+  }
+
+  /**
+   * Appends the element to the end of the array without boxing it, see {@link DataList#addDouble(double)}.
+   *
+   * @param element to be appended.
+   */
+  public void addDouble(double element)
+  {
+    _list.addDouble(element);
+  }
+
+  /**
+   * @return the elements of the array.
+   * @throws TemplateOutputCastException if an element cannot be coerced to double.
+   */
+  public double[] toDoubleArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toDoubleArray();
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list + " cannot be coerced to double[]", exc);
+    }
+  }
+
   @Override
   public DoubleArray clone() throws CloneNotSupportedException
   {
@@ -44,11 +44,67 @@ public final class FloatArray extends DirectArrayTemplate<Float>
     addAll(c);
   }
 
+  /**
+   * Construct an array whose elements are stored without boxing, in a copy of the provided array.
+   *
+   * @param values provides the initial elements.
+   */
+  public FloatArray(float[] values)
+  {
+    this(new DataList(values));
+  }
+
   public FloatArray(DataList list)
   {
     super(list, SCHEMA, Float.class, Float.class);
   }
 
+  /**
+   * Returns the element at the specified position, without boxing it if the underlying
+   * {@link DataList} stores its elements in a primitive array.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element cannot be coerced to float.
+   */
+  public float getFloat(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getFloat(index);
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " cannot be coerced to float", exc);
+    }
+  }
+
+  /**
+   * Appends the element to the end of the array without boxing it, see {@link DataList#addFloat(float)}.
+   *
+   * @param element to be appended.
+   */
+  public void addFloat(float element)
+  {
+    _list.addFloat(element);
+  }
+
+  /**
+   * @return the elements of the array.
+   * @throws TemplateOutputCastException if an element cannot be coerced to float.
+   */
+  public float[] toFloatArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toFloatArray();
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list + " cannot be coerced to float[]", exc);
+    }
+  }
+
   @Override
   public FloatArray clone() throws CloneNotSupportedException
   {
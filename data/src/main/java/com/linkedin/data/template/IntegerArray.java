@@ -44,11 +44,67 @@ public final class IntegerArray extends DirectArrayTemplate<Integer>
     addAll(c);
   }
 
+  /**
+   * Construct an array whose elements are stored without boxing, in a copy of the provided array.
+   *
+   * @param values provides the initial elements.
+   */
+  public IntegerArray(int[] values)
+  {
+    this(new DataList(values));
+  }
+
   public IntegerArray(DataList list)
   {
     super(list, SCHEMA, Integer.class, Integer.class);
   }
 
+  /**
+   * Returns the element at the specified position, without boxing it if the underlying
+   * {@link DataList} stores its elements in a primitive array.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element cannot be coerced to int.
+   */
+  public int getInt(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getInt(index);
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " cannot be coerced to int", exc);
+    }
+  }
+
+  /**
+   * Appends the element to the end of the array without boxing it, see {@link DataList#addInt(int)}.
+   *
+   * @param element to be appended.
+   */
+  public void addInt(int element)
+  {
+    _list.addInt(element);
+  }
+
+  /**
+   * @return the elements of the array.
+   * @throws TemplateOutputCastException if an element cannot be coerced to int.
+   */
+  public int[] toIntArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toIntArray();
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list + " cannot be coerced to int[]", exc);
+    }
+  }
+
   @Override
   public IntegerArray clone() throws CloneNotSupportedException
   {
@@ -44,11 +44,67 @@ public final class LongArray extends DirectArrayTemplate<Long>
     addAll(c);
   }
 
+  /**
+   * Construct an array whose elements are stored without boxing, in a copy of the provided array.
+   *
+   * @param values provides the initial elements.
+   */
+  public LongArray(long[] values)
+  {
+    this(new DataList(values));
+  }
+
   public LongArray(DataList list)
   {
     super(list, SCHEMA, Long.class, Long.class);
   }
 
+  /**
+   * Returns the element at the specified position, without boxing it if the underlying
+   * {@link DataList} stores its elements in a primitive array.
+   *
+   * @param index of the element to return.
+   * @return the element at the specified position.
+   * @throws TemplateOutputCastException if the element cannot be coerced to long.
+   */
+  public long getLong(int index) throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.getLong(index);
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list.get(index) + " cannot be coerced to long", exc);
+    }
+  }
+
+  /**
+   * Appends the element to the end of the array without boxing it, see {@link DataList#addLong(long)}.
+   *
+   * @param element to be appended.
+   */
+  public void addLong(long element)
+  {
+    _list.addLong(element);
+  }
+
+  /**
+   * @return the elements of the array.
+   * @throws TemplateOutputCastException if an element cannot be coerced to long.
+   */
+  public long[] toLongArray() throws TemplateOutputCastException
+  {
+    try
+    {
+      return _list.toLongArray();
+    }
+    catch (ClassCastException exc)
+    {
+      throw new TemplateOutputCastException("Output " + _list + " cannot be coerced to long[]", exc);
+    }
+  }
+
   @Override
   public LongArray clone() throws CloneNotSupportedException
   {
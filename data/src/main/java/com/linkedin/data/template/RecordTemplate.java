@@ -69,7 +69,10 @@ public abstract class RecordTemplate implements DataTemplate<DataMap>
   {
     RecordTemplate clone = (RecordTemplate) super.clone();
     clone._map = clone._map.clone();
-    clone._cache = clone._cache.clone();
+    if (_cache != null)
+    {
+      clone._cache = _cache.clone();
+    }
     return clone;
   }
 
@@ -91,7 +94,7 @@ public abstract class RecordTemplate implements DataTemplate<DataMap>
   {
     RecordTemplate copy = (RecordTemplate) super.clone();
     copy._map = _map.copy();
-    copy._cache = new DataObjectToObjectCache<DataTemplate<?>>();
+    copy._cache = null;
     return copy;
   }
 
@@ -243,7 +246,7 @@ public abstract class RecordTemplate implements DataTemplate<DataMap>
       if (object.getClass() == valueClass)
       {
         _map.put(field.getName(), object.data());
-        _cache.put(object.data(), object);
+        cache().put(object.data(), object);
       }
       else
       {
@@ -320,14 +323,14 @@ public abstract class RecordTemplate implements DataTemplate<DataMap>
     {
       wrapped = null;
     }
-    else if ((template = _cache.get(found)) != null && template.data() == found)
+    else if (_cache != null && (template = _cache.get(found)) != null && template.data() == found)
     {
       wrapped = valueClass.cast(template);
     }
     else
     {
       wrapped = DataTemplateUtil.wrap(found, field.getType(), valueClass);
-      _cache.put(found, wrapped);
+      cache().put(found, wrapped);
     }
     return wrapped;
   }
@@ -418,7 +421,20 @@ public abstract class RecordTemplate implements DataTemplate<DataMap>
     return doPut;
   }
 
+  /**
+   * The cache of wrapped field values is only allocated when a field is first wrapped, because
+   * many records are only read through direct accessors.
+   */
+  private DataObjectToObjectCache<DataTemplate<?>> cache()
+  {
+    if (_cache == null)
+    {
+      _cache = new DataObjectToObjectCache<DataTemplate<?>>();
+    }
+    return _cache;
+  }
+
   private DataMap _map;
   private final RecordDataSchema _schema;
-  private DataObjectToObjectCache<DataTemplate<?>> _cache = new DataObjectToObjectCache<DataTemplate<?>>();
+  private DataObjectToObjectCache<DataTemplate<?>> _cache;
 }
@@ -28,7 +28,9 @@ import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -257,4 +259,90 @@ public class TestByteString
     // large byte strings should have constant size toString()
     Assert.assertTrue(ByteString.copy(bytes).toString().length() < 100);
   }
+
+  @Test
+  public void testUnsafeWrap() throws IOException
+  {
+    final byte[] bytes = new byte[] {1,2,3,4,5,6,7,8,9};
+    final ByteString bs = segmented(bytes, 2, 3);
+
+    Assert.assertEquals(bs.length(), bytes.length);
+    Assert.assertEquals(bs.copyBytes(), bytes);
+    Assert.assertEquals(bs.asByteBuffers().size(), 3);
+    Assert.assertEquals(bs, ByteString.copy(bytes));
+    Assert.assertEquals(ByteString.copy(bytes), bs);
+    Assert.assertEquals(bs.hashCode(), ByteString.copy(bytes).hashCode());
+    Assert.assertNotEquals(bs, ByteString.copy(new byte[] {1,2,3,4,5,6,7,8,0}));
+
+    final ByteBuffer byteBuffer = bs.asByteBuffer();
+    Assert.assertTrue(byteBuffer.isReadOnly());
+    final byte[] fromBuffer = new byte[byteBuffer.remaining()];
+    byteBuffer.get(fromBuffer);
+    Assert.assertEquals(fromBuffer, bytes);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    bs.write(out);
+    Assert.assertEquals(out.toByteArray(), bytes);
+  }
+
+  @Test
+  public void testUnsafeWrapDoesNotCopy()
+  {
+    final byte[] bytes = new byte[] {1,2,3,4};
+    final ByteString bs = ByteString.unsafeWrap(Arrays.asList(ByteBuffer.wrap(bytes, 0, 2), ByteBuffer.wrap(bytes, 2, 2)));
+    bytes[3] = 42;
+    Assert.assertEquals(bs.copyBytes(), new byte[] {1,2,3,42});
+  }
+
+  @Test
+  public void testUnsafeWrapEmpty()
+  {
+    Assert.assertSame(ByteString.unsafeWrap(Arrays.<ByteBuffer>asList()), ByteString.empty());
+    Assert.assertSame(ByteString.unsafeWrap(Arrays.asList(ByteBuffer.allocate(0))), ByteString.empty());
+  }
+
+  @Test
+  public void testUnsafeWrapAsInputStream() throws IOException
+  {
+    final byte[] bytes = "segmented byte string".getBytes("UTF-8");
+    final InputStream in = segmented(bytes, 5, 7).asInputStream();
+
+    Assert.assertEquals(in.available(), bytes.length);
+    Assert.assertEquals(in.read(), bytes[0]);
+    Assert.assertEquals(in.skip(2), 2);
+
+    final byte[] rest = new byte[bytes.length];
+    final int read = in.read(rest, 0, rest.length);
+    Assert.assertEquals(read, bytes.length - 3);
+    Assert.assertEquals(Arrays.copyOf(rest, read), Arrays.copyOfRange(bytes, 3, bytes.length));
+    Assert.assertEquals(in.read(), -1);
+    Assert.assertEquals(in.read(rest, 0, rest.length), -1);
+  }
+
+  @Test
+  public void testUnsafeWrapAsString() throws UnsupportedEncodingException
+  {
+    final String str = "segmented byte string";
+    Assert.assertEquals(segmented(str.getBytes("UTF-8"), 4, 10).asString("UTF-8"), str);
+  }
+
+  @Test
+  public void testUnsafeWrapToString()
+  {
+    final byte[] bytes = new byte[] {1,2,3,4,5,6,7,8,9,10};
+    Assert.assertEquals(segmented(bytes, 3, 6).toString(), ByteString.copy(bytes).toString());
+  }
+
+  private static ByteString segmented(byte[] bytes, int... splits)
+  {
+    final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    int start = 0;
+    for (int split : splits)
+    {
+      buffers.add(ByteBuffer.wrap(Arrays.copyOfRange(bytes, start, split)));
+      start = split;
+    }
+    buffers.add(ByteBuffer.wrap(Arrays.copyOfRange(bytes, start, bytes.length)));
+    return ByteString.unsafeWrap(buffers);
+  }
 }
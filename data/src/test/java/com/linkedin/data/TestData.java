@@ -1113,6 +1113,180 @@ public class TestData
     assertTrue(list2.getDataMap(1).isMadeReadOnly());
   }
 
+  @Test
+  public void testPrimitiveDataList() throws CloneNotSupportedException
+  {
+    DataList doubles = new DataList(new double[] { 1.5, -2.0, 3.25 });
+    assertEquals(doubles.getPrimitiveClass(), Double.class);
+    assertEquals(doubles, new DataList(Arrays.asList(1.5, -2.0, 3.25)));
+    assertEquals(doubles.hashCode(), new DataList(Arrays.asList(1.5, -2.0, 3.25)).hashCode());
+    assertEquals(doubles.get(1), -2.0);
+    assertEquals(doubles.getDouble(2), 3.25);
+    assertEquals(doubles.getInt(0), 1);
+    assertTrue(Arrays.equals(doubles.toDoubleArray(), new double[] { 1.5, -2.0, 3.25 }));
+    assertEquals(doubles.toString(), "[1.5, -2.0, 3.25]");
+
+    // clones and copies do not share the primitive array
+    DataList clone = doubles.clone();
+    DataList copy = doubles.copy();
+    clone.addDouble(4.0);
+    copy.set(0, 0.5);
+    assertEquals(doubles.size(), 3);
+    assertEquals(doubles.getDouble(0), 1.5);
+    assertEquals(clone.getPrimitiveClass(), Double.class);
+    assertEquals(copy.getPrimitiveClass(), Double.class);
+
+    // storing another class switches to boxed elements
+    doubles.add(4);
+    assertNull(doubles.getPrimitiveClass());
+    assertEquals(doubles, new DataList(Arrays.<Object>asList(1.5, -2.0, 3.25, 4)));
+    assertEquals(doubles.get(3).getClass(), Integer.class);
+    assertEquals(doubles.getDouble(3), 4.0);
+    doubles.addDouble(5.0);
+    assertEquals(doubles.get(4), 5.0);
+
+    // typed adds to an empty list use a primitive array
+    DataList ints = new DataList();
+    ints.addInt(1);
+    ints.addInt(2);
+    assertEquals(ints.getPrimitiveClass(), Integer.class);
+    ints.addLong(3L);
+    assertNull(ints.getPrimitiveClass());
+    assertEquals(ints, new DataList(Arrays.<Object>asList(1, 2, 3L)));
+
+    DataList booleans = new DataList(new boolean[] { true, false });
+    assertEquals(booleans.getPrimitiveClass(), Boolean.class);
+    assertTrue(booleans.getBoolean(0));
+    try
+    {
+      booleans.getDouble(0);
+      fail("Expected ClassCastException");
+    }
+    catch (ClassCastException e)
+    {
+    }
+    try
+    {
+      booleans.add(new StringBuilder());
+      fail("Expected IllegalArgumentException");
+    }
+    catch (IllegalArgumentException e)
+    {
+    }
+    assertEquals(booleans.getPrimitiveClass(), Boolean.class);
+
+    booleans.makeReadOnly();
+    try
+    {
+      booleans.addBoolean(true);
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (UnsupportedOperationException e)
+    {
+    }
+    assertEquals(booleans.size(), 2);
+  }
+
+  @Test
+  public void testCompactDataMap() throws IOException, CloneNotSupportedException
+  {
+    DataMap map = new DataMap(true);
+    for (int i = 0; i < 20; ++i)
+    {
+      map.put("field" + i, i % 2 == 0 ? "value" + i : new DataMap(true));
+    }
+    map.put("list", new DataList(Arrays.<Object>asList(1, "a", new DataMap(true))));
+
+    try
+    {
+      map.put("illegal", new StringBuilder());
+      fail("Expected IllegalArgumentException");
+    }
+    catch (IllegalArgumentException e)
+    {
+    }
+    assertFalse(map.containsKey("illegal"));
+
+    // insertion order
+    List<String> keys = new ArrayList<String>(map.keySet());
+    assertEquals(keys.get(0), "field0");
+    assertEquals(keys.get(20), "list");
+
+    DataMap hashed = new DataMap();
+    hashed.putAll(map);
+    assertEquals(map, hashed);
+    assertEquals(hashed, map);
+    assertEquals(map.hashCode(), hashed.hashCode());
+
+    DataMap clone = map.clone();
+    clone.remove("field0");
+    clone.put("field20", "value20");
+    assertTrue(map.containsKey("field0"));
+    assertFalse(map.containsKey("field20"));
+    assertSame(clone.get("field1"), map.get("field1"));
+
+    DataMap copy = map.copy();
+    assertEquals(copy, map);
+    copy.getDataMap("field1").put("nested", 1);
+    assertTrue(map.getDataMap("field1").isEmpty());
+
+    map.makeReadOnly();
+    try
+    {
+      map.put("field0", "updated");
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (UnsupportedOperationException e)
+    {
+    }
+
+    List<DataCodec> codecs = new ArrayList<DataCodec>();
+    codecs.add(new JacksonDataCodec());
+    codecs.add(new PsonDataCodec());
+    codecs.add(new BsonDataCodec());
+    for (DataCodec codec : codecs)
+    {
+      assertEquals(codec.bytesToMap(codec.mapToBytes(map)), map);
+    }
+  }
+
+  @Test
+  public void testPrimitiveDataListCodecs() throws IOException, CloneNotSupportedException
+  {
+    DataMap map = new DataMap();
+    map.put("ints", new DataList(new int[] { 1, Integer.MIN_VALUE, Integer.MAX_VALUE }));
+    map.put("longs", new DataList(new long[] { 1L << 40, Long.MIN_VALUE, Long.MAX_VALUE }));
+    map.put("floats", new DataList(new float[] { 1.5f, -0.25f }));
+    map.put("doubles", new DataList(new double[] { 1.5, -2.0, Double.MAX_VALUE }));
+    map.put("booleans", new DataList(new boolean[] { true, false }));
+    map.put("mixed", new DataList(Arrays.<Object>asList(1, 2, "a", true, new DataMap(), 2.5)));
+    map.put("empty", new DataList(new double[0]));
+
+    DataMap expected = map.clone();
+    expected.remove("floats");
+
+    List<DataCodec> codecs = new ArrayList<DataCodec>();
+    codecs.add(new JacksonDataCodec());
+    codecs.add(new PsonDataCodec());
+    codecs.add(new BsonDataCodec());
+    for (DataCodec codec : codecs)
+    {
+      DataMap decoded = codec.bytesToMap(codec.mapToBytes(map));
+      assertEquals(decoded.getDataList("ints").getPrimitiveClass(), Integer.class);
+      assertEquals(decoded.getDataList("longs").getPrimitiveClass(), Long.class);
+      assertEquals(decoded.getDataList("doubles").getPrimitiveClass(), Double.class);
+      assertEquals(decoded.getDataList("booleans").getPrimitiveClass(), Boolean.class);
+      assertNull(decoded.getDataList("mixed").getPrimitiveClass());
+      assertEquals(decoded.getDataList("mixed").get(1).getClass(), Integer.class);
+      assertTrue(decoded.getDataList("empty").isEmpty());
+
+      // JSON and BSON do not distinguish floats from doubles
+      assertTrue(Arrays.equals(decoded.getDataList("floats").toFloatArray(), new float[] { 1.5f, -0.25f }));
+      decoded.remove("floats");
+      assertEquals(decoded, expected);
+    }
+  }
+
   @Test
   public void testDump()
   {
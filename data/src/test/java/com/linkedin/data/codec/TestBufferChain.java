@@ -16,15 +16,26 @@
 
 package com.linkedin.data.codec;
 
+import com.linkedin.data.ByteString;
 import com.linkedin.data.Data;
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static com.linkedin.data.TestUtil.out;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 
 public class TestBufferChain
@@ -97,4 +108,105 @@ public class TestBufferChain
       }
     }
   }
+
+  @Test
+  public void testBufferPool()
+  {
+    final BufferPool pool = new BufferPool(32, 2);
+    final ByteBuffer first = pool.acquire();
+    final ByteBuffer second = pool.acquire();
+    final ByteBuffer third = pool.acquire();
+    assertEquals(first.capacity(), 32);
+
+    first.put((byte) 1);
+    pool.release(first);
+    pool.release(second);
+    pool.release(third);
+    pool.release(ByteBuffer.allocate(64));
+    assertEquals(pool.size(), 2);
+
+    final ByteBuffer reused = pool.acquire();
+    assertSame(reused, first);
+    assertEquals(reused.position(), 0);
+    assertEquals(reused.remaining(), 32);
+    assertSame(pool.acquire(), second);
+    assertNotSame(pool.acquire(), third);
+    assertEquals(pool.size(), 0);
+  }
+
+  @Test
+  public void testPooledBufferChain() throws Exception
+  {
+    final BufferPool pool = new BufferPool(17, 10);
+    final byte[] bytes = new byte[100];
+    for (int i = 0; i < bytes.length; ++i)
+    {
+      bytes[i] = (byte) i;
+    }
+
+    final BufferChain chain = new BufferChain(ByteOrder.LITTLE_ENDIAN, pool);
+    chain.put(bytes, 0, 50);
+    chain.putByteString(ByteString.copy(Arrays.copyOfRange(bytes, 50, 100)));
+
+    final List<ByteBuffer> buffers = chain.toByteBuffers();
+    assertTrue(buffers.size() > 1);
+    final ByteArrayOutputStream gathered = new ByteArrayOutputStream();
+    for (ByteBuffer buffer : buffers)
+    {
+      assertTrue(buffer.isReadOnly());
+      while (buffer.hasRemaining())
+      {
+        gathered.write(buffer.get());
+      }
+    }
+    assertTrue(Arrays.equals(gathered.toByteArray(), bytes));
+    assertTrue(Arrays.equals(chain.toBytes(), bytes));
+
+    // the 50 byte buffer reserved for the ByteString is not pooled
+    chain.release();
+    assertEquals(pool.size(), 3);
+    new BufferChain(ByteOrder.LITTLE_ENDIAN, pool);
+    assertEquals(pool.size(), 2);
+  }
+
+  @Test
+  public void testPooledCodecs() throws Exception
+  {
+    final DataMap map = new DataMap();
+    final DataList list = new DataList();
+    for (int i = 0; i < 200; ++i)
+    {
+      list.add("item" + i);
+    }
+    map.put("list", list);
+    map.put("nested", new DataMap(map));
+    map.put("bytes", ByteString.copy(new byte[100]));
+
+    final BufferPool pool = new BufferPool(64, 100);
+    final PsonDataCodec pooledPson = new PsonDataCodec();
+    pooledPson.setBufferPool(pool);
+    final BsonDataCodec pooledBson = new BsonDataCodec();
+    pooledBson.setBufferPool(pool);
+    final PsonDataCodec psonDataCodec = new PsonDataCodec();
+    final BsonDataCodec bsonDataCodec = new BsonDataCodec();
+
+    for (int i = 0; i < 3; ++i)
+    {
+      final byte[] pson = pooledPson.mapToBytes(map);
+      assertTrue(Arrays.equals(pson, psonDataCodec.mapToBytes(map)));
+      assertEquals(pooledPson.bytesToMap(pson), map);
+      assertEquals(pooledPson.mapToByteString(map), ByteString.copy(pson));
+
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      pooledPson.writeMap(map, out);
+      assertTrue(Arrays.equals(out.toByteArray(), pson));
+
+      final byte[] bson = pooledBson.mapToBytes(map);
+      assertTrue(Arrays.equals(bson, bsonDataCodec.mapToBytes(map)));
+      assertEquals(pooledBson.bytesToMap(bson), map);
+      assertEquals(pooledBson.mapToByteString(map), ByteString.copy(bson));
+
+      assertTrue(pool.size() > 0);
+    }
+  }
 }
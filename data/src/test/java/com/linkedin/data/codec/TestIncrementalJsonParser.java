@@ -0,0 +1,195 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+
+import com.linkedin.data.ByteString;
+import com.linkedin.data.DataMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class TestIncrementalJsonParser
+{
+  private final JacksonDataCodec _codec = new JacksonDataCodec();
+
+  @DataProvider
+  public Object[][] validJson()
+  {
+    return new Object[][] {
+        { "{}" },
+        { " { } " },
+        { "{ \"a\" : 1, \"b\" : -2147483649, \"c\" : 1.5e3, \"d\" : -0.25, \"e\" : 0 }" },
+        { "{ \"t\" : true, \"f\" : false, \"n\" : null }" },
+        { "{ \"s\" : \"\", \"u\" : \"caf\u00e9 \u20ac \ud83d\ude00\", \"e\" : \"q\\\"b\\\\s\\/n\\nt\\tu\\u00e9\\ud83d\\ude00\" }" },
+        { "{ \"l\" : [], \"m\" : {}, \"nested\" : [ 1, [ 2, { \"x\" : [ \"y\", null ] } ], {} ] }" },
+        { "{ \"a\" : [1,2,3], \"b\":{\"c\":{\"d\":\"e\"}} }" },
+        { "// comment\n{ /* block * comment */ \"a\" : 1 // trailing\n, \"b\" : [ 1 /**/, 2 ] }\n// end" },
+    };
+  }
+
+  @Test(dataProvider = "validJson")
+  public void testValidJson(String json) throws IOException
+  {
+    final byte[] bytes = json.getBytes("UTF-8");
+    final DataMap expected = _codec.readMap(new ByteArrayInputStream(bytes));
+    for (int chunkSize = 1; chunkSize <= bytes.length; ++chunkSize)
+    {
+      final IncrementalJsonParser parser = new IncrementalJsonParser();
+      for (int offset = 0; offset < bytes.length; offset += chunkSize)
+      {
+        parser.feed(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+      }
+      final DataMap parsed = parser.finish();
+      assertEquals(parsed, expected, "chunk size " + chunkSize);
+      assertNull(parsed.getError());
+      assertEquals(parser.getLength(), bytes.length);
+    }
+  }
+
+  @Test
+  public void testFeedByteString() throws IOException
+  {
+    final byte[] bytes = "{ \"a\" : \"\u00e9\u00e9\u00e9\", \"b\" : [ 12345, 6789 ] }".getBytes("UTF-8");
+    final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+    for (int offset = 0; offset < bytes.length; offset += 3)
+    {
+      segments.add(ByteBuffer.wrap(bytes, offset, Math.min(3, bytes.length - offset)).asReadOnlyBuffer());
+    }
+
+    final IncrementalJsonParser parser = new IncrementalJsonParser();
+    parser.feed(ByteString.unsafeWrap(segments));
+    assertEquals(parser.finish(), _codec.readMap(new ByteArrayInputStream(bytes)));
+  }
+
+  @Test
+  public void testNonFatalErrors() throws IOException
+  {
+    final IncrementalJsonParser parser = new IncrementalJsonParser();
+    parser.feed(ByteString.copyString("{ \"a\" : 1, \"big\" : 12345678901234567890, \"a\" : 2 }", "UTF-8"));
+    final DataMap parsed = parser.finish();
+    assertEquals(parsed.get("a"), 2);
+    assertTrue(!parsed.containsKey("big"));
+    assertTrue(parsed.getError().contains("BIG_INTEGER"));
+    assertTrue(parsed.getError().contains("\"a\" defined more than once."));
+  }
+
+  @DataProvider
+  public Object[][] invalidJson()
+  {
+    return new Object[][] {
+        { "" },
+        { "[]" },
+        { "{" },
+        { "{ \"a\" : 1 } x" },
+        { "{ \"a\" : 1 } {}" },
+        { "{ \"a\" 1 }" },
+        { "{ \"a\" : 1, }" },
+        { "{ \"a\" : [ 1, ] }" },
+        { "{ \"a\" : [ 1 } }" },
+        { "{ a : 1 }" },
+        { "{ \"a\" : tru }" },
+        { "{ \"a\" : 01 }" },
+        { "{ \"a\" : 1. }" },
+        { "{ \"a\" : 1e }" },
+        { "{ \"a\" : -- }" },
+        { "{ \"a\" : \"\\x\" }" },
+        { "{ \"a\" : \"\\u12g4\" }" },
+        { "{ \"a\" : \"\n\" }" },
+        { "{ \"a\" : 1 /* }" },
+        { "{ \"a\" : 1 / }" },
+    };
+  }
+
+  @Test(dataProvider = "invalidJson")
+  public void testInvalidJson(String json) throws IOException
+  {
+    final IncrementalJsonParser parser = new IncrementalJsonParser();
+    try
+    {
+      parser.feed(ByteString.copyString(json, "UTF-8"));
+      parser.finish();
+      fail("Expected DataDecodingException for " + json);
+    }
+    catch (DataDecodingException e)
+    {
+    }
+
+    try
+    {
+      parser.finish();
+      fail("Expected IllegalStateException");
+    }
+    catch (IllegalStateException e)
+    {
+    }
+  }
+
+  @Test
+  public void testInvalidUtf8() throws IOException
+  {
+    final IncrementalJsonParser parser = new IncrementalJsonParser();
+    try
+    {
+      parser.feed(new byte[] { '{', '"', (byte) 0xc3, '"' }, 0, 4);
+      fail("Expected DataDecodingException");
+    }
+    catch (DataDecodingException e)
+    {
+    }
+  }
+
+  @Test
+  public void testLimits() throws IOException
+  {
+    final IncrementalJsonParser lengthLimited = new IncrementalJsonParser(10, 10);
+    lengthLimited.feed(ByteString.copyString("{ \"a\" : ", "UTF-8"));
+    try
+    {
+      lengthLimited.feed(ByteString.copyString("1234 }", "UTF-8"));
+      fail("Expected DataDecodingException");
+    }
+    catch (DataDecodingException e)
+    {
+      assertTrue(e.getMessage().contains("maximum length"));
+    }
+
+    final IncrementalJsonParser depthLimited = new IncrementalJsonParser(Long.MAX_VALUE, 3);
+    depthLimited.feed(ByteString.copyString("{ \"a\" : [ {} ] }", "UTF-8"));
+    assertEquals(depthLimited.finish().getDataList("a").size(), 1);
+    try
+    {
+      new IncrementalJsonParser(Long.MAX_VALUE, 3).feed(ByteString.copyString("{ \"a\" : [ [ [", "UTF-8"));
+      fail("Expected DataDecodingException");
+    }
+    catch (DataDecodingException e)
+    {
+      assertTrue(e.getMessage().contains("maximum depth"));
+    }
+  }
+}
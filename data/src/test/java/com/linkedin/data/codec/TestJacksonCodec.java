@@ -18,12 +18,17 @@ package com.linkedin.data.codec;
 
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.linkedin.data.ByteString;
 import com.linkedin.data.Data;
 import com.linkedin.data.DataMap;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertSame;
@@ -69,4 +74,24 @@ public class TestJacksonCodec
       assertSame(key, keyName);
     }
   }
+
+  /**
+   * Test that a map can be parsed directly from a {@link ByteString} backed by several buffers.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void testReadMapFromSegmentedByteString() throws IOException
+  {
+    byte[] jsonAsBytes = "{ \"a\" : 1, \"b\" : \"some string value\" }".getBytes(Data.UTF_8_CHARSET);
+    List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    for (int i = 0; i < jsonAsBytes.length; i += 5)
+    {
+      buffers.add(ByteBuffer.wrap(jsonAsBytes, i, Math.min(5, jsonAsBytes.length - i)));
+    }
+
+    JacksonDataCodec codec = new JacksonDataCodec();
+    DataMap map = codec.readMap(ByteString.unsafeWrap(buffers).asInputStream());
+    assertEquals(map, codec.bytesToMap(jsonAsBytes));
+  }
 }
@@ -0,0 +1,128 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.schema.RecordDataSchema;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static com.linkedin.data.TestUtil.dataMapFromString;
+import static com.linkedin.data.TestUtil.dataSchemaFromString;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+
+public class TestKeyDictionary
+{
+  private static final String SCHEMA =
+      "{ \"type\" : \"record\", \"name\" : \"Foo\", \"fields\" : [ " +
+      "{ \"name\" : \"id\", \"type\" : \"int\" }, " +
+      "{ \"name\" : \"bar\", \"type\" : { \"type\" : \"record\", \"name\" : \"Bar\", \"fields\" : [ " +
+      "{ \"name\" : \"baz\", \"type\" : [ \"int\", \"string\" ] }, " +
+      "{ \"name\" : \"foo\", \"type\" : [ \"null\", \"Foo\" ] } ] } }, " +
+      "{ \"name\" : \"bars\", \"type\" : { \"type\" : \"map\", \"values\" : \"Bar\" } } ] }";
+
+  @Test
+  public void testGetCanonical()
+  {
+    final KeyDictionary dictionary = new KeyDictionary(2);
+    final String a = new String("a");
+    assertSame(dictionary.getCanonical(a), a);
+    assertSame(dictionary.getCanonical(new String("a")), a);
+    assertSame(dictionary.getCanonical("b"), "b");
+    assertEquals(dictionary.size(), 2);
+
+    // full
+    final String c = new String("c");
+    assertSame(dictionary.getCanonical(c), c);
+    assertNotSame(dictionary.getCanonical(new String("c")), c);
+    assertEquals(dictionary.size(), 2);
+    assertSame(dictionary.getCanonical(new String("a")), a);
+  }
+
+  @Test
+  public void testAddSchema() throws IOException
+  {
+    final RecordDataSchema schema = (RecordDataSchema) dataSchemaFromString(SCHEMA);
+    final RecordDataSchema bar = (RecordDataSchema) schema.getField("bar").getType();
+
+    // schema keys replace decoded keys and are added even when the dictionary is full
+    final KeyDictionary dictionary = new KeyDictionary(1);
+    dictionary.getCanonical(new String("id"));
+    dictionary.addSchema(schema);
+    assertEquals(dictionary.size(), 9);
+    assertSame(dictionary.getCanonical(new String("id")), schema.getField("id").getName());
+    assertSame(dictionary.getCanonical(new String("foo")), bar.getField("foo").getName());
+    assertSame(dictionary.getCanonical(new String("string")), "string");
+    assertSame(dictionary.getCanonical(new String("Foo")), schema.getUnionMemberKey());
+  }
+
+  @DataProvider
+  public Object[][] codecs()
+  {
+    final KeyDictionary dictionary = new KeyDictionary();
+    final JacksonDataCodec jacksonDataCodec = new JacksonDataCodec();
+    jacksonDataCodec.setKeyDictionary(dictionary);
+    final BsonDataCodec bsonDataCodec = new BsonDataCodec();
+    bsonDataCodec.setKeyDictionary(dictionary);
+    final PsonDataCodec psonDataCodec = new PsonDataCodec();
+    psonDataCodec.setKeyDictionary(dictionary);
+    return new Object[][] {
+        { jacksonDataCodec, dictionary },
+        { psonDataCodec, dictionary },
+        { bsonDataCodec, dictionary }
+    };
+  }
+
+  @Test(dataProvider = "codecs")
+  public void testDecodeWithDictionary(DataCodec codec, KeyDictionary dictionary) throws IOException
+  {
+    final RecordDataSchema schema = (RecordDataSchema) dataSchemaFromString(SCHEMA);
+    dictionary.addSchema(schema);
+
+    final DataMap map = dataMapFromString(
+        "{ \"id\" : 1, \"bar\" : { \"baz\" : { \"int\" : 2 } }, \"bars\" : { \"key\" : { \"baz\" : { \"string\" : \"s\" } } }, " +
+        "\"list\" : [ { \"id\" : 3 } ] }");
+    final DataMap decoded = codec.bytesToMap(codec.mapToBytes(map));
+    assertEquals(decoded, map);
+
+    assertSame(keyOf(decoded, "id"), schema.getField("id").getName());
+    assertSame(keyOf(decoded.getDataMap("bar"), "baz"), keyOf(decoded.getDataMap("bars").getDataMap("key"), "baz"));
+    assertSame(keyOf(decoded.getDataMap("bar").getDataMap("baz"), "int"), "int");
+    final DataList list = decoded.getDataList("list");
+    assertSame(keyOf(list.getDataMap(0), "id"), schema.getField("id").getName());
+
+    // keys which are not in the schema are canonical from the second decode on
+    final DataMap again = codec.bytesToMap(codec.mapToBytes(map));
+    assertSame(keyOf(again, "list"), keyOf(codec.bytesToMap(codec.mapToBytes(map)), "list"));
+    assertSame(keyOf(again.getDataMap("bars"), "key"), keyOf(decoded.getDataMap("bars"), "key"));
+  }
+
+  private static String keyOf(DataMap map, String key)
+  {
+    final List<String> keys = Arrays.asList(map.keySet().toArray(new String[map.size()]));
+    return keys.get(keys.indexOf(key));
+  }
+}
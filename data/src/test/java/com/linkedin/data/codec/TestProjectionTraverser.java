@@ -0,0 +1,144 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.codec;
+
+
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static com.linkedin.data.TestUtil.dataMapFromString;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class TestProjectionTraverser
+{
+  private static final String DATA =
+      "{ \"id\" : 1, \"name\" : \"a\", \"tags\" : [ \"x\", \"y\" ], " +
+      "\"contact\" : { \"email\" : \"e\", \"phone\" : \"p\" }, " +
+      "\"positions\" : [ { \"title\" : \"t1\", \"company\" : \"c1\" }, { \"title\" : \"t2\", \"company\" : \"c2\" } ], " +
+      "\"friends\" : { \"f1\" : { \"name\" : \"n1\", \"age\" : 1 }, \"f2\" : { \"name\" : \"n2\", \"age\" : 2 } } }";
+
+  @DataProvider
+  public Object[][] supportedMasks()
+  {
+    return new Object[][] {
+        { "{ \"id\" : 1 }", "{ \"id\" : 1 }" },
+        { "{ \"id\" : 1, \"missing\" : 1 }", "{ \"id\" : 1 }" },
+        { "{ \"missing\" : 1 }", "{}" },
+        { "{ \"contact\" : 1, \"tags\" : 1 }",
+          "{ \"contact\" : { \"email\" : \"e\", \"phone\" : \"p\" }, \"tags\" : [ \"x\", \"y\" ] }" },
+        { "{ \"contact\" : { \"email\" : 1 } }", "{ \"contact\" : { \"email\" : \"e\" } }" },
+        { "{ \"contact\" : { \"missing\" : 1 } }", "{ \"contact\" : {} }" },
+        { "{ \"positions\" : { \"$*\" : { \"title\" : 1 } } }",
+          "{ \"positions\" : [ { \"title\" : \"t1\" }, { \"title\" : \"t2\" } ] }" },
+        { "{ \"friends\" : { \"$*\" : { \"age\" : 1 } } }",
+          "{ \"friends\" : { \"f1\" : { \"age\" : 1 }, \"f2\" : { \"age\" : 2 } } }" },
+        { "{ \"tags\" : { \"title\" : 1 } }", "{ \"tags\" : [ \"x\", \"y\" ] }" }
+    };
+  }
+
+  @Test(dataProvider = "supportedMasks")
+  public void testProjection(String mask, String expected) throws IOException, CloneNotSupportedException
+  {
+    final DataMap maskMap = dataMapFromString(mask);
+    final DataMap expectedMap = dataMapFromString(expected);
+    assertTrue(ProjectionTraverser.isSupportedMask(maskMap));
+
+    final DataMap data = dataMapFromString(DATA);
+    final DataMap copy = data.copy();
+    final ProjectionTraverser projection = new ProjectionTraverser(maskMap, data);
+
+    final JacksonDataCodec jsonCodec = new JacksonDataCodec();
+    assertEquals(jsonCodec.bytesToMap(jsonCodec.mapToBytes(data, projection)), expectedMap);
+
+    final PsonDataCodec psonCodec = new PsonDataCodec();
+    assertEquals(psonCodec.bytesToMap(psonCodec.mapToBytes(data, projection)), expectedMap);
+    psonCodec.setOptions(new PsonDataCodec.Options().setEncodeCollectionCount(true));
+    assertEquals(psonCodec.bytesToMap(psonCodec.mapToBytes(data, projection)), expectedMap);
+
+    // the data itself is not projected
+    assertEquals(data, copy);
+  }
+
+  @Test
+  public void testProjectedMapsOnly() throws IOException
+  {
+    final DataMap first = dataMapFromString("{ \"id\" : 1, \"name\" : \"a\" }");
+    final DataMap second = dataMapFromString("{ \"id\" : 2, \"name\" : \"b\" }");
+    final DataMap response = new DataMap();
+    final DataList elements = new DataList();
+    elements.add(first);
+    elements.add(second);
+    response.put("elements", elements);
+    response.put("paging", dataMapFromString("{ \"start\" : 0, \"count\" : 10 }"));
+
+    final ProjectionTraverser projection =
+        new ProjectionTraverser(dataMapFromString("{ \"id\" : 1 }"), Arrays.asList(first, second));
+
+    final JacksonDataCodec codec = new JacksonDataCodec();
+    assertEquals(codec.bytesToMap(codec.mapToBytes(response, projection)),
+                 dataMapFromString("{ \"elements\" : [ { \"id\" : 1 }, { \"id\" : 2 } ], \"paging\" : { \"start\" : 0, \"count\" : 10 } }"));
+  }
+
+  @DataProvider
+  public Object[][] unsupportedMasks()
+  {
+    return new Object[][] {
+        { "{}" },
+        { "{ \"id\" : 0 }" },
+        { "{ \"contact\" : { \"email\" : 0 } }" },
+        { "{ \"positions\" : { \"$start\" : 1, \"$count\" : 2 } }" },
+        { "{ \"$*\" : 1 }" },
+        { "{ \"$*\" : { \"id\" : 1 }, \"name\" : 1 }" },
+        { "{ \"$$id\" : 1 }" }
+    };
+  }
+
+  @Test(dataProvider = "unsupportedMasks")
+  public void testUnsupportedMask(String mask) throws IOException
+  {
+    assertFalse(ProjectionTraverser.isSupportedMask(dataMapFromString(mask)));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testUnsupportedMaskRejected() throws IOException
+  {
+    new ProjectionTraverser(dataMapFromString("{ \"id\" : 0 }"), Collections.<DataMap>emptyList());
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testComplexMaskOnPrimitive() throws IOException
+  {
+    final DataMap data = dataMapFromString(DATA);
+    new JacksonDataCodec().mapToBytes(data, new ProjectionTraverser(dataMapFromString("{ \"id\" : { \"x\" : 1 } }"), data));
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testWildcardMaskOnPrimitiveItems() throws IOException
+  {
+    final DataMap data = dataMapFromString(DATA);
+    new PsonDataCodec().mapToBytes(data, new ProjectionTraverser(dataMapFromString("{ \"tags\" : { \"$*\" : { \"x\" : 1 } } }"), data));
+  }
+}
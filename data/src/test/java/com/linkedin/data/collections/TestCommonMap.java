@@ -309,7 +309,8 @@ public class TestCommonMap
   {
     return new Object[][] {
       { new CowMapFactory() },
-      { new CheckedMapFactory() }
+      { new CheckedMapFactory() },
+      { new CompactCheckedMapFactory() }
     };
   }
 
@@ -378,4 +379,32 @@ public class TestCommonMap
       return new CheckedMap<K, V>(map, checker);
     }
   }
+
+  public static class CompactCheckedMapFactory implements CommonMapFactory
+  {
+    public <K,V> CommonMap<K,V> create()
+    {
+      return new CheckedMap<K, V>(null, new CompactMap<K, V>());
+    }
+    public <K,V> CommonMap<K,V> create(int initialCapacity)
+    {
+      return new CheckedMap<K, V>(null, new CompactMap<K, V>(initialCapacity));
+    }
+    public <K,V> CommonMap<K,V> create(int initialCapacity, float factor)
+    {
+      return new CheckedMap<K, V>(null, new CompactMap<K, V>(initialCapacity));
+    }
+    public <K,V> CommonMap<K,V> create(Map<K,V> map)
+    {
+      return new CheckedMap<K, V>(null, new CompactMap<K, V>(map));
+    }
+    public <K,V> CommonMap<K,V> create(MapChecker<K,V> checker)
+    {
+      return new CheckedMap<K, V>(checker, new CompactMap<K, V>());
+    }
+    public <K,V> CommonMap<K,V> create(Map<K,V> map, MapChecker<K,V> checker)
+    {
+      return new CheckedMap<K, V>(checker, new CompactMap<K, V>(map));
+    }
+  }
 }
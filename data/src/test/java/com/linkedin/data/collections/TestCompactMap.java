@@ -0,0 +1,184 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.collections;
+
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class TestCompactMap
+{
+  @Test
+  public void testAgainstLinkedHashMap()
+  {
+    final Random random = new Random(7);
+    for (int keyCount : new int[] { 3, CompactMap.MAX_LINEAR_CAPACITY, 20, 500 })
+    {
+      final CompactMap<String, Integer> map = new CompactMap<String, Integer>();
+      final Map<String, Integer> reference = new LinkedHashMap<String, Integer>();
+      for (int i = 0; i < 20000; ++i)
+      {
+        final String key = "key" + random.nextInt(keyCount);
+        final int op = random.nextInt(10);
+        if (op < 6)
+        {
+          // LinkedHashMap keeps the position of a replaced key, like CompactMap
+          assertEquals(map.put(key, i), reference.put(key, i));
+        }
+        else if (op < 9)
+        {
+          assertEquals(map.remove(key), reference.remove(key));
+        }
+        else
+        {
+          assertEquals(map.get(key), reference.get(key));
+          assertEquals(map.containsKey(key), reference.containsKey(key));
+        }
+        assertEquals(map.size(), reference.size());
+      }
+      assertOrderedEquals(map, reference);
+      assertEquals(map, reference);
+      assertEquals(reference, map);
+      assertEquals(map.hashCode(), reference.hashCode());
+      assertEquals(map.toString(), reference.toString());
+
+      map.clear();
+      assertTrue(map.isEmpty());
+      assertFalse(map.containsKey("key0"));
+      map.put("key0", 0);
+      assertEquals(map.get("key0"), Integer.valueOf(0));
+    }
+  }
+
+  @Test
+  public void testInsertionOrder()
+  {
+    final CompactMap<String, Integer> map = new CompactMap<String, Integer>();
+    final List<String> keys = new ArrayList<String>();
+    for (int i = 0; i < 100; ++i)
+    {
+      keys.add("k" + (i * 7919 % 100));
+      map.put(keys.get(i), i);
+    }
+    assertEquals(new ArrayList<String>(map.keySet()), keys);
+  }
+
+  @Test
+  public void testNullKeyAndValue()
+  {
+    final CompactMap<String, String> map = new CompactMap<String, String>(20);
+    map.put(null, "a");
+    map.put("b", null);
+    assertEquals(map.get(null), "a");
+    assertTrue(map.containsKey("b"));
+    assertNull(map.get("b"));
+    assertTrue(map.containsValue(null));
+    final Map<String, String> reference = new HashMap<String, String>();
+    reference.put(null, "a");
+    reference.put("b", null);
+    assertEquals(map, reference);
+    assertEquals(map.remove(null), "a");
+    assertFalse(map.containsKey(null));
+  }
+
+  @Test
+  public void testClone() throws CloneNotSupportedException
+  {
+    for (int size : new int[] { 0, 2, 50 })
+    {
+      final CompactMap<String, Integer> map = new CompactMap<String, Integer>();
+      for (int i = 0; i < size; ++i)
+      {
+        map.put("k" + i, i);
+      }
+      final CompactMap<String, Integer> clone = map.clone();
+      clone.put("new", -1);
+      clone.remove("k1");
+      assertEquals(map.size(), size);
+      assertFalse(map.containsKey("new"));
+      assertEquals(map.containsKey("k1"), size > 1);
+      assertEquals(clone.get("new"), Integer.valueOf(-1));
+    }
+  }
+
+  @Test
+  public void testIterators()
+  {
+    final CompactMap<String, Integer> map = new CompactMap<String, Integer>();
+    for (int i = 0; i < 30; ++i)
+    {
+      map.put("k" + i, i);
+    }
+
+    for (Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator(); it.hasNext(); )
+    {
+      final Map.Entry<String, Integer> entry = it.next();
+      if (entry.getValue() % 2 == 0)
+      {
+        it.remove();
+      }
+      else
+      {
+        entry.setValue(-entry.getValue());
+      }
+    }
+    assertEquals(map.size(), 15);
+    assertEquals(map.get("k1"), Integer.valueOf(-1));
+    assertFalse(map.containsKey("k2"));
+    assertTrue(map.keySet().contains("k3"));
+    assertTrue(map.values().contains(-29));
+
+    try
+    {
+      for (String key : map.keySet())
+      {
+        map.put(key + "x", 0);
+      }
+      fail("Expected ConcurrentModificationException");
+    }
+    catch (ConcurrentModificationException e)
+    {
+    }
+  }
+
+  private static <K, V> void assertOrderedEquals(Map<K, V> map, Map<K, V> reference)
+  {
+    final Iterator<Map.Entry<K, V>> it = reference.entrySet().iterator();
+    for (Map.Entry<K, V> entry : map.entrySet())
+    {
+      final Map.Entry<K, V> expected = it.next();
+      assertEquals(entry.getKey(), expected.getKey());
+      assertEquals(entry.getValue(), expected.getValue());
+      assertEquals(entry, expected);
+    }
+    assertFalse(it.hasNext());
+  }
+}
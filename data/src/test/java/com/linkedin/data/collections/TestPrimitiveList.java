@@ -0,0 +1,157 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.data.collections;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class TestPrimitiveList
+{
+  @Test
+  public void testListOperations()
+  {
+    PrimitiveList.LongList list = new PrimitiveList.LongList();
+    List<Object> reference = new ArrayList<Object>();
+    for (long i = 0; i < 100; ++i)
+    {
+      list.addLong(i);
+      reference.add(i);
+    }
+    assertEquals(list, reference);
+
+    list.add(5, 1000L);
+    reference.add(5, 1000L);
+    assertEquals(list.remove(10), reference.remove(10));
+    assertEquals(list.set(20, -1L), reference.set(20, -1L));
+    list.subList(30, 40).clear();
+    reference.subList(30, 40).clear();
+    assertEquals(list, reference);
+    assertEquals(list.hashCode(), reference.hashCode());
+    assertEquals(list.toString(), reference.toString());
+    assertEquals(list.indexOf(1000L), 5);
+    assertEquals(list.indexOf(1000), -1);
+
+    Iterator<Object> it = list.iterator();
+    it.next();
+    it.remove();
+    reference.remove(0);
+    assertEquals(list, reference);
+
+    assertTrue(Arrays.equals(list.toLongArray(), toLongArray(reference)));
+    assertEquals(list.getInt(4), 1000);
+    assertEquals(list.getDouble(4), 1000.0);
+
+    list.clear();
+    assertTrue(list.isEmpty());
+  }
+
+  @Test
+  public void testAccepts()
+  {
+    PrimitiveList.IntList list = new PrimitiveList.IntList(new int[] { 1, 2 });
+    assertTrue(list.accepts(3));
+    assertFalse(list.accepts(3L));
+    assertFalse(list.accepts(null));
+    try
+    {
+      list.add(3L);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (IllegalArgumentException e)
+    {
+    }
+    try
+    {
+      list.getInt(2);
+      fail("Expected IndexOutOfBoundsException");
+    }
+    catch (IndexOutOfBoundsException e)
+    {
+    }
+  }
+
+  @Test
+  public void testClone() throws CloneNotSupportedException
+  {
+    PrimitiveList.DoubleList list = new PrimitiveList.DoubleList(new double[] { 1.0, 2.0 });
+    PrimitiveList.DoubleList clone = (PrimitiveList.DoubleList) list.clone();
+    clone.setDouble(0, 5.0);
+    clone.addDouble(3.0);
+    assertEquals(list, Arrays.asList(1.0, 2.0));
+    assertEquals(clone, Arrays.asList(5.0, 2.0, 3.0));
+  }
+
+  @Test
+  public void testCheckedList() throws CloneNotSupportedException
+  {
+    CheckedList<Object> list = new CheckedList<Object>(new PrimitiveList.FloatList(new float[] { 1.0f }), null);
+    list.add(2.0f);
+    PrimitiveList primitiveList = list.getPrimitiveList();
+    assertNotNull(primitiveList);
+
+    CheckedList<Object> clone = list.clone();
+    assertNotNull(clone.getPrimitiveList());
+    assertTrue(clone.getPrimitiveList() != primitiveList);
+
+    // another class of element replaces the primitive list, which is not modified
+    list.addAll(Arrays.<Object>asList(3.0f, "a"));
+    assertNull(list.getPrimitiveList());
+    assertEquals(list, Arrays.<Object>asList(1.0f, 2.0f, 3.0f, "a"));
+    assertEquals(primitiveList, Arrays.asList(1.0f, 2.0f));
+    assertEquals(clone, Arrays.asList(1.0f, 2.0f));
+
+    clone.setReadOnly();
+    try
+    {
+      clone.set(0, "b");
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (UnsupportedOperationException e)
+    {
+    }
+    assertNotNull(clone.getPrimitiveList());
+
+    clone = list.clone();
+    clone.setPrimitiveList(primitiveList);
+    assertSame(clone.getPrimitiveList(), primitiveList);
+    clone.removeRange(0, 1);
+    assertEquals(clone, Arrays.asList(2.0f));
+  }
+
+  private static long[] toLongArray(List<Object> list)
+  {
+    long[] array = new long[list.size()];
+    for (int i = 0; i < array.length; ++i)
+    {
+      array[i] = (Long) list.get(i);
+    }
+    return array;
+  }
+}
@@ -870,6 +870,41 @@ public class TestArrayTemplate
     testNumberArray(DoubleArray.class, schema, input, castFrom);
   }
 
+  @Test
+  public void testPrimitiveAccessors()
+  {
+    DoubleArray doubles = new DoubleArray(new double[] { 1.0, 3.0 });
+    doubles.addDouble(5.0);
+    doubles.add(7.0);
+    assertEquals(doubles.data().getPrimitiveClass(), Double.class);
+    assertEquals(doubles, new DoubleArray(Arrays.asList(1.0, 3.0, 5.0, 7.0)));
+    assertEquals(doubles.getDouble(2), 5.0);
+    assertTrue(Arrays.equals(doubles.toDoubleArray(), new double[] { 1.0, 3.0, 5.0, 7.0 }));
+
+    // elements of other classes are coerced like get does
+    DoubleArray mixed = new DoubleArray(new DataList(Arrays.<Object>asList(1, 3L, 5.0f)));
+    assertEquals(mixed.getDouble(1), 3.0);
+    assertTrue(Arrays.equals(mixed.toDoubleArray(), new double[] { 1.0, 3.0, 5.0 }));
+
+    IntegerArray ints = new IntegerArray(new int[] { 1, 2 });
+    ints.addInt(3);
+    assertEquals(ints, new IntegerArray(Arrays.asList(1, 2, 3)));
+    assertEquals(ints.getInt(2), 3);
+    assertEquals(new LongArray(new long[] { 1L }).getLong(0), 1L);
+    assertEquals(new FloatArray(new float[] { 1.0f }).getFloat(0), 1.0f);
+    assertTrue(new BooleanArray(new boolean[] { true }).getBoolean(0));
+
+    BooleanArray bad = new BooleanArray(new DataList(Arrays.<Object>asList("hello")));
+    try
+    {
+      bad.getBoolean(0);
+      fail("Expected TemplateOutputCastException");
+    }
+    catch (TemplateOutputCastException e)
+    {
+    }
+  }
+
   @Test
   public void testStringArray()
   {
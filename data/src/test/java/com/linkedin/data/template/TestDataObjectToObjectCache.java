@@ -84,6 +84,58 @@ public class TestDataObjectToObjectCache
     Assert.assertSame(testCache.get(objKey), objBar);
   }
 
+  @Test
+  public void testArrayToMapTransition()
+  {
+    DataObjectToObjectCache<DataTemplate<?>> testCache = new DataObjectToObjectCache<DataTemplate<?>>();
+    IdentityHashMap<Object, DataTemplate<?>> controlCache = new IdentityHashMap<Object, DataTemplate<?>>();
+
+    for (int i = 0; i <= DataObjectToObjectCache.MAX_ARRAY_SIZE; ++i)
+    {
+      DataMap map = new DataMap();
+      Bar bar = new Bar();
+      controlCache.put(map, bar);
+      testCache.put(map, bar);
+      crossCheckTestData(controlCache, testCache);
+    }
+
+    // overwriting an entry copied from the arrays
+    for (Object key : controlCache.keySet())
+    {
+      Bar bar = new Bar();
+      controlCache.put(key, bar);
+      testCache.put(key, bar);
+    }
+    crossCheckTestData(controlCache, testCache);
+    Assert.assertNull(testCache.get(new DataMap()));
+  }
+
+  @Test
+  public void testCloneIsIndependent() throws CloneNotSupportedException
+  {
+    for (int size : new int[] { 1, DataObjectToObjectCache.MAX_ARRAY_SIZE * 2 })
+    {
+      DataObjectToObjectCache<DataTemplate<?>> testCache = new DataObjectToObjectCache<DataTemplate<?>>();
+      DataMap key = new DataMap();
+      Bar bar = new Bar();
+      testCache.put(key, bar);
+      for (int i = 1; i < size; ++i)
+      {
+        testCache.put(new DataMap(), new Bar());
+      }
+
+      DataObjectToObjectCache<DataTemplate<?>> clone = testCache.clone();
+      DataMap newKey = new DataMap();
+      clone.put(key, new Bar());
+      clone.put(newKey, new Bar());
+
+      Assert.assertSame(testCache.get(key), bar);
+      Assert.assertNull(testCache.get(newKey));
+      Assert.assertNotSame(clone.get(key), bar);
+      Assert.assertNotNull(clone.get(newKey));
+    }
+  }
+
   private void crossCheckTestData(IdentityHashMap<Object, DataTemplate<?>> controlCache,
                                   DataObjectToObjectCache<DataTemplate<?>> testCache)
   {
@@ -1141,6 +1141,42 @@ public class TestRecordAndUnionTemplate
     assertTrue(exc instanceof RequiredFieldNotPresentException);
   }
 
+  @Test
+  public void testWrappedFieldCache() throws CloneNotSupportedException
+  {
+    Foo foo1 = new Foo();
+    Bar bar1 = new Bar().setInt(42);
+
+    // direct accessors do not need the cache
+    foo1.setInt(1);
+    assertEquals(foo1.getInt().intValue(), 1);
+
+    foo1.setRecord(bar1);
+    assertSame(foo1.getRecord(), bar1);
+    assertSame(foo1.getRecord(), foo1.getRecord());
+
+    Bar optional = foo1.setRecordOptional(new Bar().setInt(43)).getRecordOptional();
+    assertSame(foo1.getRecordOptional(), optional);
+
+    // a clone shares the wrappers until its fields are replaced
+    Foo clone = foo1.clone();
+    assertSame(clone.getRecord(), bar1);
+    clone.setRecord(new Bar().setInt(44));
+    assertEquals(clone.getRecord().getInt().intValue(), 44);
+    assertSame(foo1.getRecord(), bar1);
+
+    // a copy wraps its own copied data
+    Foo copy = foo1.copy();
+    assertNotSame(copy.getRecord(), bar1);
+    assertSame(copy.getRecord().data(), copy.data().get("record"));
+    assertEquals(copy.getRecord(), bar1);
+
+    // a wrapper is not reused once the field is bound to another data object
+    foo1.data().put("record", new DataMap(bar1.data()));
+    assertNotSame(foo1.getRecord(), bar1);
+    assertEquals(foo1.getRecord().getInt().intValue(), 42);
+  }
+
   @Test
   public void testSetMode()
   {
@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.linkedin.common.stats.LongStats;
+import com.linkedin.common.stats.LongStatsTracker;
 import com.linkedin.common.stats.LongTracking;
 import com.linkedin.util.clock.Clock;
 import com.linkedin.util.clock.SystemClock;
@@ -40,7 +41,8 @@ import com.linkedin.util.clock.SystemClock;
  * periodically.
  * 3.) CallTrackerImpl.CallTrackerStats is the actual data that is being moved around. You can think of
  * CallTrackerStats as an immutable DTO.
- * 4.) LongTracking is used in CallTrackerImpl.Tracker to calculate the statistics of the call.
+ * 4.) LongTracking (or another LongStatsTracker) is used in CallTrackerImpl.Tracker to calculate the
+ * statistics of the call.
  *
  * @author Dave Messink
  * @author Chris Pettitt
@@ -81,6 +83,16 @@ public class CallTrackerImpl implements CallTracker
   }
 
   public CallTrackerImpl(long interval, Clock clock)
+  {
+    this(interval, clock, new LongTracking());
+  }
+
+  /**
+   * @param callTimeTracking summarizes the call times of each interval, for example a
+   *                         {@link com.linkedin.common.stats.LongHistogram}. It is owned by
+   *                         this call tracker afterwards.
+   */
+  public CallTrackerImpl(long interval, Clock clock, LongStatsTracker callTimeTracking)
   {
     _clock = clock;
     _interval = interval;
@@ -88,7 +100,7 @@ public class CallTrackerImpl implements CallTracker
     _lastResetTime = _clock.currentTimeMillis();
     _errorTypeCountsTotal = new HashMap<ErrorType, Integer>();
     /* create trackers for each resolution */
-    _tracker = new Tracker();
+    _tracker = new Tracker(callTimeTracking);
   }
 
   @Override
@@ -431,13 +443,13 @@ public class CallTrackerImpl implements CallTracker
     private int _callStartCount;
     private int _errorCount;
     private int _concurrentMax;
-    private final LongTracking _callTimeTracking;
+    private final LongStatsTracker _callTimeTracking;
     //this map is used to store the number of specific errors that happened in one interval only
     private final Map<ErrorType, Integer> _errorTypeCounts;
 
-    private Tracker()
+    private Tracker(LongStatsTracker callTimeTracking)
     {
-      _callTimeTracking = new LongTracking();
+      _callTimeTracking = callTimeTracking;
       _errorTypeCounts = new HashMap<ErrorType, Integer>();
       reset();
     }
@@ -540,7 +552,7 @@ public class CallTrackerImpl implements CallTracker
     }
   }
 
-  private static class Pending
+  /* package private */ static class Pending
   {
     private static class PendingEvent implements StatsRolloverEvent
     {
@@ -569,18 +581,18 @@ public class CallTrackerImpl implements CallTracker
     private final List<PendingEvent> _pendingEvents;
     private final List<StatsRolloverEventListener> _listeners;
 
-    private Pending(List<StatsRolloverEventListener> listeners)
+    Pending(List<StatsRolloverEventListener> listeners)
     {
       _pendingEvents = new ArrayList<PendingEvent>(4);
       _listeners = listeners;
     }
 
-    private void add(CallStats stats, boolean reset)
+    void add(CallStats stats, boolean reset)
     {
       _pendingEvents.add(new PendingEvent(stats, reset));
     }
 
-    private void deliver()
+    void deliver()
     {
       for (PendingEvent event : _pendingEvents)
       {
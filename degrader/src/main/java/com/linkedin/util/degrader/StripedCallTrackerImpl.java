@@ -0,0 +1,621 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.util.degrader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.linkedin.common.stats.LongStatsTracker;
+import com.linkedin.common.stats.LongTracking;
+import com.linkedin.util.clock.Clock;
+import com.linkedin.util.clock.SystemClock;
+
+
+/**
+ * A {@link CallTracker} for clients that are called from many threads at high rates.
+ *
+ * {@link CallTrackerImpl} takes one lock for every call start and every call end. This
+ * implementation records call counts, errors and call times into a fixed set of stripes, picked
+ * by the calling thread, so that concurrent calls rarely touch the same lock. Concurrency is kept
+ * in atomics. The stripes are merged into a single {@link CallTracker.CallStats} when the interval
+ * rolls over, which is the only time the tracker-wide lock is taken on the call path.
+ *
+ * The produced {@link CallTrackerImpl.CallTrackerStats} have the same semantics as those of
+ * {@link CallTrackerImpl}. The one difference is at interval boundaries: a call that ends while
+ * another thread is rolling the interval over may be counted in the next interval instead.
+ */
+public class StripedCallTrackerImpl implements CallTracker
+{
+  private static final Clock DEFAULT_CLOCK = SystemClock.instance();
+  private static final int DEFAULT_MAX_STRIPES = 16;
+
+  // by default each stripe starts small and grows up to the capacity of a single LongTracking
+  private static final int STRIPE_TRACKING_INITIAL_CAPACITY = 64;
+  private static final int STRIPE_TRACKING_MAX_CAPACITY = 4000;
+  private static final double STRIPE_TRACKING_GROWTH_FACTOR = 2.0;
+
+  private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+  // lets a completion be ended only once without allocating an AtomicBoolean per call
+  private static final AtomicIntegerFieldUpdater<CallCompletionImpl> DONE_UPDATER =
+      AtomicIntegerFieldUpdater.newUpdater(CallCompletionImpl.class, "_done");
+
+  private final Object _lock = new Object();
+
+  private final Clock _clock;
+  private final long _interval;
+
+  private final Stripe[] _stripes;
+  private final int _stripeMask;
+
+  private final AtomicInteger _concurrency = new AtomicInteger();
+  private final AtomicInteger _concurrentMax = new AtomicInteger();
+  private final AtomicLong _sumOfOutstandingStartTimes = new AtomicLong();
+
+  private volatile long _lastStartTime;
+  private volatile long _lastResetTime;
+  private volatile CallStats _stats;
+
+  // The following are guarded by _lock. The totals only include the calls that have been merged
+  // from the stripes; the stripes hold the calls of the current interval.
+  private long _startTime;
+  private long _callCountTotal;
+  private long _callStartCountTotal;
+  private long _errorCountTotal;
+  private final long[] _errorTypeCountsTotal = new long[ERROR_TYPES.length];
+  private final LongStatsTracker _callTimeTracking;
+
+  private CallTrackerImpl.Pending _pending = null;
+
+  // This CallTrackerListener list is immutable and copy-on-write.
+  private volatile List<StatsRolloverEventListener> _listeners = new ArrayList<StatsRolloverEventListener>();
+
+  public StripedCallTrackerImpl(long interval)
+  {
+    this(interval, DEFAULT_CLOCK);
+  }
+
+  public StripedCallTrackerImpl(long interval, Clock clock)
+  {
+    this(interval, clock, Math.min(DEFAULT_MAX_STRIPES, Runtime.getRuntime().availableProcessors()));
+  }
+
+  /**
+   * @param stripes the number of stripes, rounded up to a power of two
+   */
+  public StripedCallTrackerImpl(long interval, Clock clock, int stripes)
+  {
+    this(interval, clock, stripes, new LongTracking(STRIPE_TRACKING_MAX_CAPACITY,
+                                                    STRIPE_TRACKING_INITIAL_CAPACITY,
+                                                    STRIPE_TRACKING_GROWTH_FACTOR));
+  }
+
+  /**
+   * @param stripes the number of stripes, rounded up to a power of two
+   * @param callTimeTracking summarizes the call times of each interval, for example a
+   *                         {@link com.linkedin.common.stats.LongHistogram}. Each stripe records
+   *                         into a tracker created with {@link LongStatsTracker#newEmptyTracker()}.
+   *                         It is owned by this call tracker afterwards.
+   */
+  public StripedCallTrackerImpl(long interval, Clock clock, int stripes, LongStatsTracker callTimeTracking)
+  {
+    _clock = clock;
+    _interval = interval;
+    _lastStartTime = -1;
+    _lastResetTime = _clock.currentTimeMillis();
+
+    int size = Integer.highestOneBit(Math.max(1, stripes));
+    if (size < stripes)
+    {
+      size <<= 1;
+    }
+    _callTimeTracking = callTimeTracking;
+    _stripes = new Stripe[size];
+    for (int i = 0; i < size; i++)
+    {
+      _stripes[i] = new Stripe(callTimeTracking.newEmptyTracker());
+    }
+    _stripeMask = size - 1;
+
+    synchronized (_lock)
+    {
+      resetInterval();
+    }
+  }
+
+  @Override
+  public CallCompletion startCall()
+  {
+    long currentTime = _clock.currentTimeMillis();
+    checkRollover(currentTime);
+
+    Stripe stripe = getStripe();
+    synchronized (stripe)
+    {
+      stripe._callStartCount++;
+    }
+
+    int concurrency = _concurrency.incrementAndGet();
+    updateConcurrentMax(concurrency);
+    _lastStartTime = currentTime;
+    _sumOfOutstandingStartTimes.addAndGet(currentTime);
+
+    return new CallCompletionImpl(currentTime);
+  }
+
+  @Override
+  public CallStats getCallStats()
+  {
+    long currentTimeMillis = _clock.currentTimeMillis();
+    checkRollover(currentTimeMillis);
+    return _stats;
+  }
+
+  @Override
+  public long getInterval()
+  {
+    return _interval;
+  }
+
+  @Override
+  public void addStatsRolloverEventListener(StatsRolloverEventListener listener)
+  {
+    synchronized (_lock)
+    {
+      List<StatsRolloverEventListener> copy = new ArrayList<StatsRolloverEventListener>(_listeners);
+      copy.add(listener);
+      _listeners = Collections.unmodifiableList(copy);
+    }
+  }
+
+  @Override
+  public boolean removeStatsRolloverEventListener(StatsRolloverEventListener listener)
+  {
+    boolean removed = false;
+    synchronized (_lock)
+    {
+      if (_listeners.contains(listener))
+      {
+        List<StatsRolloverEventListener> copy = new ArrayList<StatsRolloverEventListener>(_listeners);
+        removed = copy.remove(listener);
+        _listeners = Collections.unmodifiableList(copy);
+      }
+    }
+    return removed;
+  }
+
+  @Override
+  public long getCurrentCallCountTotal()
+  {
+    synchronized (_lock)
+    {
+      long total = _callCountTotal;
+      for (Stripe stripe : _stripes)
+      {
+        synchronized (stripe)
+        {
+          total += stripe._callCount;
+        }
+      }
+      return total;
+    }
+  }
+
+  @Override
+  public long getCurrentCallStartCountTotal()
+  {
+    synchronized (_lock)
+    {
+      long total = _callStartCountTotal;
+      for (Stripe stripe : _stripes)
+      {
+        synchronized (stripe)
+        {
+          total += stripe._callStartCount;
+        }
+      }
+      return total;
+    }
+  }
+
+  @Override
+  public long getCurrentErrorCountTotal()
+  {
+    synchronized (_lock)
+    {
+      long total = _errorCountTotal;
+      for (Stripe stripe : _stripes)
+      {
+        synchronized (stripe)
+        {
+          total += stripe._errorCount;
+        }
+      }
+      return total;
+    }
+  }
+
+  @Override
+  public Map<ErrorType, Integer> getCurrentErrorTypeCountsTotal()
+  {
+    synchronized (_lock)
+    {
+      long[] totals = _errorTypeCountsTotal.clone();
+      for (Stripe stripe : _stripes)
+      {
+        synchronized (stripe)
+        {
+          for (int i = 0; i < totals.length; i++)
+          {
+            totals[i] += stripe._errorTypeCounts[i];
+          }
+        }
+      }
+      return Collections.unmodifiableMap(toErrorTypeMap(totals));
+    }
+  }
+
+  @Override
+  public int getCurrentConcurrency()
+  {
+    return _concurrency.get();
+  }
+
+  @Override
+  public long getTimeSinceLastCallStart()
+  {
+    long lastStartTime = _lastStartTime;
+    return lastStartTime == -1 ? -1 : _clock.currentTimeMillis() - lastStartTime;
+  }
+
+  @Override
+  public long getLastResetTime()
+  {
+    return _lastResetTime;
+  }
+
+  @Override
+  public void reset()
+  {
+    CallTrackerImpl.Pending pending;
+    synchronized (_lock)
+    {
+      _lastStartTime = -1;
+      _lastResetTime = _clock.currentTimeMillis();
+      _callCountTotal = 0;
+      _callStartCountTotal = 0;
+      _errorCountTotal = 0;
+      for (int i = 0; i < _errorTypeCountsTotal.length; i++)
+      {
+        _errorTypeCountsTotal[i] = 0;
+      }
+      resetInterval();
+      pending = checkForPending();
+    }
+    // Always deliver pending events without holding _lock to avoid deadlocks.
+    if (pending != null)
+    {
+      pending.deliver();
+    }
+  }
+
+  @Override
+  public void trackCall(long duration)
+  {
+    trackCall(duration, false);
+  }
+
+  @Override
+  public void trackCallWithError(long duration)
+  {
+    trackCall(duration, true);
+  }
+
+  private void trackCall(long duration, boolean hasError)
+  {
+    checkRollover(_clock.currentTimeMillis());
+    addCallData(duration, hasError, null);
+  }
+
+  private void addCallData(long duration, boolean hasError, ErrorType errorType)
+  {
+    Stripe stripe = getStripe();
+    synchronized (stripe)
+    {
+      stripe._callCount++;
+      stripe._callTimeTracking.addValue(duration);
+      if (hasError)
+      {
+        stripe._errorCount++;
+      }
+      if (errorType != null)
+      {
+        stripe._errorTypeCounts[errorType.ordinal()]++;
+      }
+    }
+  }
+
+  private Stripe getStripe()
+  {
+    long id = Thread.currentThread().getId();
+    return _stripes[(int) (id ^ (id >>> 32)) & _stripeMask];
+  }
+
+  private void updateConcurrentMax(int concurrency)
+  {
+    int max;
+    while (concurrency > (max = _concurrentMax.get()))
+    {
+      if (_concurrentMax.compareAndSet(max, concurrency))
+      {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Rolls the interval over if the current stats are stale, and delivers the resulting events.
+   */
+  private void checkRollover(long currentTimeMillis)
+  {
+    if (_stats.stale(currentTimeMillis))
+    {
+      CallTrackerImpl.Pending pending;
+      synchronized (_lock)
+      {
+        getStatsWithCurrentTime(currentTimeMillis);
+        pending = checkForPending();
+      }
+      // Always deliver events without holding _lock to avoid deadlocks.
+      if (pending != null)
+      {
+        pending.deliver();
+      }
+    }
+  }
+
+  /**
+   * Must be called while holding _lock. Mirrors CallTrackerImpl.Tracker#getStatsWithCurrentTime.
+   */
+  private void getStatsWithCurrentTime(long currentTime)
+  {
+    if (_stats.stale(currentTime))
+    {
+      long offset = currentTime - _lastResetTime;
+      long currentStartOffset = ((offset / _interval) * _interval);
+      long lastEnd = _lastResetTime + currentStartOffset;
+      long lastStart = lastEnd - _interval;
+      if (_startTime == lastStart)
+      {
+        // Current interval has elapsed.
+        // Emit stats and start new current interval.
+        rolloverStats(lastEnd, false);
+      }
+      else if (_startTime < lastStart)
+      {
+        // Current interval is stale, emit stale accumulated stats.
+        rolloverStats(_startTime + _interval, false);
+        // Start new interval.
+        _startTime = lastStart;
+        rolloverStats(lastEnd, false);
+      }
+    }
+  }
+
+  /**
+   * Must be called while holding _lock. Discards the calls of the current interval and emits
+   * empty stats ending at the last reset time.
+   */
+  private void resetInterval()
+  {
+    for (Stripe stripe : _stripes)
+    {
+      synchronized (stripe)
+      {
+        stripe.reset();
+      }
+    }
+    resetStats(_lastResetTime - _interval);
+    rolloverStats(_lastResetTime, true);
+  }
+
+  private void resetStats(long startTime)
+  {
+    _startTime = startTime;
+    _concurrentMax.set(_concurrency.get());
+    _callTimeTracking.reset();
+  }
+
+  /**
+   * Must be called while holding _lock. Merges the stripes into the stats of the interval
+   * ending at endTime and starts a new interval.
+   */
+  private void rolloverStats(long endTime, boolean reset)
+  {
+    int callStartCount = 0;
+    int errorCount = 0;
+    long[] errorTypeCounts = new long[ERROR_TYPES.length];
+
+    for (Stripe stripe : _stripes)
+    {
+      synchronized (stripe)
+      {
+        callStartCount += stripe._callStartCount;
+        errorCount += stripe._errorCount;
+        _callCountTotal += stripe._callCount;
+        for (int i = 0; i < errorTypeCounts.length; i++)
+        {
+          errorTypeCounts[i] += stripe._errorTypeCounts[i];
+        }
+        _callTimeTracking.addAll(stripe._callTimeTracking);
+        stripe.reset();
+      }
+    }
+
+    _callStartCountTotal += callStartCount;
+    _errorCountTotal += errorCount;
+    for (int i = 0; i < errorTypeCounts.length; i++)
+    {
+      _errorTypeCountsTotal[i] += errorTypeCounts[i];
+    }
+
+    int concurrency = _concurrency.get();
+    _stats = new CallTrackerImpl.CallTrackerStats(
+      _interval,
+      _startTime,
+      endTime,
+      _callCountTotal,
+      callStartCount,
+      _callStartCountTotal,
+      errorCount,
+      _errorCountTotal,
+      _concurrentMax.get(),
+      concurrency == 0 ? 0 : (_sumOfOutstandingStartTimes.get() / concurrency),
+      concurrency,
+      _callTimeTracking.getStats(), toErrorTypeMap(errorTypeCounts), toErrorTypeMap(_errorTypeCountsTotal));
+
+    resetStats(endTime);
+
+    addPending(_stats, reset);
+  }
+
+  private static Map<ErrorType, Integer> toErrorTypeMap(long[] counts)
+  {
+    Map<ErrorType, Integer> map = new EnumMap<ErrorType, Integer>(ErrorType.class);
+    for (int i = 0; i < counts.length; i++)
+    {
+      if (counts[i] > 0)
+      {
+        map.put(ERROR_TYPES[i], (int) counts[i]);
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Must be called while holding _lock.
+   */
+  private void addPending(CallStats stats, boolean reset)
+  {
+    if (!_listeners.isEmpty())
+    {
+      if (_pending == null)
+      {
+        _pending = new CallTrackerImpl.Pending(_listeners);
+      }
+      _pending.add(stats, reset);
+    }
+  }
+
+  /**
+   * Must be called while holding _lock.
+   */
+  private CallTrackerImpl.Pending checkForPending()
+  {
+    CallTrackerImpl.Pending pending = _pending;
+    _pending = null;
+    return pending;
+  }
+
+  private static final class Stripe
+  {
+    private int _callCount;
+    private int _callStartCount;
+    private int _errorCount;
+    private final int[] _errorTypeCounts = new int[ERROR_TYPES.length];
+    private final LongStatsTracker _callTimeTracking;
+
+    private Stripe(LongStatsTracker callTimeTracking)
+    {
+      _callTimeTracking = callTimeTracking;
+    }
+
+    private void reset()
+    {
+      _callCount = 0;
+      _callStartCount = 0;
+      _errorCount = 0;
+      for (int i = 0; i < _errorTypeCounts.length; i++)
+      {
+        _errorTypeCounts[i] = 0;
+      }
+      _callTimeTracking.reset();
+    }
+  }
+
+  private class CallCompletionImpl implements CallCompletion
+  {
+    private final long _start;
+    private volatile int _done;
+
+    private CallCompletionImpl(long currentTime)
+    {
+      _start = currentTime;
+    }
+
+    @Override
+    public void endCall()
+    {
+      endCall(false, null);
+    }
+
+    @Override
+    public void endCallWithError()
+    {
+      endCall(true, null);
+    }
+
+    @Override
+    public void endCallWithError(ErrorType errorType)
+    {
+      endCall(true, errorType);
+    }
+
+    private void endCall(boolean hasError, ErrorType errorType)
+    {
+      if (DONE_UPDATER.compareAndSet(this, 0, 1))
+      {
+        long currentTime = _clock.currentTimeMillis();
+
+        if (_start >= _lastResetTime)
+        {
+          checkRollover(currentTime);
+          addCallData(currentTime - _start, hasError, errorType);
+        }
+
+        // Concurrency is not reset
+        int concurrency;
+        while ((concurrency = _concurrency.get()) > 0)
+        {
+          if (_concurrency.compareAndSet(concurrency, concurrency - 1))
+          {
+            break;
+          }
+        }
+
+        // Sum of outstanding start times is not reset
+        _sumOfOutstandingStartTimes.addAndGet(-_start);
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.util.degrader;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.linkedin.util.clock.Clock;
+import com.linkedin.util.clock.SettableClock;
+import com.linkedin.util.clock.Time;
+
+/**
+ * Runs the {@link TestCallTracker} suite against {@link StripedCallTrackerImpl}, plus a check
+ * that concurrent callers are all accounted for.
+ */
+public class TestStripedCallTracker extends TestCallTracker
+{
+  @Override
+  protected CallTracker createCallTracker(long interval, Clock clock)
+  {
+    return new StripedCallTrackerImpl(interval, clock, 4);
+  }
+
+  @Test
+  public void testConcurrentCalls() throws Exception
+  {
+    final SettableClock clock = new SettableClock();
+    final StripedCallTrackerImpl callTracker = new StripedCallTrackerImpl(Time.minutes(1), clock, 4);
+    final int threads = 8;
+    final int callsPerThread = 10000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+
+    for (int i = 0; i < threads; i++)
+    {
+      final boolean withErrors = i % 2 == 0;
+      Thread worker = new Thread(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            start.await();
+            for (int j = 0; j < callsPerThread; j++)
+            {
+              CallCompletion completion = callTracker.startCall();
+              if (withErrors)
+              {
+                completion.endCallWithError(ErrorType.REMOTE_INVOCATION_EXCEPTION);
+              }
+              else
+              {
+                completion.endCall();
+              }
+            }
+          }
+          catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          }
+          finally
+          {
+            done.countDown();
+          }
+        }
+      });
+      worker.start();
+    }
+
+    start.countDown();
+    Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+
+    int total = threads * callsPerThread;
+    Assert.assertEquals(callTracker.getCurrentCallStartCountTotal(), total);
+    Assert.assertEquals(callTracker.getCurrentCallCountTotal(), total);
+    Assert.assertEquals(callTracker.getCurrentErrorCountTotal(), total / 2);
+    Assert.assertEquals(callTracker.getCurrentErrorTypeCountsTotal().get(ErrorType.REMOTE_INVOCATION_EXCEPTION).intValue(),
+                        total / 2);
+    Assert.assertEquals(callTracker.getCurrentConcurrency(), 0);
+
+    clock.addDuration(Time.minutes(1));
+    CallTracker.CallStats stats = callTracker.getCallStats();
+    Assert.assertEquals(stats.getCallCount(), total);
+    Assert.assertEquals(stats.getCallStartCount(), total);
+    Assert.assertEquals(stats.getErrorCount(), total / 2);
+    Assert.assertEquals(stats.getErrorTypeCounts().get(ErrorType.REMOTE_INVOCATION_EXCEPTION).intValue(), total / 2);
+    Assert.assertTrue(stats.getConcurrentMax() >= 1 && stats.getConcurrentMax() <= threads);
+    Assert.assertEquals(stats.getOutstandingCount(), 0);
+  }
+}
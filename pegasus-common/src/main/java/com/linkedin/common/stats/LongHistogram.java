@@ -0,0 +1,286 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.common.stats;
+
+import java.util.Arrays;
+
+
+/**
+ * A {@link LongStatsTracker} backed by a log-linear histogram, in the style of HdrHistogram.
+ *
+ * Values are counted in buckets whose width doubles with every power of two, and each power of
+ * two is split into 2^(precisionBits - 1) linear sub-buckets. A percentile is therefore reported
+ * with a relative error of at most 1 / 2^(precisionBits - 1), while count, average, standard
+ * deviation, minimum and maximum are exact.
+ *
+ * Unlike {@link LongTracking}, recording is constant time, memory is fixed at construction,
+ * reading percentiles does not sort, and histograms merge exactly. Values above the highest
+ * trackable value are counted in the last bucket, which reports the maximum, and negative values
+ * in the first, which reports the minimum; they are still reflected exactly in the minimum,
+ * maximum and average.
+ *
+ * This class implementation is not synchronized. If concurrent access is required, it
+ * must be synchronized externally.
+ */
+public class LongHistogram implements LongStatsTracker
+{
+  // one hour in milliseconds
+  public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = 3600000L;
+  // percentiles within 1.6%
+  public static final int  DEFAULT_PRECISION_BITS = 7;
+
+  private static final int MIN_PRECISION_BITS = 2;
+  private static final int MAX_PRECISION_BITS = 16;
+
+  private final long  _highestTrackableValue;
+  private final int   _precisionBits;
+  private final int   _subBucketHalfCountBits;
+  private final long  _subBucketMask;
+  private final int[] _counts;
+
+  private int         _count;
+  private long        _min;
+  private long        _max;
+  private long        _sum;
+  private long        _sumOfSquares;
+
+  public LongHistogram()
+  {
+    this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_PRECISION_BITS);
+  }
+
+  /**
+   * @param highestTrackableValue the highest value that is counted in its own bucket.
+   * @param precisionBits the number of bits of precision of each bucket, from 2 to 16. Memory use is
+   *                      proportional to 2^precisionBits * log2(highestTrackableValue).
+   */
+  public LongHistogram(long highestTrackableValue, int precisionBits)
+  {
+    if (precisionBits < MIN_PRECISION_BITS || precisionBits > MAX_PRECISION_BITS)
+    {
+      throw new IllegalArgumentException("precisionBits must be between " + MIN_PRECISION_BITS + " and "
+                                             + MAX_PRECISION_BITS + ": " + precisionBits);
+    }
+    if (highestTrackableValue < 1)
+    {
+      throw new IllegalArgumentException("highestTrackableValue must be positive: " + highestTrackableValue);
+    }
+    _highestTrackableValue = highestTrackableValue;
+    _precisionBits = precisionBits;
+    _subBucketHalfCountBits = precisionBits - 1;
+    _subBucketMask = (1L << precisionBits) - 1;
+    _counts = new int[countsIndex(highestTrackableValue) + 1];
+    reset();
+  }
+
+  @Override
+  public void reset()
+  {
+    Arrays.fill(_counts, 0);
+    _count = 0;
+    _min = 0;
+    _max = 0;
+    _sum = 0;
+    _sumOfSquares = 0;
+  }
+
+  @Override
+  public void addValue(long value)
+  {
+    if (_count == 0)
+    {
+      _min = _max = value;
+    }
+    else if (value < _min)
+    {
+      _min = value;
+    }
+    else if (value > _max)
+    {
+      _max = value;
+    }
+    _sum += value;
+    _sumOfSquares += value * value;
+    _count++;
+
+    _counts[countsIndex(clamp(value))]++;
+  }
+
+  @Override
+  public void addAll(LongStatsTracker tracker)
+  {
+    if (!(tracker instanceof LongHistogram))
+    {
+      throw new IllegalArgumentException("Cannot add values of " + tracker.getClass().getName());
+    }
+    LongHistogram other = (LongHistogram) tracker;
+    if (other._precisionBits != _precisionBits || other._highestTrackableValue != _highestTrackableValue)
+    {
+      throw new IllegalArgumentException("Cannot add values of a histogram with a different configuration");
+    }
+    if (other._count == 0)
+    {
+      return;
+    }
+
+    if (_count == 0)
+    {
+      _min = other._min;
+      _max = other._max;
+    }
+    else
+    {
+      _min = Math.min(_min, other._min);
+      _max = Math.max(_max, other._max);
+    }
+    _sum += other._sum;
+    _sumOfSquares += other._sumOfSquares;
+    _count += other._count;
+
+    for (int i = 0; i < _counts.length; i++)
+    {
+      _counts[i] += other._counts[i];
+    }
+  }
+
+  @Override
+  public LongHistogram newEmptyTracker()
+  {
+    return new LongHistogram(_highestTrackableValue, _precisionBits);
+  }
+
+  @Override
+  public LongStats getStats()
+  {
+    long[] percentiles = getValuesAtPercentiles(0.50, 0.90, 0.95, 0.99);
+    return new LongStats(_count, getAverage(), getStandardDeviation(),
+                         _min, _max,
+                         percentiles[0], percentiles[1], percentiles[2], percentiles[3]);
+  }
+
+  /**
+   * @return the value at the given percentile, between 0.0 and 1.0.
+   */
+  public long getValueAtPercentile(double pct)
+  {
+    return getValuesAtPercentiles(pct)[0];
+  }
+
+  public long getHighestTrackableValue()
+  {
+    return _highestTrackableValue;
+  }
+
+  public int getPrecisionBits()
+  {
+    return _precisionBits;
+  }
+
+  /**
+   * Finds the values at several percentiles in one pass over the buckets.
+   *
+   * @param pcts percentiles in ascending order
+   */
+  private long[] getValuesAtPercentiles(double... pcts)
+  {
+    long[] values = new long[pcts.length];
+    if (_count == 0)
+    {
+      return values;
+    }
+
+    int p = 0;
+    long seen = 0;
+    for (int i = 0; i < _counts.length && p < pcts.length; i++)
+    {
+      seen += _counts[i];
+      // same rank as LongTracking picks from its sorted buffer
+      while (p < pcts.length && seen > Math.round(clampPct(pcts[p]) * (_count - 1)))
+      {
+        // report the highest value equivalent to the bucket, but never beyond the range seen.
+        // The first and last buckets also hold every value below zero and above the highest
+        // trackable value respectively.
+        long value;
+        if (i == _counts.length - 1)
+        {
+          value = _max;
+        }
+        else if (i == 0)
+        {
+          value = Math.min(_min, 0);
+        }
+        else
+        {
+          value = highestEquivalentValue(i);
+        }
+        values[p] = Math.max(_min, Math.min(_max, value));
+        p++;
+      }
+    }
+    return values;
+  }
+
+  private double getAverage()
+  {
+    return safeDivide(_sum, _count);
+  }
+
+  private double getStandardDeviation()
+  {
+    double variation;
+    variation = safeDivide(_sumOfSquares - _sum * getAverage(), _count);
+    return Math.sqrt(variation);
+  }
+
+  private long clamp(long value)
+  {
+    if (value < 0)
+    {
+      return 0;
+    }
+    return value > _highestTrackableValue ? _highestTrackableValue : value;
+  }
+
+  /**
+   * Buckets are numbered by the power of two above the sub-bucket range; bucket 0 holds the
+   * values below 2^precisionBits with unit resolution and every later bucket holds the upper half
+   * of its sub-bucket range, so the indexes are contiguous.
+   */
+  private int countsIndex(long value)
+  {
+    int bucketIndex = (64 - Long.numberOfLeadingZeros(value | _subBucketMask)) - _precisionBits;
+    int subBucketIndex = (int) (value >>> bucketIndex);
+    return (bucketIndex << _subBucketHalfCountBits) + subBucketIndex;
+  }
+
+  private long highestEquivalentValue(int index)
+  {
+    int bucketIndex = Math.max(0, (index >> _subBucketHalfCountBits) - 1);
+    long subBucketIndex = index - (bucketIndex << _subBucketHalfCountBits);
+    return ((subBucketIndex + 1) << bucketIndex) - 1;
+  }
+
+  private static double clampPct(double pct)
+  {
+    return pct < 0.0 ? 0.0 : (pct > 1.0 ? 1.0 : pct);
+  }
+
+  private static double safeDivide(final double numerator, final double denominator)
+  {
+    return denominator != 0 ? numerator / denominator : 0;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.common.stats;
+
+/**
+ * Tracks a stream of long values and summarizes them as {@link LongStats}.
+ *
+ * Implementations are not synchronized. If concurrent access is required, it must be
+ * synchronized externally.
+ */
+public interface LongStatsTracker
+{
+  /**
+   * Records one value.
+   */
+  void addValue(long value);
+
+  /**
+   * Discards all recorded values.
+   */
+  void reset();
+
+  /**
+   * @return the statistics of the values recorded since the last reset.
+   */
+  LongStats getStats();
+
+  /**
+   * Adds the values recorded by another tracker to this one.
+   *
+   * @param other a tracker created by {@link #newEmptyTracker()} on this tracker or on a tracker
+   *              of the same type and configuration; it is not modified.
+   * @throws IllegalArgumentException if the other tracker is not compatible with this one.
+   */
+  void addAll(LongStatsTracker other);
+
+  /**
+   * @return a new, empty tracker of the same type and configuration as this one.
+   */
+  LongStatsTracker newEmptyTracker();
+}
@@ -36,7 +36,7 @@ import com.linkedin.common.util.ConfigHelper;
  * This class implementation is not synchronized. If concurrent access is required, it
  * must be synchronized externally.
  */
-public class LongTracking
+public class LongTracking implements LongStatsTracker
 {
   private static final int    DEFAULT_INITIAL_CAPACITY = 1000;
   private static final double DEFAULT_GROWTH_FACTOR    = 2.0;
@@ -88,6 +88,7 @@ public class LongTracking
     reset();
   }
 
+  @Override
   public void reset()
   {
     _count = 0;
@@ -101,6 +102,7 @@ public class LongTracking
     _keepRatio = 1;
   }
 
+  @Override
   public void addValue(long value)
   {
     if (_count == 0)
@@ -124,6 +126,59 @@ public class LongTracking
       return;
     }
 
+    addSample(value);
+  }
+
+  /**
+   * Adds all values tracked by another instance to this one. The count, average, standard
+   * deviation, minimum and maximum are merged exactly. Percentiles are computed from the samples
+   * retained by both instances, after thinning them to the same keep ratio.
+   *
+   * @param tracker the LongTracking whose values are added; it is not modified.
+   */
+  @Override
+  public void addAll(LongStatsTracker tracker)
+  {
+    if (!(tracker instanceof LongTracking))
+    {
+      throw new IllegalArgumentException("Cannot add values of " + tracker.getClass().getName());
+    }
+    LongTracking other = (LongTracking) tracker;
+    if (other._count == 0)
+    {
+      return;
+    }
+
+    if (_count == 0)
+    {
+      _min = other._min;
+      _max = other._max;
+    }
+    else
+    {
+      _min = Math.min(_min, other._min);
+      _max = Math.max(_max, other._max);
+    }
+    _sum += other._sum;
+    _sumOfSquares += other._sumOfSquares;
+    _count += other._count;
+
+    // each retained sample stands for keepRatio values; keep ratios are powers of two
+    while (_keepRatio < other._keepRatio)
+    {
+      dropHalf();
+    }
+    for (int i = 0; i < other._nextIndex; i++)
+    {
+      if (i % (_keepRatio / other._keepRatio) == 0)
+      {
+        addSample(other._buffer[i]);
+      }
+    }
+  }
+
+  private void addSample(long value)
+  {
     if (_nextIndex >= _bufferSize)
     {
       if (_bufferSize < _maxCapacity)
@@ -159,6 +214,13 @@ public class LongTracking
     return _maxCapacity;
   }
 
+  @Override
+  public LongStatsTracker newEmptyTracker()
+  {
+    return new LongTracking(_maxCapacity, _initialCapacity, _growthFactor);
+  }
+
+  @Override
   public LongStats getStats()
   {
     return new LongStats(getCount(), getAverage(), getStandardDeviation(),
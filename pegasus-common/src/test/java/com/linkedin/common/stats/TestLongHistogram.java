@@ -0,0 +1,175 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.common.stats;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestLongHistogram
+{
+  @Test
+  public void testEmpty()
+  {
+    LongStats stats = new LongHistogram().getStats();
+
+    Assert.assertEquals(stats.getCount(), 0);
+    Assert.assertEquals(stats.getAverage(), 0.0);
+    Assert.assertEquals(stats.getMinimum(), 0);
+    Assert.assertEquals(stats.getMaximum(), 0);
+    Assert.assertEquals(stats.get50Pct(), 0);
+    Assert.assertEquals(stats.get99Pct(), 0);
+  }
+
+  @Test
+  public void testSmallValuesAreExact()
+  {
+    LongHistogram histogram = new LongHistogram();
+    LongTracking tracking = new LongTracking();
+    for (long i = 0; i < 100; i++)
+    {
+      histogram.addValue(i);
+      tracking.addValue(i);
+    }
+
+    assertStats(histogram.getStats(), tracking.getStats(), 0.0);
+  }
+
+  @Test
+  public void testRandomWithinPrecision()
+  {
+    Random random = new Random(42);
+    LongHistogram histogram = new LongHistogram();
+    long[] values = new long[100000];
+    for (int i = 0; i < values.length; i++)
+    {
+      // log-normal-ish latencies from 1ms to tens of seconds
+      values[i] = (long) Math.exp(random.nextGaussian() * 2 + 4);
+      histogram.addValue(values[i]);
+    }
+    Arrays.sort(values);
+
+    LongStats stats = histogram.getStats();
+    Assert.assertEquals(stats.getCount(), values.length);
+    Assert.assertEquals(stats.getMinimum(), values[0]);
+    Assert.assertEquals(stats.getMaximum(), values[values.length - 1]);
+    assertWithinPrecision(stats.get50Pct(), exactPercentile(values, 0.50));
+    assertWithinPrecision(stats.get90Pct(), exactPercentile(values, 0.90));
+    assertWithinPrecision(stats.get95Pct(), exactPercentile(values, 0.95));
+    assertWithinPrecision(stats.get99Pct(), exactPercentile(values, 0.99));
+  }
+
+  @Test
+  public void testAddAll()
+  {
+    Random random = new Random(7);
+    LongHistogram all = new LongHistogram();
+    LongHistogram merged = new LongHistogram();
+    LongHistogram[] parts = new LongHistogram[4];
+    for (int i = 0; i < parts.length; i++)
+    {
+      parts[i] = merged.newEmptyTracker();
+    }
+    for (int i = 0; i < 10000; i++)
+    {
+      long value = random.nextInt(100000);
+      all.addValue(value);
+      parts[i % parts.length].addValue(value);
+    }
+    for (LongHistogram part : parts)
+    {
+      merged.addAll(part);
+    }
+
+    assertStats(merged.getStats(), all.getStats(), 0.0);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testAddAllDifferentConfiguration()
+  {
+    new LongHistogram().addAll(new LongHistogram(1000, 4));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testAddAllDifferentType()
+  {
+    new LongHistogram().addAll(new LongTracking());
+  }
+
+  @Test
+  public void testOutOfRangeValues()
+  {
+    LongHistogram histogram = new LongHistogram(1000, 4);
+    histogram.addValue(-5);
+    histogram.addValue(1000000);
+    histogram.addValue(1000000);
+
+    LongStats stats = histogram.getStats();
+    Assert.assertEquals(stats.getMinimum(), -5);
+    Assert.assertEquals(stats.getMaximum(), 1000000);
+    Assert.assertEquals(stats.getAverage(), (1000000.0 * 2 - 5) / 3, 0.0001);
+    Assert.assertEquals(stats.get50Pct(), 1000000);
+    Assert.assertEquals(histogram.getValueAtPercentile(0.0), -5);
+  }
+
+  @Test
+  public void testReset()
+  {
+    LongHistogram histogram = new LongHistogram();
+    histogram.addValue(10);
+    histogram.reset();
+    histogram.addValue(20);
+
+    LongStats stats = histogram.getStats();
+    Assert.assertEquals(stats.getCount(), 1);
+    Assert.assertEquals(stats.getMinimum(), 20);
+    Assert.assertEquals(stats.get50Pct(), 20);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidPrecision()
+  {
+    new LongHistogram(1000, 1);
+  }
+
+  private static long exactPercentile(long[] sorted, double pct)
+  {
+    return sorted[(int) Math.round(pct * (sorted.length - 1))];
+  }
+
+  private static void assertWithinPrecision(long actual, long expected)
+  {
+    double maxError = 1.0 / (1 << (LongHistogram.DEFAULT_PRECISION_BITS - 1));
+    Assert.assertTrue(Math.abs(actual - expected) <= Math.max(1, expected * maxError),
+                      "expected " + expected + " but was " + actual);
+  }
+
+  private static void assertStats(LongStats actual, LongStats expected, double delta)
+  {
+    Assert.assertEquals(actual.getCount(), expected.getCount());
+    Assert.assertEquals(actual.getAverage(), expected.getAverage(), delta);
+    Assert.assertEquals(actual.getStandardDeviation(), expected.getStandardDeviation(), 0.0001);
+    Assert.assertEquals(actual.getMinimum(), expected.getMinimum());
+    Assert.assertEquals(actual.getMaximum(), expected.getMaximum());
+    Assert.assertEquals(actual.get50Pct(), expected.get50Pct());
+    Assert.assertEquals(actual.get90Pct(), expected.get90Pct());
+    Assert.assertEquals(actual.get95Pct(), expected.get95Pct());
+    Assert.assertEquals(actual.get99Pct(), expected.get99Pct());
+  }
+}
@@ -181,6 +181,43 @@ public class TestLongTrackingAndLongStats
     Assert.assertEquals(stats.get99Pct(), value, "99 percentile is incorrect");
   }
 
+  @Test public void testAddAll()
+  {
+    LongTracking small = new LongTracking();
+    LongTracking large = new LongTracking();
+    // enough values for the second instance to start dropping samples
+    for (long i = 1; i <= 1000; ++i)
+    {
+      small.addValue(i);
+      _tracking.addValue(i);
+    }
+    for (long i = 1001; i <= 20000; ++i)
+    {
+      large.addValue(i);
+      _tracking.addValue(i);
+    }
+
+    LongTracking merged = new LongTracking();
+    merged.addAll(small);
+    merged.addAll(large);
+    merged.addAll(new LongTracking());
+
+    LongStats expected = _tracking.getStats();
+    LongStats stats = merged.getStats();
+
+    Assert.assertEquals(stats.getCount(), expected.getCount(), "Count is incorrect");
+    assertEquals(stats.getAverage(), expected.getAverage(), 0.0001, "Average is incorrect");
+    assertEquals(stats.getStandardDeviation(), expected.getStandardDeviation(), 0.0001,
+                 "Standard deviation is incorrect");
+    Assert.assertEquals(stats.getMinimum(), 1, "Minimum is incorrect");
+    Assert.assertEquals(stats.getMaximum(), 20000, "Maximum is incorrect");
+
+    // percentiles come from subsampled values; they must be within a sample step of the truth
+    assertEquals(stats.get50Pct(), 10000, 20, "50 percentile is incorrect");
+    assertEquals(stats.get90Pct(), 18000, 20, "90 percentile is incorrect");
+    assertEquals(stats.get99Pct(), 19800, 20, "99 percentile is incorrect");
+  }
+
   @Test public void testPerformance()
   {
     final int numInstances = 1000;
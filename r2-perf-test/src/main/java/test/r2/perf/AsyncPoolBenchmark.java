@@ -0,0 +1,118 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.perf;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.common.util.None;
+import com.linkedin.r2.transport.http.client.AsyncPool;
+import com.linkedin.r2.transport.http.client.AsyncPoolImpl;
+import com.linkedin.r2.transport.http.client.AsyncPoolType;
+import com.linkedin.r2.transport.http.client.LockFreeAsyncPoolImpl;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * JMH benchmark of a get/put cycle against each {@link AsyncPoolType}. Run with
+ * {@code gradle :r2-perf-test:runAsyncPoolBenchmark -Djmh.threads=N}; the interesting numbers
+ * are those with more threads than the pool has objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AsyncPoolBenchmark
+{
+  @Param({"SYNCHRONIZED", "LOCK_FREE"})
+  public AsyncPoolType _poolType;
+
+  @Param({"8", "200"})
+  public int _poolSize;
+
+  private ScheduledExecutorService _executor;
+  private AsyncPool<Object> _pool;
+
+  @Setup
+  public void setUp()
+  {
+    _executor = Executors.newSingleThreadScheduledExecutor();
+    switch (_poolType)
+    {
+      case LOCK_FREE:
+        _pool = new LockFreeAsyncPoolImpl<Object>("benchmark", new ObjectLifecycle(), _poolSize, 30000, _executor);
+        break;
+      default:
+        _pool = new AsyncPoolImpl<Object>("benchmark", new ObjectLifecycle(), _poolSize, 30000, _executor);
+    }
+    _pool.start();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception
+  {
+    FutureCallback<None> callback = new FutureCallback<None>();
+    _pool.shutdown(callback);
+    callback.get(10, TimeUnit.SECONDS);
+    _executor.shutdown();
+  }
+
+  @Benchmark
+  public Object getPut() throws Exception
+  {
+    FutureCallback<Object> callback = new FutureCallback<Object>();
+    _pool.get(callback);
+    Object obj = callback.get();
+    _pool.put(obj);
+    return obj;
+  }
+
+  private static class ObjectLifecycle implements AsyncPool.Lifecycle<Object>
+  {
+    @Override
+    public void create(Callback<Object> callback)
+    {
+      callback.onSuccess(new Object());
+    }
+
+    @Override
+    public boolean validateGet(Object obj)
+    {
+      return true;
+    }
+
+    @Override
+    public boolean validatePut(Object obj)
+    {
+      return true;
+    }
+
+    @Override
+    public void destroy(Object obj, boolean error, Callback<Object> callback)
+    {
+      callback.onSuccess(obj);
+    }
+  }
+}
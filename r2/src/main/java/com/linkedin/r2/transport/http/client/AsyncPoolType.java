@@ -0,0 +1,36 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.transport.http.client;
+
+/**
+ * The {@link AsyncPool} implementations which may back an HTTP client's connection pools.
+ *
+ * @see HttpClientFactory#HTTP_POOL_TYPE
+ */
+public enum AsyncPoolType
+{
+  /**
+   * {@link AsyncPoolImpl}, which guards all pool state with a single lock.
+   */
+  SYNCHRONIZED,
+
+  /**
+   * {@link LockFreeAsyncPoolImpl}, which uses atomic operations on the get/put path and
+   * scales better when many threads share a pool.
+   */
+  LOCK_FREE
+}
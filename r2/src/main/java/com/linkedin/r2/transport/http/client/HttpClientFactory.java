@@ -93,6 +93,7 @@ public class HttpClientFactory implements TransportClientFactory
   public static final String HTTP_SSL_PARAMS = "http.sslParams";
   public static final String HTTP_RESPONSE_COMPRESSION_OPERATIONS = "http.responseCompressionOperations";
   public static final String HTTP_SERVICE_NAME = "http.serviceName";
+  public static final String HTTP_POOL_TYPE = "http.poolType";
 
   public static final int DEFAULT_POOL_WAITER_SIZE = Integer.MAX_VALUE;
   public static final int DEFAULT_POOL_SIZE = 200;
@@ -101,6 +102,7 @@ public class HttpClientFactory implements TransportClientFactory
   public static final int DEFAULT_SHUTDOWN_TIMEOUT = 5000;
   public static final int DEFAULT_MAX_RESPONSE_SIZE = 1024 * 1024 * 2;
   public static final String DEFAULT_CLIENT_NAME = "noNameSpecifiedClient";
+  public static final AsyncPoolType DEFAULT_POOL_TYPE = AsyncPoolType.SYNCHRONIZED;
   public static final AbstractJmxManager NULL_JMX_MANAGER = new AbstractJmxManager()
   {
     @Override
@@ -423,6 +425,11 @@ public class HttpClientFactory implements TransportClientFactory
       clientName = (String)properties.get(HTTP_SERVICE_NAME) + "Client";
     }
     clientName = chooseNewOverDefault(clientName, DEFAULT_CLIENT_NAME);
+    AsyncPoolType poolType = DEFAULT_POOL_TYPE;
+    if (properties != null && properties.containsKey(HTTP_POOL_TYPE))
+    {
+      poolType = AsyncPoolType.valueOf(((String)properties.get(HTTP_POOL_TYPE)).toUpperCase());
+    }
 
     return new HttpNettyClient(_channelFactory,
                                _executor,
@@ -437,7 +444,8 @@ public class HttpClientFactory implements TransportClientFactory
                                _callbackExecutor,
                                poolWaiterSize,
                                clientName,
-                               _jmxManager);
+                               _jmxManager,
+                               poolType);
   }
 
   /**
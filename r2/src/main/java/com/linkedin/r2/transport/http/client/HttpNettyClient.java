@@ -215,6 +215,61 @@ import com.linkedin.r2.util.TimeoutRunnable;
                          int poolWaiterSize,
                          String name,
                          AbstractJmxManager jmxManager)
+  {
+    this(factory,
+        executor,
+        poolSize,
+        requestTimeout,
+        idleTimeout,
+        shutdownTimeout,
+        maxResponseSize,
+        sslContext,
+        sslParameters,
+        queryPostThreshold,
+        callbackExecutor,
+        poolWaiterSize,
+        name,
+        jmxManager,
+        AsyncPoolType.SYNCHRONIZED);
+  }
+
+  /**
+   * Creates a new HttpNettyClient
+   *
+   * @param factory The ClientSocketChannelFactory; it is the caller's responsibility to
+   *          shut it down
+   * @param executor an executor; it is the caller's responsibility to shut it down
+   * @param poolSize Maximum size of the underlying HTTP connection pool
+   * @param requestTimeout timeout, in ms, to get a connection from the pool or create one
+   * @param idleTimeout interval after which idle connections will be automatically closed
+   * @param shutdownTimeout timeout, in ms, the client should wait after shutdown is
+   *          initiated before terminating outstanding requests
+   * @param maxResponseSize
+   * @param sslContext {@link SSLContext}
+   * @param sslParameters {@link SSLParameters}with overloaded construct
+   * @param queryPostThreshold length of query params above which requests will be tunneled as POSTS
+   * @param callbackExecutor an optional executor to invoke user callback
+   * @param poolWaiterSize Maximum waiters waiting on the HTTP connection pool
+   * @param name Name of the {@link HttpNettyClient}
+   * @param jmxManager A management class that is aware of the creation/shutdown event
+   *          of the underlying {@link ChannelPoolManager}
+   * @param poolType The {@link AsyncPool} implementation backing each connection pool
+   */
+  public HttpNettyClient(ClientSocketChannelFactory factory,
+                         ScheduledExecutorService executor,
+                         int poolSize,
+                         int requestTimeout,
+                         int idleTimeout,
+                         int shutdownTimeout,
+                         int maxResponseSize,
+                         SSLContext sslContext,
+                         SSLParameters sslParameters,
+                         int queryPostThreshold,
+                         ExecutorService callbackExecutor,
+                         int poolWaiterSize,
+                         String name,
+                         AbstractJmxManager jmxManager,
+                         AsyncPoolType poolType)
   {
     _maxResponseSize = maxResponseSize;
     _name = name;
@@ -224,7 +279,8 @@ import com.linkedin.r2.util.TimeoutRunnable;
             idleTimeout,
             sslContext,
             sslParameters,
-            poolWaiterSize),
+            poolWaiterSize,
+            poolType),
             name + ChannelPoolManager.BASE_NAME);
     _scheduler = executor;
     _callbackExecutor = callbackExecutor;
@@ -623,13 +679,15 @@ import com.linkedin.r2.util.TimeoutRunnable;
     private final int _maxPoolSize;
     private final int _idleTimeout;
     private final int _maxPoolWaiterSize;
+    private final AsyncPoolType _poolType;
 
     private ChannelPoolFactoryImpl(ClientBootstrap bootstrap,
                                    int maxPoolSize,
                                    int idleTimeout,
                                    SSLContext sslContext,
                                    SSLParameters sslParameters,
-                                   int maxPoolWaiterSize)
+                                   int maxPoolWaiterSize,
+                                   AsyncPoolType poolType)
     {
       _bootstrap = bootstrap;
       _bootstrap.setPipelineFactory(new HttpClientPipelineFactory(sslContext,
@@ -637,22 +695,37 @@ import com.linkedin.r2.util.TimeoutRunnable;
       _maxPoolSize = maxPoolSize;
       _idleTimeout = idleTimeout;
       _maxPoolWaiterSize = maxPoolWaiterSize;
+      _poolType = poolType;
     }
 
     @Override
     public AsyncPool<Channel> getPool(SocketAddress address)
     {
-      return new AsyncPoolImpl<Channel>(address.toString() + " HTTP connection pool",
-                                        new ChannelPoolLifecycle(address,
-                                                                 _bootstrap,
-                                                                 _requestTimeout,
-                                                                 _scheduler,
-                                                                 _allChannels),
-                                        _maxPoolSize,
-                                        _idleTimeout,
-                                        _scheduler,
-                                        _callbackExecutor,
-                                        _maxPoolWaiterSize);
+      String name = address.toString() + " HTTP connection pool";
+      ChannelPoolLifecycle lifecycle = new ChannelPoolLifecycle(address,
+                                                                _bootstrap,
+                                                                _requestTimeout,
+                                                                _scheduler,
+                                                                _allChannels);
+      switch (_poolType)
+      {
+        case LOCK_FREE:
+          return new LockFreeAsyncPoolImpl<Channel>(name,
+                                                    lifecycle,
+                                                    _maxPoolSize,
+                                                    _idleTimeout,
+                                                    _scheduler,
+                                                    _callbackExecutor,
+                                                    _maxPoolWaiterSize);
+        default:
+          return new AsyncPoolImpl<Channel>(name,
+                                            lifecycle,
+                                            _maxPoolSize,
+                                            _idleTimeout,
+                                            _scheduler,
+                                            _callbackExecutor,
+                                            _maxPoolWaiterSize);
+      }
     }
   }
 
@@ -0,0 +1,680 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.r2.transport.http.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.util.None;
+import com.linkedin.r2.SizeLimitExceededException;
+import com.linkedin.r2.util.Cancellable;
+
+/**
+ * An {@link AsyncPool} with the same contract as {@link AsyncPoolImpl} which does not take a
+ * lock on the get/put path.  Idle objects are kept on a lock-free MRU stack and waiters on a
+ * {@link ConcurrentLinkedQueue}; pool size and statistics are maintained with atomic counters.
+ *
+ * A getter publishes itself as a waiter before re-checking the idle stack, and a putter pushes
+ * its object onto the idle stack before re-checking for waiters, so at least one of the two
+ * always observes the other and no wakeup is lost.
+ *
+ * This implementation is intended for pools which see heavy contention from many threads, e.g.
+ * a single HTTP client shared by a large number of request threads.
+ */
+public class LockFreeAsyncPoolImpl<T> implements AsyncPool<T>
+{
+  private static final Logger LOG = LoggerFactory.getLogger(LockFreeAsyncPoolImpl.class);
+
+  // Configured
+  private final String _poolName;
+  private final Lifecycle<T> _lifecycle;
+  private final int _maxSize;
+  private final int _maxWaiters;
+  private final long _idleTimeout;
+  private final ScheduledExecutorService _timeoutExecutor;
+  private final ExecutorService _callbackExecutor;
+  private volatile ScheduledFuture<?> _objectTimeoutFuture;
+
+  private enum State { NOT_YET_STARTED, RUNNING, SHUTTING_DOWN, STOPPED }
+
+  private final AtomicReference<State> _state = new AtomicReference<State>(State.NOT_YET_STARTED);
+  private final AtomicReference<Callback<None>> _shutdownCallback = new AtomicReference<Callback<None>>();
+
+  // Including idle, checked out, and creations/destructions in progress
+  private final AtomicInteger _poolSize = new AtomicInteger();
+  // Unused objects live here
+  private final IdleStack<T> _idle = new IdleStack<T>();
+  // When no unused objects are available, callbacks live here while they wait
+  // for a new object (either returned by another user, or newly created).
+  // Cancelled waiters are removed lazily, so the live count is kept separately.
+  private final ConcurrentLinkedQueue<Waiter<T>> _waiters = new ConcurrentLinkedQueue<Waiter<T>>();
+  private final AtomicInteger _waiterCount = new AtomicInteger();
+
+  // Statistics for each pool, retrieved with getStats()
+  // See AsyncPoolStats for details
+  // These are total counts over the entire lifetime of the pool
+  private final AtomicInteger _totalCreated = new AtomicInteger();
+  private final AtomicInteger _totalDestroyed = new AtomicInteger();
+  private final AtomicInteger _totalCreateErrors = new AtomicInteger();
+  private final AtomicInteger _totalDestroyErrors = new AtomicInteger();
+  private final AtomicInteger _totalBadDestroyed = new AtomicInteger();
+  private final AtomicInteger _totalTimedOut = new AtomicInteger();
+  // These counters reset on each call to getStats()
+  private final AtomicInteger _sampleMaxCheckedOut = new AtomicInteger();
+  private final AtomicInteger _sampleMaxPoolSize = new AtomicInteger();
+  // These are instantaneous values
+  private final AtomicInteger _checkedOut = new AtomicInteger();
+
+  public LockFreeAsyncPoolImpl(String name,
+                               Lifecycle<T> lifecycle,
+                               int maxSize,
+                               long idleTimeout,
+                               ScheduledExecutorService timeoutExecutor)
+  {
+    this(name,
+        lifecycle,
+        maxSize,
+        idleTimeout,
+        timeoutExecutor,
+        timeoutExecutor,
+        Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a LockFreeAsyncPoolImpl.  Idle objects are returned in MRU (most recently used)
+   * order.
+   *
+   * @param name Pool name, used in logs and statistics.
+   * @param lifecycle The lifecycle used to create and destroy pool objects.
+   * @param maxSize The maximum number of objects in the pool.
+   * @param idleTimeout The number of milliseconds before an idle pool object
+   *                    may be destroyed.
+   * @param timeoutExecutor A ScheduledExecutorService that will be used to
+   *                        periodically timeout objects.
+   * @param callbackExecutor An ExecutorService used to notify waiters when object
+   *                         creation fails.
+   * @param maxWaiters The maximum number of outstanding waiters.
+   */
+  public LockFreeAsyncPoolImpl(String name,
+                               Lifecycle<T> lifecycle,
+                               int maxSize,
+                               long idleTimeout,
+                               ScheduledExecutorService timeoutExecutor,
+                               ExecutorService callbackExecutor,
+                               int maxWaiters)
+  {
+    _poolName = name;
+    _lifecycle = lifecycle;
+    _maxSize = maxSize;
+    _idleTimeout = idleTimeout;
+    _timeoutExecutor = timeoutExecutor;
+    _callbackExecutor = callbackExecutor;
+    _maxWaiters = maxWaiters;
+  }
+
+  @Override
+  public String getName()
+  {
+    return _poolName;
+  }
+
+  @Override
+  public void start()
+  {
+    if (!_state.compareAndSet(State.NOT_YET_STARTED, State.RUNNING))
+    {
+      throw new IllegalStateException(_poolName + " is " + _state.get());
+    }
+    if (_idleTimeout > 0)
+    {
+      long freq = Math.min(_idleTimeout / 10, 1000);
+      _objectTimeoutFuture = _timeoutExecutor.scheduleAtFixedRate(new Runnable() {
+        @Override
+        public void run()
+        {
+          timeoutObjects();
+        }
+      }, freq, freq, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public void shutdown(Callback<None> callback)
+  {
+    // The callback must be visible before the state changes, since any thread may complete
+    // the shutdown as soon as the pool is SHUTTING_DOWN
+    if (!_shutdownCallback.compareAndSet(null, callback))
+    {
+      callback.onError(new IllegalStateException(_poolName + " is " + _state.get()));
+      return;
+    }
+    if (!_state.compareAndSet(State.RUNNING, State.SHUTTING_DOWN))
+    {
+      _shutdownCallback.compareAndSet(callback, null);
+      callback.onError(new IllegalStateException(_poolName + " is " + _state.get()));
+      return;
+    }
+    LOG.info("{}: {}", _poolName, "shutdown requested");
+    shutdownIfNeeded();
+  }
+
+  @Override
+  public Collection<Callback<T>> cancelWaiters()
+  {
+    List<Callback<T>> cancelled = new ArrayList<Callback<T>>();
+    for (Waiter<T> waiter; (waiter = pollWaiter()) != null;)
+    {
+      cancelled.add(waiter.getCallback());
+    }
+    return cancelled;
+  }
+
+  @Override
+  public Cancellable get(final Callback<T> callback)
+  {
+    for (;;)
+    {
+      final State state = _state.get();
+      if (state != State.RUNNING)
+      {
+        callback.onError(new IllegalStateException(_poolName + " is " + state));
+        return null;
+      }
+      T obj = _idle.pop();
+      if (obj == null)
+      {
+        break;
+      }
+      if (_lifecycle.validateGet(obj))
+      {
+        trc("dequeued an idle object");
+        // Valid object; done
+        checkedOut();
+        callback.onSuccess(obj);
+        return null;
+      }
+      // Invalid object, discard it and keep trying
+      destroy(obj, true);
+      trc("dequeued and disposed an invalid idle object");
+    }
+
+    if (_waiterCount.incrementAndGet() > _maxWaiters)
+    {
+      _waiterCount.decrementAndGet();
+      // This is a recoverable exception. User can simply retry the failed get() operation.
+      callback.onError(new SizeLimitExceededException("AsyncPool " + _poolName + " reached maximum waiter size: " + _maxWaiters));
+      return null;
+    }
+    final Waiter<T> waiter = new Waiter<T>(callback);
+    _waiters.offer(waiter);
+    trc("enqueued a waiter");
+
+    // An object may have been returned between our check of the idle stack and the
+    // enqueueing of the waiter; if so, hand it out now rather than waiting for the next put
+    handOffIdle(1);
+
+    if (shouldCreate())
+    {
+      create();
+    }
+    return new Cancellable()
+    {
+      @Override
+      public boolean cancel()
+      {
+        if (waiter.claim())
+        {
+          _waiterCount.decrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public void put(T obj)
+  {
+    _checkedOut.decrementAndGet();
+    if (!_lifecycle.validatePut(obj))
+    {
+      destroy(obj, true);
+      return;
+    }
+    add(obj);
+  }
+
+  private void add(T obj)
+  {
+    for (;;)
+    {
+      Waiter<T> waiter = pollWaiter();
+      if (waiter != null)
+      {
+        trc("dequeued a waiter");
+        checkedOut();
+        waiter.getCallback().onSuccess(obj);
+        break;
+      }
+      _idle.push(obj, System.currentTimeMillis());
+      // A getter may have enqueued itself after we polled the waiters but before the push
+      // above; it will find the object itself unless it already re-checked the idle stack.
+      if (_waiterCount.get() == 0 || (obj = _idle.pop()) == null)
+      {
+        trc("enqueued an idle object");
+        break;
+      }
+    }
+    shutdownIfNeeded();
+  }
+
+  /**
+   * Hands up to {@code max} idle objects to waiters, if there are any.
+   */
+  private void handOffIdle(int max)
+  {
+    for (int i = 0; i < max && _waiterCount.get() > 0; i++)
+    {
+      T obj = _idle.pop();
+      if (obj == null)
+      {
+        return;
+      }
+      if (_lifecycle.validateGet(obj))
+      {
+        add(obj);
+      }
+      else
+      {
+        destroy(obj, true);
+      }
+    }
+  }
+
+  private Waiter<T> pollWaiter()
+  {
+    for (Waiter<T> waiter; (waiter = _waiters.poll()) != null;)
+    {
+      if (waiter.claim())
+      {
+        _waiterCount.decrementAndGet();
+        return waiter;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void dispose(T obj)
+  {
+    _checkedOut.decrementAndGet();
+    destroy(obj, true);
+  }
+
+  @Override
+  public AsyncPoolStats getStats()
+  {
+    int checkedOut = _checkedOut.get();
+    int poolSize = _poolSize.get();
+    return new AsyncPoolStats(
+      _totalCreated.get(),
+      _totalDestroyed.get(),
+      _totalCreateErrors.get(),
+      _totalDestroyErrors.get(),
+      _totalBadDestroyed.get(),
+      _totalTimedOut.get(),
+      checkedOut,
+      _maxSize,
+      poolSize,
+      Math.max(_sampleMaxCheckedOut.getAndSet(checkedOut), checkedOut),
+      Math.max(_sampleMaxPoolSize.getAndSet(poolSize), poolSize)
+    );
+  }
+
+  private void checkedOut()
+  {
+    updateMax(_sampleMaxCheckedOut, _checkedOut.incrementAndGet());
+  }
+
+  private static void updateMax(AtomicInteger max, int value)
+  {
+    for (int current; value > (current = max.get());)
+    {
+      if (max.compareAndSet(current, value))
+      {
+        return;
+      }
+    }
+  }
+
+  private void destroy(T obj, boolean bad)
+  {
+    if (bad)
+    {
+      _totalBadDestroyed.incrementAndGet();
+    }
+    trc("disposing a pooled object");
+    _lifecycle.destroy(obj, bad, new Callback<T>() {
+      @Override
+      public void onSuccess(T t) {
+        _totalDestroyed.incrementAndGet();
+        if (objectDestroyed())
+        {
+          create();
+        }
+      }
+
+      @Override
+      public void onError(Throwable e) {
+        _totalDestroyErrors.incrementAndGet();
+        if (objectDestroyed())
+        {
+          create();
+        }
+        LOG.warn(_poolName + ": object destruction failed", e);
+      }
+    });
+  }
+
+  /**
+   * @return true if another object creation should be initiated
+   */
+  private boolean objectDestroyed()
+  {
+    _poolSize.decrementAndGet();
+    boolean create = shouldCreate();
+    shutdownIfNeeded();
+    return create;
+  }
+
+  /**
+   * Reserves a slot in the pool for a new object if there are waiters and the pool is not full.
+   * DO NOT call any callbacks in this method!
+   * @return true if another object creation should be initiated.
+   */
+  private boolean shouldCreate()
+  {
+    while (_state.get() == State.RUNNING && _waiterCount.get() > 0)
+    {
+      int size = _poolSize.get();
+      if (size >= _maxSize)
+      {
+        return false;
+      }
+      if (_poolSize.compareAndSet(size, size + 1))
+      {
+        updateMax(_sampleMaxPoolSize, size + 1);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void create()
+  {
+    trc("initiating object creation");
+    _lifecycle.create(new Callback<T>() {
+      @Override
+      public void onSuccess(T t)
+      {
+        _totalCreated.incrementAndGet();
+        add(t);
+      }
+
+      @Override
+      public void onError(final Throwable e)
+      {
+        _totalCreateErrors.incrementAndGet();
+        boolean create = objectDestroyed();
+        final Collection<Callback<T>> waitersDenied;
+        if (_waiterCount.get() > 0)
+        {
+          waitersDenied = cancelWaiters();
+        }
+        else
+        {
+          waitersDenied = Collections.emptyList();
+        }
+        // Note this callback is invoked by Netty boss thread. We hand the actual callback
+        // task to a separate thread since we don't want to block the boss thread
+        _callbackExecutor.submit(new Runnable() {
+          @Override
+          public void run() {
+            // See AsyncPoolImpl: while creations are failing it is better to deny all waiters
+            // with the real reason than to keep them around for an unhelpful timeout error
+            for (Callback<T> denied : waitersDenied)
+            {
+              denied.onError(e);
+            }
+          }
+        });
+        if (create)
+        {
+          create();
+        }
+        LOG.error(_poolName + ": object creation failed", e);
+      }
+    });
+  }
+
+  private void timeoutObjects()
+  {
+    long target = System.currentTimeMillis() - _idleTimeout;
+    List<T> expired = new ArrayList<T>();
+    _idle.reap(target, expired);
+    if (expired.size() > 0)
+    {
+      _totalTimedOut.addAndGet(expired.size());
+      LOG.debug("{}: disposing {} objects due to idle timeout", _poolName, expired.size());
+      for (T obj : expired)
+      {
+        destroy(obj, false);
+      }
+    }
+    // A shutdown requested while objects were being reaped may not have seen them all idle
+    shutdownIfNeeded();
+  }
+
+  private void shutdownIfNeeded()
+  {
+    if (_state.get() == State.RUNNING)
+    {
+      return;
+    }
+    Callback<None> shutdown = checkShutdownComplete();
+    if (shutdown != null)
+    {
+      finishShutdown(shutdown);
+    }
+  }
+
+  private Callback<None> checkShutdownComplete()
+  {
+    if (_state.get() != State.SHUTTING_DOWN)
+    {
+      return null;
+    }
+    final int waiters = _waiterCount.get();
+    final int idle = _idle.size();
+    final int poolSize = _poolSize.get();
+    if (waiters == 0 && idle == poolSize && _state.compareAndSet(State.SHUTTING_DOWN, State.STOPPED))
+    {
+      return _shutdownCallback.getAndSet(null);
+    }
+    LOG.info("{}: {} waiters and {} objects outstanding before shutdown", new Object[]{ _poolName, waiters, poolSize - idle });
+    return null;
+  }
+
+  private void finishShutdown(Callback<None> shutdown)
+  {
+    ScheduledFuture<?> future = _objectTimeoutFuture;
+    if (future != null)
+    {
+      future.cancel(false);
+    }
+
+    LOG.info("{}: {}", _poolName, "shutdown complete");
+
+    shutdown.onSuccess(None.none());
+  }
+
+  private void trc(Object toLog)
+  {
+    LOG.trace("{}: {}", _poolName, toLog);
+  }
+
+  private static class Waiter<T>
+  {
+    private final Callback<T> _callback;
+    private final AtomicBoolean _done = new AtomicBoolean();
+
+    Waiter(Callback<T> callback)
+    {
+      _callback = callback;
+    }
+
+    Callback<T> getCallback()
+    {
+      return _callback;
+    }
+
+    /**
+     * @return true if the caller won the right to complete or cancel this waiter
+     */
+    boolean claim()
+    {
+      return _done.compareAndSet(false, true);
+    }
+  }
+
+  /**
+   * A Treiber stack of idle objects, most recently used on top.  Every node is claimed exactly
+   * once, either by {@link #pop()} or by {@link #reap}, so objects may be reaped from anywhere in
+   * the stack without detaching it; claimed nodes are unlinked lazily.  Only the head is ever
+   * compare-and-set, and nodes are never re-pushed, which keeps it free of ABA problems.
+   */
+  private static class IdleStack<T>
+  {
+    private final AtomicReference<Node<T>> _head = new AtomicReference<Node<T>>();
+    private final AtomicInteger _size = new AtomicInteger();
+
+    void push(T obj, long time)
+    {
+      Node<T> node = new Node<T>(obj, time);
+      do
+      {
+        node._next = _head.get();
+      }
+      while (!_head.compareAndSet(node._next, node));
+      _size.incrementAndGet();
+    }
+
+    T pop()
+    {
+      for (;;)
+      {
+        Node<T> head = _head.get();
+        if (head == null)
+        {
+          return null;
+        }
+        // A node claimed by reap() is skipped once it reaches the top
+        if (_head.compareAndSet(head, head._next) && head.claim())
+        {
+          _size.decrementAndGet();
+          return head._obj;
+        }
+      }
+    }
+
+    int size()
+    {
+      return _size.get();
+    }
+
+    /**
+     * Claims the objects idle since before {@code target}, moves them to {@code expired} and
+     * unlinks claimed nodes where it can.  Objects which are not expired stay visible to
+     * {@link #pop()} throughout.  Must not be called concurrently with itself.
+     */
+    void reap(long target, List<T> expired)
+    {
+      Node<T> prev = null;
+      for (Node<T> node = _head.get(); node != null; node = node._next)
+      {
+        if (node._time < target && node.claim())
+        {
+          _size.decrementAndGet();
+          expired.add(node._obj);
+        }
+        if (!node.isClaimed())
+        {
+          prev = node;
+        }
+        else if (prev != null)
+        {
+          // Only interior links are changed here, and claimed nodes keep their own links, so
+          // a concurrent pop() which has already read prev._next still reaches every live node
+          prev._next = node._next;
+        }
+        else if (!_head.compareAndSet(node, node._next))
+        {
+          // Something was pushed or popped meanwhile; leave this node for a later pass
+          prev = node;
+        }
+      }
+    }
+  }
+
+  private static class Node<T>
+  {
+    private final T _obj;
+    private final long _time;
+    private final AtomicBoolean _claimed = new AtomicBoolean();
+    private volatile Node<T> _next;
+
+    Node(T obj, long time)
+    {
+      _obj = obj;
+      _time = time;
+    }
+
+    boolean claim()
+    {
+      return _claimed.compareAndSet(false, true);
+    }
+
+    boolean isClaimed()
+    {
+      return _claimed.get();
+    }
+  }
+}
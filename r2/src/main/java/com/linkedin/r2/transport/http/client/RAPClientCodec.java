@@ -21,6 +21,9 @@
 package com.linkedin.r2.transport.http.client;
 
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.jboss.netty.buffer.ChannelBuffer;
@@ -94,7 +97,8 @@ class RAPClientCodec implements ChannelUpstreamHandler, ChannelDownstreamHandler
       }
 
       final ByteString entity = request.getEntity();
-      ChannelBuffer buf = ChannelBuffers.wrappedBuffer(entity.asByteBuffer());
+      List<ByteBuffer> buffers = entity.asByteBuffers();
+      ChannelBuffer buf = ChannelBuffers.wrappedBuffer(buffers.toArray(new ByteBuffer[buffers.size()]));
       nettyRequest.setContent(buf);
       nettyRequest.setHeader(HttpHeaders.Names.CONTENT_LENGTH, entity.length());
 
@@ -120,10 +124,10 @@ class RAPClientCodec implements ChannelUpstreamHandler, ChannelDownstreamHandler
         builder.unsafeAddHeaderValue(e.getKey(), e.getValue());
       }
 
+      // hand the content buffers over without copying them; Netty does not reuse them once the
+      // message has been decoded
       ChannelBuffer buf = nettyResponse.getContent();
-      byte[] array = new byte[buf.readableBytes()];
-      buf.readBytes(array);
-      builder.setEntity(array);
+      builder.setEntity(ByteString.unsafeWrap(Arrays.asList(buf.toByteBuffers())));
 
       return builder.build();
     }
@@ -73,12 +73,19 @@ import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
 
   private final int _port;
   private final int _threadPoolSize;
+  private final int _maxContentLength;
   private final HttpDispatcher _dispatcher;
 
   public HttpNettyServer(int port, int threadPoolSize, HttpDispatcher dispatcher)
+  {
+    this(port, threadPoolSize, HttpNettyServerFactory.DEFAULT_MAX_CONTENT_LENGTH, dispatcher);
+  }
+
+  public HttpNettyServer(int port, int threadPoolSize, int maxContentLength, HttpDispatcher dispatcher)
   {
     _port = port;
     _threadPoolSize = threadPoolSize;
+    _maxContentLength = maxContentLength;
     _dispatcher = dispatcher;
   }
 
@@ -99,7 +106,7 @@ import com.linkedin.r2.transport.common.bridge.common.TransportResponseImpl;
       {
         ChannelPipeline pipeline = Channels.pipeline();
         pipeline.addLast("decoder", new HttpRequestDecoder());
-        pipeline.addLast("aggregator", new HttpChunkAggregator(1048576));
+        pipeline.addLast("aggregator", new HttpChunkAggregator(_maxContentLength));
         pipeline.addLast("encoder", new HttpResponseEncoder());
         pipeline.addLast("rapi", new RAPServerCodec());
         pipeline.addLast("execution", _executionHandler);
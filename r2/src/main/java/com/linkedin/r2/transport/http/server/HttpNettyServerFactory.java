@@ -32,6 +32,7 @@ import com.linkedin.r2.transport.common.bridge.server.TransportDispatcher;
 public class HttpNettyServerFactory
 {
   public static final int DEFAULT_THREAD_POOL_SIZE = 256;
+  public static final int DEFAULT_MAX_CONTENT_LENGTH = 1048576;
   private final FilterChain _filters;
 
   public HttpNettyServerFactory()
@@ -50,9 +51,21 @@ public class HttpNettyServerFactory
   }
 
   public HttpServer createServer(int port, int threadPoolSize, TransportDispatcher transportDispatcher)
+  {
+    return createServer(port, threadPoolSize, DEFAULT_MAX_CONTENT_LENGTH, transportDispatcher);
+  }
+
+  /**
+   * Creates a server that accepts request entities of up to {@code maxContentLength} bytes.
+   * Larger requests are rejected by the transport before they are dispatched.
+   */
+  public HttpServer createServer(int port,
+                                 int threadPoolSize,
+                                 int maxContentLength,
+                                 TransportDispatcher transportDispatcher)
   {
     final TransportDispatcher filterDispatcher = new FilterChainDispatcher(transportDispatcher, _filters);
     final HttpDispatcher dispatcher = new HttpDispatcher(filterDispatcher);
-    return new HttpNettyServer(port, threadPoolSize, dispatcher);
+    return new HttpNettyServer(port, threadPoolSize, maxContentLength, dispatcher);
   }
 }
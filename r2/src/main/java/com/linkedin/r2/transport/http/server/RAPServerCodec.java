@@ -21,6 +21,9 @@
 package com.linkedin.r2.transport.http.server;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.jboss.netty.buffer.ChannelBuffer;
@@ -81,11 +84,9 @@ class RAPServerCodec implements ChannelUpstreamHandler, ChannelDownstreamHandler
       ChannelBuffer buf = nettyRequest.getContent();
       if (buf != null)
       {
-        if (buf.hasArray())
-        {
-          // TODO make a copy?
-          builder.setEntity(buf.array());
-        }
+        // hand the content buffers over without copying them; Netty does not reuse them once the
+        // message has been decoded
+        builder.setEntity(ByteString.unsafeWrap(Arrays.asList(buf.toByteBuffers())));
       }
 
       return builder.build();
@@ -109,7 +110,8 @@ class RAPServerCodec implements ChannelUpstreamHandler, ChannelDownstreamHandler
         nettyResponse.setHeader(e.getKey(), e.getValue());
       }
       final ByteString entity = response.getEntity();
-      ChannelBuffer buf = ChannelBuffers.wrappedBuffer(entity.asByteBuffer());
+      List<ByteBuffer> buffers = entity.asByteBuffers();
+      ChannelBuffer buf = ChannelBuffers.wrappedBuffer(buffers.toArray(new ByteBuffer[buffers.size()]));
       nettyResponse.setContent(buf);
       nettyResponse.setHeader(HttpHeaders.Names.CONTENT_LENGTH, entity.length());
 
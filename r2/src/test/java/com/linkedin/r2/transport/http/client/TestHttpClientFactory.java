@@ -184,6 +184,11 @@ public class TestHttpClientFactory
     Assert.assertEquals(client.getMaxResponseSize(), Integer.parseInt(maxResponse));
     Assert.assertEquals(client.getRequestTimeout(), Integer.parseInt(requestTimeout));
     Assert.assertEquals(client.getShutdownTimeout(), Integer.parseInt(shutdownTimeout));
+
+    //test selecting the lock-free connection pool
+    properties.put(HttpClientFactory.HTTP_POOL_TYPE, AsyncPoolType.LOCK_FREE.name().toLowerCase());
+    client = factory.getRawClient(properties);
+    Assert.assertEquals(client.getMaxResponseSize(), Integer.parseInt(maxResponse));
   }
 
   @Test
@@ -0,0 +1,423 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package test.r2.transport.http.client;
+
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.common.util.None;
+import com.linkedin.r2.SizeLimitExceededException;
+import com.linkedin.r2.transport.http.client.AsyncPool;
+import com.linkedin.r2.transport.http.client.AsyncPoolStats;
+import com.linkedin.r2.transport.http.client.LockFreeAsyncPoolImpl;
+import com.linkedin.r2.util.Cancellable;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for {@link LockFreeAsyncPoolImpl}.
+ */
+public class TestLockFreeAsyncPool
+{
+  private ScheduledExecutorService _executor = Executors.newSingleThreadScheduledExecutor();
+
+  @AfterClass
+  public void stopExecutor()
+  {
+    _executor.shutdown();
+  }
+
+  @Test
+  public void testMustStart() throws TimeoutException, InterruptedException
+  {
+    AsyncPool<Object> pool = new LockFreeAsyncPoolImpl<Object>("object pool",
+                                                               new TestAsyncPool.SynchronousLifecycle(),
+                                                               1,
+                                                               100,
+                                                               _executor);
+    FutureCallback<Object> cb = new FutureCallback<Object>();
+    pool.get(cb);
+    try
+    {
+      cb.get(30, TimeUnit.SECONDS);
+      Assert.fail("Get succeeded on pool not yet started");
+    }
+    catch (ExecutionException e)
+    {
+      // This is what we expect
+    }
+  }
+
+  @Test
+  public void testCreateAndReuse() throws Exception
+  {
+    TestAsyncPool.SynchronousLifecycle lifecycle = new TestAsyncPool.SynchronousLifecycle();
+    AsyncPool<Object> pool = new LockFreeAsyncPoolImpl<Object>("object pool",
+                                                               lifecycle,
+                                                               1,
+                                                               100,
+                                                               _executor);
+    pool.start();
+    FutureCallback<Object> cb = new FutureCallback<Object>();
+    pool.get(cb);
+    Object o = cb.get();
+    Assert.assertNotNull(o);
+    pool.put(o);
+
+    cb = new FutureCallback<Object>();
+    pool.get(cb);
+    Assert.assertSame(cb.get(), o);
+    Assert.assertEquals(lifecycle.getHighWaterMark(), 1);
+
+    AsyncPoolStats stats = pool.getStats();
+    Assert.assertEquals(stats.getTotalCreated(), 1);
+    Assert.assertEquals(stats.getCheckedOut(), 1);
+    Assert.assertEquals(stats.getPoolSize(), 1);
+  }
+
+  @Test
+  public void testMaxSize()
+  {
+    final int ITERATIONS = 1000;
+    final int THREADS = 100;
+    final int POOL_SIZE = 25;
+    final int DELAY = 1;
+    TestAsyncPool.SynchronousLifecycle lifecycle = new TestAsyncPool.SynchronousLifecycle();
+    final AsyncPool<Object> pool = new LockFreeAsyncPoolImpl<Object>("object pool",
+                                                                     lifecycle,
+                                                                     POOL_SIZE,
+                                                                     100,
+                                                                     _executor);
+    pool.start();
+
+    Runnable r = new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+          FutureCallback<Object> cb = new FutureCallback<Object>();
+          pool.get(cb);
+          try
+          {
+            Object o = cb.get(30, TimeUnit.SECONDS);
+            if (DELAY > 0)
+            {
+              Thread.sleep(DELAY);
+            }
+            pool.put(o);
+          }
+          catch (Exception e)
+          {
+            Assert.fail("Unexpected failure", e);
+          }
+        }
+      }
+    };
+    List<Thread> threads = new ArrayList<Thread>(THREADS);
+    for (int i = 0; i < THREADS; i++)
+    {
+      Thread t = new Thread(r);
+      t.start();
+      threads.add(t);
+    }
+    for (Thread t : threads)
+    {
+      try
+      {
+        t.join();
+      }
+      catch (InterruptedException e)
+      {
+        Assert.fail("Unexpected interruption", e);
+      }
+    }
+    Assert.assertTrue(lifecycle.getHighWaterMark() <= POOL_SIZE, "High water mark exceeded " + POOL_SIZE);
+    Assert.assertEquals(pool.getStats().getCheckedOut(), 0);
+  }
+
+  @Test
+  public void testMaxWaiters() throws Exception
+  {
+    AsyncPool<Object> pool = new LockFreeAsyncPoolImpl<Object>("object pool",
+                                                               new TestAsyncPool.SynchronousLifecycle(),
+                                                               1,
+                                                               100,
+                                                               _executor,
+                                                               _executor,
+                                                               1);
+    pool.start();
+    FutureCallback<Object> holder = new FutureCallback<Object>();
+    pool.get(holder);
+    Object o = holder.get();
+
+    FutureCallback<Object> waiter = new FutureCallback<Object>();
+    Assert.assertNotNull(pool.get(waiter));
+    FutureCallback<Object> rejected = new FutureCallback<Object>();
+    pool.get(rejected);
+    try
+    {
+      rejected.get(30, TimeUnit.SECONDS);
+      Assert.fail("Get succeeded with the waiter queue full");
+    }
+    catch (ExecutionException e)
+    {
+      Assert.assertTrue(e.getCause() instanceof SizeLimitExceededException);
+    }
+
+    pool.put(o);
+    Assert.assertSame(waiter.get(30, TimeUnit.SECONDS), o);
+  }
+
+  @Test
+  public void testCancelWaiter() throws Exception
+  {
+    AsyncPool<Object> pool = new LockFreeAsyncPoolImpl<Object>("object pool",
+                                                               new TestAsyncPool.SynchronousLifecycle(),
+                                                               1,
+                                                               100,
+                                                               _executor);
+    pool.start();
+    FutureCallback<Object> holder = new FutureCallback<Object>();
+    pool.get(holder);
+    Object o = holder.get();
+
+    FutureCallback<Object> cancelled = new FutureCallback<Object>();
+    Cancellable cancellable = pool.get(cancelled);
+    FutureCallback<Object> waiter = new FutureCallback<Object>();
+    pool.get(waiter);
+    Assert.assertTrue(cancellable.cancel());
+    Assert.assertFalse(cancellable.cancel());
+
+    pool.put(o);
+    Assert.assertSame(waiter.get(30, TimeUnit.SECONDS), o);
+    Assert.assertFalse(cancelled.isDone());
+    Assert.assertTrue(pool.cancelWaiters().isEmpty());
+  }
+
+  @Test
+  public void testCreateErrorDeniesWaiters() throws Exception
+  {
+    TestAsyncPool.UnreliableLifecycle lifecycle = new TestAsyncPool.UnreliableLifecycle();
+    AsyncPool<AtomicBoolean> pool = new LockFreeAsyncPoolImpl<AtomicBoolean>("object pool",
+                                                                             lifecycle,
+                                                                             1,
+                                                                             100,
+                                                                             _executor);
+    pool.start();
+    lifecycle.setFail(true);
+    FutureCallback<AtomicBoolean> cb = new FutureCallback<AtomicBoolean>();
+    pool.get(cb);
+    try
+    {
+      cb.get(30, TimeUnit.SECONDS);
+      Assert.fail("Get succeeded although object creation failed");
+    }
+    catch (ExecutionException e)
+    {
+      // This is what we expect
+    }
+    AsyncPoolStats stats = pool.getStats();
+    Assert.assertTrue(stats.getTotalCreateErrors() > 0);
+    Assert.assertEquals(stats.getPoolSize(), 0);
+
+    // A bad object returned to the pool is destroyed rather than handed out again
+    lifecycle.setFail(false);
+    cb = new FutureCallback<AtomicBoolean>();
+    pool.get(cb);
+    AtomicBoolean obj = cb.get(30, TimeUnit.SECONDS);
+    obj.set(false);
+    pool.put(obj);
+    stats = pool.getStats();
+    Assert.assertEquals(stats.getTotalBadDestroyed(), 1);
+    Assert.assertEquals(stats.getPoolSize(), 0);
+  }
+
+  @Test
+  public void testIdleTimeout() throws Exception
+  {
+    TestAsyncPool.SynchronousLifecycle lifecycle = new TestAsyncPool.SynchronousLifecycle();
+    AsyncPool<Object> pool = new LockFreeAsyncPoolImpl<Object>("object pool",
+                                                               lifecycle,
+                                                               5,
+                                                               100,
+                                                               _executor);
+    pool.start();
+    List<Object> objects = new ArrayList<Object>();
+    for (int i = 0; i < 5; i++)
+    {
+      FutureCallback<Object> cb = new FutureCallback<Object>();
+      pool.get(cb);
+      objects.add(cb.get());
+    }
+    for (Object o : objects)
+    {
+      pool.put(o);
+    }
+    Assert.assertEquals(lifecycle.getLive(), 5);
+
+    long deadline = System.currentTimeMillis() + 30000;
+    while (lifecycle.getLive() > 0 && System.currentTimeMillis() < deadline)
+    {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(lifecycle.getLive(), 0);
+    Assert.assertEquals(pool.getStats().getTotalTimedOut(), 5);
+  }
+
+  @Test
+  public void testIdleTimeoutReapsOnlyExpired() throws Exception
+  {
+    TimeoutCapturingExecutor executor = new TimeoutCapturingExecutor();
+    try
+    {
+      TestAsyncPool.SynchronousLifecycle lifecycle = new TestAsyncPool.SynchronousLifecycle();
+      AsyncPool<Object> pool = new LockFreeAsyncPoolImpl<Object>("object pool",
+                                                                 lifecycle,
+                                                                 4,
+                                                                 50,
+                                                                 executor);
+      pool.start();
+      List<Object> objects = new ArrayList<Object>();
+      for (int i = 0; i < 4; i++)
+      {
+        FutureCallback<Object> cb = new FutureCallback<Object>();
+        pool.get(cb);
+        objects.add(cb.get());
+      }
+      pool.put(objects.get(0));
+      pool.put(objects.get(1));
+      Thread.sleep(100);
+      pool.put(objects.get(2));
+      pool.put(objects.get(3));
+
+      executor.runTimeoutTask();
+      Assert.assertEquals(lifecycle.getLive(), 2);
+      Assert.assertEquals(pool.getStats().getTotalTimedOut(), 2);
+
+      // The objects which did not expire are still handed out without creating new ones
+      List<Object> reused = new ArrayList<Object>();
+      for (int i = 0; i < 2; i++)
+      {
+        FutureCallback<Object> cb = new FutureCallback<Object>();
+        pool.get(cb);
+        reused.add(cb.get());
+      }
+      Assert.assertTrue(reused.contains(objects.get(2)));
+      Assert.assertTrue(reused.contains(objects.get(3)));
+      Assert.assertEquals(pool.getStats().getTotalCreated(), 4);
+
+      for (Object o : reused)
+      {
+        pool.put(o);
+      }
+      FutureCallback<None> shutdown = new FutureCallback<None>();
+      pool.shutdown(shutdown);
+      shutdown.get(30, TimeUnit.SECONDS);
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testShutdown() throws Exception
+  {
+    final int POOL_SIZE = 25;
+    TestAsyncPool.SynchronousLifecycle lifecycle = new TestAsyncPool.SynchronousLifecycle();
+    final AsyncPool<Object> pool = new LockFreeAsyncPoolImpl<Object>("object pool",
+                                                                     lifecycle,
+                                                                     POOL_SIZE,
+                                                                     100,
+                                                                     _executor);
+    pool.start();
+
+    List<Object> objects = new ArrayList<Object>(POOL_SIZE);
+    for (int i = 0; i < POOL_SIZE; i++)
+    {
+      FutureCallback<Object> cb = new FutureCallback<Object>();
+      pool.get(cb);
+      Object o = cb.get();
+      Assert.assertNotNull(o);
+      objects.add(o);
+    }
+    FutureCallback<None> shutdown = new FutureCallback<None>();
+    pool.shutdown(shutdown);
+
+    FutureCallback<None> secondShutdown = new FutureCallback<None>();
+    pool.shutdown(secondShutdown);
+    try
+    {
+      secondShutdown.get(30, TimeUnit.SECONDS);
+      Assert.fail("Pool shut down twice");
+    }
+    catch (ExecutionException e)
+    {
+      // This is what we expect
+    }
+
+    for (Object o : objects)
+    {
+      Assert.assertFalse(shutdown.isDone(), "Pool shutdown with objects checked out");
+      pool.put(o);
+    }
+    shutdown.get(30, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Holds on to the pool's idle timeout task so the test can run it at a chosen moment.
+   */
+  private static class TimeoutCapturingExecutor extends ScheduledThreadPoolExecutor
+  {
+    private volatile Runnable _timeoutTask;
+
+    TimeoutCapturingExecutor()
+    {
+      super(1);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit)
+    {
+      _timeoutTask = command;
+      return super.schedule(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+        }
+      }, 1, TimeUnit.DAYS);
+    }
+
+    void runTimeoutTask()
+    {
+      _timeoutTask.run();
+    }
+  }
+}
@@ -0,0 +1,536 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.data.codec.JacksonDataCodec;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.common.ComplexResourceKey;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.common.TypeSpec;
+import com.linkedin.restli.internal.client.BatchKVResponseDecoder;
+import com.linkedin.restli.internal.client.ResponseFutureImpl;
+import com.linkedin.restli.internal.client.ResponseImpl;
+import com.linkedin.restli.internal.common.HeaderUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Wrapper around {@link RestClient} that coalesces concurrent single key GET requests into BATCH_GET requests.
+ *
+ * {@link GetRequest}s for the same resource, with identical path keys, query parameters (including the projection),
+ * headers and request options are held for up to the configured window, or until the configured number of distinct
+ * keys has been collected, and then sent as one BATCH_GET. Each caller is completed from the slot of its key in the
+ * batch response: with the entity if the key is among the results, with a {@link RestLiResponseException} built from
+ * the {@link ErrorResponse} if the key is among the errors, and with a 404 {@link RestLiResponseException} if the key
+ * is in neither. A failure of the batch request as a whole is delivered to every caller in the batch.
+ *
+ * Requests which cannot be coalesced are passed to the wrapped client unchanged. These are all requests other than
+ * GETs, GETs on resources which do not support BATCH_GET, GETs for complex keys, and GETs sent with a
+ * {@link RequestContext} that has local attributes, since one context cannot stand in for several callers. If only one
+ * distinct key has been collected when the window closes, the original GET is sent.
+ */
+public class CoalescingRestClient
+{
+  private static final JacksonDataCodec JACKSON_DATA_CODEC = new JacksonDataCodec();
+
+  private final RestClient               _wrappedClient;
+  private final ScheduledExecutorService _scheduler;
+  private final long                     _windowNanos;
+  private final int                      _maxBatchSize;
+
+  private final Object                          _lock = new Object();
+  private final Map<BatchKey, PendingBatch<?>>  _pending = new HashMap<BatchKey, PendingBatch<?>>();
+
+  /**
+   * @param wrappedClient client used to send the requests
+   * @param scheduler executor used to close the coalescing window
+   * @param window how long a GET may wait for other GETs to join its batch
+   * @param unit unit of {@code window}
+   * @param maxBatchSize number of distinct keys at which a batch is sent without waiting for the window to close
+   */
+  public CoalescingRestClient(RestClient wrappedClient,
+                              ScheduledExecutorService scheduler,
+                              long window,
+                              TimeUnit unit,
+                              int maxBatchSize)
+  {
+    if (window < 0)
+    {
+      throw new IllegalArgumentException("window must not be negative: " + window);
+    }
+    if (maxBatchSize < 1)
+    {
+      throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+    }
+
+    _wrappedClient = wrappedClient;
+    _scheduler = scheduler;
+    _windowNanos = unit.toNanos(window);
+    _maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Sends a type-bound REST request, returning a future.
+   *
+   * @param request to send
+   * @return response future
+   */
+  public <T> ResponseFuture<T> sendRequest(Request<T> request)
+  {
+    return sendRequest(request, new RequestContext());
+  }
+
+  /**
+   * Sends a type-bound REST request, returning a future.
+   *
+   * @param request to send
+   * @param errorHandlingBehavior error handling behavior
+   * @return response future
+   */
+  public <T> ResponseFuture<T> sendRequest(Request<T> request, ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    return sendRequest(request, new RequestContext(), errorHandlingBehavior);
+  }
+
+  /**
+   * Sends a type-bound REST request, returning a future.
+   *
+   * @param request to send
+   * @param requestContext context for the request
+   * @return response future
+   */
+  public <T> ResponseFuture<T> sendRequest(Request<T> request, RequestContext requestContext)
+  {
+    FutureCallback<Response<T>> callback = new FutureCallback<Response<T>>();
+    sendRequest(request, requestContext, callback);
+    return new ResponseFutureImpl<T>(callback);
+  }
+
+  /**
+   * Sends a type-bound REST request, returning a future.
+   *
+   * @param request to send
+   * @param requestContext context for the request
+   * @param errorHandlingBehavior error handling behavior
+   * @return response future
+   */
+  public <T> ResponseFuture<T> sendRequest(Request<T> request,
+                                           RequestContext requestContext,
+                                           ErrorHandlingBehavior errorHandlingBehavior)
+  {
+    FutureCallback<Response<T>> callback = new FutureCallback<Response<T>>();
+    sendRequest(request, requestContext, callback);
+    return new ResponseFutureImpl<T>(callback, errorHandlingBehavior);
+  }
+
+  /**
+   * Sends a type-bound REST request using a callback.
+   *
+   * @param request to send
+   * @param callback to call on request completion
+   */
+  public <T> void sendRequest(Request<T> request, Callback<Response<T>> callback)
+  {
+    sendRequest(request, new RequestContext(), callback);
+  }
+
+  /**
+   * Sends a type-bound REST request using a callback.
+   *
+   * @param request to send
+   * @param requestContext context for the request
+   * @param callback to call on request completion. In the event of an error, the callback
+   *                 will receive a {@link com.linkedin.r2.RemoteInvocationException}. If a valid
+   *                 error response was received for the key of a coalesced GET, the callback will
+   *                 receive a {@link RestLiResponseException} containing the error details.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public <T> void sendRequest(Request<T> request, RequestContext requestContext, Callback<Response<T>> callback)
+  {
+    if (request instanceof GetRequest && isCoalescable((GetRequest<?>) request, requestContext))
+    {
+      enqueue((GetRequest) request, (Callback) callback);
+    }
+    else
+    {
+      _wrappedClient.sendRequest(request, requestContext, callback);
+    }
+  }
+
+  /**
+   * Sends all pending batches without waiting for their windows to close.
+   */
+  public void flush()
+  {
+    List<PendingBatch<?>> batches;
+    synchronized (_lock)
+    {
+      batches = new ArrayList<PendingBatch<?>>(_pending.values());
+      _pending.clear();
+    }
+
+    for (PendingBatch<?> batch : batches)
+    {
+      batch.cancelTimer();
+      batch.send();
+    }
+  }
+
+  private static boolean isCoalescable(GetRequest<?> request, RequestContext requestContext)
+  {
+    if (request.hasUri() || request.getBaseUriTemplate() == null)
+    {
+      return false;
+    }
+
+    final Object id = request.getObjectId();
+    if (id == null || id instanceof ComplexResourceKey)
+    {
+      return false;
+    }
+
+    final ResourceSpec resourceSpec = request.getResourceSpec();
+    return resourceSpec != null &&
+        resourceSpec.getKeyType() != null &&
+        resourceSpec.getSupportedMethods().contains(ResourceMethod.BATCH_GET) &&
+        requestContext.getLocalAttrs().isEmpty();
+  }
+
+  private <T extends RecordTemplate> void enqueue(GetRequest<T> request, Callback<Response<T>> callback)
+  {
+    final BatchKey key = new BatchKey(request);
+    final PendingBatch<T> full;
+
+    synchronized (_lock)
+    {
+      @SuppressWarnings("unchecked")
+      PendingBatch<T> batch = (PendingBatch<T>) _pending.get(key);
+      final boolean created = (batch == null);
+      if (created)
+      {
+        batch = new PendingBatch<T>(key, request);
+        _pending.put(key, batch);
+      }
+
+      batch.add(request.getObjectId(), callback);
+
+      if (batch.size() >= _maxBatchSize)
+      {
+        _pending.remove(key);
+        full = batch;
+      }
+      else
+      {
+        if (created)
+        {
+          batch.setTimer(_scheduler.schedule(batch, _windowNanos, TimeUnit.NANOSECONDS));
+        }
+        full = null;
+      }
+    }
+
+    if (full != null)
+    {
+      full.cancelTimer();
+      full.send();
+    }
+  }
+
+  private static RestLiResponseException createException(Response<?> batchResponse, Object id, ErrorResponse error)
+  {
+    if (error == null)
+    {
+      error = new ErrorResponse();
+      error.setStatus(HttpStatus.S_404_NOT_FOUND.getCode());
+      error.setMessage("No result or error for key " + id + " in batch response");
+    }
+
+    final Map<String, String> headers = new HashMap<String, String>(batchResponse.getHeaders());
+    headers.put(HeaderUtil.getErrorResponseHeaderName(headers), RestConstants.HEADER_VALUE_ERROR);
+    headers.put(RestConstants.HEADER_CONTENT_TYPE, RestConstants.HEADER_VALUE_APPLICATION_JSON);
+
+    final RestResponseBuilder builder = new RestResponseBuilder()
+        .setStatus(error.hasStatus() ? error.getStatus() : HttpStatus.S_500_INTERNAL_SERVER_ERROR.getCode())
+        .setHeaders(headers);
+    try
+    {
+      builder.setEntity(JACKSON_DATA_CODEC.mapToBytes(error.data()));
+    }
+    catch (IOException e)
+    {
+      throw new IllegalStateException(e);
+    }
+
+    final RestResponse rawResponse = builder.build();
+    return new RestLiResponseException(rawResponse, null, error);
+  }
+
+  /**
+   * Identifies the GETs which may share a BATCH_GET: everything about the request other than its key.
+   */
+  private static final class BatchKey
+  {
+    private final Class<?>            _entityClass;
+    private final String              _baseUriTemplate;
+    private final Map<String, Object> _pathKeys;
+    private final ResourceSpec        _resourceSpec;
+    private final Map<String, Object> _queryParams;
+    private final Map<String, String> _headers;
+    private final RestliRequestOptions _requestOptions;
+    private final int                 _hashCode;
+
+    private BatchKey(GetRequest<?> request)
+    {
+      _entityClass = request.getEntityClass();
+      _baseUriTemplate = request.getBaseUriTemplate();
+      _pathKeys = request.getPathKeys();
+      _resourceSpec = request.getResourceSpec();
+      _queryParams = request.getQueryParamsObjects();
+      _headers = request.getHeaders();
+      _requestOptions = request.getRequestOptions();
+
+      int hashCode = _entityClass.hashCode();
+      hashCode = 31 * hashCode + _baseUriTemplate.hashCode();
+      hashCode = 31 * hashCode + (_pathKeys != null ? _pathKeys.hashCode() : 0);
+      hashCode = 31 * hashCode + _resourceSpec.hashCode();
+      hashCode = 31 * hashCode + (_queryParams != null ? _queryParams.hashCode() : 0);
+      hashCode = 31 * hashCode + (_headers != null ? _headers.hashCode() : 0);
+      hashCode = 31 * hashCode + _requestOptions.hashCode();
+      _hashCode = hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (this == obj)
+      {
+        return true;
+      }
+      if (!(obj instanceof BatchKey))
+      {
+        return false;
+      }
+
+      BatchKey other = (BatchKey) obj;
+      return _hashCode == other._hashCode &&
+          _entityClass.equals(other._entityClass) &&
+          _baseUriTemplate.equals(other._baseUriTemplate) &&
+          (_pathKeys != null ? _pathKeys.equals(other._pathKeys) : other._pathKeys == null) &&
+          _resourceSpec.equals(other._resourceSpec) &&
+          (_queryParams != null ? _queryParams.equals(other._queryParams) : other._queryParams == null) &&
+          (_headers != null ? _headers.equals(other._headers) : other._headers == null) &&
+          _requestOptions.equals(other._requestOptions);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return _hashCode;
+    }
+  }
+
+  /**
+   * GETs collected for one {@link BatchKey}, by key. Several callers may wait on the same key.
+   */
+  private final class PendingBatch<T extends RecordTemplate> implements Runnable
+  {
+    private final BatchKey _key;
+    private final GetRequest<T> _first;
+    private final Map<Object, List<Callback<Response<T>>>> _callbacks =
+        new LinkedHashMap<Object, List<Callback<Response<T>>>>();
+    private ScheduledFuture<?> _timer;
+
+    private PendingBatch(BatchKey key, GetRequest<T> first)
+    {
+      _key = key;
+      _first = first;
+    }
+
+    private void add(Object id, Callback<Response<T>> callback)
+    {
+      List<Callback<Response<T>>> callbacks = _callbacks.get(id);
+      if (callbacks == null)
+      {
+        callbacks = new ArrayList<Callback<Response<T>>>(1);
+        _callbacks.put(id, callbacks);
+      }
+      callbacks.add(callback);
+    }
+
+    private int size()
+    {
+      return _callbacks.size();
+    }
+
+    private void setTimer(ScheduledFuture<?> timer)
+    {
+      _timer = timer;
+    }
+
+    private void cancelTimer()
+    {
+      if (_timer != null)
+      {
+        _timer.cancel(false);
+      }
+    }
+
+    @Override
+    public void run()
+    {
+      synchronized (_lock)
+      {
+        // the batch may have been sent already because it filled up or was flushed
+        if (_pending.get(_key) != this)
+        {
+          return;
+        }
+        _pending.remove(_key);
+      }
+      send();
+    }
+
+    private void send()
+    {
+      if (_callbacks.size() == 1)
+      {
+        final List<Callback<Response<T>>> callbacks = _callbacks.values().iterator().next();
+        _wrappedClient.sendRequest(_first, new RequestContext(), new Callback<Response<T>>()
+        {
+          @Override
+          public void onSuccess(Response<T> result)
+          {
+            complete(callbacks, result, result.getEntity());
+          }
+
+          @Override
+          public void onError(Throwable e)
+          {
+            fail(callbacks, e);
+          }
+        });
+        return;
+      }
+
+      _wrappedClient.sendRequest(createBatchRequest(), new RequestContext(),
+                                 new Callback<Response<BatchKVResponse<Object, T>>>()
+      {
+        @Override
+        public void onSuccess(Response<BatchKVResponse<Object, T>> result)
+        {
+          final Map<Object, T> results = result.getEntity().getResults();
+          final Map<Object, ErrorResponse> errors = result.getEntity().getErrors();
+          for (Map.Entry<Object, List<Callback<Response<T>>>> entry : _callbacks.entrySet())
+          {
+            final T entity = results.get(entry.getKey());
+            if (entity != null)
+            {
+              complete(entry.getValue(), result, entity);
+            }
+            else
+            {
+              fail(entry.getValue(), createException(result, entry.getKey(), errors.get(entry.getKey())));
+            }
+          }
+        }
+
+        @Override
+        public void onError(Throwable e)
+        {
+          for (List<Callback<Response<T>>> callbacks : _callbacks.values())
+          {
+            fail(callbacks, e);
+          }
+        }
+      });
+    }
+
+    private BatchGetKVRequest<Object, T> createBatchRequest()
+    {
+      final ResourceSpec resourceSpec = _first.getResourceSpec();
+
+      final Map<String, Object> queryParams = new HashMap<String, Object>(_first.getQueryParamsObjects());
+      queryParams.put(RestConstants.QUERY_BATCH_IDS_PARAM, new HashSet<Object>(_callbacks.keySet()));
+
+      // the key type comes from the same ResourceSpec the GET requests were built with
+      @SuppressWarnings("unchecked")
+      final BatchKVResponseDecoder<Object, T> decoder =
+          new BatchKVResponseDecoder<Object, T>(new TypeSpec<T>(_first.getEntityClass()),
+                                                (TypeSpec<Object>) resourceSpec.getKeyType(),
+                                                resourceSpec.getKeyParts(),
+                                                resourceSpec.getComplexKeyType());
+
+      return new BatchGetKVRequest<Object, T>(ResourceMethod.BATCH_GET,
+                                              _first.getHeaders(),
+                                              decoder,
+                                              queryParams,
+                                              resourceSpec,
+                                              _first.getBaseUriTemplate(),
+                                              _first.getPathKeys(),
+                                              _first.getRequestOptions());
+    }
+
+    private void complete(List<Callback<Response<T>>> callbacks, Response<?> response, T entity)
+    {
+      for (int i = 0; i < callbacks.size(); i++)
+      {
+        final Callback<Response<T>> callback = callbacks.get(i);
+        final T copy;
+        try
+        {
+          // callers waiting on the same key each get their own entity
+          copy = (i == 0 || entity == null) ? entity : _first.getEntityClass().cast(entity.copy());
+        }
+        catch (CloneNotSupportedException e)
+        {
+          callback.onError(e);
+          continue;
+        }
+        callback.onSuccess(new ResponseImpl<T>(response, copy));
+      }
+    }
+
+    private void fail(List<Callback<Response<T>>> callbacks, Throwable e)
+    {
+      for (Callback<Response<T>> callback : callbacks)
+      {
+        callback.onError(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,329 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.JacksonDataCodec;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.r2.message.rest.RestResponse;
+import com.linkedin.restli.client.test.TestRecord;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.common.ResourceSpecImpl;
+import com.linkedin.restli.common.RestConstants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class TestCoalescingRestClient
+{
+  private static final ResourceSpec RESOURCE_SPEC =
+      new ResourceSpecImpl(EnumSet.of(ResourceMethod.GET, ResourceMethod.BATCH_GET),
+                           Long.class,
+                           TestRecord.class,
+                           Collections.<String, Object>emptyMap());
+
+  private ScheduledExecutorService _scheduler;
+
+  @BeforeClass
+  public void setUp()
+  {
+    _scheduler = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @AfterClass
+  public void tearDown()
+  {
+    _scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testCoalesce() throws Exception
+  {
+    BatchGetClient client = new BatchGetClient();
+    client.addResult(1L, "one");
+    client.addResult(2L, "two");
+    CoalescingRestClient coalescing = createClient(client, TimeUnit.HOURS.toMillis(1), 10);
+
+    ResponseFuture<TestRecord> future1 = coalescing.sendRequest(get(1L));
+    ResponseFuture<TestRecord> future2 = coalescing.sendRequest(get(2L));
+    ResponseFuture<TestRecord> future3 = coalescing.sendRequest(get(2L));
+    Assert.assertTrue(client.getRequests().isEmpty());
+
+    coalescing.flush();
+
+    Assert.assertEquals(client.getRequests().size(), 1);
+    Assert.assertTrue(client.getRequests().get(0).getURI().toString().contains(RestConstants.QUERY_BATCH_IDS_PARAM));
+    Assert.assertEquals(future1.getResponseEntity().getMessage(), "one");
+    Assert.assertEquals(future2.getResponseEntity().getMessage(), "two");
+    Assert.assertEquals(future3.getResponseEntity(), future2.getResponseEntity());
+    Assert.assertNotSame(future3.getResponseEntity(), future2.getResponseEntity());
+    Assert.assertEquals(future1.getResponse().getStatus(), 200);
+  }
+
+  @Test
+  public void testErrorsMapToKeys() throws Exception
+  {
+    BatchGetClient client = new BatchGetClient();
+    client.addResult(1L, "one");
+    client.addError(2L, 500, "boom");
+    CoalescingRestClient coalescing = createClient(client, TimeUnit.HOURS.toMillis(1), 10);
+
+    ResponseFuture<TestRecord> future1 = coalescing.sendRequest(get(1L));
+    ResponseFuture<TestRecord> future2 = coalescing.sendRequest(get(2L));
+    ResponseFuture<TestRecord> future3 = coalescing.sendRequest(get(3L));
+    coalescing.flush();
+
+    Assert.assertEquals(client.getRequests().size(), 1);
+    Assert.assertEquals(future1.getResponseEntity().getMessage(), "one");
+
+    try
+    {
+      future2.getResponse();
+      Assert.fail("expected RestLiResponseException");
+    }
+    catch (RestLiResponseException e)
+    {
+      Assert.assertEquals(e.getStatus(), 500);
+      Assert.assertEquals(e.getServiceErrorMessage(), "boom");
+    }
+
+    try
+    {
+      future3.getResponse();
+      Assert.fail("expected RestLiResponseException");
+    }
+    catch (RestLiResponseException e)
+    {
+      Assert.assertEquals(e.getStatus(), 404);
+    }
+
+    ResponseFuture<TestRecord> future4 = coalescing.sendRequest(get(1L));
+    ResponseFuture<TestRecord> future5 = coalescing.sendRequest(get(2L), ErrorHandlingBehavior.TREAT_SERVER_ERROR_AS_SUCCESS);
+    coalescing.flush();
+    Assert.assertEquals(future4.getResponseEntity().getMessage(), "one");
+    Response<TestRecord> response = future5.getResponse();
+    Assert.assertEquals(response.getStatus(), 500);
+    Assert.assertTrue(response.hasError());
+  }
+
+  @Test
+  public void testMaxBatchSize() throws Exception
+  {
+    BatchGetClient client = new BatchGetClient();
+    client.addResult(1L, "one");
+    client.addResult(2L, "two");
+    client.addResult(3L, "three");
+    CoalescingRestClient coalescing = createClient(client, TimeUnit.HOURS.toMillis(1), 2);
+
+    ResponseFuture<TestRecord> future1 = coalescing.sendRequest(get(1L));
+    ResponseFuture<TestRecord> future2 = coalescing.sendRequest(get(1L));
+    Assert.assertTrue(client.getRequests().isEmpty());
+    ResponseFuture<TestRecord> future3 = coalescing.sendRequest(get(2L));
+    Assert.assertEquals(client.getRequests().size(), 1);
+
+    Assert.assertEquals(future1.getResponseEntity().getMessage(), "one");
+    Assert.assertEquals(future2.getResponseEntity().getMessage(), "one");
+    Assert.assertEquals(future3.getResponseEntity().getMessage(), "two");
+
+    coalescing.sendRequest(get(3L));
+    Assert.assertEquals(client.getRequests().size(), 1);
+  }
+
+  @Test
+  public void testWindow() throws Exception
+  {
+    BatchGetClient client = new BatchGetClient();
+    client.addResult(1L, "one");
+    client.addResult(2L, "two");
+    CoalescingRestClient coalescing = createClient(client, 10, 100);
+
+    ResponseFuture<TestRecord> future1 = coalescing.sendRequest(get(1L));
+    ResponseFuture<TestRecord> future2 = coalescing.sendRequest(get(2L));
+
+    Assert.assertEquals(future1.getResponseEntity(5, TimeUnit.SECONDS).getMessage(), "one");
+    Assert.assertEquals(future2.getResponseEntity(5, TimeUnit.SECONDS).getMessage(), "two");
+    Assert.assertEquals(client.getRequests().size(), 1);
+  }
+
+  @Test
+  public void testSingleKeySendsGet() throws Exception
+  {
+    BatchGetClient client = new BatchGetClient();
+    client.addResult(1L, "one");
+    CoalescingRestClient coalescing = createClient(client, TimeUnit.HOURS.toMillis(1), 10);
+
+    ResponseFuture<TestRecord> future1 = coalescing.sendRequest(get(1L));
+    ResponseFuture<TestRecord> future2 = coalescing.sendRequest(get(1L));
+    coalescing.flush();
+
+    Assert.assertEquals(client.getRequests().size(), 1);
+    Assert.assertFalse(client.getRequests().get(0).getURI().toString().contains(RestConstants.QUERY_BATCH_IDS_PARAM));
+    Assert.assertEquals(future1.getResponseEntity().getMessage(), "one");
+    Assert.assertEquals(future2.getResponseEntity().getMessage(), "one");
+    Assert.assertNotSame(future1.getResponseEntity(), future2.getResponseEntity());
+  }
+
+  @Test
+  public void testNotCoalesced() throws Exception
+  {
+    BatchGetClient client = new BatchGetClient();
+    client.addResult(1L, "one");
+    client.addResult(2L, "two");
+    CoalescingRestClient coalescing = createClient(client, TimeUnit.HOURS.toMillis(1), 10);
+
+    // a context with local attributes is passed through immediately
+    RequestContext requestContext = new RequestContext();
+    requestContext.putLocalAttr("attr", "value");
+    ResponseFuture<TestRecord> future1 = coalescing.sendRequest(get(1L), requestContext);
+    Assert.assertEquals(client.getRequests().size(), 1);
+    Assert.assertEquals(future1.getResponseEntity().getMessage(), "one");
+
+    // resources without BATCH_GET are passed through immediately
+    GetRequest<TestRecord> noBatchGet =
+        new GetRequestBuilder<Long, TestRecord>("foo",
+                                                TestRecord.class,
+                                                new ResourceSpecImpl(EnumSet.of(ResourceMethod.GET),
+                                                                     Long.class,
+                                                                     TestRecord.class,
+                                                                     Collections.<String, Object>emptyMap()),
+                                                RestliRequestOptions.DEFAULT_OPTIONS).id(2L).build();
+    coalescing.sendRequest(noBatchGet);
+    Assert.assertEquals(client.getRequests().size(), 2);
+
+    // different parameters go into different batches
+    GetRequest<TestRecord> withParam =
+        new GetRequestBuilder<Long, TestRecord>("foo", TestRecord.class, RESOURCE_SPEC, RestliRequestOptions.DEFAULT_OPTIONS)
+            .id(2L).setParam("p", "v").build();
+    ResponseFuture<TestRecord> future2 = coalescing.sendRequest(get(1L));
+    ResponseFuture<TestRecord> future3 = coalescing.sendRequest(withParam);
+    coalescing.flush();
+    Assert.assertEquals(client.getRequests().size(), 4);
+    Assert.assertEquals(future2.getResponseEntity().getMessage(), "one");
+    Assert.assertEquals(future3.getResponseEntity().getMessage(), "two");
+  }
+
+  private CoalescingRestClient createClient(BatchGetClient client, long windowMillis, int maxBatchSize)
+  {
+    return new CoalescingRestClient(new RestClient(client, "http://localhost/"),
+                                    _scheduler,
+                                    windowMillis,
+                                    TimeUnit.MILLISECONDS,
+                                    maxBatchSize);
+  }
+
+  private static GetRequest<TestRecord> get(long id)
+  {
+    return new GetRequestBuilder<Long, TestRecord>("foo", TestRecord.class, RESOURCE_SPEC, RestliRequestOptions.DEFAULT_OPTIONS)
+        .id(id)
+        .build();
+  }
+
+  /**
+   * Answers GETs and BATCH_GETs on a resource of {@link TestRecord}s from fixed results and errors.
+   */
+  private static class BatchGetClient extends MockClient
+  {
+    private final List<RestRequest> _requests = Collections.synchronizedList(new ArrayList<RestRequest>());
+    private final DataMap _results = new DataMap();
+    private final DataMap _errors = new DataMap();
+    private RestRequest _request;
+
+    private BatchGetClient()
+    {
+      super(200, Collections.<String, String>emptyMap(), new byte[0]);
+    }
+
+    private void addResult(long id, String message)
+    {
+      _results.put(String.valueOf(id), new TestRecord().setId(id).setMessage(message).data());
+    }
+
+    private void addError(long id, int status, String message)
+    {
+      _errors.put(String.valueOf(id), new ErrorResponse().setStatus(status).setMessage(message).data());
+    }
+
+    private List<RestRequest> getRequests()
+    {
+      return _requests;
+    }
+
+    @Override
+    public synchronized void restRequest(RestRequest request, RequestContext requestContext,
+                                         Callback<RestResponse> callback)
+    {
+      _requests.add(request);
+      _request = request;
+      super.restRequest(request, requestContext, callback);
+    }
+
+    @Override
+    protected Map<String, String> headers()
+    {
+      Map<String, String> headers = new HashMap<String, String>();
+      headers.put(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION,
+                  _request.getHeader(RestConstants.HEADER_RESTLI_PROTOCOL_VERSION));
+      return headers;
+    }
+
+    @Override
+    protected byte[] body()
+    {
+      DataMap body;
+      String path = _request.getURI().getPath();
+      if (_request.getURI().toString().contains(RestConstants.QUERY_BATCH_IDS_PARAM))
+      {
+        body = new DataMap();
+        body.put(BatchResponse.RESULTS, _results);
+        body.put(BatchResponse.ERRORS, _errors);
+      }
+      else
+      {
+        body = (DataMap) _results.get(path.substring(path.lastIndexOf('/') + 1));
+      }
+
+      try
+      {
+        return new JacksonDataCodec().mapToBytes(body);
+      }
+      catch (IOException e)
+      {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
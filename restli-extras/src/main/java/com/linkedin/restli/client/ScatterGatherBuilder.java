@@ -99,6 +99,46 @@ public class ScatterGatherBuilder<T extends RecordTemplate>
     return new ScatterGatherResult<T>(scatterGatherRequests, mapKeyResult.getUnmappedKeys());
   }
 
+  public <K> KVScatterGatherResult<K, T> buildRequests(BatchGetKVRequest<K, T> request, RequestContext requestContext) throws
+    ServiceUnavailableException
+  {
+    Set<Object> idObjects = request.getObjectIds();
+    Collection<K> ids = new HashSet<K>(idObjects.size());
+    for (Object o : idObjects)
+    {
+      @SuppressWarnings("unchecked")
+      K k = (K) o;
+      ids.add(k);
+    }
+
+    MapKeyResult<URI, K> mapKeyResult = mapKeys(request, ids);
+    Map<URI, Collection<K>> batches = mapKeyResult.getMapResult();
+    Collection<KVRequestInfo<K, T>> scatterGatherRequests = new ArrayList<KVRequestInfo<K, T>>(batches.size());
+
+    @SuppressWarnings("unchecked")
+    Class<T> valueClass = (Class<T>) request.getResourceSpec().getValueClass();
+    for (Map.Entry<URI, Collection<K>> batch : batches.entrySet())
+    {
+      BatchGetRequestBuilder<K, T> builder = new BatchGetRequestBuilder<K, T>(request.getBaseUriTemplate(),
+                                                                              valueClass,
+                                                                              request.getResourceSpec(),
+                                                                              request.getRequestOptions());
+      builder.ids(batch.getValue());
+      builder.fields(request.getFields().toArray(new PathSpec[0]));
+      for (Map.Entry<String,String> header : request.getHeaders().entrySet())
+      {
+        builder.setHeader(header.getKey(), header.getValue());
+      }
+
+      RequestContext context = requestContext.clone();
+      KeyMapper.TargetHostHints.setRequestContextTargetHost(context, batch.getKey());
+
+      scatterGatherRequests.add(new KVRequestInfo<K, T>(builder.buildKV(), context));
+    }
+
+    return new KVScatterGatherResult<K, T>(scatterGatherRequests, mapKeyResult.getUnmappedKeys());
+  }
+
   public <K> KVScatterGatherResult<K, UpdateStatus> buildRequests(BatchUpdateRequest<K, T> request, RequestContext requestContext) throws
     ServiceUnavailableException
   {
@@ -0,0 +1,500 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.d2.balancer.KeyMapper;
+import com.linkedin.d2.balancer.ServiceUnavailableException;
+import com.linkedin.d2.balancer.util.MapKeyResult;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.template.DataTemplateUtil;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.ComplexResourceKey;
+import com.linkedin.restli.common.CompoundKey;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceSpec;
+import com.linkedin.restli.common.TypeSpec;
+import com.linkedin.restli.internal.client.ResponseFutureImpl;
+import com.linkedin.restli.internal.client.ResponseImpl;
+import com.linkedin.restli.internal.common.URLEscaper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Sends a {@link BatchGetRequest} or {@link BatchGetKVRequest} as one request per partition, as mapped by a
+ * {@link KeyMapper}, and gathers the partition responses into a single {@link BatchResponse} or
+ * {@link BatchKVResponse}.
+ *
+ * All partition requests are sent at once and their results and errors are merged into one {@link DataMap} as each
+ * response arrives, so the gathered response is only wrapped once. A single deadline covers the whole batch.
+ *
+ * With {@link FailureMode#FAIL_FAST} the callback receives the first failure: a partition request failing, a key
+ * which cannot be mapped to a host, or the deadline passing. With {@link FailureMode#PARTIAL_RESULTS} the callback
+ * always receives a response; the keys of a failed partition get an {@link ErrorResponse} with the status of the
+ * failure, unmapped keys get a 503 and the keys of partitions still outstanding at the deadline get a 504.
+ *
+ * @param <T> entity template class
+ */
+public class ScatterGatherExecutor<T extends RecordTemplate>
+{
+  public enum FailureMode
+  {
+    FAIL_FAST,
+    PARTIAL_RESULTS
+  }
+
+  private final RestClient               _client;
+  private final ScatterGatherBuilder<T>  _builder;
+  private final ScheduledExecutorService _scheduler;
+
+  /**
+   * @param client client used to send the partition requests
+   * @param mapper maps the keys of a request to hosts
+   * @param scheduler executor used to enforce the deadline
+   */
+  public ScatterGatherExecutor(RestClient client, KeyMapper mapper, ScheduledExecutorService scheduler)
+  {
+    _client = client;
+    _builder = new ScatterGatherBuilder<T>(mapper);
+    _scheduler = scheduler;
+  }
+
+  /**
+   * Sends the partition requests of a batch get, returning a future for the gathered response.
+   *
+   * @param request batch get to scatter
+   * @param requestContext context copied to each partition request
+   * @param timeout deadline for the whole batch
+   * @param unit unit of {@code timeout}
+   * @param failureMode whether to fail on the first error or return partial results
+   * @return response future
+   * @throws ServiceUnavailableException if the keys cannot be mapped at all
+   */
+  public ResponseFuture<BatchResponse<T>> sendRequest(BatchGetRequest<T> request,
+                                                      RequestContext requestContext,
+                                                      long timeout,
+                                                      TimeUnit unit,
+                                                      FailureMode failureMode)
+      throws ServiceUnavailableException
+  {
+    FutureCallback<Response<BatchResponse<T>>> callback = new FutureCallback<Response<BatchResponse<T>>>();
+    sendRequest(request, requestContext, timeout, unit, failureMode, callback);
+    return new ResponseFutureImpl<BatchResponse<T>>(callback);
+  }
+
+  /**
+   * Sends the partition requests of a batch get, calling back with the gathered response.
+   *
+   * @param request batch get to scatter
+   * @param requestContext context copied to each partition request
+   * @param timeout deadline for the whole batch
+   * @param unit unit of {@code timeout}
+   * @param failureMode whether to fail on the first error or return partial results
+   * @param callback called once, with the gathered response or the first failure
+   * @throws ServiceUnavailableException if the keys cannot be mapped at all
+   */
+  public void sendRequest(BatchGetRequest<T> request,
+                          RequestContext requestContext,
+                          long timeout,
+                          TimeUnit unit,
+                          FailureMode failureMode,
+                          Callback<Response<BatchResponse<T>>> callback)
+      throws ServiceUnavailableException
+  {
+    ScatterGatherBuilder.ScatterGatherResult<T> scatterGatherResult = _builder.buildRequestsV2(request, requestContext);
+
+    @SuppressWarnings("unchecked")
+    final Class<T> valueClass = (Class<T>) request.getResourceSpec().getValueClass();
+    Gather<BatchResponse<T>> gather = new Gather<BatchResponse<T>>(failureMode, callback)
+    {
+      @Override
+      protected BatchResponse<T> wrap(DataMap data)
+      {
+        return new BatchResponse<T>(data, valueClass);
+      }
+    };
+    for (ScatterGatherBuilder.RequestInfo<T> requestInfo : scatterGatherResult.getRequestInfo())
+    {
+      gather.addPartition(requestInfo.getBatchRequest(), requestInfo.getRequestContext());
+    }
+
+    scatter(gather, request.getServiceName(), scatterGatherResult.getUnmappedKeys(), timeout, unit);
+  }
+
+  /**
+   * Sends the partition requests of a batch get with typed keys, returning a future for the gathered response.
+   *
+   * @param request batch get to scatter
+   * @param requestContext context copied to each partition request
+   * @param timeout deadline for the whole batch
+   * @param unit unit of {@code timeout}
+   * @param failureMode whether to fail on the first error or return partial results
+   * @param <K> resource key class
+   * @return response future
+   * @throws ServiceUnavailableException if the keys cannot be mapped at all
+   */
+  public <K> ResponseFuture<BatchKVResponse<K, T>> sendRequest(BatchGetKVRequest<K, T> request,
+                                                               RequestContext requestContext,
+                                                               long timeout,
+                                                               TimeUnit unit,
+                                                               FailureMode failureMode)
+      throws ServiceUnavailableException
+  {
+    FutureCallback<Response<BatchKVResponse<K, T>>> callback = new FutureCallback<Response<BatchKVResponse<K, T>>>();
+    sendRequest(request, requestContext, timeout, unit, failureMode, callback);
+    return new ResponseFutureImpl<BatchKVResponse<K, T>>(callback);
+  }
+
+  /**
+   * Sends the partition requests of a batch get with typed keys, calling back with the gathered response.
+   *
+   * @param request batch get to scatter
+   * @param requestContext context copied to each partition request
+   * @param timeout deadline for the whole batch
+   * @param unit unit of {@code timeout}
+   * @param failureMode whether to fail on the first error or return partial results
+   * @param callback called once, with the gathered response or the first failure
+   * @param <K> resource key class
+   * @throws ServiceUnavailableException if the keys cannot be mapped at all
+   */
+  public <K> void sendRequest(BatchGetKVRequest<K, T> request,
+                              RequestContext requestContext,
+                              long timeout,
+                              TimeUnit unit,
+                              FailureMode failureMode,
+                              Callback<Response<BatchKVResponse<K, T>>> callback)
+      throws ServiceUnavailableException
+  {
+    ScatterGatherBuilder.KVScatterGatherResult<K, T> scatterGatherResult = _builder.buildRequests(request, requestContext);
+
+    // same types as the decoder of BatchGetRequestBuilder.buildKV()
+    final ResourceSpec resourceSpec = request.getResourceSpec();
+    @SuppressWarnings("unchecked")
+    final TypeSpec<K> keyType = (TypeSpec<K>) resourceSpec.getKeyType();
+    @SuppressWarnings("unchecked")
+    final TypeSpec<T> valueType = (TypeSpec<T>) resourceSpec.getValueType();
+    Gather<BatchKVResponse<K, T>> gather = new Gather<BatchKVResponse<K, T>>(failureMode, callback)
+    {
+      @Override
+      protected BatchKVResponse<K, T> wrap(DataMap data)
+      {
+        return new BatchKVResponse<K, T>(data,
+                                         keyType,
+                                         valueType,
+                                         resourceSpec.getKeyParts(),
+                                         resourceSpec.getComplexKeyType());
+      }
+    };
+    for (ScatterGatherBuilder.KVRequestInfo<K, T> requestInfo : scatterGatherResult.getRequestInfo())
+    {
+      gather.addPartition(requestInfo.getRequest(), requestInfo.getRequestContext());
+    }
+
+    scatter(gather, request.getServiceName(), scatterGatherResult.getUnmappedKeys(), timeout, unit);
+  }
+
+  private <R extends RecordTemplate, K> void scatter(Gather<R> gather,
+                                                     String serviceName,
+                                                     Collection<MapKeyResult.UnmappedKey<K>> unmapped,
+                                                     long timeout,
+                                                     TimeUnit unit)
+  {
+    if (!unmapped.isEmpty())
+    {
+      Collection<Object> unmappedKeys = new ArrayList<Object>(unmapped.size());
+      for (MapKeyResult.UnmappedKey<K> unmappedKey : unmapped)
+      {
+        unmappedKeys.add(unmappedKey.getKey());
+      }
+
+      ServiceUnavailableException cause =
+          new ServiceUnavailableException(serviceName, "unable to map keys " + unmappedKeys + " to hosts");
+      if (gather.fail(unmappedKeys, HttpStatus.S_503_SERVICE_UNAVAILABLE.getCode(), cause))
+      {
+        return;
+      }
+    }
+
+    if (gather._partitions.isEmpty())
+    {
+      gather.complete();
+      return;
+    }
+
+    gather.setTimer(_scheduler.schedule(gather, timeout, unit));
+    for (Gather<R>.Partition partition : gather._partitions)
+    {
+      _client.sendRequest(partition._request, partition._requestContext, partition);
+    }
+  }
+
+  /**
+   * Returns the key of a batch response map for a key, as the server writes it.
+   */
+  private static String keyToString(Object key)
+  {
+    if (key instanceof ComplexResourceKey)
+    {
+      return ((ComplexResourceKey<?, ?>) key).toString(URLEscaper.Escaping.URL_ESCAPING);
+    }
+    else if (key instanceof CompoundKey)
+    {
+      return key.toString();
+    }
+    else
+    {
+      return DataTemplateUtil.stringify(key);
+    }
+  }
+
+  /**
+   * State of one scattered request. Partition callbacks, the deadline and the caller's callback all synchronize on it.
+   *
+   * @param <R> type of the gathered response; its data has the results and errors maps of a batch response
+   */
+  private abstract static class Gather<R extends RecordTemplate> implements Runnable
+  {
+    private final FailureMode _failureMode;
+    private final Callback<Response<R>> _callback;
+    private final List<Partition> _partitions = new ArrayList<Partition>();
+    private final Set<Partition> _outstanding = new HashSet<Partition>();
+    private final DataMap _results = new DataMap();
+    private final DataMap _errors = new DataMap();
+    private Map<String, String> _headers = Collections.emptyMap();
+    private ScheduledFuture<?> _timer;
+    private boolean _done;
+
+    private Gather(FailureMode failureMode, Callback<Response<R>> callback)
+    {
+      _failureMode = failureMode;
+      _callback = callback;
+    }
+
+    /**
+     * Wraps the merged results and errors in the gathered response.
+     */
+    protected abstract R wrap(DataMap data);
+
+    /**
+     * Adds a partition request, outstanding until it responds. Every partition is added before any is sent, as
+     * callbacks may run on the sending thread.
+     */
+    private synchronized void addPartition(BatchRequest<R> request, RequestContext requestContext)
+    {
+      final Partition partition = new Partition(request, requestContext);
+      _partitions.add(partition);
+      _outstanding.add(partition);
+    }
+
+    private synchronized void setTimer(ScheduledFuture<?> timer)
+    {
+      _timer = timer;
+      if (_done)
+      {
+        _timer.cancel(false);
+      }
+    }
+
+    private void merge(Partition partition, Response<R> response)
+    {
+      synchronized (this)
+      {
+        if (_done || !_outstanding.remove(partition))
+        {
+          return;
+        }
+
+        final DataMap data = response.getEntity().data();
+        final DataMap results = data.getDataMap(BatchResponse.RESULTS);
+        if (results != null)
+        {
+          _results.putAll(results);
+        }
+        final DataMap errors = data.getDataMap(BatchResponse.ERRORS);
+        if (errors != null)
+        {
+          _errors.putAll(errors);
+        }
+        if (_headers.isEmpty())
+        {
+          _headers = response.getHeaders();
+        }
+      }
+      completeIfDone();
+    }
+
+    /**
+     * Records the failure of some keys.
+     *
+     * @return true if the whole scattered request has failed
+     */
+    private boolean fail(Collection<Object> keys, int status, Throwable cause)
+    {
+      synchronized (this)
+      {
+        if (_done)
+        {
+          return true;
+        }
+
+        if (_failureMode == FailureMode.PARTIAL_RESULTS)
+        {
+          for (Object key : keys)
+          {
+            final ErrorResponse error = new ErrorResponse();
+            error.setStatus(status);
+            error.setMessage(String.valueOf(cause.getMessage()));
+            error.setExceptionClass(cause.getClass().getName());
+            _errors.put(keyToString(key), error.data());
+          }
+          return false;
+        }
+
+        finish();
+      }
+      _callback.onError(cause);
+      return true;
+    }
+
+    /**
+     * Called when the deadline passes.
+     */
+    @Override
+    public void run()
+    {
+      final Collection<Object> keys = new ArrayList<Object>();
+      synchronized (this)
+      {
+        if (_done || _outstanding.isEmpty())
+        {
+          return;
+        }
+        for (Partition partition : _outstanding)
+        {
+          keys.addAll(partition._request.getObjectIds());
+        }
+        _outstanding.clear();
+      }
+
+      if (!fail(keys,
+                HttpStatus.S_504_GATEWAY_TIMEOUT.getCode(),
+                new TimeoutException("scatter gather deadline passed with keys " + keys + " outstanding")))
+      {
+        complete();
+      }
+    }
+
+    private void completeIfDone()
+    {
+      synchronized (this)
+      {
+        if (!_outstanding.isEmpty())
+        {
+          return;
+        }
+      }
+      complete();
+    }
+
+    private void complete()
+    {
+      final R response;
+      final Map<String, String> headers;
+      synchronized (this)
+      {
+        if (_done)
+        {
+          return;
+        }
+        finish();
+
+        final DataMap data = new DataMap();
+        data.put(BatchResponse.RESULTS, _results);
+        data.put(BatchResponse.ERRORS, _errors);
+        response = wrap(data);
+        headers = _headers;
+      }
+
+      _callback.onSuccess(new ResponseImpl<R>(HttpStatus.S_200_OK.getCode(), headers, response, null));
+    }
+
+    private void finish()
+    {
+      _done = true;
+      if (_timer != null)
+      {
+        _timer.cancel(false);
+      }
+    }
+
+    /**
+     * One partition request, and its callback.
+     */
+    private final class Partition implements Callback<Response<R>>
+    {
+      private final BatchRequest<R> _request;
+      private final RequestContext _requestContext;
+
+      private Partition(BatchRequest<R> request, RequestContext requestContext)
+      {
+        _request = request;
+        _requestContext = requestContext;
+      }
+
+      @Override
+      public void onSuccess(Response<R> result)
+      {
+        merge(this, result);
+      }
+
+      @Override
+      public void onError(Throwable e)
+      {
+        final int status = (e instanceof RestLiResponseException) ?
+            ((RestLiResponseException) e).getStatus() :
+            HttpStatus.S_500_INTERNAL_SERVER_ERROR.getCode();
+
+        final boolean outstanding;
+        synchronized (Gather.this)
+        {
+          outstanding = _outstanding.remove(this);
+        }
+        if (outstanding && !fail(_request.getObjectIds(), status, e))
+        {
+          completeIfDone();
+        }
+      }
+    }
+  }
+}
@@ -66,6 +66,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -321,6 +324,43 @@ public class TestScatterGather extends RestLiIntegrationTest
     testSendSGDeleteRequests(sg, requestIds, builders);
   }
 
+  @Test(dataProvider = "requestBuilderDataProvider")
+  public static void testScatterGatherExecutor(RootBuilderWrapper<Long, Greeting> builders)
+    throws URISyntaxException, RemoteInvocationException
+  {
+    final int NUM_ENDPOINTS = 4;
+    ConsistentHashKeyMapper mapper = getKeyToHostMapper(NUM_ENDPOINTS);
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    ScatterGatherExecutor<Greeting> executor = new ScatterGatherExecutor<Greeting>(REST_CLIENT, mapper, scheduler);
+
+    final int NUM_IDS = 20;
+    Long[] requestIds = prepareData(generateCreate(NUM_IDS), builders);
+
+    try
+    {
+      @SuppressWarnings("unchecked")
+      BatchGetRequest<Greeting> request =
+        (BatchGetRequest<Greeting>) builders.batchGet().ids(requestIds).fields(Greeting.fields().message()).build();
+
+      for (ScatterGatherExecutor.FailureMode failureMode : ScatterGatherExecutor.FailureMode.values())
+      {
+        BatchResponse<Greeting> response =
+          executor.sendRequest(request, new RequestContext(), 10, TimeUnit.SECONDS, failureMode).getResponseEntity();
+
+        Assert.assertTrue(response.getErrors().isEmpty());
+        Assert.assertEquals(response.getResults().size(), requestIds.length);
+        for (Long id : requestIds)
+        {
+          Assert.assertTrue(response.getResults().get(String.valueOf(id)).hasMessage());
+        }
+      }
+    }
+    finally
+    {
+      scheduler.shutdownNow();
+    }
+  }
+
   private static Long[] prepareData(List<Greeting> entities, RootBuilderWrapper<Long, Greeting> builders)
     throws RemoteInvocationException
   {
@@ -0,0 +1,350 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.client;
+
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
+import com.linkedin.d2.balancer.KeyMapper;
+import com.linkedin.d2.balancer.ServiceUnavailableException;
+import com.linkedin.d2.balancer.util.AllPartitionsResult;
+import com.linkedin.d2.balancer.util.MapKeyResult;
+import com.linkedin.data.DataMap;
+import com.linkedin.r2.message.RequestContext;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.CompoundKey;
+import com.linkedin.restli.common.ErrorResponse;
+import com.linkedin.restli.common.HttpStatus;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.ResourceSpecImpl;
+import com.linkedin.restli.examples.greetings.api.Greeting;
+import com.linkedin.restli.internal.client.ResponseImpl;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests the failure handling of {@link ScatterGatherExecutor} against a stub client: keys 1 and 2 map to a host which
+ * answers, 3 and 4 to a host which fails, 5 and 6 to a host which never answers and 7 to no host at all.
+ */
+public class TestScatterGatherExecutor
+{
+  private static final URI OK_HOST = URI.create("http://ok");
+  private static final URI FAILING_HOST = URI.create("http://failing");
+  private static final URI SILENT_HOST = URI.create("http://silent");
+  private static final long UNMAPPED_KEY = 7L;
+
+  private static final ResourceSpecImpl SPEC = new ResourceSpecImpl(EnumSet.of(ResourceMethod.BATCH_GET),
+                                                                    Long.class,
+                                                                    Greeting.class,
+                                                                    Collections.<String, CompoundKey.TypeInfo>emptyMap());
+
+  private ScheduledExecutorService _scheduler;
+  private StubRestClient _client;
+  private ScatterGatherExecutor<Greeting> _executor;
+
+  @BeforeClass
+  public void setUp()
+  {
+    Map<Object, URI> hosts = new HashMap<Object, URI>();
+    hosts.put(1L, OK_HOST);
+    hosts.put(2L, OK_HOST);
+    hosts.put(3L, FAILING_HOST);
+    hosts.put(4L, FAILING_HOST);
+    hosts.put(5L, SILENT_HOST);
+    hosts.put(6L, SILENT_HOST);
+
+    _scheduler = Executors.newSingleThreadScheduledExecutor();
+    _client = new StubRestClient();
+    _executor = new ScatterGatherExecutor<Greeting>(_client, new StubKeyMapper(hosts), _scheduler);
+  }
+
+  @AfterClass
+  public void tearDown()
+  {
+    _scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testPartialResults() throws Exception
+  {
+    FutureCallback<Response<BatchResponse<Greeting>>> callback = new FutureCallback<Response<BatchResponse<Greeting>>>();
+    _executor.sendRequest(batchGet(1L, 2L, 3L, 4L, 5L, 6L, UNMAPPED_KEY),
+                          new RequestContext(),
+                          100,
+                          TimeUnit.MILLISECONDS,
+                          ScatterGatherExecutor.FailureMode.PARTIAL_RESULTS,
+                          callback);
+    BatchResponse<Greeting> response = callback.get(10, TimeUnit.SECONDS).getEntity();
+
+    Assert.assertEquals(response.getResults().keySet(), new HashSet<String>(Arrays.asList("1", "2")));
+    Assert.assertEquals(response.getResults().get("1").getId().longValue(), 1L);
+
+    Map<String, ErrorResponse> errors = response.getErrors();
+    Assert.assertEquals(errors.size(), 5);
+    Assert.assertEquals(errors.get("3").getStatus().intValue(), HttpStatus.S_500_INTERNAL_SERVER_ERROR.getCode());
+    Assert.assertEquals(errors.get("4").getStatus().intValue(), HttpStatus.S_500_INTERNAL_SERVER_ERROR.getCode());
+    Assert.assertEquals(errors.get("5").getStatus().intValue(), HttpStatus.S_504_GATEWAY_TIMEOUT.getCode());
+    Assert.assertEquals(errors.get("6").getStatus().intValue(), HttpStatus.S_504_GATEWAY_TIMEOUT.getCode());
+    Assert.assertEquals(errors.get("5").getExceptionClass(), TimeoutException.class.getName());
+    Assert.assertEquals(errors.get("7").getStatus().intValue(), HttpStatus.S_503_SERVICE_UNAVAILABLE.getCode());
+    Assert.assertEquals(errors.get("7").getExceptionClass(), ServiceUnavailableException.class.getName());
+  }
+
+  @Test
+  public void testPartialResultsKV() throws Exception
+  {
+    FutureCallback<Response<BatchKVResponse<Long, Greeting>>> callback =
+        new FutureCallback<Response<BatchKVResponse<Long, Greeting>>>();
+    _executor.sendRequest(batchGetKV(1L, 2L, 3L, 5L, UNMAPPED_KEY),
+                          new RequestContext(),
+                          100,
+                          TimeUnit.MILLISECONDS,
+                          ScatterGatherExecutor.FailureMode.PARTIAL_RESULTS,
+                          callback);
+    BatchKVResponse<Long, Greeting> response = callback.get(10, TimeUnit.SECONDS).getEntity();
+
+    Assert.assertEquals(response.getResults().keySet(), new HashSet<Long>(Arrays.asList(1L, 2L)));
+    Assert.assertEquals(response.getResults().get(2L).getId().longValue(), 2L);
+
+    Map<Long, ErrorResponse> errors = response.getErrors();
+    Assert.assertEquals(errors.size(), 3);
+    Assert.assertEquals(errors.get(3L).getStatus().intValue(), HttpStatus.S_500_INTERNAL_SERVER_ERROR.getCode());
+    Assert.assertEquals(errors.get(5L).getStatus().intValue(), HttpStatus.S_504_GATEWAY_TIMEOUT.getCode());
+    Assert.assertEquals(errors.get(UNMAPPED_KEY).getStatus().intValue(), HttpStatus.S_503_SERVICE_UNAVAILABLE.getCode());
+  }
+
+  @Test
+  public void testPartialResultsWithoutFailures() throws Exception
+  {
+    BatchResponse<Greeting> response = _executor.sendRequest(batchGet(1L, 2L),
+                                                             new RequestContext(),
+                                                             10,
+                                                             TimeUnit.SECONDS,
+                                                             ScatterGatherExecutor.FailureMode.PARTIAL_RESULTS)
+        .getResponseEntity();
+
+    Assert.assertEquals(response.getResults().size(), 2);
+    Assert.assertTrue(response.getErrors().isEmpty());
+  }
+
+  @Test
+  public void testFailFastOnFailedPartition() throws Exception
+  {
+    Throwable cause = failFast(batchGet(1L, 2L, 3L), 10, TimeUnit.SECONDS);
+
+    Assert.assertTrue(cause instanceof RestLiResponseException, String.valueOf(cause));
+    Assert.assertEquals(((RestLiResponseException) cause).getStatus(), HttpStatus.S_500_INTERNAL_SERVER_ERROR.getCode());
+  }
+
+  @Test
+  public void testFailFastOnDeadline() throws Exception
+  {
+    Throwable cause = failFast(batchGet(1L, 5L), 100, TimeUnit.MILLISECONDS);
+
+    Assert.assertTrue(cause instanceof TimeoutException, String.valueOf(cause));
+  }
+
+  @Test
+  public void testFailFastOnUnmappedKeys() throws Exception
+  {
+    int sent = _client.getSentCount();
+    Throwable cause = failFast(batchGet(1L, UNMAPPED_KEY), 10, TimeUnit.SECONDS);
+
+    Assert.assertTrue(cause instanceof ServiceUnavailableException, String.valueOf(cause));
+    Assert.assertEquals(_client.getSentCount(), sent, "no partition should be sent once a key cannot be mapped");
+  }
+
+  private Throwable failFast(BatchGetRequest<Greeting> request, long timeout, TimeUnit unit) throws Exception
+  {
+    FutureCallback<Response<BatchResponse<Greeting>>> callback = new FutureCallback<Response<BatchResponse<Greeting>>>();
+    _executor.sendRequest(request,
+                          new RequestContext(),
+                          timeout,
+                          unit,
+                          ScatterGatherExecutor.FailureMode.FAIL_FAST,
+                          callback);
+    try
+    {
+      callback.get(10, TimeUnit.SECONDS);
+      Assert.fail("expected the scattered request to fail");
+      return null;
+    }
+    catch (ExecutionException e)
+    {
+      return e.getCause();
+    }
+  }
+
+  private static BatchGetRequest<Greeting> batchGet(Long... ids)
+  {
+    return newBuilder(ids).build();
+  }
+
+  private static BatchGetKVRequest<Long, Greeting> batchGetKV(Long... ids)
+  {
+    return newBuilder(ids).buildKV();
+  }
+
+  private static BatchGetRequestBuilder<Long, Greeting> newBuilder(Long... ids)
+  {
+    return new BatchGetRequestBuilder<Long, Greeting>("greetings",
+                                                      Greeting.class,
+                                                      SPEC,
+                                                      RestliRequestOptions.DEFAULT_OPTIONS).ids(ids);
+  }
+
+  /**
+   * Maps keys to fixed hosts; keys without a host are unmapped.
+   */
+  private static class StubKeyMapper implements KeyMapper
+  {
+    private final Map<Object, URI> _hosts;
+
+    private StubKeyMapper(Map<Object, URI> hosts)
+    {
+      _hosts = hosts;
+    }
+
+    @Override
+    public <K> MapKeyResult<URI, K> mapKeysV2(URI serviceUri, Iterable<K> keys)
+    {
+      Map<URI, Collection<K>> mapResult = new HashMap<URI, Collection<K>>();
+      Collection<MapKeyResult.UnmappedKey<K>> unmappedKeys = new ArrayList<MapKeyResult.UnmappedKey<K>>();
+      for (K key : keys)
+      {
+        URI host = _hosts.get(key);
+        if (host == null)
+        {
+          unmappedKeys.add(new MapKeyResult.UnmappedKey<K>(key, MapKeyResult.ErrorType.NO_HOST_AVAILABLE_IN_PARTITION));
+          continue;
+        }
+        Collection<K> hostKeys = mapResult.get(host);
+        if (hostKeys == null)
+        {
+          hostKeys = new ArrayList<K>();
+          mapResult.put(host, hostKeys);
+        }
+        hostKeys.add(key);
+      }
+      return new MapKeyResult<URI, K>(mapResult, unmappedKeys);
+    }
+
+    @Override
+    public <K> Map<URI, Collection<K>> mapKeys(URI serviceUri, Iterable<K> keys)
+    {
+      return mapKeysV2(serviceUri, keys).getMapResult();
+    }
+
+    @Override
+    public <K> Map<URI, Set<K>> mapKeys(URI serviceUri, Set<K> keys)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AllPartitionsResult<URI> getAllPartitions(URI serviceUri)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AllPartitionsResult<URI> getAllPartitions(URI serviceUri, int hashCode)
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Answers on the calling thread, according to the target host of the request context.
+   */
+  private static class StubRestClient extends RestClient
+  {
+    private int _sent;
+
+    private StubRestClient()
+    {
+      super(null, "");
+    }
+
+    private synchronized int getSentCount()
+    {
+      return _sent;
+    }
+
+    @Override
+    public <T> void sendRequest(Request<T> request, RequestContext requestContext, Callback<Response<T>> callback)
+    {
+      synchronized (this)
+      {
+        _sent++;
+      }
+
+      URI host = KeyMapper.TargetHostHints.getRequestContextTargetHost(requestContext);
+      if (FAILING_HOST.equals(host))
+      {
+        ErrorResponse error = new ErrorResponse();
+        error.setStatus(HttpStatus.S_500_INTERNAL_SERVER_ERROR.getCode());
+        callback.onError(new RestLiResponseException(error));
+      }
+      else if (OK_HOST.equals(host))
+      {
+        DataMap results = new DataMap();
+        for (Object id : ((BatchRequest<T>) request).getObjectIds())
+        {
+          results.put(String.valueOf(id), new Greeting().setId((Long) id).setMessage("greeting " + id).data());
+        }
+        DataMap data = new DataMap();
+        data.put(BatchResponse.RESULTS, results);
+        data.put(BatchResponse.ERRORS, new DataMap());
+
+        try
+        {
+          T entity = request.getResponseDecoder().wrapResponse(data);
+          callback.onSuccess(new ResponseImpl<T>(HttpStatus.S_200_OK.getCode(),
+                                                 Collections.<String, String>emptyMap(),
+                                                 entity,
+                                                 null));
+        }
+        catch (Exception e)
+        {
+          callback.onError(e);
+        }
+      }
+    }
+  }
+}
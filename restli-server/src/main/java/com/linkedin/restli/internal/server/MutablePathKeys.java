@@ -46,4 +46,12 @@ public interface MutablePathKeys extends PathKeys
    * @return this
    */
   PathKeys appendBatchValue(Object value);
+
+  /**
+   * Remove a value from batch keys set.
+   *
+   * @param value value to be removed
+   * @return this
+   */
+  PathKeys removeBatchValue(Object value);
 }
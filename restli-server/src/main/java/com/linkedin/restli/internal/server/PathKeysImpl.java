@@ -56,6 +56,13 @@ public class PathKeysImpl implements MutablePathKeys
     return this;
   }
 
+  @Override
+  public PathKeys removeBatchValue(final Object value)
+  {
+    _batchKeys.remove(value);
+    return this;
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public <T> T get(final String key)
@@ -52,6 +52,36 @@ public class ResourceMethodMatchKey
     _hasEntitySegment = hasEntitySegment;
   }
 
+  public String getHttpMethod()
+  {
+    return _httpMethod;
+  }
+
+  public String getRestliMethod()
+  {
+    return _restliMethod;
+  }
+
+  public boolean hasActionParam()
+  {
+    return _hasActionParam;
+  }
+
+  public boolean hasQueryParam()
+  {
+    return _hasQueryParam;
+  }
+
+  public boolean hasBatchKeys()
+  {
+    return _hasBatchKeys;
+  }
+
+  public boolean hasEntitySegment()
+  {
+    return _hasEntitySegment;
+  }
+
   @Override
   public boolean equals(final Object oref)
   {
@@ -0,0 +1,496 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+
+import com.linkedin.data.DataList;
+import com.linkedin.data.DataMap;
+import com.linkedin.r2.message.rest.RestRequest;
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.common.RestConstants;
+import com.linkedin.restli.internal.common.ProtocolVersionUtil;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.server.ResponseCacheConfig;
+import com.linkedin.restli.server.annotations.CacheResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Size bounded store behind the server side response cache. It decides which resource methods
+ * are cached, builds their cache keys and expires entries by TTL. Entries of a resource are also
+ * dropped as soon as this server handles a request which may modify that resource.
+ *
+ * Lookups do not take a lock, since the cached resources are by design the hottest ones. Eviction
+ * approximates LRU with the CLOCK (second chance) algorithm: a hit only marks its entry as
+ * referenced, and when the cache is full, entries are swept in insertion order, evicting the first
+ * one which was not referenced since the previous sweep. The entry count may briefly exceed the
+ * maximum while another thread is sweeping.
+ *
+ * GET requests cache the encoded {@link com.linkedin.r2.message.rest.RestResponse}; BATCH_GET
+ * requests cache one read-only entity {@link DataMap} per key, so that a request can be served
+ * partially from the cache.
+ */
+public class ResponseCache
+{
+  private final Map<ResourceMethodDescriptor, Long> _ttls;
+  private final Map<Class<?>, AtomicLong> _generations;
+  private final List<String> _varyHeaders;
+  private final int _maxEntries;
+
+  private final ConcurrentHashMap<Object, CacheEntry> _entries = new ConcurrentHashMap<Object, CacheEntry>();
+  // live entries of _entries, which ConcurrentHashMap cannot count in constant time
+  private final AtomicInteger _size = new AtomicInteger();
+  // entries in the order they are swept; entries which were since replaced or removed are dropped when reached
+  private final ConcurrentLinkedQueue<CacheEntry> _clock = new ConcurrentLinkedQueue<CacheEntry>();
+  private final AtomicInteger _clockSize = new AtomicInteger();
+  private final ReentrantLock _sweepLock = new ReentrantLock();
+
+  /**
+   * @param config cache configuration
+   * @param rootResources the root resources of the server, including their subresources
+   */
+  public ResponseCache(final ResponseCacheConfig config, final Map<String, ResourceModel> rootResources)
+  {
+    _ttls = new IdentityHashMap<ResourceMethodDescriptor, Long>();
+    _generations = new HashMap<Class<?>, AtomicLong>();
+    for (ResourceModel model : rootResources.values())
+    {
+      addResource(model, config);
+    }
+
+    _maxEntries = config.getMaxEntries();
+
+    // canonical order, so that the keys do not depend on the order of the configuration
+    final Set<String> varyHeaders = new TreeSet<String>();
+    for (String header : config.getVaryHeaders())
+    {
+      varyHeaders.add(header.toLowerCase(Locale.US));
+    }
+    _varyHeaders = new ArrayList<String>(varyHeaders);
+  }
+
+  /**
+   * @return how long responses of the method may be cached in milliseconds, or 0 if they are not cached
+   */
+  public long getTtl(final ResourceMethodDescriptor method)
+  {
+    final Long ttl = _ttls.get(method);
+    return ttl == null ? 0 : ttl;
+  }
+
+  /**
+   * @return whether the given method may modify its resource, in which case its cached
+   *         responses are dropped by {@link #invalidate(ResourceMethodDescriptor)}
+   */
+  public boolean mayModify(final ResourceMethodDescriptor method)
+  {
+    switch (method.getMethodType())
+    {
+      case GET:
+      case BATCH_GET:
+      case FINDER:
+      case GET_ALL:
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Drop the cached responses of the resource of the given method, unless the method is
+   * known not to modify it. A modifying method invalidates both when it is routed and when it
+   * completes, so that a read which ran while the write was in progress is not cached as current.
+   */
+  public void invalidate(final ResourceMethodDescriptor method)
+  {
+    if (!mayModify(method))
+    {
+      return;
+    }
+
+    final AtomicLong generation = _generations.get(method.getResourceModel().getResourceClass());
+    if (generation != null)
+    {
+      generation.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return the current generation of the resource. Entries put with an older generation are
+   *         never served.
+   */
+  public long getGeneration(final Class<?> resourceClass)
+  {
+    final AtomicLong generation = _generations.get(resourceClass);
+    return generation == null ? 0 : generation.get();
+  }
+
+  /**
+   * @return the live value cached under the key, or null
+   */
+  public Object get(final Object key, final Class<?> resourceClass)
+  {
+    final CacheEntry entry = _entries.get(key);
+    if (entry == null)
+    {
+      return null;
+    }
+
+    if (entry._expiresAt <= currentTimeMillis() || entry._generation != getGeneration(resourceClass))
+    {
+      remove(entry);
+      return null;
+    }
+
+    // a hot entry is already marked; skipping the write avoids contention on it
+    if (!entry._referenced)
+    {
+      entry._referenced = true;
+    }
+    return entry._value;
+  }
+
+  /**
+   * Cache a value, unless the resource was modified after the generation was read.
+   *
+   * @param generation the generation of the resource read before the value was computed
+   */
+  public void put(final Object key, final Object value, final Class<?> resourceClass, final long generation, final long ttl)
+  {
+    if (generation != getGeneration(resourceClass))
+    {
+      return;
+    }
+
+    final CacheEntry entry = new CacheEntry(key, value, generation, currentTimeMillis() + ttl);
+    if (_entries.put(key, entry) == null)
+    {
+      _size.incrementAndGet();
+    }
+    _clock.offer(entry);
+    _clockSize.incrementAndGet();
+
+    sweep();
+  }
+
+  public int size()
+  {
+    return _size.get();
+  }
+
+  /**
+   * Build the key of a GET response, from the request path, the query parameters in a canonical
+   * order, the projection mask, the protocol version, the Accept header and the configured vary
+   * headers.
+   */
+  public String getResponseKey(final RestRequest request, final RoutingResult method)
+  {
+    final StringBuilder sb = appendRequest(new StringBuilder(), request, method, Collections.<String>emptyList());
+    sb.append('|').append(ProtocolVersionUtil.extractProtocolVersion(request.getHeaders()));
+    sb.append('|');
+    appendString(sb, request.getHeader(RestConstants.HEADER_ACCEPT));
+    appendVaryHeaders(sb, request);
+    return sb.toString();
+  }
+
+  /**
+   * Build the key of one entity of a BATCH_GET response. The encoding of the response is done
+   * after the entities are read from the cache, so the protocol version and Accept header are
+   * not part of the key; the vary headers are, through the batch prefix.
+   */
+  public static Object getBatchEntityKey(final String batchPrefix, final Object batchKey)
+  {
+    return new BatchEntityKey(batchPrefix, batchKey);
+  }
+
+  /**
+   * @return the part of a BATCH_GET entity key shared by all keys of the request
+   */
+  public String getBatchPrefix(final RestRequest request, final RoutingResult method)
+  {
+    final StringBuilder sb = appendRequest(new StringBuilder(), request, method,
+                                           Collections.singletonList(RestConstants.QUERY_BATCH_IDS_PARAM));
+    appendVaryHeaders(sb, request);
+    return sb.toString();
+  }
+
+  protected long currentTimeMillis()
+  {
+    return System.currentTimeMillis();
+  }
+
+  private void remove(final CacheEntry entry)
+  {
+    if (_entries.remove(entry._key, entry))
+    {
+      _size.decrementAndGet();
+    }
+  }
+
+  /**
+   * Evict entries until the cache is back within its size, giving referenced entries a second
+   * chance. Only one thread sweeps at a time; the others carry on without waiting.
+   */
+  private void sweep()
+  {
+    // puts which skipped their sweep while this one held the lock may have left the cache too big
+    while (isOverflowing() && _sweepLock.tryLock())
+    {
+      try
+      {
+        sweepLocked();
+      }
+      finally
+      {
+        _sweepLock.unlock();
+      }
+    }
+  }
+
+  private boolean isOverflowing()
+  {
+    return _size.get() > _maxEntries || _clockSize.get() > 2 * _maxEntries;
+  }
+
+  private void sweepLocked()
+  {
+    // entries hit again while the sweep runs could otherwise keep it from ever finding a victim
+    int secondChances = _clockSize.get();
+    while (isOverflowing())
+    {
+      final CacheEntry entry = _clock.poll();
+      if (entry == null)
+      {
+        return;
+      }
+      _clockSize.decrementAndGet();
+
+      if (_entries.get(entry._key) != entry)
+      {
+        // replaced or removed since it was queued
+        continue;
+      }
+      if (entry._referenced && secondChances > 0 && _size.get() > _maxEntries)
+      {
+        secondChances--;
+        entry._referenced = false;
+        _clock.offer(entry);
+        _clockSize.incrementAndGet();
+      }
+      else if (_size.get() > _maxEntries)
+      {
+        remove(entry);
+      }
+      else
+      {
+        // only sweeping out stale entries; keep this live one in place
+        _clock.offer(entry);
+        _clockSize.incrementAndGet();
+      }
+    }
+  }
+
+  private void appendVaryHeaders(final StringBuilder sb, final RestRequest request)
+  {
+    for (String header : _varyHeaders)
+    {
+      sb.append('|');
+      appendString(sb, request.getHeader(header));
+    }
+  }
+
+  private void addResource(final ResourceModel model, final ResponseCacheConfig config)
+  {
+    final Class<?> resourceClass = model.getResourceClass();
+    final Long configuredTtl = config.getCachedResources().get(resourceClass);
+    final CacheResponse classAnnotation = resourceClass.getAnnotation(CacheResponse.class);
+
+    for (ResourceMethodDescriptor method : model.getResourceMethodDescriptors())
+    {
+      if (method.getMethodType() != ResourceMethod.GET && method.getMethodType() != ResourceMethod.BATCH_GET)
+      {
+        continue;
+      }
+
+      long ttl = 0;
+      if (configuredTtl != null)
+      {
+        ttl = configuredTtl;
+      }
+      else
+      {
+        CacheResponse annotation = method.getMethod() == null ? null : method.getMethod().getAnnotation(CacheResponse.class);
+        if (annotation == null)
+        {
+          annotation = classAnnotation;
+        }
+        if (annotation != null)
+        {
+          ttl = annotation.ttlMillis();
+        }
+      }
+
+      if (ttl > 0)
+      {
+        _ttls.put(method, ttl);
+        if (!_generations.containsKey(resourceClass))
+        {
+          _generations.put(resourceClass, new AtomicLong());
+        }
+      }
+    }
+
+    for (ResourceModel subResource : model.getSubResources())
+    {
+      addResource(subResource, config);
+    }
+  }
+
+  private static StringBuilder appendRequest(final StringBuilder sb,
+                                             final RestRequest request,
+                                             final RoutingResult method,
+                                             final List<String> excludedParameters)
+  {
+    final ServerResourceContext context = (ServerResourceContext) method.getContext();
+    sb.append(method.getResourceMethod().getMethodType()).append(' ');
+    sb.append(request.getURI().getRawPath()).append('?');
+
+    // the projection is keyed on its parsed form below, so that equivalent masks share an entry
+    final List<String> excluded = new ArrayList<String>(excludedParameters);
+    excluded.add(RestConstants.FIELDS_PARAM);
+    appendCanonical(sb, context.getParameters(), excluded);
+
+    sb.append('|');
+    if (context.getProjectionMask() != null)
+    {
+      appendCanonical(sb, context.getProjectionMask().getDataMap(), Collections.<String>emptyList());
+    }
+    return sb;
+  }
+
+  private static void appendCanonical(final StringBuilder sb, final Object value, final List<String> excludedKeys)
+  {
+    if (value instanceof DataMap)
+    {
+      final DataMap map = (DataMap) value;
+      final List<String> keys = new ArrayList<String>(map.keySet());
+      Collections.sort(keys);
+      sb.append('{');
+      for (String key : keys)
+      {
+        if (!excludedKeys.contains(key))
+        {
+          appendString(sb, key);
+          appendCanonical(sb, map.get(key), Collections.<String>emptyList());
+        }
+      }
+      sb.append('}');
+    }
+    else if (value instanceof DataList)
+    {
+      sb.append('[');
+      for (Object item : (DataList) value)
+      {
+        appendCanonical(sb, item, Collections.<String>emptyList());
+      }
+      sb.append(']');
+    }
+    else
+    {
+      appendString(sb, value == null ? null : value.toString());
+    }
+  }
+
+  private static void appendString(final StringBuilder sb, final String value)
+  {
+    // length prefixed, so that no value can be mistaken for a delimiter
+    if (value == null)
+    {
+      sb.append('-');
+    }
+    else
+    {
+      sb.append(value.length()).append(':').append(value);
+    }
+  }
+
+  private static class CacheEntry
+  {
+    private final Object _key;
+    private final Object _value;
+    private final long _generation;
+    private final long _expiresAt;
+    private volatile boolean _referenced;
+
+    private CacheEntry(Object key, Object value, long generation, long expiresAt)
+    {
+      _key = key;
+      _value = value;
+      _generation = generation;
+      _expiresAt = expiresAt;
+    }
+  }
+
+  private static class BatchEntityKey
+  {
+    private final String _batchPrefix;
+    private final Object _batchKey;
+
+    private BatchEntityKey(String batchPrefix, Object batchKey)
+    {
+      _batchPrefix = batchPrefix;
+      _batchKey = batchKey;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o)
+      {
+        return true;
+      }
+      if (!(o instanceof BatchEntityKey))
+      {
+        return false;
+      }
+      final BatchEntityKey other = (BatchEntityKey) o;
+      return _batchPrefix.equals(other._batchPrefix)
+          && (_batchKey == null ? other._batchKey == null : _batchKey.equals(other._batchKey));
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return 31 * _batchPrefix.hashCode() + (_batchKey == null ? 0 : _batchKey.hashCode());
+    }
+  }
+}
@@ -32,6 +32,7 @@ import com.linkedin.restli.internal.server.methods.arguments.RestLiArgumentBuild
 import com.linkedin.restli.internal.server.methods.response.ErrorResponseBuilder;
 import com.linkedin.restli.internal.server.model.Parameter.ParamType;
 import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceMethodInvoker;
 import com.linkedin.restli.internal.server.util.RestUtils;
 import com.linkedin.restli.server.RequestExecutionReport;
 import com.linkedin.restli.server.RequestExecutionReportBuilder;
@@ -40,7 +41,6 @@ import com.linkedin.restli.server.resources.BaseResource;
 import com.linkedin.restli.server.resources.ResourceFactory;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 
 /**
@@ -152,7 +152,7 @@ public class RestLiMethodInvoker
                         final Object resource,
                         final Object... arguments) throws IllegalAccessException
   {
-    Method method = descriptor.getMethod();
+    ResourceMethodInvoker invoker = descriptor.getMethodInvoker();
 
     try
     {
@@ -178,12 +178,12 @@ public class RestLiMethodInvoker
           }
         };
 
-        method.invoke(resource, arguments);
+        invoker.invoke(resource, arguments);
         // App code should use the callback
         break;
 
       case SYNC:
-        Object applicationResult = method.invoke(resource, arguments);
+        Object applicationResult = invoker.invoke(resource, arguments);
         callback.onSuccess(applicationResult, getRequestExecutionReport(requestExecutionReportBuilder));
         break;
 
@@ -196,7 +196,7 @@ public class RestLiMethodInvoker
             descriptor.indexOfParameterType(ParamType.PARSEQ_CONTEXT);
         // run through the engine to get the context
         Task<Object> restliTask =
-            new RestLiParSeqTask(arguments, contextIndex, method, resource);
+            new RestLiParSeqTask(arguments, contextIndex, invoker, resource);
 
         // propagate the result to the callback
         restliTask.addListener(new CallbackPromiseAdapter<Object>(callback, restliTask, requestExecutionReportBuilder));
@@ -211,7 +211,7 @@ public class RestLiMethodInvoker
 
         //addListener requires Task<Object> in this case
         @SuppressWarnings("unchecked")
-        Task<Object> task = (Task<Object>) method.invoke(resource, arguments);
+        Task<Object> task = (Task<Object>) invoker.invoke(resource, arguments);
         if (task == null)
         {
           callback.onError(new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
@@ -286,17 +286,17 @@ public class RestLiMethodInvoker
   private static class RestLiParSeqTask extends BaseTask<Object> {
     private final Object[] _arguments;
     private final int _contextIndex;
-    private final Method _method;
+    private final ResourceMethodInvoker _invoker;
     private final Object _resource;
 
     public RestLiParSeqTask(final Object[] arguments,
                             final int contextIndex,
-                            final Method method,
+                            final ResourceMethodInvoker invoker,
                             final Object resource)
     {
       this._arguments = arguments;
       this._contextIndex = contextIndex;
-      this._method = method;
+      this._invoker = invoker;
       this._resource = resource;
     }
 
@@ -310,7 +310,7 @@ public class RestLiMethodInvoker
           // we can now supply the context
           _arguments[_contextIndex] = context;
         }
-        Object applicationResult = _method.invoke(_resource, _arguments);
+        Object applicationResult = _invoker.invoke(_resource, _arguments);
         if (applicationResult == null)
         {
           return Promises.error(new RestLiServiceException(HttpStatus.S_500_INTERNAL_SERVER_ERROR,
@@ -18,6 +18,7 @@ package com.linkedin.restli.internal.server;
 
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.ProjectionTraverser;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.message.rest.RestResponseBuilder;
@@ -165,7 +166,7 @@ public class RestLiResponseHandler
     {
       DataMap dataMap = partialResponse.getDataMap();
       String mimeType = ((ServerResourceContext) routingResult.getContext()).getResponseMimeType();
-      builder = encodeResult(mimeType, builder, dataMap);
+      builder = encodeResult(mimeType, builder, dataMap, partialResponse.getProjection());
     }
 
     return builder.build();
@@ -179,17 +180,20 @@ public class RestLiResponseHandler
     return _errorResponseBuilder.buildResponse(request, routingResult, object, headers);
   }
 
-  private RestResponseBuilder encodeResult(String mimeType, RestResponseBuilder builder, DataMap dataMap)
+  private RestResponseBuilder encodeResult(String mimeType,
+                                           RestResponseBuilder builder,
+                                           DataMap dataMap,
+                                           ProjectionTraverser projection)
   {
     if (RestConstants.HEADER_VALUE_APPLICATION_PSON.equalsIgnoreCase(mimeType))
     {
       builder.setHeader(RestConstants.HEADER_CONTENT_TYPE, RestConstants.HEADER_VALUE_APPLICATION_PSON);
-      builder.setEntity(DataMapUtils.mapToPsonBytes(dataMap));
+      builder.setEntity(DataMapUtils.mapToPsonByteString(dataMap, projection));
     }
     else if (RestConstants.HEADER_VALUE_APPLICATION_JSON.equalsIgnoreCase(mimeType))
     {
       builder.setHeader(RestConstants.HEADER_CONTENT_TYPE, RestConstants.HEADER_VALUE_APPLICATION_JSON);
-      builder.setEntity(DataMapUtils.mapToBytes(dataMap, _permissiveEncoding));
+      builder.setEntity(DataMapUtils.mapToBytes(dataMap, projection, _permissiveEncoding));
     }
     else
     {
@@ -21,13 +21,9 @@ import com.linkedin.restli.common.ComplexKeySpec;
 import com.linkedin.restli.common.OperationNameGenerator;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,13 +50,18 @@ import com.linkedin.restli.server.RoutingException;
 /**
  * Navigates the resource hierarchy to find a Resource handler for the a given URI.
  *
+ * The resource hierarchy is compiled into a trie of {@link RouteNode}s when the router is
+ * constructed, so the {@link ResourceModel}s must not be modified afterwards.
+ *
  * @author Josh Walker
  */
 public class RestLiRouter
 {
   private static final Logger log = LoggerFactory.getLogger(RestLiRouter.class);
-  private static final Map<ResourceMethodMatchKey, ResourceMethod> _resourceMethodLookup = setupResourceMethodLookup();
-  private final Map<String, ResourceModel> _pathRootResourceMap;
+  // HTTP method -> X-RestLi-Method header -> ResourceMethod, indexed by matchIndex()
+  private static final Map<String, Map<String, ResourceMethod[]>> _resourceMethodLookup = setupResourceMethodLookup();
+  // root path segment (without the leading slash) -> compiled resource tree
+  private final Map<String, RouteNode> _rootNodes;
 
   /**
    * Constructor.
@@ -71,11 +72,17 @@ public class RestLiRouter
   public RestLiRouter(final Map<String, ResourceModel> pathRootResourceMap)
   {
     super();
-    _pathRootResourceMap = pathRootResourceMap;
+    _rootNodes = new HashMap<String, RouteNode>();
+    for (Map.Entry<String, ResourceModel> entry : pathRootResourceMap.entrySet())
+    {
+      // request root paths always start with a slash, so no other key could ever match
+      if (entry.getKey().startsWith("/"))
+      {
+        _rootNodes.put(entry.getKey().substring(1), new RouteNode(entry.getValue()));
+      }
+    }
   }
 
-  private static final Pattern SLASH_PATTERN = Pattern.compile(Pattern.quote("/"));
-
   /**
    * Processes provided {@link RestRequest}.
    *
@@ -90,32 +97,21 @@ public class RestLiRouter
       throw new RoutingException(HttpStatus.S_404_NOT_FOUND.getCode());
     }
 
-    if (path.charAt(0) == '/')
+    final int start = path.charAt(0) == '/' ? 1 : 0;
+    // like String.split, ignore trailing empty segments
+    int end = path.length();
+    while (end > start && path.charAt(end - 1) == '/')
     {
-      path = path.substring(1);
+      end--;
     }
 
-    Queue<String> remainingPath =
-        new LinkedList<String>(Arrays.asList(SLASH_PATTERN.split(path)));
-
-    String rootPath = "/" + remainingPath.poll();
-
-    ResourceModel currentResource;
-    try
-    {
-      currentResource =
-          _pathRootResourceMap.get(URLDecoder.decode(rootPath,
-                                                     RestConstants.DEFAULT_CHARSET_NAME));
-    }
-    catch (UnsupportedEncodingException e)
-    {
-      throw new RestLiInternalException("UnsupportedEncodingException while trying to decode the root path",
-                                        e);
-    }
-    if (currentResource == null)
+    final int rootEnd = segmentEnd(path, start, end);
+    final String rootSegment = path.substring(start, rootEnd);
+    final RouteNode root = _rootNodes.get(decodeSegment(rootSegment, "root path"));
+    if (root == null)
     {
       throw new RoutingException(String.format("No root resource defined for path '%s'",
-                                               rootPath),
+                                               "/" + rootSegment),
                                  HttpStatus.S_404_NOT_FOUND.getCode());
     }
     ServerResourceContext context;
@@ -129,14 +125,24 @@ public class RestLiRouter
       throw new RoutingException(e.getMessage(), HttpStatus.S_400_BAD_REQUEST.getCode());
     }
 
-    return processResourceTree(currentResource, context, remainingPath);
+    return processResourceTree(root, context, path, rootEnd + 1, end);
+  }
+
+  /** @return the end index of the path segment starting at {@code start} */
+  private static int segmentEnd(final String path, final int start, final int end)
+  {
+    final int slash = path.indexOf('/', start);
+    return slash < 0 || slash > end ? end : slash;
   }
 
-  private RoutingResult processResourceTree(final ResourceModel resource,
+  private RoutingResult processResourceTree(final RouteNode root,
                                             final ServerResourceContext context,
-                                            final Queue<String> remainingPath)
+                                            final String path,
+                                            final int start,
+                                            final int end)
   {
-    ResourceModel currentResource = resource;
+    RouteNode currentNode = root;
+    ResourceModel currentResource = root.getModel();
 
     // iterate through all path segments, simultaneously descending the resource hierarchy
     // and parsing path keys where applicable;
@@ -144,14 +150,16 @@ public class RestLiRouter
     // currentResource, and to parse the necessary information into the context
     ResourceLevel currentLevel = currentResource.getResourceLevel();
 
-    while (remainingPath.peek() != null)
+    for (int segmentStart = start; segmentStart < end;)
     {
-      String currentPathSegment = remainingPath.poll();
+      final int segmentEnd = segmentEnd(path, segmentStart, end);
+      String currentPathSegment = path.substring(segmentStart, segmentEnd);
+      segmentStart = segmentEnd + 1;
 
       if (currentLevel.equals(ResourceLevel.ENTITY))
       {
-        currentResource =
-            currentResource.getSubResource(parseSubresourceName(currentPathSegment));
+        currentNode = currentNode.getChild(decodeSegment(currentPathSegment, "subresource name"));
+        currentResource = currentNode == null ? null : currentNode.getModel();
         currentLevel = currentResource == null ?
             ResourceLevel.ANY : currentResource.getResourceLevel();
       }
@@ -199,23 +207,30 @@ public class RestLiRouter
 
     parseBatchKeysParameter(currentResource, context); //now we know the key type, look for batch parameter
 
-    return findMethodDescriptor(currentResource, currentLevel, context);
+    return findMethodDescriptor(currentNode, currentLevel, context);
   }
 
-  /** given path segment, parses subresource name out of it */
-  private static String parseSubresourceName(final String pathSegment)
+  /**
+   * URL-decodes a path segment. Most segments contain nothing to decode, in which case the
+   * segment itself is returned.
+   */
+  private static String decodeSegment(final String pathSegment, final String description)
   {
+    if (pathSegment.indexOf('%') < 0 && pathSegment.indexOf('+') < 0)
+    {
+      return pathSegment;
+    }
     try
     {
       return URLDecoder.decode(pathSegment, RestConstants.DEFAULT_CHARSET_NAME);
     }
     catch (UnsupportedEncodingException e)
     {
-      throw new RestLiInternalException("UnsupportedEncodingException while trying to decode the subresource name", e);
+      throw new RestLiInternalException("UnsupportedEncodingException while trying to decode the " + description, e);
     }
   }
 
-  private RoutingResult findMethodDescriptor(final ResourceModel resource,
+  private RoutingResult findMethodDescriptor(final RouteNode node,
                                              final ResourceLevel resourceLevel,
                                              final ServerResourceContext context)
   {
@@ -227,7 +242,7 @@ public class RestLiRouter
       methodName = context.getRequestFinderName();
     }
 
-    ResourceMethodDescriptor methodDescriptor = resource.matchMethod(type, methodName, resourceLevel);
+    ResourceMethodDescriptor methodDescriptor = node.matchMethod(type, methodName, resourceLevel);
 
     if (methodDescriptor != null)
     {
@@ -247,7 +262,7 @@ public class RestLiRouter
                             "URI: '%s'",
                             httpMethod,
                             methodName,
-                            resource.getResourceClass().getName(),
+                            node.getModel().getResourceClass().getName(),
                             context.getRequestURI().toString()),
                             HttpStatus.S_400_BAD_REQUEST.getCode());
     }
@@ -267,9 +282,9 @@ public class RestLiRouter
   // Currently only POST requests set RMETHOD header (HEADER_RESTLI_REQUEST_METHOD), however we include
   // a table entry for GET methods as well to make sure the routing doesn't fail if the client sets the header
   // when it's not necessary, as long as it doesn't conflict with the rest of the parameters.
-  private static Map<ResourceMethodMatchKey, ResourceMethod> setupResourceMethodLookup()
+  private static Map<String, Map<String, ResourceMethod[]>> setupResourceMethodLookup()
   {
-    HashMap<ResourceMethodMatchKey, ResourceMethod> result = new HashMap<ResourceMethodMatchKey, ResourceMethod>();
+    Map<String, Map<String, ResourceMethod[]>> result = new HashMap<String, Map<String, ResourceMethod[]>>();
     //                                 METHOD    RMETHOD                    ACTION   QUERY   BATCH   ENTITY
     Object[] config =
     {
@@ -311,31 +326,67 @@ public class RestLiRouter
     {
       ResourceMethodMatchKey key = (ResourceMethodMatchKey) config[ii];
       ResourceMethod method = (ResourceMethod) config[ii + 1];
-      ResourceMethod prevValue = result.put(key, method);
+
+      Map<String, ResourceMethod[]> byRestliMethod = result.get(key.getHttpMethod());
+      if (byRestliMethod == null)
+      {
+        byRestliMethod = new HashMap<String, ResourceMethod[]>();
+        result.put(key.getHttpMethod(), byRestliMethod);
+      }
+      ResourceMethod[] byFlags = byRestliMethod.get(key.getRestliMethod());
+      if (byFlags == null)
+      {
+        byFlags = new ResourceMethod[MATCH_INDEX_SIZE];
+        byRestliMethod.put(key.getRestliMethod(), byFlags);
+      }
+
+      int index = matchIndex(key.hasActionParam(), key.hasQueryParam(), key.hasBatchKeys(), key.hasEntitySegment());
+      ResourceMethod prevValue = byFlags[index];
       if (prevValue != null)
       {
         throw new RestLiInternalException("Routing Configuration conflict: "
             + prevValue.toString() + " conflicts with " + method.toString());
       }
+      byFlags[index] = method;
     }
 
     return result;
   }
 
+  private static final int MATCH_INDEX_SIZE = 16;
+
+  private static int matchIndex(final boolean hasActionParam,
+                                final boolean hasQueryParam,
+                                final boolean hasBatchKeys,
+                                final boolean hasEntitySegment)
+  {
+    return (hasActionParam ? 8 : 0) | (hasQueryParam ? 4 : 0) | (hasBatchKeys ? 2 : 0) | (hasEntitySegment ? 1 : 0);
+  }
+
+  /**
+   * Case-insensitive lookup; the upper-cased key is only computed if the exact key misses.
+   */
+  private static <V> V getIgnoreCase(final Map<String, V> map, final String key)
+  {
+    V value = map.get(key);
+    return value == null ? map.get(key.toUpperCase()) : value;
+  }
+
   private ResourceMethod mapResourceMethod(final ServerResourceContext context,
                                            final ResourceLevel resourceLevel)
   {
-    ResourceMethodMatchKey key =
-        new ResourceMethodMatchKey(context.getRequestMethod(),
-                                   context.getRestLiRequestMethod(),
-                                   context.getRequestActionName() != null,
-                                   context.getRequestFinderName() != null,
-                                   context.getPathKeys().getBatchKeys().size() > 0,
-                                   resourceLevel.equals(ResourceLevel.ENTITY));
-
-    if (_resourceMethodLookup.containsKey(key))
+    Map<String, ResourceMethod[]> byRestliMethod = getIgnoreCase(_resourceMethodLookup, context.getRequestMethod());
+    ResourceMethod[] byFlags = byRestliMethod == null ? null : getIgnoreCase(byRestliMethod, context.getRestLiRequestMethod());
+    if (byFlags != null)
     {
-      return _resourceMethodLookup.get(key);
+      ResourceMethod type = byFlags[matchIndex(context.getRequestActionName() != null,
+                                               context.getRequestFinderName() != null,
+                                               context.getPathKeys().getBatchKeys().size() > 0,
+                                               resourceLevel.equals(ResourceLevel.ENTITY))];
+      if (type != null)
+      {
+        return type;
+      }
     }
 
     if (context.hasParameter(RestConstants.ACTION_PARAM)
@@ -467,18 +518,9 @@ public class RestLiRouter
                               final ServerResourceContext context,
                               final String pathSegment)
   {
-    try
-    {
-      context.getPathKeys()
-             .append(resource.getKeyName(),
-                     ArgumentUtils.parseKeyIntoCorrectType(URLDecoder.decode(pathSegment,
-                                                                             RestConstants.DEFAULT_CHARSET_NAME),
-                                                           resource));
-    }
-    catch (UnsupportedEncodingException e)
-    {
-      throw new RestLiInternalException("UnsupportedEncodingException while trying to decode the key", e);
-    }
+    context.getPathKeys()
+           .append(resource.getKeyName(),
+                   ArgumentUtils.parseKeyIntoCorrectType(decodeSegment(pathSegment, "key"), resource));
   }
 
 }
\ No newline at end of file
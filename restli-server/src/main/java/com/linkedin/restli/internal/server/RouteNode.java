@@ -0,0 +1,147 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+
+import com.linkedin.restli.common.ResourceMethod;
+import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.server.ResourceLevel;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * A node of the routing trie which {@link RestLiRouter} compiles from the {@link ResourceModel}
+ * hierarchy when it is constructed. Each node holds the subresources of its model keyed by
+ * path segment, and the model's methods indexed by {@link ResourceMethod}, finder name and
+ * action name, so that a request can be routed with lookups alone.
+ *
+ * Nodes are immutable once built.
+ */
+/* package private */ final class RouteNode
+{
+  private final ResourceModel _model;
+  private final Map<String, RouteNode> _children;
+  private final ResourceMethodDescriptor[] _methods;
+  private final Map<String, ResourceMethodDescriptor> _finders;
+  private final Map<ResourceLevel, Map<String, ResourceMethodDescriptor>> _actions;
+
+  /**
+   * Compile the trie rooted at the given model.
+   *
+   * @param model {@link ResourceModel}
+   */
+  /* package private */ RouteNode(final ResourceModel model)
+  {
+    _model = model;
+
+    final Map<String, RouteNode> children = new HashMap<String, RouteNode>();
+    for (ResourceModel subResource : model.getSubResources())
+    {
+      children.put(subResource.getName(), new RouteNode(subResource));
+    }
+    _children = children.isEmpty() ? Collections.<String, RouteNode>emptyMap() : children;
+
+    // the first descriptor of each kind wins, matching ResourceModel.matchMethod
+    _methods = new ResourceMethodDescriptor[ResourceMethod.values().length];
+    final Map<String, ResourceMethodDescriptor> finders = new HashMap<String, ResourceMethodDescriptor>();
+    final Map<ResourceLevel, Map<String, ResourceMethodDescriptor>> actions =
+        new EnumMap<ResourceLevel, Map<String, ResourceMethodDescriptor>>(ResourceLevel.class);
+    for (ResourceMethodDescriptor descriptor : model.getResourceMethodDescriptors())
+    {
+      final ResourceMethod type = descriptor.getType();
+      if (type == ResourceMethod.ACTION)
+      {
+        Map<String, ResourceMethodDescriptor> levelActions = actions.get(descriptor.getActionResourceLevel());
+        if (levelActions == null)
+        {
+          levelActions = new HashMap<String, ResourceMethodDescriptor>();
+          actions.put(descriptor.getActionResourceLevel(), levelActions);
+        }
+        putIfAbsent(levelActions, descriptor.getActionName(), descriptor);
+      }
+      else if (type == ResourceMethod.FINDER)
+      {
+        putIfAbsent(finders, descriptor.getFinderName(), descriptor);
+      }
+      if (_methods[type.ordinal()] == null)
+      {
+        _methods[type.ordinal()] = descriptor;
+      }
+    }
+    _finders = finders;
+    _actions = actions;
+  }
+
+  private static void putIfAbsent(final Map<String, ResourceMethodDescriptor> map,
+                                  final String name,
+                                  final ResourceMethodDescriptor descriptor)
+  {
+    if (!map.containsKey(name))
+    {
+      map.put(name, descriptor);
+    }
+  }
+
+  /**
+   * @return the {@link ResourceModel} of this node
+   */
+  /* package private */ ResourceModel getModel()
+  {
+    return _model;
+  }
+
+  /**
+   * @param name decoded subresource name
+   * @return the node of the named subresource, or null if there is none
+   */
+  /* package private */ RouteNode getChild(final String name)
+  {
+    return _children.get(name);
+  }
+
+  /**
+   * Equivalent to {@link ResourceModel#matchMethod(ResourceMethod, String, ResourceLevel)}.
+   *
+   * @param type {@link ResourceMethod}
+   * @param name action or finder name
+   * @param resourceLevel {@link ResourceLevel}
+   * @return {@link ResourceMethodDescriptor} that matches the arguments or null if none match
+   */
+  /* package private */ ResourceMethodDescriptor matchMethod(final ResourceMethod type,
+                                                             final String name,
+                                                             final ResourceLevel resourceLevel)
+  {
+    if (type == ResourceMethod.ACTION)
+    {
+      final Map<String, ResourceMethodDescriptor> levelActions = _actions.get(resourceLevel);
+      return levelActions == null ? null : levelActions.get(name);
+    }
+    else if (type == ResourceMethod.FINDER)
+    {
+      return _finders.get(name);
+    }
+    else
+    {
+      return _methods[type.ordinal()];
+    }
+  }
+}
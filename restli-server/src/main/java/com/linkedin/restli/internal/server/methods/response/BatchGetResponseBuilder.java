@@ -17,13 +17,17 @@
 package com.linkedin.restli.internal.server.methods.response;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.ProjectionTraverser;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.restli.common.BatchResponse;
+import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.internal.server.RoutingResult;
 import com.linkedin.restli.internal.server.ServerResourceContext;
 import com.linkedin.restli.internal.server.methods.AnyRecord;
@@ -84,6 +88,16 @@ public class BatchGetResponseBuilder extends AbstractBatchResponseBuilder<Record
                    headers,
                    batchResponse);
 
+    final DataMap mask = RestUtils.getEncodingProjection(routingResult.getContext());
+    if (mask != null)
+    {
+      final List<DataMap> projectedResults = new ArrayList<DataMap>(map.size());
+      for (Object result : batchResponse.data().getDataMap(BatchResponse.RESULTS).values())
+      {
+        projectedResults.add((DataMap) result);
+      }
+      return new PartialRestResponse(HttpStatus.S_200_OK, batchResponse, new ProjectionTraverser(mask, projectedResults));
+    }
     return new PartialRestResponse(batchResponse);
   }
 
@@ -91,6 +105,11 @@ public class BatchGetResponseBuilder extends AbstractBatchResponseBuilder<Record
   protected DataMap buildResultRecord(final RecordTemplate o,
                                       final ResourceContext resourceContext)
   {
+    // results with a supported projection are projected when the response is encoded
+    if (RestUtils.getEncodingProjection(resourceContext) != null)
+    {
+      return o.data();
+    }
     DataMap data = RestUtils.projectFields(o.data(), resourceContext);
     return data;
   }
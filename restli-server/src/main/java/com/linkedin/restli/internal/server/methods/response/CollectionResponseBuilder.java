@@ -17,16 +17,19 @@
 package com.linkedin.restli.internal.server.methods.response;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.ProjectionTraverser;
 import com.linkedin.data.collections.CheckedUtil;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.restli.common.CollectionMetadata;
 import com.linkedin.restli.common.CollectionResponse;
+import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.RestConstants;
 import com.linkedin.restli.internal.server.RoutingResult;
 import com.linkedin.restli.internal.server.methods.AnyRecord;
@@ -102,9 +105,11 @@ public class CollectionResponseBuilder implements RestLiResponseBuilder
 
     DataList elementsMap =
         (DataList) collectionResponse.data().get(CollectionResponse.ELEMENTS);
+    // elements with a supported projection are projected when the response is encoded
+    final DataMap mask = RestUtils.getEncodingProjection(routingResult.getContext());
     for (RecordTemplate entry : elements)
     {
-      DataMap data = RestUtils.projectFields(entry.data(), routingResult.getContext());
+      DataMap data = mask == null ? RestUtils.projectFields(entry.data(), routingResult.getContext()) : entry.data();
 
       CheckedUtil.addWithoutChecking(elementsMap, data);
     }
@@ -116,6 +121,15 @@ public class CollectionResponseBuilder implements RestLiResponseBuilder
     headers.put(RestConstants.HEADER_RESTLI_TYPE, CollectionResponse.class.getName());
     headers.put(RestConstants.HEADER_RESTLI_SUB_TYPE, valueClass.getName());
 
+    if (mask != null)
+    {
+      final List<DataMap> projectedElements = new ArrayList<DataMap>(elements.size());
+      for (RecordTemplate entry : elements)
+      {
+        projectedElements.add(entry.data());
+      }
+      return new PartialRestResponse(HttpStatus.S_200_OK, collectionResponse, new ProjectionTraverser(mask, projectedElements));
+    }
     return new PartialRestResponse(collectionResponse);
   }
 
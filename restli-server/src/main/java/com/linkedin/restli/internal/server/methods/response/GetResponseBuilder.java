@@ -23,6 +23,7 @@ package com.linkedin.restli.internal.server.methods.response;
 import java.util.Map;
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.ProjectionTraverser;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.restli.common.HttpStatus;
@@ -57,6 +58,13 @@ public class GetResponseBuilder implements RestLiResponseBuilder
     }
 
     headers.put(RestConstants.HEADER_RESTLI_TYPE, record.getClass().getName());
+
+    final DataMap mask = RestUtils.getEncodingProjection(routingResult.getContext());
+    if (mask != null)
+    {
+      return new PartialRestResponse(status, new AnyRecord(record.data()), new ProjectionTraverser(mask, record.data()));
+    }
+
     final DataMap data =
         RestUtils.projectFields(record.data(), routingResult.getContext());
     return new PartialRestResponse(status, new AnyRecord(data));
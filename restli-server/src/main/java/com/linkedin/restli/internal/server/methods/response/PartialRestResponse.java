@@ -21,6 +21,7 @@
 package com.linkedin.restli.internal.server.methods.response;
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.ProjectionTraverser;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.restli.common.HttpStatus;
 
@@ -32,6 +33,7 @@ public class PartialRestResponse
 {
   private final HttpStatus _status;
   private final DataMap    _data;
+  private final ProjectionTraverser _projection;
 
   /**
    * @param record response data. The status is set to 200.
@@ -54,6 +56,16 @@ public class PartialRestResponse
    * @param record response data
    */
   public PartialRestResponse(final HttpStatus status, final RecordTemplate record)
+  {
+    this(status, record, null);
+  }
+
+  /**
+   * @param status http response status
+   * @param record response data
+   * @param projection projection to apply to the response data when it is encoded, or null
+   */
+  public PartialRestResponse(final HttpStatus status, final RecordTemplate record, final ProjectionTraverser projection)
   {
     if (record != null)
     {
@@ -65,6 +77,7 @@ public class PartialRestResponse
     }
 
     _status = status;
+    _projection = projection;
   }
 
   /**
@@ -80,6 +93,15 @@ public class PartialRestResponse
     return _data;
   }
 
+  /**
+   * @return the projection to apply to the response data when it is encoded, or null if the
+   *         response data is already projected.
+   */
+  public ProjectionTraverser getProjection()
+  {
+    return _projection;
+  }
+
   public HttpStatus getStatus()
   {
     return _status;
@@ -42,6 +42,7 @@ public final class ResourceMethodDescriptor implements RestLiMethodContext
   private ResourceModel                                 _resourceModel;
   private final ResourceMethod                          _type;
   private final Method                                  _method;
+  private final ResourceMethodInvoker                   _methodInvoker;
   private final List<Parameter<?>>                      _parameters;
   private final String                                  _finderName;
   private final Class<? extends RecordTemplate>         _finderMetadataType;
@@ -191,6 +192,8 @@ public final class ResourceMethodDescriptor implements RestLiMethodContext
     super();
     _type = type;
     _method = method;
+    // docgen builds descriptors without a resource method
+    _methodInvoker = (method == null) ? null : ResourceMethodInvoker.create(method);
     _parameters = parameters;
     _finderName = finderName;
     _actionName = actionName;
@@ -243,6 +246,16 @@ public final class ResourceMethodDescriptor implements RestLiMethodContext
     return _method;
   }
 
+  /**
+   * Get the {@link ResourceMethodInvoker} used to dispatch to the resource method.
+   *
+   * @return {@link ResourceMethodInvoker}, or null if the descriptor has no resource method
+   */
+  public ResourceMethodInvoker getMethodInvoker()
+  {
+    return _methodInvoker;
+  }
+
   /**
    * Get the list of the method {@link Parameter}s.
    *
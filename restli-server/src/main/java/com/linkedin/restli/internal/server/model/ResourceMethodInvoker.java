@@ -0,0 +1,118 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.model;
+
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Invokes a resource {@link Method}. An invoker is created once per {@link ResourceMethodDescriptor},
+ * while the {@link ResourceModel} is built, so that dispatching a request does not go through
+ * {@link Method#invoke(Object, Object...)}.
+ *
+ * Public methods of public classes are dispatched through a class generated by cglib, which calls
+ * the method directly. Any other method is invoked reflectively.
+ */
+public abstract class ResourceMethodInvoker
+{
+  private static final Logger _log = LoggerFactory.getLogger(ResourceMethodInvoker.class);
+
+  /**
+   * Create an invoker for the given resource method.
+   *
+   * @param method resource {@link Method}
+   * @return a generated invoker if one can be built for the method, a reflective invoker otherwise
+   */
+  public static ResourceMethodInvoker create(final Method method)
+  {
+    if (Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers()))
+    {
+      try
+      {
+        return createGenerated(method);
+      }
+      catch (RuntimeException e)
+      {
+        _log.debug("Could not generate an invoker for " + method + ", falling back to reflection", e);
+      }
+    }
+    return createReflective(method);
+  }
+
+  /* package private */ static ResourceMethodInvoker createGenerated(final Method method)
+  {
+    return new GeneratedMethodInvoker(FastClass.create(method.getDeclaringClass()).getMethod(method));
+  }
+
+  /* package private */ static ResourceMethodInvoker createReflective(final Method method)
+  {
+    return new ReflectiveMethodInvoker(method);
+  }
+
+  /**
+   * Invoke the resource method. Exceptions thrown by the method itself are wrapped in an
+   * {@link InvocationTargetException}, as with {@link Method#invoke(Object, Object...)}.
+   *
+   * @param resource the resource instance
+   * @param arguments the method arguments
+   * @return the method result
+   * @throws IllegalAccessException if the method is not accessible
+   * @throws InvocationTargetException if the method throws an exception
+   */
+  public abstract Object invoke(Object resource, Object[] arguments)
+      throws IllegalAccessException, InvocationTargetException;
+
+  private static class GeneratedMethodInvoker extends ResourceMethodInvoker
+  {
+    private final FastMethod _fastMethod;
+
+    private GeneratedMethodInvoker(final FastMethod fastMethod)
+    {
+      _fastMethod = fastMethod;
+    }
+
+    @Override
+    public Object invoke(final Object resource, final Object[] arguments) throws InvocationTargetException
+    {
+      return _fastMethod.invoke(resource, arguments);
+    }
+  }
+
+  private static class ReflectiveMethodInvoker extends ResourceMethodInvoker
+  {
+    private final Method _method;
+
+    private ReflectiveMethodInvoker(final Method method)
+    {
+      _method = method;
+    }
+
+    @Override
+    public Object invoke(final Object resource, final Object[] arguments)
+        throws IllegalAccessException, InvocationTargetException
+    {
+      return _method.invoke(resource, arguments);
+    }
+  }
+}
@@ -20,11 +20,12 @@ package com.linkedin.restli.internal.server.util;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.linkedin.data.Data;
+import com.linkedin.data.ByteString;
 import com.linkedin.data.DataComplex;
 import com.linkedin.data.DataList;
 import com.linkedin.data.DataMap;
 import com.linkedin.data.codec.JacksonDataCodec;
+import com.linkedin.data.codec.ProjectionTraverser;
 import com.linkedin.data.codec.PsonDataCodec;
 import com.linkedin.data.schema.DataSchema;
 import com.linkedin.data.template.DataTemplate;
@@ -345,10 +346,23 @@ public class DataMapUtils
   }
 
   public static byte[] mapToBytes(final DataMap dataMap, boolean permissive)
+  {
+    return mapToBytes(dataMap, null, permissive);
+  }
+
+  /**
+   * Encode the projection of a {@link DataMap} as a byte array using {@link JacksonDataCodec}.
+   *
+   * @param dataMap input {@link DataMap}
+   * @param projection projection to apply while encoding, or null to encode the whole {@link DataMap}
+   * @param permissive whether to retry with replaced malformed strings if encoding fails
+   * @return byte array
+   */
+  public static byte[] mapToBytes(final DataMap dataMap, final ProjectionTraverser projection, boolean permissive)
   {
     try
     {
-      return CODEC.mapToBytes(dataMap);
+      return projection == null ? CODEC.mapToBytes(dataMap) : CODEC.mapToBytes(dataMap, projection);
     }
     catch (IOException e)
     {
@@ -357,7 +371,9 @@ public class DataMapUtils
         LOG.info("Failed to serialize dataMap due to encoding error. Attempt to fix by replacing.");
         try
         {
-          return PERMISSIVE_JACKSON_DATA_CODEC.mapToBytes(dataMap);
+          return projection == null ?
+              PERMISSIVE_JACKSON_DATA_CODEC.mapToBytes(dataMap) :
+              PERMISSIVE_JACKSON_DATA_CODEC.mapToBytes(dataMap, projection);
         }
         catch (IOException innerEx)
         {
@@ -405,10 +421,43 @@ public class DataMapUtils
    * @return byte array
    */
   public static byte[] mapToPsonBytes(final DataMap dataMap)
+  {
+    return mapToPsonBytes(dataMap, null);
+  }
+
+  /**
+   * Encode the projection of a {@link DataMap} as a byte array using {@link PsonDataCodec}.
+   *
+   * @param dataMap input {@link DataMap}
+   * @param projection projection to apply while encoding, or null to encode the whole {@link DataMap}
+   * @return byte array
+   */
+  public static byte[] mapToPsonBytes(final DataMap dataMap, final ProjectionTraverser projection)
+  {
+    try
+    {
+      return projection == null ? PSON_DATA_CODEC.mapToBytes(dataMap) : PSON_DATA_CODEC.mapToBytes(dataMap, projection);
+    }
+    catch (IOException e)
+    {
+      throw new RestLiInternalException(e);
+    }
+  }
+
+  /**
+   * Encode the projection of a {@link DataMap} using {@link PsonDataCodec}, into a {@link ByteString}
+   * backed by the buffers it was encoded into, so that no array of the size of the whole
+   * entity is allocated.
+   *
+   * @param dataMap input {@link DataMap}
+   * @param projection projection to apply while encoding, or null to encode the whole {@link DataMap}
+   * @return encoded bytes
+   */
+  public static ByteString mapToPsonByteString(final DataMap dataMap, final ProjectionTraverser projection)
   {
     try
     {
-      return PSON_DATA_CODEC.mapToBytes(dataMap);
+      return PSON_DATA_CODEC.mapToByteString(dataMap, projection);
     }
     catch (IOException e)
     {
@@ -436,12 +485,9 @@ public class DataMapUtils
     }
 
     @Override
-    protected void writeObject(Object object, JsonGenerator generator) throws IOException
+    protected JsonTraverseCallback createTraverseCallback(JsonGenerator generator)
     {
-      JsonTraverseCallback callback = new PermissiveJsonTraverseCallback(generator);
-      Data.traverse(object, callback);
-      generator.flush();
-      generator.close();
+      return new PermissiveJsonTraverseCallback(generator);
     }
 
     private static class PermissiveJsonTraverseCallback extends JsonTraverseCallback
@@ -18,6 +18,7 @@ package com.linkedin.restli.internal.server.util;
 
 
 import com.linkedin.data.DataMap;
+import com.linkedin.data.codec.ProjectionTraverser;
 import com.linkedin.data.transform.filter.CopyFilter;
 import com.linkedin.data.transform.filter.request.MaskTree;
 import com.linkedin.jersey.api.uri.UriBuilder;
@@ -261,6 +262,30 @@ public class RestUtils
     }
   }
 
+  /**
+   * Decide whether the projection of the input {@link ResourceContext} can be applied while the
+   * response is encoded, instead of by {@link #projectFields(DataMap, ResourceContext)}.
+   *
+   * @param resourceContext {@link ResourceContext} to get the projection mask from
+   * @return the projection mask to encode the response with, or null if the data has to be
+   *         projected with {@link #projectFields(DataMap, ResourceContext)}
+   */
+  public static DataMap getEncodingProjection(final ResourceContext resourceContext)
+  {
+    if (resourceContext.getProjectionMode() != ProjectionMode.AUTOMATIC)
+    {
+      return null;
+    }
+
+    final MaskTree filter = resourceContext.getProjectionMask();
+    if (filter == null || !ProjectionTraverser.isSupportedMask(filter.getDataMap()))
+    {
+      return null;
+    }
+
+    return filter.getDataMap();
+  }
+
   /**
    * Validate request headers.
    *
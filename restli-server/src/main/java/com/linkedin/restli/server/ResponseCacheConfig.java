@@ -0,0 +1,105 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server;
+
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Configuration of the server side response cache, enabled by passing an instance to
+ * {@link RestLiConfig#setResponseCacheConfig(ResponseCacheConfig)}.
+ *
+ * Only GET and BATCH_GET requests of resources annotated with
+ * {@link com.linkedin.restli.server.annotations.CacheResponse}, or registered here with
+ * {@link #addCachedResource(Class, long)}, are cached.
+ *
+ * Besides the Accept header, request headers are not part of the cache key, so a cached response
+ * is served to every caller of the same URI. Headers which cached resources do vary on must be
+ * added with {@link #addVaryHeader(String)}.
+ */
+public class ResponseCacheConfig
+{
+  public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+  private int _maxEntries = DEFAULT_MAX_ENTRIES;
+  private final Map<Class<?>, Long> _cachedResources = new HashMap<Class<?>, Long>();
+  private final Set<String> _varyHeaders = new LinkedHashSet<String>();
+
+  public int getMaxEntries()
+  {
+    return _maxEntries;
+  }
+
+  /**
+   * @param maxEntries number of entries kept before the least recently used ones are evicted.
+   *                   A BATCH_GET response takes one entry per key.
+   */
+  public void setMaxEntries(int maxEntries)
+  {
+    if (maxEntries <= 0)
+    {
+      throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+    }
+    _maxEntries = maxEntries;
+  }
+
+  /**
+   * Cache the GET and BATCH_GET responses of a resource which cannot be annotated. Takes
+   * precedence over any {@link com.linkedin.restli.server.annotations.CacheResponse} on it.
+   *
+   * @param resourceClass the resource class
+   * @param ttlMillis how long a cached response may be served, in milliseconds
+   */
+  public void addCachedResource(Class<?> resourceClass, long ttlMillis)
+  {
+    if (ttlMillis <= 0)
+    {
+      throw new IllegalArgumentException("ttlMillis must be positive: " + ttlMillis);
+    }
+    _cachedResources.put(resourceClass, ttlMillis);
+  }
+
+  public Map<Class<?>, Long> getCachedResources()
+  {
+    return Collections.unmodifiableMap(_cachedResources);
+  }
+
+  /**
+   * Make the value of a request header part of the cache key, for all cached resources, so that
+   * requests which differ in it are not served each other's responses.
+   *
+   * @param headerName the header name, case insensitive
+   */
+  public void addVaryHeader(String headerName)
+  {
+    if (headerName == null || headerName.isEmpty())
+    {
+      throw new IllegalArgumentException("headerName must not be empty");
+    }
+    _varyHeaders.add(headerName);
+  }
+
+  public Set<String> getVaryHeaders()
+  {
+    return Collections.unmodifiableSet(_varyHeaders);
+  }
+}
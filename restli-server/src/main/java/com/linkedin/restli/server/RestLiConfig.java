@@ -63,6 +63,7 @@ public class RestLiConfig
   private boolean _permissiveEncoding = false;
   private RestliProtocolCheck _restliProtocolCheck = RestliProtocolCheck.STRICT;
   private List<RestLiDebugRequestHandler> _debugRequestHandlers;
+  private ResponseCacheConfig _responseCacheConfig = null;
 
   /**
    * Constructor.
@@ -258,4 +259,20 @@ public class RestLiConfig
   {
     return _restliProtocolCheck;
   }
+
+  public ResponseCacheConfig getResponseCacheConfig()
+  {
+    return _responseCacheConfig;
+  }
+
+  /**
+   * Enables the server side response cache for GET and BATCH_GET requests of the resources
+   * selected by the config. The cache is disabled by default.
+   *
+   * @param responseCacheConfig the cache configuration, or null to disable the cache
+   */
+  public void setResponseCacheConfig(ResponseCacheConfig responseCacheConfig)
+  {
+    _responseCacheConfig = responseCacheConfig;
+  }
 }
@@ -18,6 +18,9 @@ package com.linkedin.restli.server;
 
 
 import com.linkedin.common.callback.Callback;
+import com.linkedin.data.DataMap;
+import com.linkedin.data.template.DataTemplateUtil;
+import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.jersey.api.uri.UriBuilder;
 import com.linkedin.parseq.Engine;
 import com.linkedin.r2.message.RequestContext;
@@ -27,13 +30,17 @@ import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.util.URIUtil;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.ProtocolVersion;
+import com.linkedin.restli.common.ResourceMethod;
 import com.linkedin.restli.internal.common.AllProtocolVersions;
 import com.linkedin.restli.internal.common.ProtocolVersionUtil;
+import com.linkedin.restli.internal.server.MutablePathKeys;
+import com.linkedin.restli.internal.server.ResponseCache;
 import com.linkedin.restli.internal.server.RestLiCallback;
 import com.linkedin.restli.internal.server.RestLiMethodInvoker;
 import com.linkedin.restli.internal.server.RestLiResponseHandler;
 import com.linkedin.restli.internal.server.RestLiRouter;
 import com.linkedin.restli.internal.server.RoutingResult;
+import com.linkedin.restli.internal.server.ServerResourceContext;
 import com.linkedin.restli.internal.server.methods.response.ErrorResponseBuilder;
 import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor;
 import com.linkedin.restli.internal.server.model.ResourceMethodDescriptor.InterfaceType;
@@ -71,6 +78,7 @@ public class RestLiServer extends BaseRestServer
   private final ErrorResponseBuilder _errorResponseBuilder;
   private final List<InvokeAware> _invokeAwares;
   private final Map<String, RestLiDebugRequestHandler> _debugHandlers;
+  private final ResponseCache _responseCache;
 
   private boolean _isDocInitialized = false;
 
@@ -113,6 +121,9 @@ public class RestLiServer extends BaseRestServer
     _docRequestHandler = config.getDocumentationRequestHandler();
     _invokeAwares = (invokeAwares == null) ? Collections.<InvokeAware>emptyList() : Collections.unmodifiableList(invokeAwares);
     _debugHandlers = new HashMap<String, RestLiDebugRequestHandler>();
+    _responseCache = config.getResponseCacheConfig() == null
+        ? null
+        : new ResponseCache(config.getResponseCacheConfig(), _rootResources);
 
     for (RestLiDebugRequestHandler debugHandler : config.getDebugRequestHandlers())
     {
@@ -276,11 +287,70 @@ public class RestLiServer extends BaseRestServer
       return;
     }
 
-    final RequestExecutionCallback<RestResponse> wrappedCallback = notifyInvokeAwares(method, callback);
+    if (_responseCache != null)
+    {
+      _responseCache.invalidate(method.getResourceMethod());
+      final long ttl = isDebugMode ? 0 : _responseCache.getTtl(method.getResourceMethod());
+      if (ttl > 0)
+      {
+        if (method.getResourceMethod().getMethodType() == ResourceMethod.BATCH_GET)
+        {
+          handleCachedBatchGetRequest(request, method, callback, ttl);
+        }
+        else
+        {
+          handleCachedGetRequest(request, method, callback, ttl);
+        }
+        return;
+      }
+    }
+
+    final RequestExecutionCallback<RestResponse> wrappedCallback =
+        notifyInvokeAwares(method, invalidateOnCompletion(method, callback));
 
     final RestLiCallback<Object> restLiCallback =
         new RestLiCallback<Object>(request, method, _responseHandler, wrappedCallback);
 
+    invokeResource(request, method, restLiCallback, isDebugMode);
+  }
+
+  /**
+   * Invalidates the cached responses of a modifying method's resource again once the method
+   * completes, before the response is returned. Reads served between routing and completion may
+   * have seen the resource before the write, so they must not be cached as current.
+   */
+  private RequestExecutionCallback<RestResponse> invalidateOnCompletion(final RoutingResult routingResult,
+                                                                        final RequestExecutionCallback<RestResponse> originalCallback)
+  {
+    final ResourceMethodDescriptor method = routingResult.getResourceMethod();
+    if (_responseCache == null || !_responseCache.mayModify(method))
+    {
+      return originalCallback;
+    }
+
+    return new RequestExecutionCallback<RestResponse>()
+    {
+      @Override
+      public void onSuccess(RestResponse result, RequestExecutionReport executionReport)
+      {
+        _responseCache.invalidate(method);
+        originalCallback.onSuccess(result, executionReport);
+      }
+
+      @Override
+      public void onError(Throwable error, RequestExecutionReport executionReport)
+      {
+        _responseCache.invalidate(method);
+        originalCallback.onError(error, executionReport);
+      }
+    };
+  }
+
+  private void invokeResource(final RestRequest request,
+                              final RoutingResult method,
+                              final RestLiCallback<Object> restLiCallback,
+                              final boolean isDebugMode)
+  {
     try
     {
       _methodInvoker.invoke(method, request, restLiCallback, isDebugMode);
@@ -291,6 +361,150 @@ public class RestLiServer extends BaseRestServer
     }
   }
 
+  /**
+   * Serves a GET request from the response cache, or invokes the resource and caches a successful
+   * response. {@link InvokeAware}s are not notified on a cache hit since the resource is not invoked.
+   */
+  private void handleCachedGetRequest(final RestRequest request,
+                                      final RoutingResult method,
+                                      final RequestExecutionCallback<RestResponse> callback,
+                                      final long ttl)
+  {
+    final Class<?> resourceClass = method.getResourceMethod().getResourceModel().getResourceClass();
+    final String key = _responseCache.getResponseKey(request, method);
+    final RestResponse cachedResponse = (RestResponse) _responseCache.get(key, resourceClass);
+    if (cachedResponse != null)
+    {
+      callback.onSuccess(cachedResponse, createEmptyExecutionReport());
+      return;
+    }
+
+    final long generation = _responseCache.getGeneration(resourceClass);
+    final RequestExecutionCallback<RestResponse> cachingCallback = new RequestExecutionCallback<RestResponse>()
+    {
+      @Override
+      public void onSuccess(RestResponse result, RequestExecutionReport executionReport)
+      {
+        if (result.getStatus() == HttpStatus.S_200_OK.getCode())
+        {
+          _responseCache.put(key, result, resourceClass, generation, ttl);
+        }
+        callback.onSuccess(result, executionReport);
+      }
+
+      @Override
+      public void onError(Throwable error, RequestExecutionReport executionReport)
+      {
+        callback.onError(error, executionReport);
+      }
+    };
+
+    invokeResource(request,
+                   method,
+                   new RestLiCallback<Object>(request, method, _responseHandler, notifyInvokeAwares(method, cachingCallback)),
+                   false);
+  }
+
+  /**
+   * Serves the cached entities of a BATCH_GET request from the response cache and invokes the
+   * resource with the remaining keys only. The entities returned by the resource are cached per key.
+   */
+  private void handleCachedBatchGetRequest(final RestRequest request,
+                                           final RoutingResult method,
+                                           final RequestExecutionCallback<RestResponse> callback,
+                                           final long ttl)
+  {
+    final Class<?> resourceClass = method.getResourceMethod().getResourceModel().getResourceClass();
+    final Class<? extends RecordTemplate> valueClass = method.getResourceMethod().getResourceModel().getValueClass();
+    final MutablePathKeys pathKeys = ((ServerResourceContext) method.getContext()).getPathKeys();
+    final String batchPrefix = _responseCache.getBatchPrefix(request, method);
+
+    final Map<Object, RecordTemplate> cachedEntities = new HashMap<Object, RecordTemplate>();
+    for (Object batchKey : new ArrayList<Object>(pathKeys.getBatchKeys()))
+    {
+      final DataMap data = (DataMap) _responseCache.get(ResponseCache.getBatchEntityKey(batchPrefix, batchKey), resourceClass);
+      if (data != null)
+      {
+        cachedEntities.put(batchKey, DataTemplateUtil.wrap(data, valueClass));
+        pathKeys.removeBatchValue(batchKey);
+      }
+    }
+
+    if (!cachedEntities.isEmpty() && pathKeys.getBatchKeys().isEmpty())
+    {
+      new RestLiCallback<Object>(request, method, _responseHandler, callback).onSuccess(cachedEntities,
+                                                                                          createEmptyExecutionReport());
+      return;
+    }
+
+    final long generation = _responseCache.getGeneration(resourceClass);
+    final RestLiCallback<Object> restLiCallback =
+        new RestLiCallback<Object>(request, method, _responseHandler, notifyInvokeAwares(method, callback))
+        {
+          @Override
+          public void onSuccess(Object result, RequestExecutionReport executionReport)
+          {
+            super.onSuccess(mergeBatchGetResult(result, cachedEntities, batchPrefix, resourceClass, generation, ttl),
+                            executionReport);
+          }
+        };
+
+    invokeResource(request, method, restLiCallback, false);
+  }
+
+  /**
+   * Caches the entities returned by a BATCH_GET resource method and adds the entities which were
+   * served from the cache to its result.
+   */
+  private Object mergeBatchGetResult(final Object result,
+                                     final Map<Object, RecordTemplate> cachedEntities,
+                                     final String batchPrefix,
+                                     final Class<?> resourceClass,
+                                     final long generation,
+                                     final long ttl)
+  {
+    if (!(result instanceof Map))
+    {
+      return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    /** constrained by signature of {@link com.linkedin.restli.server.resources.CollectionResource#batchGet(java.util.Set)} */
+    final Map<Object, RecordTemplate> entities = (Map<Object, RecordTemplate>) result;
+    for (Map.Entry<Object, RecordTemplate> entry : entities.entrySet())
+    {
+      if (entry.getValue() == null)
+      {
+        continue;
+      }
+      try
+      {
+        final DataMap data = entry.getValue().data().copy();
+        data.makeReadOnly();
+        _responseCache.put(ResponseCache.getBatchEntityKey(batchPrefix, entry.getKey()), data, resourceClass, generation, ttl);
+      }
+      catch (CloneNotSupportedException e)
+      {
+        log.warn("Unable to cache batch_get entity " + entry.getKey(), e);
+      }
+    }
+
+    if (cachedEntities.isEmpty())
+    {
+      return result;
+    }
+
+    final Map<Object, RecordTemplate> merged = new HashMap<Object, RecordTemplate>(entities);
+    merged.putAll(cachedEntities);
+    if (result instanceof BatchResult)
+    {
+      @SuppressWarnings("unchecked")
+      final BatchResult<Object, RecordTemplate> batchResult = (BatchResult<Object, RecordTemplate>) result;
+      return new BatchResult<Object, RecordTemplate>(merged, batchResult.getErrors());
+    }
+    return merged;
+  }
+
   private void handleDocumentationRequest(final RestRequest request,
                                           final Callback<RestResponse> callback)
   {
@@ -0,0 +1,45 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.server.annotations;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Marks a resource, or its get / batch_get method, as safe to serve from the server side
+ * response cache. It only takes effect when a {@link com.linkedin.restli.server.ResponseCacheConfig}
+ * is set on the {@link com.linkedin.restli.server.RestLiConfig}. An annotation on the method takes
+ * precedence over one on the class.
+ *
+ * Only resources whose responses depend on nothing but the request URI, projection, protocol
+ * version and Accept header should be annotated. No other request header is part of the cache
+ * key, so a response cached for one caller is served to others whose headers differ, e.g. in
+ * Accept-Language or an authentication header. A resource which varies on such headers must not
+ * be annotated, unless each of them is registered with
+ * {@link com.linkedin.restli.server.ResponseCacheConfig#addVaryHeader(String)}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface CacheResponse
+{
+  /** How long a cached response may be served, in milliseconds. */
+  long ttlMillis();
+}
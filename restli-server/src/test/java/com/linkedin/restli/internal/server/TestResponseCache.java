@@ -0,0 +1,149 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server;
+
+
+import com.linkedin.restli.internal.server.model.ResourceModel;
+import com.linkedin.restli.server.ResponseCacheConfig;
+
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TestResponseCache
+{
+  @Test
+  public void testExpiry()
+  {
+    final TestableResponseCache cache = new TestableResponseCache(new ResponseCacheConfig());
+    cache.put("a", "value", Object.class, 0, 100);
+    cache._time = 99;
+    Assert.assertEquals(cache.get("a", Object.class), "value");
+    cache._time = 100;
+    Assert.assertNull(cache.get("a", Object.class));
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction()
+  {
+    final ResponseCacheConfig config = new ResponseCacheConfig();
+    config.setMaxEntries(2);
+    final TestableResponseCache cache = new TestableResponseCache(config);
+
+    cache.put("a", "1", Object.class, 0, 100);
+    cache.put("b", "2", Object.class, 0, 100);
+    cache.get("a", Object.class);
+    cache.put("c", "3", Object.class, 0, 100);
+
+    Assert.assertEquals(cache.size(), 2);
+    Assert.assertEquals(cache.get("a", Object.class), "1");
+    Assert.assertNull(cache.get("b", Object.class));
+    Assert.assertEquals(cache.get("c", Object.class), "3");
+  }
+
+  @Test
+  public void testReferencedEntrySurvivesEviction()
+  {
+    final ResponseCacheConfig config = new ResponseCacheConfig();
+    config.setMaxEntries(10);
+    final TestableResponseCache cache = new TestableResponseCache(config);
+
+    cache.put("hot", "value", Object.class, 0, 100);
+    for (int i = 0; i < 100; i++)
+    {
+      Assert.assertEquals(cache.get("hot", Object.class), "value");
+      cache.put(i, i, Object.class, 0, 100);
+      Assert.assertTrue(cache.size() <= 10);
+    }
+    Assert.assertEquals(cache.get("hot", Object.class), "value");
+    Assert.assertEquals(cache.get(99, Object.class), 99);
+  }
+
+  @Test
+  public void testConcurrentAccessStaysBounded() throws Exception
+  {
+    final ResponseCacheConfig config = new ResponseCacheConfig();
+    config.setMaxEntries(50);
+    final ResponseCache cache = new ResponseCache(config, Collections.<String, ResourceModel>emptyMap());
+
+    final Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++)
+    {
+      final int seed = t;
+      threads[t] = new Thread()
+      {
+        @Override
+        public void run()
+        {
+          for (int i = 0; i < 20000; i++)
+          {
+            final Integer key = (i * 31 + seed) % 200;
+            if (cache.get(key, Object.class) == null)
+            {
+              cache.put(key, key, Object.class, 0, 60000);
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+
+    Assert.assertTrue(cache.size() <= 50, "size: " + cache.size());
+    for (int key = 0; key < 200; key++)
+    {
+      final Object value = cache.get(key, Object.class);
+      Assert.assertTrue(value == null || value.equals(key));
+    }
+  }
+
+  @Test
+  public void testBatchEntityKey()
+  {
+    Assert.assertEquals(ResponseCache.getBatchEntityKey("prefix", 1L), ResponseCache.getBatchEntityKey("prefix", 1L));
+    Assert.assertFalse(ResponseCache.getBatchEntityKey("prefix", 1L).equals(ResponseCache.getBatchEntityKey("prefix", 2L)));
+    Assert.assertFalse(ResponseCache.getBatchEntityKey("prefix", 1L).equals(ResponseCache.getBatchEntityKey("other", 1L)));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidTtl()
+  {
+    new ResponseCacheConfig().addCachedResource(Object.class, 0);
+  }
+
+  private static class TestableResponseCache extends ResponseCache
+  {
+    private long _time = 0;
+
+    private TestableResponseCache(ResponseCacheConfig config)
+    {
+      super(config, Collections.<String, ResourceModel>emptyMap());
+    }
+
+    @Override
+    protected long currentTimeMillis()
+    {
+      return _time;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.model;
+
+
+import com.linkedin.common.callback.Callback;
+import com.linkedin.parseq.Task;
+import com.linkedin.parseq.Tasks;
+import com.linkedin.parseq.promise.Promise;
+import com.linkedin.parseq.promise.Promises;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * JMH benchmark of the cost of dispatching to a resource method through a generated and a
+ * reflective {@link ResourceMethodInvoker}, for a method of each
+ * {@link ResourceMethodDescriptor.InterfaceType}. The resource methods do no work, so the
+ * numbers only reflect the dispatch. Run with {@code gradle :restli-server:runMethodInvokerBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResourceMethodInvokerBenchmark
+{
+  @Param({"SYNC", "CALLBACK", "PROMISE", "TASK"})
+  public ResourceMethodDescriptor.InterfaceType _interfaceType;
+
+  @Param({"generated", "reflective"})
+  public String _invokerType;
+
+  private final BenchmarkResource _resource = new BenchmarkResource();
+  private ResourceMethodInvoker _invoker;
+  private Object[] _arguments;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException
+  {
+    final Method method;
+    switch (_interfaceType)
+    {
+      case CALLBACK:
+        method = BenchmarkResource.class.getMethod("getCallback", Long.class, Callback.class);
+        _arguments = new Object[] { 1L, new NoopCallback() };
+        break;
+      case PROMISE:
+        method = BenchmarkResource.class.getMethod("getPromise", Long.class);
+        _arguments = new Object[] { 1L };
+        break;
+      case TASK:
+        method = BenchmarkResource.class.getMethod("getTask", Long.class);
+        _arguments = new Object[] { 1L };
+        break;
+      default:
+        method = BenchmarkResource.class.getMethod("get", Long.class);
+        _arguments = new Object[] { 1L };
+    }
+    _invoker = "generated".equals(_invokerType)
+        ? ResourceMethodInvoker.createGenerated(method)
+        : ResourceMethodInvoker.createReflective(method);
+  }
+
+  @Benchmark
+  public Object invoke() throws Exception
+  {
+    return _invoker.invoke(_resource, _arguments);
+  }
+
+  public static class BenchmarkResource
+  {
+    private static final String GREETING = "hello";
+    private static final Promise<String> PROMISE = Promises.value(GREETING);
+    private static final Task<String> TASK = Tasks.callable("greeting", new Callable<String>()
+    {
+      @Override
+      public String call()
+      {
+        return GREETING;
+      }
+    });
+
+    public String get(Long key)
+    {
+      return GREETING;
+    }
+
+    public void getCallback(Long key, Callback<String> callback)
+    {
+      callback.onSuccess(GREETING);
+    }
+
+    public Promise<String> getPromise(Long key)
+    {
+      return PROMISE;
+    }
+
+    public Task<String> getTask(Long key)
+    {
+      return TASK;
+    }
+  }
+
+  private static class NoopCallback implements Callback<String>
+  {
+    @Override
+    public void onSuccess(String result)
+    {
+    }
+
+    @Override
+    public void onError(Throwable e)
+    {
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+   Copyright (c) 2014 LinkedIn Corp.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+
+package com.linkedin.restli.internal.server.model;
+
+
+import com.linkedin.restli.common.ResourceMethod;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+public class TestResourceMethodInvoker
+{
+  @DataProvider(name = "invokers")
+  public Object[][] invokers() throws NoSuchMethodException
+  {
+    Method add = PublicFixture.class.getMethod("add", int.class, Integer.class);
+    return new Object[][] {
+        { ResourceMethodInvoker.create(add) },
+        { ResourceMethodInvoker.createGenerated(add) },
+        { ResourceMethodInvoker.createReflective(add) }
+    };
+  }
+
+  @Test(dataProvider = "invokers")
+  public void testInvoke(ResourceMethodInvoker invoker) throws Exception
+  {
+    Assert.assertEquals(invoker.invoke(new PublicFixture(), new Object[] { 1, 2 }), 3L);
+  }
+
+  @Test
+  public void testApplicationExceptionIsWrapped() throws Exception
+  {
+    Method fail = PublicFixture.class.getMethod("fail", String.class);
+    for (ResourceMethodInvoker invoker : new ResourceMethodInvoker[] {
+        ResourceMethodInvoker.createGenerated(fail), ResourceMethodInvoker.createReflective(fail) })
+    {
+      try
+      {
+        invoker.invoke(new PublicFixture(), new Object[] { "boom" });
+        Assert.fail("Expected an InvocationTargetException");
+      }
+      catch (InvocationTargetException e)
+      {
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        Assert.assertEquals(e.getCause().getMessage(), "boom");
+      }
+    }
+  }
+
+  @Test
+  public void testInheritedMethodDispatchesVirtually() throws Exception
+  {
+    Method add = PublicFixture.class.getMethod("add", int.class, Integer.class);
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.create(add);
+    Assert.assertEquals(invoker.invoke(new PublicFixtureSubclass(), new Object[] { 1, 2 }), 4L);
+  }
+
+  @Test
+  public void testDescriptorWithoutMethod()
+  {
+    ResourceMethodDescriptor descriptor =
+        ResourceMethodDescriptor.createForRestful(ResourceMethod.GET, null, ResourceMethodDescriptor.InterfaceType.SYNC);
+    Assert.assertNull(descriptor.getMethod());
+    Assert.assertNull(descriptor.getMethodInvoker());
+  }
+
+  @Test
+  public void testNonPublicClassFallsBackToReflection() throws Exception
+  {
+    Method echo = PrivateFixture.class.getMethod("echo", String.class);
+    ResourceMethodInvoker invoker = ResourceMethodInvoker.create(echo);
+    Assert.assertEquals(invoker.invoke(new PrivateFixture(), new Object[] { "hello" }), "hello");
+  }
+
+  public static class PublicFixture
+  {
+    public long add(int a, Integer b)
+    {
+      return a + b;
+    }
+
+    public void fail(String message)
+    {
+      throw new IllegalStateException(message);
+    }
+  }
+
+  public static class PublicFixtureSubclass extends PublicFixture
+  {
+    @Override
+    public long add(int a, Integer b)
+    {
+      return super.add(a, b) + 1;
+    }
+  }
+
+  private static class PrivateFixture
+  {
+    public String echo(String message)
+    {
+      return message;
+    }
+  }
+}
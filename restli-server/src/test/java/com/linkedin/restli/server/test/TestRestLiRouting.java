@@ -317,6 +317,10 @@ public class TestRestLiRouting
     checkResult("/statuses/%31", "GET",
                 ResourceMethod.GET, StatusCollectionResource.class, "get", false, "statusID");
     expectRoutingException("/statuses%2F1", "GET");
+    checkResult("/statuses/1/", "GET",
+                ResourceMethod.GET, StatusCollectionResource.class, "get", false, "statusID");
+    checkResult("/statuses/1", "get", "get",
+                ResourceMethod.GET, StatusCollectionResource.class, "get", false, "statusID");
     checkResult("/statuses/-1", "GET",
                 ResourceMethod.GET, StatusCollectionResource.class, "get", false, "statusID");
     checkResult("/statuses?ids=1&ids=2&ids3", "GET",
@@ -18,6 +18,7 @@ package com.linkedin.restli.server.test;
 
 
 import com.linkedin.common.callback.Callback;
+import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.data.DataMap;
 import com.linkedin.parseq.Engine;
 import com.linkedin.r2.message.RequestContext;
@@ -26,6 +27,7 @@ import com.linkedin.r2.message.rest.RestRequest;
 import com.linkedin.r2.message.rest.RestRequestBuilder;
 import com.linkedin.r2.message.rest.RestResponse;
 import com.linkedin.r2.message.rest.RestResponseBuilder;
+import com.linkedin.restli.common.BatchResponse;
 import com.linkedin.restli.common.ErrorResponse;
 import com.linkedin.restli.common.HttpStatus;
 import com.linkedin.restli.common.ProtocolVersion;
@@ -37,10 +39,12 @@ import com.linkedin.restli.internal.server.util.DataMapUtils;
 import com.linkedin.restli.server.ErrorResponseFormat;
 import com.linkedin.restli.server.RequestExecutionCallback;
 import com.linkedin.restli.server.ResourceContext;
+import com.linkedin.restli.server.ResponseCacheConfig;
 import com.linkedin.restli.server.RestLiConfig;
 import com.linkedin.restli.server.RestLiDebugRequestHandler;
 import com.linkedin.restli.server.RestLiServer;
 import com.linkedin.restli.server.RestLiServiceException;
+import com.linkedin.restli.server.UpdateResponse;
 import com.linkedin.restli.server.resources.BaseResource;
 import com.linkedin.restli.server.twitter.AsyncStatusCollectionResource;
 import com.linkedin.restli.server.twitter.StatusCollectionResource;
@@ -51,8 +55,11 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
@@ -737,6 +744,182 @@ public class TestRestLiServer
     _server.handleRequest(request, new RequestContext(), callback);
   }
 
+  @Test
+  public void testResponseCacheGet() throws Exception
+  {
+    final RestLiServer server = createServerWithResponseCache();
+    final StatusCollectionResource statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.replay(statusResource);
+
+    final RestResponse first = handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).build());
+    final RestResponse second = handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).build());
+
+    EasyMock.verify(statusResource);
+    assertEquals(second.getStatus(), 200);
+    assertEquals(second.getEntity(), first.getEntity());
+  }
+
+  @Test
+  public void testResponseCacheKeyedOnProjection() throws Exception
+  {
+    final RestLiServer server = createServerWithResponseCache();
+    StatusCollectionResource statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.replay(statusResource);
+    handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).build());
+    EasyMock.verify(statusResource);
+
+    statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.replay(statusResource);
+    final RestResponse projected = handleRequest(server, new RestRequestBuilder(new URI("/statuses/1?fields=id")).build());
+    EasyMock.verify(statusResource);
+    assertFalse(DataMapUtils.readMap(projected).containsKey("text"));
+  }
+
+  @Test
+  public void testResponseCacheBatchGetPartialHit() throws Exception
+  {
+    final RestLiServer server = createServerWithResponseCache();
+    StatusCollectionResource statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.batchGet(eq(new HashSet<Long>(Arrays.asList(1L, 2L)))))
+        .andReturn(buildStatusRecords(1L, 2L)).once();
+    EasyMock.replay(statusResource);
+    handleRequest(server, new RestRequestBuilder(new URI("/statuses?ids=1&ids=2")).build());
+    EasyMock.verify(statusResource);
+
+    statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.batchGet(eq(Collections.singleton(3L)))).andReturn(buildStatusRecords(3L)).once();
+    EasyMock.replay(statusResource);
+    final RestResponse response = handleRequest(server, new RestRequestBuilder(new URI("/statuses?ids=1&ids=2&ids=3")).build());
+    EasyMock.verify(statusResource);
+
+    final DataMap results = DataMapUtils.readMap(response).getDataMap(BatchResponse.RESULTS);
+    assertEquals(results.keySet(), new HashSet<String>(Arrays.asList("1", "2", "3")));
+  }
+
+  @Test
+  public void testResponseCacheInvalidatedByUpdate() throws Exception
+  {
+    final RestLiServer server = createServerWithResponseCache();
+    StatusCollectionResource statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.replay(statusResource);
+    handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).build());
+    EasyMock.verify(statusResource);
+
+    statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.delete(eq(1L))).andReturn(new UpdateResponse(HttpStatus.S_204_NO_CONTENT)).once();
+    EasyMock.replay(statusResource);
+    handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).setMethod("DELETE").build());
+    EasyMock.verify(statusResource);
+
+    statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.replay(statusResource);
+    handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).build());
+    EasyMock.verify(statusResource);
+  }
+
+  @Test
+  public void testResponseCacheNotFilledByReadDuringUpdate() throws Exception
+  {
+    final RestLiServer server = createServerWithResponseCache();
+    final RestRequest update = new RestRequestBuilder(new URI("/statuses/1"))
+        .setMethod("PUT")
+        .setEntity(DataMapUtils.mapToBytes(buildStatusRecord().data()))
+        .build();
+
+    // a GET arrives while the UPDATE is still running and reads the resource before the write
+    final StatusCollectionResource statusResource = getMockResource(StatusCollectionResource.class);
+    statusResource.setContext((ResourceContext) EasyMock.anyObject());
+    EasyMock.expectLastCall().once();
+    EasyMock.expect(statusResource.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.expect(statusResource.update(eq(1L), (Status) EasyMock.anyObject())).andAnswer(new IAnswer<UpdateResponse>()
+    {
+      @Override
+      public UpdateResponse answer() throws Throwable
+      {
+        handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).build());
+        return new UpdateResponse(HttpStatus.S_204_NO_CONTENT);
+      }
+    }).once();
+    EasyMock.replay(statusResource);
+    handleRequest(server, update);
+    EasyMock.verify(statusResource);
+
+    // the read made during the update must not be served once the update has completed
+    final StatusCollectionResource afterUpdate = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(afterUpdate.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.replay(afterUpdate);
+    handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).build());
+    EasyMock.verify(afterUpdate);
+  }
+
+  @Test
+  public void testResponseCacheKeyedOnVaryHeaders() throws Exception
+  {
+    final ResponseCacheConfig cacheConfig = new ResponseCacheConfig();
+    cacheConfig.addVaryHeader("Accept-Language");
+    final RestLiServer server = createServerWithResponseCache(cacheConfig);
+
+    StatusCollectionResource statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.replay(statusResource);
+    handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).setHeader("Accept-Language", "en").build());
+    EasyMock.verify(statusResource);
+
+    statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.expect(statusResource.get(eq(1L))).andReturn(buildStatusRecord()).once();
+    EasyMock.replay(statusResource);
+    handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).setHeader("Accept-Language", "fr").build());
+    EasyMock.verify(statusResource);
+
+    // header names are case insensitive, so this is served from the cache
+    statusResource = getMockResource(StatusCollectionResource.class);
+    EasyMock.replay(statusResource);
+    final RestResponse cached =
+        handleRequest(server, new RestRequestBuilder(new URI("/statuses/1")).setHeader("accept-language", "en").build());
+    EasyMock.verify(statusResource);
+    assertEquals(cached.getStatus(), 200);
+  }
+
+  private RestLiServer createServerWithResponseCache()
+  {
+    return createServerWithResponseCache(new ResponseCacheConfig());
+  }
+
+  private RestLiServer createServerWithResponseCache(ResponseCacheConfig cacheConfig)
+  {
+    cacheConfig.addCachedResource(StatusCollectionResource.class, 60000);
+
+    final RestLiConfig config = new RestLiConfig();
+    config.addResourcePackageNames("com.linkedin.restli.server.twitter");
+    config.setResponseCacheConfig(cacheConfig);
+
+    final Engine fakeEngine = EasyMock.createMock(Engine.class);
+    EasyMock.replay(fakeEngine);
+    return new RestLiServer(config, _resourceFactory, fakeEngine);
+  }
+
+  private static RestResponse handleRequest(RestLiServer server, RestRequest request) throws Exception
+  {
+    final FutureCallback<RestResponse> callback = new FutureCallback<RestResponse>();
+    server.handleRequest(request, new RequestContext(), callback);
+    return callback.get();
+  }
+
+  private Map<Long, Status> buildStatusRecords(Long... ids)
+  {
+    final Map<Long, Status> statuses = new HashMap<Long, Status>();
+    for (Long id : ids)
+    {
+      statuses.put(id, buildStatusRecord());
+    }
+    return statuses;
+  }
+
   private <R extends BaseResource> R getMockResource(Class<R> resourceClass)
   {
     R resource = _resourceFactory.getMock(resourceClass);